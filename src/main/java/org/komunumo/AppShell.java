@@ -28,6 +28,7 @@ import org.jetbrains.annotations.NotNull;
 import org.komunumo.data.service.DatabaseService;
 
 import java.io.Serial;
+import java.util.Map;
 
 @Push
 @Theme(value = "komunumo")
@@ -55,6 +56,8 @@ public final class AppShell implements AppShellConfigurator {
         } else {
             settings.addFavIcon("icon", databaseService.configuration().getWebsiteFavicon(), "16x16");
             settings.addLink("shortcut icon", databaseService.configuration().getWebsiteFavicon());
+            settings.addLink("/news.rss", Map.of("rel", "alternate", "type", "application/rss+xml", "title", "News"));
+            settings.addLink("/events.ics", Map.of("rel", "alternate", "type", "text/calendar", "title", "Events"));
         }
     }
 
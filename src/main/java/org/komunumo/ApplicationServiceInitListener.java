@@ -21,20 +21,27 @@ package org.komunumo;
 import com.vaadin.flow.router.RouteConfiguration;
 import com.vaadin.flow.server.ServiceInitEvent;
 import com.vaadin.flow.server.VaadinServiceInitListener;
+import com.vaadin.flow.server.startup.ApplicationRouteRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.jetbrains.annotations.NotNull;
-import org.komunumo.data.db.enums.PageParent;
+import org.komunumo.data.db.tables.records.RedirectRecord;
+import org.komunumo.data.entity.PageEntity;
+import org.komunumo.data.service.CacheInvalidationBus;
+import org.komunumo.data.service.CacheInvalidationBus.Topic;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PageRegistry;
 import org.komunumo.ui.view.website.WebsiteLayout;
 import org.komunumo.ui.view.website.members.MembersView;
 import org.komunumo.ui.view.website.sponsors.SponsorsView;
 import org.springframework.stereotype.Component;
 
 import java.io.Serial;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import static jakarta.servlet.http.HttpServletResponse.SC_MOVED_PERMANENTLY;
 
@@ -44,20 +51,28 @@ public final class ApplicationServiceInitListener implements VaadinServiceInitLi
     @Serial
     private static final long serialVersionUID = -238825369839138574L;
     private final DatabaseService databaseService;
-    private final Map<String, String> redirects = new HashMap<>();
+    private final PageRegistry pageRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final AtomicReference<RedirectTable> redirects = new AtomicReference<>(RedirectTable.EMPTY);
+    private final Set<String> pageRoutes = new HashSet<>();
 
-    public ApplicationServiceInitListener(@NotNull final DatabaseService databaseService) {
+    public ApplicationServiceInitListener(@NotNull final DatabaseService databaseService,
+                                          @NotNull final PageRegistry pageRegistry,
+                                          @NotNull final CacheInvalidationBus cacheInvalidationBus) {
         this.databaseService = databaseService;
-        reloadRedirects();
+        this.pageRegistry = pageRegistry;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        loadRedirects();
+        cacheInvalidationBus.subscribe(Topic.REDIRECTS, this::loadRedirects);
     }
 
     @Override
     public void serviceInit(@NotNull final ServiceInitEvent serviceInitEvent) {
         serviceInitEvent.addRequestHandler((session, request, response) -> {
             if (request instanceof HttpServletRequest httpServletRequest) {
-                final var uri = httpServletRequest.getRequestURI();
-                if (redirects.containsKey(uri) && response instanceof HttpServletResponse httpServletResponse) {
-                    httpServletResponse.setHeader("Location", redirects.get(uri));
+                final var target = redirects.get().findTarget(httpServletRequest.getRequestURI());
+                if (target.isPresent() && response instanceof HttpServletResponse httpServletResponse) {
+                    httpServletResponse.setHeader("Location", target.get());
                     httpServletResponse.setStatus(SC_MOVED_PERMANENTLY);
                     return true;
                 }
@@ -65,17 +80,65 @@ public final class ApplicationServiceInitListener implements VaadinServiceInitLi
             return false;
         });
 
-        databaseService.getPages(PageParent.Members).forEach(
-                page -> RouteConfiguration.forApplicationScope().setRoute(
-                        page.getCompletePageUrl(), MembersView.class, List.of(WebsiteLayout.class)));
-        databaseService.getPages(PageParent.Sponsors).forEach(
-                page -> RouteConfiguration.forApplicationScope().setRoute(
-                        page.getCompletePageUrl(), SponsorsView.class, List.of(WebsiteLayout.class)));
+        final var routeConfiguration = RouteConfiguration.forRegistry(
+                ApplicationRouteRegistry.getInstance(serviceInitEvent.getSource().getContext()));
+        pageRegistry.addChangeListener(pages -> updatePageRoutes(routeConfiguration, pages));
     }
 
+    /**
+     * Synchronize the routes of the CMS pages with the pages in the registry.
+     * Only the differences are applied, so the routes of unchanged pages stay
+     * untouched. A page is never registered on a path already used by a view.
+     */
+    private synchronized void updatePageRoutes(@NotNull final RouteConfiguration routeConfiguration,
+                                               @NotNull final List<PageEntity> pages) {
+        final var urls = pages.stream().map(PageEntity::completePageUrl).collect(Collectors.toSet());
+        routeConfiguration.update(() -> {
+            for (final var iterator = pageRoutes.iterator(); iterator.hasNext(); ) {
+                final var url = iterator.next();
+                if (!urls.contains(url)) {
+                    routeConfiguration.removeRoute(url);
+                    iterator.remove();
+                }
+            }
+            for (final var page : pages) {
+                final var url = page.completePageUrl();
+                if (!pageRoutes.contains(url) && routeConfiguration.isPathAvailable(url)) {
+                    final var navigationTarget = switch (page.parent()) {
+                        case Members -> MembersView.class;
+                        case Sponsors -> SponsorsView.class;
+                    };
+                    routeConfiguration.setRoute(url, navigationTarget, List.of(WebsiteLayout.class));
+                    pageRoutes.add(url);
+                }
+            }
+        });
+    }
+
+    /**
+     * Reload the redirects from the database, on all nodes.
+     */
     public void reloadRedirects() {
-        redirects.clear();
-        databaseService.getAllRedirects().forEach(record -> redirects.put(record.getOldUrl(), record.getNewUrl()));
+        cacheInvalidationBus.publish(Topic.REDIRECTS);
+    }
+
+    /**
+     * Load the redirects from the database. The new redirect table replaces
+     * the current one atomically, requests never see a partially loaded table.
+     */
+    private synchronized void loadRedirects() {
+        final var loaded = databaseService.getAllRedirects()
+                .collect(Collectors.toMap(RedirectRecord::getOldUrl, RedirectRecord::getNewUrl));
+        redirects.set(new RedirectTable(loaded, redirects.get()));
+    }
+
+    /**
+     * Get the number of hits of a redirect since the application was started.
+     * @param oldUrl the old URL (pattern) of the redirect
+     * @return the number of hits
+     */
+    public long getRedirectHits(@NotNull final String oldUrl) {
+        return redirects.get().getHits(oldUrl);
     }
 
 }
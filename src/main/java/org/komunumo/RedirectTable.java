@@ -0,0 +1,231 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable table of redirect rules, organized as a trie of path segments,
+ * so looking up a path takes O(path length) regardless of the number of rules,
+ * as long as few rules use <code>*</code> next to literal segments.
+ *
+ * <p>The old URL of a rule is a path pattern:</p>
+ * <ul>
+ *     <li><code>/about/team</code> matches exactly this path</li>
+ *     <li><code>/exec/*</code> matches any single segment, e.g. <code>/exec/events</code></li>
+ *     <li><code>/exec/**</code> matches the path and everything below, e.g. <code>/exec/a/b</code></li>
+ * </ul>
+ * <p>If the old and the new URL both end with <code>/**</code>, the remainder of
+ * the requested path is appended to the new URL. A literal segment takes
+ * precedence over <code>*</code>; if the rules below the literal segment don't
+ * match, the rules below <code>*</code> are tried. The deepest matching
+ * <code>**</code> rule is used if no exact rule matches. Leading and trailing
+ * slashes are ignored.</p>
+ *
+ * <p>Every rule counts its hits, so obsolete redirects can be found and pruned.
+ * The counters survive a reload of the table.</p>
+ */
+public final class RedirectTable {
+
+    /**
+     * A table without any redirect rules.
+     */
+    public static final RedirectTable EMPTY = new RedirectTable(Map.of(), null);
+
+    private static final String ANY_SEGMENT = "*";
+    private static final String ANY_PATH = "**";
+
+    private final Map<String, Rule> rules;
+    private final Node root = new Node();
+
+    /**
+     * Create a new redirect table.
+     * @param redirects the new URLs mapped by their old URL (pattern)
+     * @param previous the previous table to take over the hit counters from, or null
+     */
+    public RedirectTable(@NotNull final Map<String, String> redirects, @Nullable final RedirectTable previous) {
+        final var newRules = new HashMap<String, Rule>();
+        redirects.forEach((oldUrl, newUrl) -> {
+            final var hits = previous != null && previous.rules.containsKey(oldUrl)
+                    ? previous.rules.get(oldUrl).hits() : new LongAdder();
+            final var rule = new Rule(oldUrl, newUrl, hits);
+            add(rule);
+            newRules.put(oldUrl, rule);
+        });
+        rules = Map.copyOf(newRules);
+    }
+
+    /**
+     * Check if an old URL is a valid pattern for a redirect rule.
+     * @param oldUrl the old URL
+     * @return true if the old URL starts with a slash and uses <code>**</code> only as the last segment
+     */
+    public static boolean isValidPattern(@NotNull final String oldUrl) {
+        if (!oldUrl.startsWith("/")) {
+            return false;
+        }
+        final var segments = split(oldUrl);
+        for (int i = 0; i < segments.length - 1; i++) {
+            if (segments[i].equals(ANY_PATH)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the redirect target for a requested path and count the hit of the matching rule.
+     * @param path the requested path (without query string)
+     * @return the new URL or empty, if no rule matches
+     */
+    public Optional<String> findTarget(@NotNull final String path) {
+        final var segments = split(path);
+        final var exactRule = findExactRule(root, segments, 0);
+        if (exactRule != null) {
+            return Optional.of(exactRule.hit());
+        }
+        final var prefixMatch = findPrefixMatch(root, segments, 0);
+        if (prefixMatch != null) {
+            final var remainder = String.join("/", Arrays.copyOfRange(segments, prefixMatch.depth(), segments.length));
+            return Optional.of(prefixMatch.rule().hit(remainder));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Search the exact rule depth-first, the literal segment before <code>*</code>.
+     */
+    private static Rule findExactRule(@NotNull final Node node, @NotNull final String[] segments, final int depth) {
+        if (depth == segments.length) {
+            return node.exactRule;
+        }
+        final var literal = node.children.get(segments[depth]);
+        if (literal != null) {
+            final var rule = findExactRule(literal, segments, depth + 1);
+            if (rule != null) {
+                return rule;
+            }
+        }
+        return node.anySegment != null ? findExactRule(node.anySegment, segments, depth + 1) : null;
+    }
+
+    /**
+     * Search the deepest <code>**</code> rule depth-first. On the same depth,
+     * the rule below the literal segment wins over the rule below <code>*</code>.
+     */
+    private static PrefixMatch findPrefixMatch(@NotNull final Node node, @NotNull final String[] segments, final int depth) {
+        var best = node.prefixRule != null ? new PrefixMatch(node.prefixRule, depth) : null;
+        if (depth < segments.length) {
+            for (final var child : Arrays.asList(node.children.get(segments[depth]), node.anySegment)) {
+                if (child != null) {
+                    final var match = findPrefixMatch(child, segments, depth + 1);
+                    if (match != null && (best == null || match.depth() > best.depth())) {
+                        best = match;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Get the number of hits of a rule.
+     * @param oldUrl the old URL (pattern) of the rule
+     * @return the number of hits since the application was started
+     */
+    public long getHits(@NotNull final String oldUrl) {
+        final var rule = rules.get(oldUrl);
+        return rule != null ? rule.hits().sum() : 0;
+    }
+
+    /**
+     * Get the number of hits of all rules.
+     * @return the number of hits since the application was started, mapped by the old URL
+     */
+    public Map<String, Long> getHits() {
+        return rules.values().stream()
+                .collect(Collectors.toUnmodifiableMap(Rule::oldUrl, rule -> rule.hits().sum()));
+    }
+
+    private void add(@NotNull final Rule rule) {
+        final var segments = split(rule.oldUrl());
+        var node = root;
+        for (int i = 0; i < segments.length; i++) {
+            final var segment = segments[i];
+            if (segment.equals(ANY_PATH) && i == segments.length - 1) {
+                node.prefixRule = rule;
+                return;
+            }
+            if (segment.equals(ANY_SEGMENT)) {
+                if (node.anySegment == null) {
+                    node.anySegment = new Node();
+                }
+                node = node.anySegment;
+            } else {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        node.exactRule = rule;
+    }
+
+    private static String[] split(@NotNull final String path) {
+        return Arrays.stream(path.split("/"))
+                .filter(segment -> !segment.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * A node of the trie. Nodes are only modified while the table is created.
+     */
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Node anySegment;
+        private Rule exactRule;
+        private Rule prefixRule;
+    }
+
+    private record PrefixMatch(Rule rule, int depth) { }
+
+    private record Rule(String oldUrl, String newUrl, LongAdder hits) {
+
+        String hit() {
+            hits.increment();
+            return newUrl;
+        }
+
+        String hit(@NotNull final String remainder) {
+            hits.increment();
+            if (newUrl.endsWith("/" + ANY_PATH)) {
+                final var base = newUrl.substring(0, newUrl.length() - ANY_PATH.length());
+                return remainder.isEmpty() && base.length() > 1 ? base.substring(0, base.length() - 1) : base + remainder;
+            }
+            return newUrl;
+        }
+
+    }
+
+}
@@ -0,0 +1,295 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinServiceInitListener;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.VaadinSessionState;
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.entity.SessionStatistics;
+import org.komunumo.data.entity.ViewStatistics;
+import org.komunumo.data.service.DatabaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps track of the open Vaadin sessions and reports their memory
+ * footprint. The size of a session is estimated by serializing it (without
+ * the shared services), which is expensive, so only a random sample of the
+ * sessions is measured. A background task periodically logs the sessions
+ * which exceed the configured budget ("diagnostics.session.budget" in KiB).
+ * The session is locked while it is serialized, so the visitor has to wait
+ * for the measurement. To keep this wait short, the serialization is
+ * aborted after 50 ms (the size is unknown then) or after 16 MiB (the
+ * size is at least that).
+ */
+@Component
+public final class SessionDiagnostics implements VaadinServiceInitListener {
+
+    @Serial
+    private static final long serialVersionUID = 6052785946271453025L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionDiagnostics.class);
+    private static final int SAMPLE_SIZE = 25;
+    private static final int WORST_OFFENDERS = 5;
+    private static final int MAX_VIEWS = 20;
+    private static final long BUDGET_CHECK_INTERVAL_MINUTES = 5;
+    private static final long LOCK_TIMEOUT_MILLIS = 10;
+    private static final long MAX_MEASURE_MILLIS = 50;
+    private static final long MAX_MEASURED_SIZE = 16 * 1024 * 1024;
+    private static final String VIEW_PACKAGE = "org.komunumo.ui.view.";
+
+    private final DatabaseService databaseService;
+    private final Set<VaadinSession> sessions = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+
+    public SessionDiagnostics(@NotNull final DatabaseService databaseService) {
+        this.databaseService = databaseService;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "session-diagnostics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkBudget,
+                BUDGET_CHECK_INTERVAL_MINUTES, BUDGET_CHECK_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void serviceInit(@NotNull final ServiceInitEvent serviceInitEvent) {
+        final var service = serviceInitEvent.getSource();
+        service.addSessionInitListener(sessionInitEvent -> sessions.add(sessionInitEvent.getSession()));
+        service.addSessionDestroyListener(sessionDestroyEvent -> sessions.remove(sessionDestroyEvent.getSession()));
+    }
+
+    /**
+     * Get the memory footprint of the open sessions. The UIs of all sessions
+     * are inspected, the sizes are estimated on a random sample of the sessions.
+     * @return the session statistics
+     */
+    public SessionStatistics getSessionStatistics() {
+        final var liveSessions = new ArrayList<>(sessions);
+        Collections.shuffle(liveSessions);
+
+        final var inspections = new ArrayList<SessionInspection>();
+        for (var i = 0; i < liveSessions.size(); i++) {
+            inspect(liveSessions.get(i), i < SAMPLE_SIZE).ifPresent(inspections::add);
+        }
+
+        final var sizes = inspections.stream()
+                .mapToLong(SessionInspection::size)
+                .filter(size -> size >= 0)
+                .summaryStatistics();
+        final var views = inspections.stream()
+                .flatMap(inspection -> inspection.uis().stream())
+                .collect(Collectors.groupingBy(UIInspection::view))
+                .entrySet().stream()
+                .map(entry -> {
+                    final var nodeCounts = entry.getValue().stream().mapToInt(UIInspection::nodeCount).summaryStatistics();
+                    return new ViewStatistics(entry.getKey(), (int) nodeCounts.getCount(),
+                            nodeCounts.getMax(), (int) Math.round(nodeCounts.getAverage()));
+                })
+                .sorted(Comparator.comparingInt(ViewStatistics::maxNodeCount).reversed())
+                .limit(MAX_VIEWS)
+                .toList();
+
+        return new SessionStatistics(liveSessions.size(),
+                inspections.stream().mapToInt(inspection -> inspection.uis().size()).sum(),
+                (int) sizes.getCount(),
+                sizes.getCount() > 0 ? Math.round(sizes.getAverage()) : -1,
+                sizes.getCount() > 0 ? sizes.getMax() : -1,
+                getSessionBudget(),
+                views);
+    }
+
+    private long getSessionBudget() {
+        return databaseService.configuration().getDiagnosticsSessionBudget() * 1024L;
+    }
+
+    private void checkBudget() {
+        try {
+            final var budget = getSessionBudget();
+            final var liveSessions = new ArrayList<>(sessions);
+            Collections.shuffle(liveSessions);
+            liveSessions.stream()
+                    .limit(SAMPLE_SIZE)
+                    .map(session -> inspect(session, true))
+                    .flatMap(Optional::stream)
+                    .filter(inspection -> inspection.size() > budget)
+                    .sorted(Comparator.comparingLong(SessionInspection::size).reversed())
+                    .limit(WORST_OFFENDERS)
+                    .forEach(inspection -> LOGGER.warn("Session exceeds the memory budget: ~{} KiB (budget {} KiB), {} UIs, views: {}",
+                            inspection.size() / 1024, budget / 1024, inspection.uis().size(),
+                            inspection.uis().stream().map(UIInspection::view).collect(Collectors.joining(", "))));
+        } catch (final RuntimeException e) {
+            LOGGER.error("Failed to check the session memory budget", e);
+        }
+    }
+
+    private static Optional<SessionInspection> inspect(@NotNull final VaadinSession session, final boolean measure) {
+        final var lock = session.getLockInstance();
+        try {
+            if (lock == null || !lock.tryLock(LOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return Optional.empty(); // the session is busy, skip it instead of blocking the visitor
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+        try {
+            if (session.getState() != VaadinSessionState.OPEN) {
+                return Optional.empty();
+            }
+            final var uis = session.getUIs().stream()
+                    .map(ui -> new UIInspection(getViewName(ui), countNodes(ui)))
+                    .toList();
+            return Optional.of(new SessionInspection(uis, measure ? estimateSize(session) : -1));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String getViewName(@NotNull final UI ui) {
+        final var chain = ui.getInternals().getActiveRouterTargetsChain();
+        return chain.isEmpty() ? "(no view)" : chain.get(0).getClass().getName().replace(VIEW_PACKAGE, "");
+    }
+
+    private static int countNodes(@NotNull final UI ui) {
+        final var nodeCount = new int[1];
+        ui.getInternals().getStateTree().getRootNode().visitNodeTree(node -> nodeCount[0]++);
+        return nodeCount[0];
+    }
+
+    private static long estimateSize(@NotNull final VaadinSession session) {
+        final var output = new CountingOutputStream(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_MEASURE_MILLIS));
+        try (var objectOutput = new SessionOutputStream(output)) {
+            objectOutput.writeObject(session);
+        } catch (final SizeLimitException ignored) {
+            return MAX_MEASURED_SIZE; // the session is at least this big, which is enough to report it
+        } catch (final IOException | RuntimeException e) {
+            return -1;
+        }
+        return output.count;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private record UIInspection(String view, int nodeCount) { }
+
+    private record SessionInspection(List<UIInspection> uis, long size) { }
+
+    /**
+     * Counts the bytes written instead of storing them. Aborts the
+     * serialization if the size or the time limit is exceeded.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private final long deadline;
+        private long count;
+
+        CountingOutputStream(final long deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            count++;
+            checkLimits();
+        }
+
+        @Override
+        public void write(@NotNull final byte[] b, final int off, final int len) throws IOException {
+            count += len;
+            checkLimits();
+        }
+
+        private void checkLimits() throws IOException {
+            if (count > MAX_MEASURED_SIZE) {
+                throw new SizeLimitException();
+            }
+            if (System.nanoTime() - deadline > 0) {
+                throw new IOException("Measuring the session size took too long");
+            }
+        }
+
+    }
+
+    private static final class SizeLimitException extends IOException {
+
+        @Serial
+        private static final long serialVersionUID = 2308472385015392471L;
+
+    }
+
+    /**
+     * Serializes a session without the objects shared by all sessions
+     * (services and Spring beans) and without objects which are not
+     * serializable (e.g. lambdas), so their size doesn't count.
+     */
+    private static final class SessionOutputStream extends ObjectOutputStream {
+
+        private static final ClassValue<Boolean> SHARED = new ClassValue<>() {
+            @Override
+            protected Boolean computeValue(@NotNull final Class<?> type) {
+                return VaadinService.class.isAssignableFrom(type)
+                        || AnnotationUtils.findAnnotation(type, Component.class) != null;
+            }
+        };
+
+        SessionOutputStream(@NotNull final OutputStream output) throws IOException {
+            super(output);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(final Object object) {
+            if (!(object instanceof Serializable) || SHARED.get(object.getClass())) {
+                return null;
+            }
+            return object;
+        }
+
+    }
+
+}
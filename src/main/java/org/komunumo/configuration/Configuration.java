@@ -83,4 +83,28 @@ public final class Configuration {
     public String getWebsiteFavicon() {
         return configuration.getOrDefault("website.favicon", "/facicon.ico");
     }
+
+    public boolean isWebsiteLightSessions() {
+        return Boolean.parseBoolean(configuration.getOrDefault("website.session.light", "false"));
+    }
+
+    public int getWebsiteSessionTimeout() {
+        return Integer.parseInt(configuration.getOrDefault("website.session.timeout", "300"));
+    }
+
+    public int getWebsiteFormLimitPerIp() {
+        return Integer.parseInt(configuration.getOrDefault("website.form.limit.ip", "20"));
+    }
+
+    public int getWebsiteFormLimitPerEmail() {
+        return Integer.parseInt(configuration.getOrDefault("website.form.limit.email", "5"));
+    }
+
+    public int getDiagnosticsSessionBudget() {
+        return Integer.parseInt(configuration.getOrDefault("diagnostics.session.budget", "2048"));
+    }
+
+    public int getSecurityPasswordCost() {
+        return Integer.parseInt(configuration.getOrDefault("security.password.cost", "10"));
+    }
 }
@@ -0,0 +1,33 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.entity;
+
+import org.komunumo.data.db.enums.EventType;
+import org.komunumo.data.statistic.CohortMatrix;
+
+import java.util.Map;
+
+/**
+ * The retention of the attendees, grouped by the year of their first attendance.
+ * @param all the cohorts over all events
+ * @param byLocation the cohorts per event location
+ * @param byEventType the cohorts per event type
+ */
+public record CohortAnalysis(CohortMatrix all, Map<String, CohortMatrix> byLocation,
+                             Map<EventType, CohortMatrix> byEventType) { }
@@ -0,0 +1,35 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.entity;
+
+import java.util.List;
+
+/**
+ * Records with the same key, normalized with the given normalization. The
+ * duplicates are merged into the survivor, the labels describe all records
+ * of the cluster, survivor first.
+ */
+public record DuplicateCluster(String key, DuplicateNormalization normalization, long survivorId,
+                               List<Long> duplicateIds, List<String> labels) {
+
+    public int size() {
+        return duplicateIds.size() + 1;
+    }
+
+}
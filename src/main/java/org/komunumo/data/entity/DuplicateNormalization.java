@@ -0,0 +1,77 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.entity;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * How email addresses and names are normalized before they are compared to find duplicates.
+ */
+public enum DuplicateNormalization {
+
+    /**
+     * Compare the values as they are stored.
+     */
+    EXACT("Exact"),
+
+    /**
+     * Ignore leading and trailing whitespace and the case.
+     */
+    IGNORE_CASE("Ignore case"),
+
+    /**
+     * Additionally ignore all whitespace and accents, e.g. "Müller" and "muller" are duplicates.
+     */
+    LENIENT("Ignore case, whitespace and accents");
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final String title;
+
+    DuplicateNormalization(final String title) {
+        this.title = title;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Normalize a value according to this normalization.
+     * @param value the value to normalize
+     * @return the normalized value
+     */
+    public String normalize(@NotNull final String value) {
+        return switch (this) {
+            case EXACT -> value;
+            case IGNORE_CASE -> value.trim().toLowerCase(Locale.ROOT);
+            case LENIENT -> {
+                final var decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+                final var withoutDiacritics = DIACRITICS.matcher(decomposed).replaceAll("");
+                yield WHITESPACE.matcher(withoutDiacritics).replaceAll("").toLowerCase(Locale.ROOT);
+            }
+        };
+    }
+
+}
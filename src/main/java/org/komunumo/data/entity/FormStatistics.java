@@ -0,0 +1,28 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.entity;
+
+/**
+ * The submissions of a public form.
+ * @param form the name of the form
+ * @param accepted the number of accepted submissions
+ * @param rejectedByIp the number of submissions rejected because of too many requests from the IP address
+ * @param rejectedByEmail the number of submissions rejected because of too many requests for the email address
+ */
+public record FormStatistics(String form, long accepted, long rejectedByIp, long rejectedByEmail) { }
@@ -0,0 +1,96 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.entity;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * The downscaled variants of uploaded images. The sizes are twice the size
+ * used by the views, so the images stay sharp on high density displays.
+ */
+public enum ImageVariant {
+
+    /**
+     * Previews in the admin dialogs.
+     */
+    THUMBNAIL(200, 200),
+
+    /**
+     * Sponsor logos on the website.
+     */
+    LOGO(352, 180),
+
+    /**
+     * Speaker photos on the website.
+     */
+    PORTRAIT(352, 480);
+
+    private static final Pattern MEDIA_URL_PATTERN = Pattern.compile("/media/[0-9a-f]{64}");
+
+    private final int maxWidth;
+    private final int maxHeight;
+
+    ImageVariant(final int maxWidth, final int maxHeight) {
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+    }
+
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    /**
+     * Get the name of the variant as used in the URL.
+     * @return the name of the variant
+     */
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Get the URL of this variant of an image. Images which are not stored
+     * in the media store (e.g. external images) are returned unchanged.
+     * @param url the URL of the original image
+     * @return the URL of the image variant
+     */
+    public String getUrl(@NotNull final String url) {
+        return MEDIA_URL_PATTERN.matcher(url).matches() ? "%s/%s".formatted(url, getName()) : url;
+    }
+
+    /**
+     * Find a variant by its name.
+     * @param name the name of the variant as used in the URL
+     * @return the variant or empty, if there is no variant with this name
+     */
+    public static Optional<ImageVariant> fromName(@NotNull final String name) {
+        return Arrays.stream(values())
+                .filter(variant -> variant.getName().equals(name))
+                .findAny();
+    }
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.entity;
+
+/**
+ * The load of the password hashing executor.
+ * @param cost the configured BCrypt cost (log rounds)
+ * @param threads the number of hashing threads
+ * @param queued the number of hashing tasks waiting for a thread
+ * @param completed the number of completed hashing tasks
+ * @param rejected the number of hashing tasks rejected because the queue was full
+ * @param timedOut the number of hashing tasks which did not complete in time
+ * @param averageWaitMillis the average time a hashing task waited in the queue
+ * @param averageHashMillis the average time needed to hash or verify a password
+ * @param maxHashMillis the maximum time needed to hash or verify a password
+ */
+public record PasswordHashingStatistics(int cost, int threads, int queued,
+                                        long completed, long rejected, long timedOut,
+                                        double averageWaitMillis, double averageHashMillis, long maxHashMillis) { }
@@ -0,0 +1,36 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.entity;
+
+import java.util.List;
+
+/**
+ * The memory footprint of the Vaadin sessions. The sizes are estimated on a
+ * sample of the sessions and are {@code -1} if no session could be measured.
+ * @param liveSessions the number of open sessions
+ * @param liveUIs the number of UIs of all open sessions
+ * @param sampledSessions the number of sessions which were measured
+ * @param averageSessionSize the average estimated size of the measured sessions in bytes
+ * @param maxSessionSize the maximum estimated size of the measured sessions in bytes
+ * @param sessionBudget the configured budget of a session in bytes
+ * @param views the component trees by view class, the largest first
+ */
+public record SessionStatistics(int liveSessions, int liveUIs, int sampledSessions,
+                                long averageSessionSize, long maxSessionSize, long sessionBudget,
+                                List<ViewStatistics> views) { }
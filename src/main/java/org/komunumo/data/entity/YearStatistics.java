@@ -0,0 +1,35 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.komunumo.data.entity;
+
+import java.time.Year;
+import java.util.List;
+
+/**
+ * The statistics of one year as shown on the dashboard.
+ * @param year the year
+ * @param registrations the number of registrations (including no-shows)
+ * @param events the number of published events
+ * @param noShows the number of registrations marked as no-show
+ * @param distinctAttendees the number of distinct attendees in the five years up to this year
+ * @param monthlyVisitors the number of visitors per location and month
+ */
+public record YearStatistics(Year year, int registrations, int events, int noShows,
+                             DistinctAttendees distinctAttendees, List<MonthlyVisitors> monthlyVisitors) { }
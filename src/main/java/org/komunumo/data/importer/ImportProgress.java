@@ -0,0 +1,89 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.importer;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Receives the progress of a running import.
+ */
+public interface ImportProgress {
+
+    /**
+     * An import progress which ignores the progress and can't be cancelled.
+     */
+    ImportProgress NONE = new ImportProgress() {
+        @Override
+        public void setTotal(final int total) { }
+
+        @Override
+        public void processed() { }
+
+        @Override
+        public void failed(@NotNull final String error) { }
+
+        @Override
+        public void message(@NotNull final String message) { }
+
+        @Override
+        public void summary(@NotNull final String summary) { }
+
+        @Override
+        public void checkCancelled() { }
+    };
+
+    /**
+     * Set the total number of records to import, if known.
+     * @param total the number of records
+     */
+    void setTotal(int total);
+
+    /**
+     * Count a successfully imported record.
+     */
+    void processed();
+
+    /**
+     * Count a record which could not be imported.
+     * @param error the reason
+     */
+    void failed(@NotNull String error);
+
+    /**
+     * Report what the import is doing.
+     * @param message the status message
+     */
+    void message(@NotNull String message);
+
+    /**
+     * Report the result of the import, shown after the import has finished.
+     * Without a summary, the numbers of processed records and errors are shown.
+     * @param summary the result of the import
+     */
+    void summary(@NotNull String summary);
+
+    /**
+     * Imports call this method regularly to stop when they are cancelled.
+     * @throws CancellationException if the import was cancelled
+     */
+    void checkCancelled();
+
+}
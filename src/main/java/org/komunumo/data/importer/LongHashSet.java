@@ -0,0 +1,134 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.importer;
+
+/**
+ * A set of primitive {@code long} values (e.g. IDs), using open addressing
+ * with linear probing. Compared to a {@code HashSet<Long>}, it needs no
+ * object per value, so importers can keep the IDs of large tables in
+ * memory to avoid a query per imported row.
+ *
+ * <p>This set is not thread-safe.</p>
+ */
+public final class LongHashSet {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final long EMPTY = 0L;
+
+    private long[] table;
+    private int size;
+    private boolean containsEmpty;
+
+    /**
+     * Create a new, empty set.
+     */
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Create a new, empty set for the expected number of values.
+     * @param expectedSize the expected number of values
+     */
+    public LongHashSet(final int expectedSize) {
+        table = new long[tableSize(expectedSize)];
+    }
+
+    /**
+     * Add a value to the set.
+     * @param value the value to add
+     * @return true if the set did not already contain the value
+     */
+    public boolean add(final long value) {
+        if (value == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+        var index = index(value, table.length);
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return false;
+            }
+            index = (index + 1) & (table.length - 1);
+        }
+        table[index] = value;
+        size++;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Check if the set contains a value.
+     * @param value the value to look for
+     * @return true if the set contains the value
+     */
+    public boolean contains(final long value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+        var index = index(value, table.length);
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return true;
+            }
+            index = (index + 1) & (table.length - 1);
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void rehash(final int newLength) {
+        final var oldTable = table;
+        table = new long[newLength];
+        for (final var value : oldTable) {
+            if (value != EMPTY) {
+                var index = index(value, newLength);
+                while (table[index] != EMPTY) {
+                    index = (index + 1) & (newLength - 1);
+                }
+                table[index] = value;
+            }
+        }
+    }
+
+    private static int tableSize(final int expectedSize) {
+        final var minimum = Math.max(MIN_CAPACITY, expectedSize * 2);
+        return Integer.highestOneBit(minimum - 1) << 1;
+    }
+
+    private static int index(final long value, final int length) {
+        // Fibonacci hashing spreads consecutive IDs over the whole table
+        final var hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> (Long.SIZE - Integer.numberOfTrailingZeros(length)));
+    }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.importer;
+
+import java.util.List;
+
+/**
+ * A row of a spreadsheet, read by the {@link StreamingWorkbook}. The values
+ * of the cells are strings, numbers (as {@link Double}), booleans, or
+ * {@link CellError}s. Blank cells have an empty string as value, missing
+ * cells have no value ({@code null}).
+ * @param index the zero-based index of the row
+ * @param cells the cell values, indexed by the zero-based column index
+ */
+public record SheetRow(int index, List<Object> cells) {
+
+    /**
+     * Get the value of a cell.
+     * @param column the zero-based column index
+     * @return the value or {@code null} if the cell is missing
+     */
+    public Object getCell(final int column) {
+        return column < cells.size() ? cells.get(column) : null;
+    }
+
+    /**
+     * The value of a cell containing an error (e.g. {@code #N/A}).
+     * @param code the error code
+     */
+    public record CellError(String code) { }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.importer;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the rows of an Excel file (XLSX) as a stream, without building the
+ * whole workbook in memory. The sheet is parsed while the stream is
+ * consumed, only the shared strings table of the workbook (parsed with
+ * SAX) is kept in memory. Every stream opens the file again, so a sheet can
+ * be read as often as needed. The streams must be closed.
+ */
+public final class StreamingWorkbook {
+
+    private final Path file;
+
+    public StreamingWorkbook(@NotNull final Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Read the rows of a sheet.
+     * @param sheetName the name of the sheet (case-insensitive)
+     * @return a stream of the rows, which must be closed
+     * @throws IOException if the file can't be read or has no sheet with this name
+     */
+    public Stream<SheetRow> rows(@NotNull final String sheetName) throws IOException {
+        return rows(sheetName, -1);
+    }
+
+    /**
+     * Read the rows of a sheet.
+     * @param sheetIndex the zero-based index of the sheet
+     * @return a stream of the rows, which must be closed
+     * @throws IOException if the file can't be read or has no sheet with this index
+     */
+    public Stream<SheetRow> rows(final int sheetIndex) throws IOException {
+        return rows(null, sheetIndex);
+    }
+
+    private Stream<SheetRow> rows(@Nullable final String sheetName, final int sheetIndex) throws IOException {
+        final OPCPackage opcPackage;
+        try {
+            opcPackage = OPCPackage.open(file.toFile(), PackageAccess.READ);
+        } catch (final OpenXML4JException e) {
+            throw new IOException("Not an Excel file: " + file.getFileName(), e);
+        }
+        try {
+            final var reader = new XSSFReader(opcPackage);
+            final var sharedStrings = new ReadOnlySharedStringsTable(opcPackage);
+            final var sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            var index = 0;
+            while (sheets.hasNext()) {
+                final var sheet = sheets.next();
+                if (index == sheetIndex || sheets.getSheetName().equalsIgnoreCase(sheetName)) {
+                    return readRows(opcPackage, sheet, sharedStrings);
+                }
+                sheet.close();
+                index++;
+            }
+        } catch (final IOException e) {
+            opcPackage.revert();
+            throw e;
+        } catch (final OpenXML4JException | SAXException | XMLStreamException e) {
+            opcPackage.revert();
+            throw new IOException("Unable to read the Excel file: " + file.getFileName(), e);
+        }
+        opcPackage.revert();
+        throw new IOException("Sheet not found in the Excel file: " + (sheetName != null ? sheetName : sheetIndex));
+    }
+
+    private static Stream<SheetRow> readRows(@NotNull final OPCPackage opcPackage,
+                                             @NotNull final InputStream sheet,
+                                             @NotNull final ReadOnlySharedStringsTable sharedStrings)
+            throws XMLStreamException {
+        final var xmlInputFactory = XMLInputFactory.newFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        final var xml = xmlInputFactory.createXMLStreamReader(sheet);
+        final var iterator = new RowIterator(xml, sharedStrings);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        xml.close();
+                        sheet.close();
+                    } catch (final XMLStreamException | IOException ignored) {
+                        // nothing to do, the package is closed anyway
+                    } finally {
+                        opcPackage.revert();
+                    }
+                });
+    }
+
+    /**
+     * Pulls the rows from the XML of a sheet, one at a time.
+     */
+    private static final class RowIterator implements Iterator<SheetRow> {
+
+        private final XMLStreamReader xml;
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private SheetRow nextRow;
+        private int lastRowIndex = -1;
+
+        private RowIterator(@NotNull final XMLStreamReader xml,
+                            @NotNull final ReadOnlySharedStringsTable sharedStrings) {
+            this.xml = xml;
+            this.sharedStrings = sharedStrings;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextRow == null) {
+                nextRow = readRow();
+            }
+            return nextRow != null;
+        }
+
+        @Override
+        public SheetRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final var row = nextRow;
+            nextRow = null;
+            return row;
+        }
+
+        private SheetRow readRow() {
+            try {
+                while (xml.hasNext()) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+                        final var reference = xml.getAttributeValue(null, "r");
+                        lastRowIndex = reference != null ? Integer.parseInt(reference) - 1 : lastRowIndex + 1;
+                        return new SheetRow(lastRowIndex, readCells());
+                    }
+                }
+                return null;
+            } catch (final XMLStreamException e) {
+                throw new IllegalStateException("Unable to read the Excel sheet", e);
+            }
+        }
+
+        private List<Object> readCells() throws XMLStreamException {
+            final var cells = new ArrayList<>();
+            var column = -1;
+            while (xml.hasNext()) {
+                final var event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT && "c".equals(xml.getLocalName())) {
+                    final var reference = xml.getAttributeValue(null, "r");
+                    column = reference != null ? new CellReference(reference).getCol() : column + 1;
+                    final var value = readCellValue(xml.getAttributeValue(null, "t"));
+                    while (cells.size() <= column) {
+                        cells.add(null);
+                    }
+                    cells.set(column, value);
+                } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName())) {
+                    break;
+                }
+            }
+            return Collections.unmodifiableList(cells);
+        }
+
+        private Object readCellValue(@Nullable final String type) throws XMLStreamException {
+            String value = null;
+            final var inlineString = new StringBuilder();
+            while (xml.hasNext()) {
+                final var event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (xml.getLocalName()) {
+                        case "v" -> value = xml.getElementText();
+                        case "t" -> inlineString.append(xml.getElementText());
+                        default -> { } // formulas and formatting are ignored
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(xml.getLocalName())) {
+                    break;
+                }
+            }
+            return switch (type != null ? type : "n") {
+                case "s" -> value == null ? "" : sharedStrings.getItemAt(Integer.parseInt(value.trim())).getString();
+                case "inlineStr" -> inlineString.toString();
+                case "str" -> value == null ? "" : value;
+                case "b" -> "1".equals(value);
+                case "e" -> new SheetRow.CellError(value);
+                default -> value == null || value.isBlank() ? "" : Double.parseDouble(value);
+            };
+        }
+
+    }
+
+}
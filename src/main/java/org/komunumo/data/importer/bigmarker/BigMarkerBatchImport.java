@@ -0,0 +1,200 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.importer.bigmarker;
+
+import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.entity.Event;
+import org.komunumo.data.entity.ImportedRegistration;
+import org.komunumo.data.entity.Member;
+import org.komunumo.data.importer.ImportProgress;
+import org.komunumo.data.service.DatabaseService;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports several BigMarker reports at once. The reports are parsed in
+ * parallel on a small pool of threads. The attendees of all reports are
+ * merged by their email address, so a person registered for several
+ * webinars is resolved and, if needed, created only once. Finally, all
+ * registrations are written in one transaction.
+ */
+public final class BigMarkerBatchImport {
+
+    private static final int MAX_PARSER_THREADS = 4;
+
+    private final List<String> fileNames;
+    private final List<Path> files;
+
+    /**
+     * @param files the uploaded reports, by their original file names
+     */
+    public BigMarkerBatchImport(@NotNull final Map<String, Path> files) {
+        this.fileNames = List.copyOf(files.keySet());
+        this.files = List.copyOf(files.values());
+    }
+
+    /**
+     * Import the registrations of all reports. Reports which can't be read or
+     * don't belong to an event are skipped and listed in the summary.
+     * @param databaseService the database service
+     * @param progress receives the progress of the import
+     * @return the combined result of all reports
+     * @throws InterruptedException if the import was interrupted while parsing
+     * @throws java.util.concurrent.CancellationException if the import was cancelled
+     */
+    public BigMarkerImportSummary importRegistrations(@NotNull final DatabaseService databaseService,
+                                                      @NotNull final ImportProgress progress) throws InterruptedException {
+        final var errors = new ArrayList<String>();
+        final var reports = parseReports(progress, errors);
+        progress.setTotal(reports.stream().mapToInt(report -> report.registrations().size()).sum());
+
+        final var events = new HashMap<String, Optional<Event>>();
+        final var attendees = new LinkedHashMap<String, BigMarkerRegistration>();
+        final var registrations = new LinkedHashMap<RegistrationKey, BigMarkerRegistration>();
+        var failedFiles = files.size() - reports.size();
+        var registrationCount = 0;
+        var validRegistrationCount = 0;
+        for (final var report : reports) {
+            progress.checkCancelled();
+            final var event = events.computeIfAbsent(report.webinarUrl(), databaseService::getEventByWebinarUrl);
+            if (event.isEmpty()) {
+                errors.add("%s: no event found with webinar URL %s".formatted(report.fileName(), report.webinarUrl()));
+                failedFiles++;
+                continue;
+            }
+            for (final var registration : report.registrations()) {
+                registrationCount++;
+                final var email = registration.email();
+                if (email == null || email.isBlank()) {
+                    errors.add("%s: registration of %s %s without email address".formatted(
+                            report.fileName(), registration.firstName(), registration.lastName()));
+                    progress.failed("Registration without email address");
+                    continue;
+                }
+                validRegistrationCount++;
+                final var normalizedEmail = email.trim().toLowerCase(Locale.ROOT);
+                attendees.merge(normalizedEmail, registration, BigMarkerBatchImport::earlier);
+                registrations.merge(new RegistrationKey(event.get().getId(), normalizedEmail), registration,
+                        BigMarkerBatchImport::combine);
+                progress.processed();
+            }
+        }
+
+        progress.checkCancelled();
+        progress.message("Resolving %d attendees".formatted(attendees.size()));
+        final var members = databaseService.getMembersByEmail(attendees.keySet());
+        final var resolvedMembers = new HashMap<String, Member>();
+        attendees.forEach((email, registration) -> {
+            final var member = members.get(email);
+            resolvedMembers.put(email, member != null ? member : BigMarkerReport.newMember(databaseService, registration));
+        });
+
+        progress.checkCancelled();
+        progress.message("Writing %d registrations".formatted(registrations.size()));
+        final var importedRegistrations = new ArrayList<ImportedRegistration>(registrations.size());
+        registrations.forEach((key, registration) -> importedRegistrations.add(new ImportedRegistration(
+                key.eventId(), resolvedMembers.get(key.email()),
+                registration.registrationDate() != null ? registration.registrationDate().toLocalDateTime() : LocalDateTime.now(),
+                BigMarkerReport.SOURCE, registration.noShow())));
+        final var result = databaseService.storeImportedRegistrations(importedRegistrations);
+
+        return new BigMarkerImportSummary(files.size(), failedFiles, registrationCount, validRegistrationCount - registrations.size(),
+                result.newMembers(), result.newRegistrations(), result.updatedRegistrations(), List.copyOf(errors));
+    }
+
+    private List<ParsedReport> parseReports(@NotNull final ImportProgress progress,
+                                            @NotNull final List<String> errors) throws InterruptedException {
+        progress.message("Parsing %d files".formatted(files.size()));
+        final var threadNumber = new AtomicInteger();
+        final var threads = Math.max(1, Math.min(files.size(), MAX_PARSER_THREADS));
+        final var executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final var thread = new Thread(runnable, "bigmarker-parser-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final var futures = new ArrayList<Future<ParsedReport>>(files.size());
+            for (var index = 0; index < files.size(); index++) {
+                final var fileName = fileNames.get(index);
+                final var file = files.get(index);
+                futures.add(executor.submit(() -> {
+                    final var report = new BigMarkerReport(file);
+                    return new ParsedReport(fileName, report.getWebinarUrl(), report.getBigMarkerRegistrations());
+                }));
+            }
+            final var reports = new ArrayList<ParsedReport>(files.size());
+            for (var index = 0; index < files.size(); index++) {
+                progress.checkCancelled();
+                try {
+                    reports.add(futures.get(index).get());
+                } catch (final ExecutionException e) {
+                    final var cause = e.getCause();
+                    errors.add("%s: %s".formatted(fileNames.get(index),
+                            cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName()));
+                    progress.failed("Unable to read %s".formatted(fileNames.get(index)));
+                }
+            }
+            return reports;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Keep the earliest registration of an attendee to create a new member.
+     */
+    private static BigMarkerRegistration earlier(@NotNull final BigMarkerRegistration first,
+                                                 @NotNull final BigMarkerRegistration second) {
+        if (first.registrationDate() == null) {
+            return second;
+        }
+        return second.registrationDate() != null && second.registrationDate().isBefore(first.registrationDate())
+                ? second : first;
+    }
+
+    /**
+     * Combine duplicate registrations of an attendee for the same event:
+     * the earliest registration counts, the attendee attended live if any
+     * of the registrations did.
+     */
+    private static BigMarkerRegistration combine(@NotNull final BigMarkerRegistration first,
+                                                 @NotNull final BigMarkerRegistration second) {
+        final var earlier = earlier(first, second);
+        return new BigMarkerRegistration(earlier.firstName(), earlier.lastName(), earlier.email(),
+                earlier.registrationDate(), first.unsubscribed() && second.unsubscribed(),
+                first.attendedLive() || second.attendedLive(), earlier.membership());
+    }
+
+    private record ParsedReport(String fileName, String webinarUrl, List<BigMarkerRegistration> registrations) { }
+
+    private record RegistrationKey(long eventId, String email) { }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.importer.bigmarker;
+
+import java.util.List;
+
+/**
+ * The combined result of importing several BigMarker reports.
+ */
+public record BigMarkerImportSummary(int files, int failedFiles, int registrations, int duplicates,
+                                     int newMembers, int newRegistrations, int updatedRegistrations,
+                                     List<String> errors) {
+
+    @Override
+    public String toString() {
+        final var summary = "%d of %d files imported: %d registrations (%d duplicates), %d new members, %d new and %d updated registrations."
+                .formatted(files - failedFiles, files, registrations, duplicates, newMembers, newRegistrations, updatedRegistrations);
+        return errors.isEmpty() ? summary : summary + " Errors: " + String.join("; ", errors);
+    }
+
+}
@@ -18,52 +18,83 @@
 
 package org.komunumo.data.importer.bigmarker;
 
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.jetbrains.annotations.NotNull;
 import org.komunumo.data.entity.Member;
+import org.komunumo.data.importer.ImportProgress;
+import org.komunumo.data.importer.SheetRow;
+import org.komunumo.data.importer.StreamingWorkbook;
 import org.komunumo.data.service.DatabaseService;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-import static org.komunumo.util.WorkbookUtil.findCell;
 import static org.komunumo.util.WorkbookUtil.findColumn;
+import static org.komunumo.util.WorkbookUtil.findRow;
+import static org.komunumo.util.WorkbookUtil.findString;
 import static org.komunumo.util.WorkbookUtil.getColumnHeaders;
 import static org.komunumo.util.WorkbookUtil.getDateFromRow;
 import static org.komunumo.util.WorkbookUtil.getStringFromRow;
 
+/**
+ * A registration report exported from BigMarker. The report is read with a
+ * {@link StreamingWorkbook}, so the registrations are parsed while they are
+ * imported, in constant memory.
+ */
 public final class BigMarkerReport {
 
-    private final Workbook workbook;
+    /**
+     * The source of the registrations imported from BigMarker.
+     */
+    static final String SOURCE = "BigMarker";
+
+    private static final String REGISTRATIONS_SHEET = "registered list";
+
+    private final StreamingWorkbook workbook;
 
     private final String webinarUrl;
 
-    private List<BigMarkerRegistration> bigMarkerRegistrations = null;
+    private Integer totalRegistered;
 
-    public BigMarkerReport(@NotNull final InputStream inputStream) throws IOException {
-        this.workbook = new XSSFWorkbook(inputStream);
+    public BigMarkerReport(@NotNull final Path file) throws IOException {
+        this.workbook = new StreamingWorkbook(file);
 
-        final var summary = workbook.getSheet("summary");
-        webinarUrl = findCell(summary, "URL").orElseThrow().getStringCellValue();
+        try (var summary = workbook.rows("summary")) {
+            webinarUrl = findString(summary, "URL").orElseThrow();
+        }
     }
 
-    public synchronized List<BigMarkerRegistration> getBigMarkerRegistrations() {
-        if (bigMarkerRegistrations != null) {
-            return bigMarkerRegistrations;
+    /**
+     * Read all registrations of the report, e.g. for a preview.
+     * @return the registrations
+     * @throws IOException if the report can't be read
+     */
+    public List<BigMarkerRegistration> getBigMarkerRegistrations() throws IOException {
+        try (var registrations = streamBigMarkerRegistrations()) {
+            return registrations.toList();
         }
+    }
 
-        final var sheet = workbook.getSheet("registered list");
-        final var columnHeaders = getColumnHeaders(findCell(sheet, "#").orElseThrow().getRow());
+    /**
+     * Read the registrations of the report one by one.
+     * @return a stream of the registrations, which must be closed
+     * @throws IOException if the report can't be read
+     */
+    public Stream<BigMarkerRegistration> streamBigMarkerRegistrations() throws IOException {
+        final var totalRegistered = getTotalRegistered();
+        final SheetRow headerRow;
+        try (var rows = workbook.rows(REGISTRATIONS_SHEET)) {
+            headerRow = findRow(rows, "#").orElseThrow();
+        }
+
+        final var columnHeaders = getColumnHeaders(headerRow);
         final var firstNameColumn = findColumn(columnHeaders, "First Name").orElseThrow();
         final var lastNameColumn = findColumn(columnHeaders, "Last Name").orElseThrow();
         final var emailColumn = findColumn(columnHeaders, "Email").orElseThrow();
@@ -72,27 +103,42 @@ public final class BigMarkerReport {
         final var unsubscribedColumn = findColumn(columnHeaders, "Unsubscribed").orElseThrow();
         final var attendedLiveColumn = findColumn(columnHeaders, "Attended Live").orElseThrow();
         final var membershipColumn = findColumn(columnHeaders, "Membership");
-        final var firstDataRowIndex = findCell(sheet, "#").orElseThrow().getRowIndex() + 1;
-        final var totalRegistered = Integer.parseUnsignedInt(findCell(sheet, "Total Registered").orElseThrow().getStringCellValue());
-
-        final var attendees = new ArrayList<BigMarkerRegistration>();
-        for (int rowNum = firstDataRowIndex; rowNum < firstDataRowIndex + totalRegistered; rowNum++) {
-            final var row = sheet.getRow(rowNum);
-            final var firstName = getStringFromRow(row, firstNameColumn).orElse("");
-            final var lastName = getStringFromRow(row, lastNameColumn).orElse("");
-            final var email = getStringFromRow(row, emailColumn).orElse(null);
-            final var date = getDateFromRow(row, registrationDateColumn).orElse(null);
-            final var timezone = getStringFromRow(row, timezoneColumn).orElse(null);
-            final var registrationDate = date == null || timezone == null ? null
-                    : ZonedDateTime.ofInstant(date.toInstant(), !timezone.isBlank() ? ZoneId.of(timezone) : ZoneId.systemDefault());
-            final var unsubscribed = getStringFromRow(row, unsubscribedColumn).orElseThrow().equals("Yes");
-            final var attendedLive = getStringFromRow(row, attendedLiveColumn).orElseThrow().equals("Yes");
-            final var membership = membershipColumn.map(columnHeader -> getStringFromRow(row, columnHeader).orElseThrow()).orElse(null);
-            final var attendee = new BigMarkerRegistration(firstName, lastName, email, registrationDate, unsubscribed, attendedLive, membership);
-            attendees.add(attendee);
+        final var firstDataRowIndex = headerRow.index() + 1;
+
+        return workbook.rows(REGISTRATIONS_SHEET)
+                .dropWhile(row -> row.index() < firstDataRowIndex)
+                .takeWhile(row -> row.index() < firstDataRowIndex + totalRegistered)
+                .map(row -> {
+                    final var firstName = getStringFromRow(row, firstNameColumn).orElse("");
+                    final var lastName = getStringFromRow(row, lastNameColumn).orElse("");
+                    final var email = getStringFromRow(row, emailColumn).orElse(null);
+                    final var date = getDateFromRow(row, registrationDateColumn).orElse(null);
+                    final var timezone = getStringFromRow(row, timezoneColumn).orElse(null);
+                    final var registrationDate = date == null || timezone == null ? null
+                            : ZonedDateTime.ofInstant(date.toInstant(), !timezone.isBlank() ? ZoneId.of(timezone) : ZoneId.systemDefault());
+                    final var unsubscribed = getStringFromRow(row, unsubscribedColumn).orElseThrow().equals("Yes");
+                    final var attendedLive = getStringFromRow(row, attendedLiveColumn).orElseThrow().equals("Yes");
+                    final var membership = membershipColumn.map(columnHeader -> getStringFromRow(row, columnHeader).orElseThrow()).orElse(null);
+                    return new BigMarkerRegistration(firstName, lastName, email, registrationDate, unsubscribed, attendedLive, membership);
+                });
+    }
+
+    public String getWebinarUrl() {
+        return webinarUrl;
+    }
+
+    /**
+     * Get the number of registrations, as stated in the report.
+     * @return the number of registrations
+     * @throws IOException if the report can't be read
+     */
+    public int getTotalRegistered() throws IOException {
+        if (totalRegistered == null) {
+            try (var rows = workbook.rows(REGISTRATIONS_SHEET)) {
+                totalRegistered = Integer.parseUnsignedInt(findString(rows, "Total Registered").orElseThrow());
+            }
         }
-        bigMarkerRegistrations = Collections.unmodifiableList(attendees);
-        return bigMarkerRegistrations;
+        return totalRegistered;
     }
 
     private Member getOrCreateMember(@NotNull final DatabaseService databaseService,
@@ -103,6 +149,16 @@ public final class BigMarkerReport {
             return existingMember.get();
         }
 
+        final var newMember = newMember(databaseService, registration);
+        newMember.store();
+        return newMember;
+    }
+
+    /**
+     * Create a new, not yet stored member for a registration.
+     */
+    static Member newMember(@NotNull final DatabaseService databaseService,
+                            @NotNull final BigMarkerRegistration registration) {
         final var newMember = databaseService.newMember();
         newMember.setFirstName(registration.firstName());
         newMember.setLastName(registration.lastName());
@@ -116,25 +172,43 @@ public final class BigMarkerReport {
         } else {
             newMember.setComment("Registered at BigMarker");
         }
-        newMember.store();
         return newMember;
     }
 
-    public void importRegistrations(@NotNull final DatabaseService databaseService) {
+    /**
+     * Import the registrations of the report.
+     * @param databaseService the database service
+     * @param progress receives the progress of the import
+     * @return the number of imported registrations
+     * @throws IOException if the report can't be read
+     * @throws java.util.concurrent.CancellationException if the import was cancelled
+     */
+    public int importRegistrations(@NotNull final DatabaseService databaseService,
+                                   @NotNull final ImportProgress progress) throws IOException {
         final var event = databaseService.getEventByWebinarUrl(webinarUrl).orElseThrow(() ->
                 new NoSuchElementException(String.format("No event found with webinar URL: %s", webinarUrl)));
-        for (final var bigMarkerRegistration : getBigMarkerRegistrations()) {
-            final var noShow = bigMarkerRegistration.noShow();
-            final var member = getOrCreateMember(databaseService, bigMarkerRegistration);
-            final var existingRegistration = databaseService.getRegistration(event.getId(), member.getId());
-            if (existingRegistration.isPresent()) {
-                final var registration = existingRegistration.get();
-                databaseService.updateNoShow(registration, noShow);
-            } else {
-                final var date = bigMarkerRegistration.registrationDate() != null
-                        ? bigMarkerRegistration.registrationDate().toLocalDateTime() : LocalDateTime.now();
-                databaseService.registerForEvent(event, member, date, "BigMarker", noShow, false);
+        progress.setTotal(getTotalRegistered());
+        var count = 0;
+        try (var registrations = streamBigMarkerRegistrations()) {
+            final var iterator = registrations.iterator();
+            while (iterator.hasNext()) {
+                progress.checkCancelled();
+                final var bigMarkerRegistration = iterator.next();
+                final var noShow = bigMarkerRegistration.noShow();
+                final var member = getOrCreateMember(databaseService, bigMarkerRegistration);
+                final var existingRegistration = databaseService.getRegistration(event.getId(), member.getId());
+                if (existingRegistration.isPresent()) {
+                    final var registration = existingRegistration.get();
+                    databaseService.updateNoShow(registration, noShow);
+                } else {
+                    final var date = bigMarkerRegistration.registrationDate() != null
+                            ? bigMarkerRegistration.registrationDate().toLocalDateTime() : LocalDateTime.now();
+                    databaseService.registerForEvent(event, member, date, SOURCE, noShow, false);
+                }
+                progress.processed();
+                count++;
             }
         }
+        return count;
     }
 }
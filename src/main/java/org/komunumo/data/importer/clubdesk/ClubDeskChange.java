@@ -0,0 +1,36 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.importer.clubdesk;
+
+import org.komunumo.data.entity.Member;
+
+import java.util.List;
+
+/**
+ * A difference between a ClubDesk export and the members in the database.
+ * The member is the record to store, with the changes applied; it is
+ * {@code null} for invalid rows, which can't be synchronized.
+ */
+public record ClubDeskChange(Type type, String name, String email, List<String> differences, Member member) {
+
+    public enum Type {
+        NEW, UPDATED, ENDED, INVALID
+    }
+
+}
@@ -18,17 +18,15 @@
 
 package org.komunumo.data.importer.clubdesk;
 
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.jetbrains.annotations.NotNull;
-import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.importer.SheetRow;
+import org.komunumo.data.importer.StreamingWorkbook;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
 
 import static org.komunumo.util.WorkbookUtil.findColumn;
 import static org.komunumo.util.WorkbookUtil.getColumnHeaders;
@@ -36,22 +34,43 @@ import static org.komunumo.util.WorkbookUtil.getLocalDateFromRow;
 import static org.komunumo.util.WorkbookUtil.getLongFromRow;
 import static org.komunumo.util.WorkbookUtil.getStringFromRow;
 
+/**
+ * A member export from ClubDesk. The file is read with a
+ * {@link StreamingWorkbook}, so the members are parsed while they are
+ * synchronized with {@link ClubDeskSync}, in constant memory.
+ */
 public final class ClubDeskFile {
 
-    private final Workbook workbook;
+    private final StreamingWorkbook workbook;
 
-    private List<ClubDeskMember> members = null;
+    public ClubDeskFile(@NotNull final Path file) {
+        this.workbook = new StreamingWorkbook(file);
+    }
 
-    public ClubDeskFile(@NotNull final InputStream inputStream) throws IOException {
-        this.workbook = new XSSFWorkbook(inputStream);
+    /**
+     * Read all members of the file, e.g. for a preview.
+     * @return the members
+     * @throws IOException if the file can't be read
+     */
+    public List<ClubDeskMember> getMembers() throws IOException {
+        try (var members = streamMembers()) {
+            return members.toList();
+        }
     }
 
-    public List<ClubDeskMember> getMembers() {
-        if (members != null) {
-            return members;
+    /**
+     * Read the members of the file one by one.
+     * @return a stream of the members, which must be closed
+     * @throws IOException if the file can't be read
+     */
+    public Stream<ClubDeskMember> streamMembers() throws IOException {
+        final SheetRow headerRow;
+        try (var rows = workbook.rows(0)) {
+            headerRow = rows.findFirst()
+                    .filter(row -> row.index() == 0)
+                    .orElseThrow(() -> new NoSuchElementException("No header row found in the ClubDesk file"));
         }
-        final var sheet = workbook.getSheetAt(0);
-        final var columnHeaders = getColumnHeaders(sheet.getRow(0));
+        final var columnHeaders = getColumnHeaders(headerRow);
         final var membershipBeginDateColumn = findColumn(columnHeaders, "Eintritt").orElseThrow();
         final var membershipEndDateColumn = findColumn(columnHeaders, "Austritt").orElseThrow();
         final var membershipIdColumn = findColumn(columnHeaders, "Mitgliedernummer").orElseThrow();
@@ -64,48 +83,25 @@ public final class ClubDeskFile {
         final var cityColumn = findColumn(columnHeaders, "Ort").orElseThrow();
         final var commentColumn = findColumn(columnHeaders, "Bemerkungen").orElseThrow();
 
-        final var clubDeskMembers = new ArrayList<ClubDeskMember>();
-        for (final Row row : sheet) {
-            if (row.getRowNum() == 0) {
-                continue; // header row
-            }
-            final var membershipBeginDate = getLocalDateFromRow(row, membershipBeginDateColumn).orElse(null);
-            final var membershipEndDate = getLocalDateFromRow(row, membershipEndDateColumn).orElse(null);
-            final var membershipId = getLongFromRow(row, membershipIdColumn).orElse(null);
-            final var firstName = getStringFromRow(row, firstNameColumn).orElse("");
-            final var lastName = getStringFromRow(row, lastNameColumn).orElse("");
-            final var company = getStringFromRow(row, companyColumn).orElse("");
-            final var email = getStringFromRow(row, emailColumn).orElse("");
-            final var address = getStringFromRow(row, addressColumn).orElse("");
-            final var zipCode = getStringFromRow(row, zipCodeColumn).orElse("").replaceFirst("\\.0$", "");
-            final var city = getStringFromRow(row, cityColumn).orElse("");
-            final var comment = getStringFromRow(row, commentColumn).orElse("");
-            final var clubDeskMember = new ClubDeskMember(
-                    membershipBeginDate, membershipEndDate, membershipId,
-                    firstName, lastName, company, email,
-                    address, zipCode, city, comment);
-            clubDeskMembers.add(clubDeskMember);
-        }
-        members = Collections.unmodifiableList(clubDeskMembers);
-        return members;
+        return workbook.rows(0)
+                .filter(row -> row.index() != headerRow.index())
+                .map(row -> {
+                    final var membershipBeginDate = getLocalDateFromRow(row, membershipBeginDateColumn).orElse(null);
+                    final var membershipEndDate = getLocalDateFromRow(row, membershipEndDateColumn).orElse(null);
+                    final var membershipId = getLongFromRow(row, membershipIdColumn).orElse(null);
+                    final var firstName = getStringFromRow(row, firstNameColumn).orElse("");
+                    final var lastName = getStringFromRow(row, lastNameColumn).orElse("");
+                    final var company = getStringFromRow(row, companyColumn).orElse("");
+                    final var email = getStringFromRow(row, emailColumn).orElse("");
+                    final var address = getStringFromRow(row, addressColumn).orElse("");
+                    final var zipCode = getStringFromRow(row, zipCodeColumn).orElse("").replaceFirst("\\.0$", "");
+                    final var city = getStringFromRow(row, cityColumn).orElse("");
+                    final var comment = getStringFromRow(row, commentColumn).orElse("");
+                    return new ClubDeskMember(
+                            membershipBeginDate, membershipEndDate, membershipId,
+                            firstName, lastName, company, email,
+                            address, zipCode, city, comment);
+                });
     }
 
-    public void importMembers(@NotNull final DatabaseService databaseService) {
-        for (final var clubDeskMember : getMembers()) {
-            final var email = clubDeskMember.email();
-            final var member = databaseService.getMemberByEmail(email).orElse(databaseService.newMember());
-            member.setMembershipBegin(clubDeskMember.membershipBeginDate());
-            member.setMembershipEnd(clubDeskMember.membershipEndDate());
-            member.setMembershipId(clubDeskMember.membershipId());
-            member.setFirstName(clubDeskMember.firstName());
-            member.setLastName(clubDeskMember.lastName());
-            member.setCompany(clubDeskMember.company());
-            member.setEmail(clubDeskMember.email());
-            member.setAddress(clubDeskMember.address());
-            member.setZipCode(clubDeskMember.zipCode());
-            member.setCity(clubDeskMember.city());
-            member.setComment(clubDeskMember.comment());
-            member.store();
-        }
-    }
 }
@@ -0,0 +1,190 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.importer.clubdesk;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.komunumo.data.entity.Member;
+import org.komunumo.data.importer.ImportProgress;
+import org.komunumo.data.service.CacheInvalidationBus;
+import org.komunumo.data.service.DatabaseService;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Synchronizes the members with a ClubDesk export. The members are loaded
+ * once and compared field by field with the export, so only new and really
+ * changed members are written, with one batch each. Members with an active
+ * membership, which are missing in the export, get their membership ended.
+ */
+public final class ClubDeskSync {
+
+    private final ClubDeskFile clubDeskFile;
+
+    public ClubDeskSync(@NotNull final ClubDeskFile clubDeskFile) {
+        this.clubDeskFile = clubDeskFile;
+    }
+
+    /**
+     * Compare the export with the members in the database, without changing anything.
+     * @param databaseService the database service
+     * @param progress receives the progress of the comparison
+     * @return the changes, unchanged members are not included
+     * @throws IOException if the export can't be read
+     * @throws java.util.concurrent.CancellationException if the synchronization was cancelled
+     */
+    public List<ClubDeskChange> diff(@NotNull final DatabaseService databaseService,
+                                     @NotNull final ImportProgress progress) throws IOException {
+        final var members = databaseService.getAllMembersByEmail();
+        final var exported = new HashSet<String>();
+        final var changes = new ArrayList<ClubDeskChange>();
+        try (var clubDeskMembers = clubDeskFile.streamMembers()) {
+            final var iterator = clubDeskMembers.iterator();
+            while (iterator.hasNext()) {
+                progress.checkCancelled();
+                final var clubDeskMember = iterator.next();
+                final var name = "%s %s".formatted(clubDeskMember.firstName(), clubDeskMember.lastName()).trim();
+                final var email = clubDeskMember.email().trim();
+                final var normalizedEmail = email.toLowerCase(Locale.ROOT);
+                if (email.isEmpty()) {
+                    changes.add(new ClubDeskChange(ClubDeskChange.Type.INVALID, name, email, List.of("No email address"), null));
+                } else if (!exported.add(normalizedEmail)) {
+                    changes.add(new ClubDeskChange(ClubDeskChange.Type.INVALID, name, email, List.of("Duplicate email address"), null));
+                } else {
+                    final var existingMember = members.get(normalizedEmail);
+                    final var member = existingMember != null ? existingMember : databaseService.newMember();
+                    final var differences = update(member, clubDeskMember, email);
+                    if (existingMember == null) {
+                        changes.add(new ClubDeskChange(ClubDeskChange.Type.NEW, name, email, differences, member));
+                    } else if (!differences.isEmpty()) {
+                        changes.add(new ClubDeskChange(ClubDeskChange.Type.UPDATED, name, email, differences, member));
+                    }
+                }
+                progress.processed();
+            }
+        }
+
+        final var today = LocalDate.now();
+        members.forEach((normalizedEmail, member) -> {
+            if (!exported.contains(normalizedEmail) && hasActiveMembership(member, today)) {
+                final var differences = new ArrayList<String>();
+                compare(differences, "Membership End", member.getMembershipEnd(), today, member::setMembershipEnd);
+                changes.add(new ClubDeskChange(ClubDeskChange.Type.ENDED, member.getFullName(), member.getEmail(),
+                        differences, member));
+            }
+        });
+        return changes;
+    }
+
+    /**
+     * Synchronize the members with the export. If members were changed, the
+     * members cached by the sessions are invalidated on all nodes.
+     * @param databaseService the database service
+     * @param cacheInvalidationBus the bus to invalidate the cached members
+     * @param progress receives the progress of the synchronization
+     * @return a summary of the changes
+     * @throws IOException if the export can't be read
+     * @throws java.util.concurrent.CancellationException if the synchronization was cancelled
+     */
+    public String sync(@NotNull final DatabaseService databaseService,
+                       @NotNull final CacheInvalidationBus cacheInvalidationBus,
+                       @NotNull final ImportProgress progress) throws IOException {
+        final var changes = diff(databaseService, progress);
+        final var newMembers = new ArrayList<Member>();
+        final var changedMembers = new ArrayList<Member>();
+        for (final var change : changes) {
+            switch (change.type()) {
+                case NEW -> newMembers.add(change.member());
+                case UPDATED, ENDED -> changedMembers.add(change.member());
+                case INVALID -> progress.failed("%s: %s".formatted(change.name(), String.join(", ", change.differences())));
+            }
+        }
+        progress.checkCancelled();
+        progress.message("Writing %d new and %d changed members".formatted(newMembers.size(), changedMembers.size()));
+        databaseService.storeMembers(newMembers, changedMembers);
+        if (!changedMembers.isEmpty()) {
+            cacheInvalidationBus.publish(CacheInvalidationBus.Topic.MEMBERS);
+        }
+        return summarize(changes);
+    }
+
+    /**
+     * Summarize the changes, e.g. for a preview.
+     * @param changes the changes as returned by {@link #diff(DatabaseService, ImportProgress)}
+     * @return the number of changes per type
+     */
+    public static String summarize(@NotNull final List<ClubDeskChange> changes) {
+        final var counts = new int[ClubDeskChange.Type.values().length];
+        changes.forEach(change -> counts[change.type().ordinal()]++);
+        return "%d new members, %d updated members, %d ended memberships, %d invalid rows.".formatted(
+                counts[ClubDeskChange.Type.NEW.ordinal()], counts[ClubDeskChange.Type.UPDATED.ordinal()],
+                counts[ClubDeskChange.Type.ENDED.ordinal()], counts[ClubDeskChange.Type.INVALID.ordinal()]);
+    }
+
+    private static boolean hasActiveMembership(@NotNull final Member member, @NotNull final LocalDate today) {
+        return member.getMembershipBegin() != null
+                && (member.getMembershipEnd() == null || member.getMembershipEnd().isAfter(today));
+    }
+
+    /**
+     * Apply the values of the export to the member.
+     * @return the differences, one entry per changed field
+     */
+    private static List<String> update(@NotNull final Member member,
+                                       @NotNull final ClubDeskMember clubDeskMember,
+                                       @NotNull final String email) {
+        final var differences = new ArrayList<String>();
+        compare(differences, "Membership Begin", member.getMembershipBegin(), clubDeskMember.membershipBeginDate(),
+                member::setMembershipBegin);
+        compare(differences, "Membership End", member.getMembershipEnd(), clubDeskMember.membershipEndDate(),
+                member::setMembershipEnd);
+        compare(differences, "Membership ID", member.getMembershipId(),
+                Objects.requireNonNullElse(clubDeskMember.membershipId(), 0L), member::setMembershipId);
+        compare(differences, "First Name", member.getFirstName(), clubDeskMember.firstName(), member::setFirstName);
+        compare(differences, "Last Name", member.getLastName(), clubDeskMember.lastName(), member::setLastName);
+        compare(differences, "Company", member.getCompany(), clubDeskMember.company(), member::setCompany);
+        compare(differences, "Email", member.getEmail(), email, member::setEmail);
+        compare(differences, "Address", member.getAddress(), clubDeskMember.address(), member::setAddress);
+        compare(differences, "Zip Code", member.getZipCode(), clubDeskMember.zipCode(), member::setZipCode);
+        compare(differences, "City", member.getCity(), clubDeskMember.city(), member::setCity);
+        compare(differences, "Comment", member.getComment(), clubDeskMember.comment(), member::setComment);
+        return differences;
+    }
+
+    /**
+     * Set a field only if its value changed, so unchanged fields are not written.
+     */
+    private static <T> void compare(@NotNull final List<String> differences, @NotNull final String field,
+                                    @Nullable final T currentValue, @Nullable final T newValue,
+                                    @NotNull final Consumer<T> setter) {
+        if (!Objects.equals(currentValue, newValue)) {
+            differences.add("%s: %s → %s".formatted(field,
+                    Objects.requireNonNullElse(currentValue, ""), Objects.requireNonNullElse(newValue, "")));
+            setter.accept(newValue);
+        }
+    }
+
+}
@@ -18,16 +18,13 @@
 
 package org.komunumo.data.importer.jugs;
 
-import com.vaadin.flow.component.UI;
-import com.vaadin.flow.component.notification.Notification;
-import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.text.WordUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jooq.DSLContext;
-import org.jooq.Record2;
-import org.jooq.Record3;
+import org.jooq.TableField;
+import org.jooq.TableRecord;
 import org.jooq.impl.DSL;
 import org.jsoup.Jsoup;
 import org.komunumo.ApplicationServiceInitListener;
@@ -35,12 +32,19 @@ import org.komunumo.data.db.enums.EventLanguage;
 import org.komunumo.data.db.enums.EventLevel;
 import org.komunumo.data.db.enums.EventType;
 import org.komunumo.data.db.enums.SponsorLevel;
+import org.komunumo.data.db.tables.records.EventKeywordRecord;
 import org.komunumo.data.db.tables.records.FaqRecord;
+import org.komunumo.data.db.tables.records.KeywordRecord;
 import org.komunumo.data.db.tables.records.MemberRecord;
+import org.komunumo.data.db.tables.records.RegistrationRecord;
 import org.komunumo.data.db.tables.records.SpeakerRecord;
+import org.komunumo.data.entity.DuplicateNormalization;
 import org.komunumo.data.entity.Event;
 import org.komunumo.data.entity.EventSpeakerEntity;
+import org.komunumo.data.importer.ImportProgress;
+import org.komunumo.data.importer.LongHashSet;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PublicContentCache;
 import org.komunumo.util.URLUtil;
 
 import java.io.IOException;
@@ -53,6 +57,7 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -65,16 +70,14 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Properties;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static org.komunumo.data.db.tables.Event.EVENT;
 import static org.komunumo.data.db.tables.EventKeyword.EVENT_KEYWORD;
-import static org.komunumo.data.db.tables.EventOrganizer.EVENT_ORGANIZER;
-import static org.komunumo.data.db.tables.EventSpeaker.EVENT_SPEAKER;
 import static org.komunumo.data.db.tables.Keyword.KEYWORD;
 import static org.komunumo.data.db.tables.Member.MEMBER;
 import static org.komunumo.data.db.tables.News.NEWS;
@@ -85,62 +88,120 @@ import static org.komunumo.data.db.tables.Sponsor.SPONSOR;
 @SuppressWarnings({"SqlResolve", "removal", "java:S112", "java:S1192", "java:S3776", "deprecation"})
 public final class JUGSImporter {
 
+    /**
+     * The number of rows fetched at once from the old database.
+     */
+    static final int FETCH_SIZE = 1_000;
+
+    /**
+     * The number of records written with one batch in bulk-load mode.
+     */
+    static final int BATCH_SIZE = 1_000;
+
     private final DSLContext dsl;
     private final DatabaseService databaseService;
+    private final PublicContentCache publicContentCache;
     private final ApplicationServiceInitListener applicationServiceInitListener;
+    private final boolean bulkLoad;
 
     private int hansMaerkiId;
     private int rogerSuessId;
     private int sandroRuchId;
 
-    private int memberMergeCount = 0;
-    private int speakerMergeCount = 0;
     private long faqImportCount = 0L;
 
-    private UI ui = null;
+    private ImportProgress progress = ImportProgress.NONE;
 
     public JUGSImporter(
             @NotNull final DSLContext dsl, // TODO Should not be used here
             @NotNull final DatabaseService databaseService,
+            @NotNull final PublicContentCache publicContentCache,
             @NotNull final ApplicationServiceInitListener applicationServiceInitListener) {
+        this(dsl, databaseService, publicContentCache, applicationServiceInitListener, true);
+    }
+
+    /**
+     * @param bulkLoad import the keywords and registrations in bulk-load mode:
+     *                 the existing IDs are loaded into memory, the rows of the
+     *                 old database are streamed and written in batches, one
+     *                 transaction per batch and table. Otherwise, every row is
+     *                 checked and written with its own queries.
+     */
+    public JUGSImporter(
+            @NotNull final DSLContext dsl, // TODO Should not be used here
+            @NotNull final DatabaseService databaseService,
+            @NotNull final PublicContentCache publicContentCache,
+            @NotNull final ApplicationServiceInitListener applicationServiceInitListener,
+            final boolean bulkLoad) {
         this.dsl = dsl;
         this.databaseService = databaseService;
+        this.publicContentCache = publicContentCache;
         this.applicationServiceInitListener = applicationServiceInitListener;
+        this.bulkLoad = bulkLoad;
     }
 
-    private void showNotification(@NotNull final String message) {
-        ui.access(() -> Notification.show(message));
+    private void showProgress(@NotNull final String message) {
+        progress.message(message);
     }
 
+    /**
+     * Import the data of the Java User Group Switzerland. This takes a
+     * while, run it with the {@link org.komunumo.data.service.ImportJobExecutor}.
+     * Every step counts as one processed record, the import can be
+     * cancelled between the steps.
+     * @param dbURL the JDBC URL of the old database
+     * @param dbUser the user of the old database
+     * @param dbPass the password of the old database
+     * @param importProgress receives the progress of the import
+     * @throws java.util.concurrent.CancellationException if the import was cancelled
+     */
     public void importFromJavaUserGroupSwitzerland(
             @NotNull final String dbURL,
             @NotNull final String dbUser,
-            @NotNull final String dbPass) {
-        ui = UI.getCurrent();
-        new Thread(() -> {
-            try {
-                showNotification("Importing data from Java User Group Switzerland in the background...");
-                final var connection = DriverManager.getConnection(dbURL, dbUser, dbPass);
-                connection.setReadOnly(true);
-                importSponsors(connection);
-                importMembers(connection);
-                addMissingMembers();
-                importEvents(connection);
-                importKeywords(connection);
-                importSpeakers(connection);
-                importRegistrations(connection);
-                importNews(connection);
-                importFaq();
-                updateEventLevel();
-                mergeMembers();
-                mergeSpeakers();
-                addLocationColors();
-                addRedirects();
-                showNotification("Importing data from Java User Group Switzerland successfully finished.");
-            } catch (final SQLException | IOException | InterruptedException e) {
-                showNotification("Error importing data from Java User Group Switzerland: " + e.getMessage());
+            @NotNull final String dbPass,
+            @NotNull final ImportProgress importProgress) throws SQLException, IOException, InterruptedException {
+        progress = importProgress;
+        showProgress("Importing data from Java User Group Switzerland...");
+        final var connectionProperties = new Properties();
+        connectionProperties.setProperty("user", dbUser);
+        connectionProperties.setProperty("password", dbPass);
+        connectionProperties.setProperty("useCursorFetch", "true");
+        try (var connection = DriverManager.getConnection(dbURL, connectionProperties)) {
+            connection.setReadOnly(true);
+            final List<ImportStep> steps = List.of(
+                    () -> importSponsors(connection),
+                    () -> importMembers(connection),
+                    this::addMissingMembers,
+                    () -> importEvents(connection),
+                    () -> importKeywords(connection),
+                    () -> importSpeakers(connection),
+                    () -> importRegistrations(connection),
+                    () -> importNews(connection),
+                    this::importFaq,
+                    this::updateEventLevel,
+                    this::mergeMembers,
+                    this::mergeSpeakers,
+                    () -> {
+                        databaseService.invalidateAllAttendeeSketches();
+                        publicContentCache.invalidateSponsors();
+                        publicContentCache.invalidateNews();
+                        publicContentCache.invalidateFaq();
+                    },
+                    this::addLocationColors,
+                    this::addRedirects);
+            progress.setTotal(steps.size());
+            for (final var step : steps) {
+                progress.checkCancelled();
+                step.run();
+                progress.processed();
             }
-        }).start();
+        }
+        showProgress("Importing data from Java User Group Switzerland successfully finished.");
+    }
+
+    @FunctionalInterface
+    private interface ImportStep {
+        void run() throws SQLException, IOException, InterruptedException;
     }
 
     private void addRedirects() {
@@ -177,7 +238,7 @@ public final class JUGSImporter {
                 .map(this::toFaqRecord)
                 .filter(this::notExistingFaqEntry)
                 .forEach(FaqRecord::store);
-        showNotification(faqImportCount + " FAQ entries imported.");
+        showProgress(faqImportCount + " FAQ entries imported.");
     }
 
     private boolean notExistingFaqEntry(@NotNull final FaqRecord faqRecord) {
@@ -227,10 +288,19 @@ public final class JUGSImporter {
                 }
             }
         }
-        showNotification(counter.get() + " news imported.");
+        showProgress(counter.get() + " news imported.");
     }
 
-    private void importKeywords(@NotNull final Connection connection)
+    void importKeywords(@NotNull final Connection connection)
+            throws SQLException {
+        if (bulkLoad) {
+            bulkLoadKeywords(connection);
+        } else {
+            importKeywordsRowByRow(connection);
+        }
+    }
+
+    private void importKeywordsRowByRow(@NotNull final Connection connection)
             throws SQLException {
         final var counter = new AtomicInteger(0);
         try (var statement = connection.createStatement()) {
@@ -265,7 +335,168 @@ public final class JUGSImporter {
                 }
             }
         }
-        showNotification(counter.get() + " new keywords imported.");
+        showProgress(counter.get() + " new keywords imported.");
+    }
+
+    private void bulkLoadKeywords(@NotNull final Connection connection)
+            throws SQLException {
+        final var keywordIds = fetchIds(KEYWORD.ID);
+        final var eventIds = fetchIds(EVENT.ID);
+        final var eventKeywords = new LongHashSet();
+        try (var cursor = dsl.select(EVENT_KEYWORD.EVENT_ID, EVENT_KEYWORD.KEYWORD_ID)
+                .from(EVENT_KEYWORD).fetchSize(FETCH_SIZE).fetchLazy()) {
+            cursor.forEach(eventKeyword -> eventKeywords.add(pair(eventKeyword.value1(), eventKeyword.value2())));
+        }
+
+        var keywordCount = 0;
+        final var keywords = new ArrayList<KeywordRecord>(BATCH_SIZE);
+        try (var statement = createStreamingStatement(connection);
+             var result = statement.executeQuery("SELECT id, bezeichnung FROM eventlabels")) {
+            while (result.next()) {
+                final var keywordId = result.getLong("id");
+                if (keywordIds.add(keywordId)) {
+                    final var keyword = dsl.newRecord(KEYWORD);
+                    keyword.setId(keywordId);
+                    keyword.setKeyword(result.getString("bezeichnung"));
+                    keywords.add(keyword);
+                    keywordCount++;
+                    flushIfFull(keywords);
+                }
+            }
+        }
+        flush(keywords);
+
+        final var links = new ArrayList<EventKeywordRecord>(BATCH_SIZE);
+        try (var statement = createStreamingStatement(connection);
+             var result = statement.executeQuery("SELECT DISTINCT events_id, eventlabels_id FROM eventsXeventlabels")) {
+            while (result.next()) {
+                final var eventId = result.getLong("events_id");
+                final var keywordId = result.getLong("eventlabels_id");
+                if (eventIds.contains(eventId) && keywordIds.contains(keywordId)
+                        && eventKeywords.add(pair(eventId, keywordId))) {
+                    final var eventKeyword = dsl.newRecord(EVENT_KEYWORD);
+                    eventKeyword.setEventId(eventId);
+                    eventKeyword.setKeywordId(keywordId);
+                    links.add(eventKeyword);
+                    flushIfFull(links);
+                }
+            }
+        }
+        flush(links);
+        showProgress(keywordCount + " new keywords imported.");
+    }
+
+    private void bulkLoadRegistrations(@NotNull final Connection connection)
+            throws SQLException {
+        final var eventIds = new LongHashSet();
+        final var onlineEventIds = new LongHashSet();
+        dsl.select(EVENT.ID, EVENT.LOCATION).from(EVENT).forEach(event -> {
+            eventIds.add(event.value1());
+            if ("Online".equalsIgnoreCase(event.value2())) {
+                onlineEventIds.add(event.value1());
+            }
+        });
+        final var memberIds = fetchIds(MEMBER.ID);
+        final var registrations = new LongHashSet();
+        try (var cursor = dsl.select(REGISTRATION.EVENT_ID, REGISTRATION.MEMBER_ID)
+                .from(REGISTRATION).fetchSize(FETCH_SIZE).fetchLazy()) {
+            cursor.forEach(registration -> registrations.add(pair(registration.value1(), registration.value2())));
+        }
+
+        var counter = 0;
+        final var newMembers = new ArrayList<MemberRecord>();
+        final var newRegistrations = new ArrayList<RegistrationRecord>(BATCH_SIZE);
+        try (var statement = createStreamingStatement(connection);
+             var result = statement.executeQuery(
+                     "SELECT events_id, personen_id, aenderung, anmdatum, noshow, hashtag FROM eventteiln")) {
+            while (result.next()) {
+                final var eventId = result.getLong("events_id");
+                final var memberId = result.getLong("personen_id");
+                if (!eventIds.contains(eventId) || !registrations.add(pair(eventId, memberId))) {
+                    continue;
+                }
+                final var registerDate = getRegisterDate(result.getString("aenderung"), result.getString("anmdatum"));
+                if (memberIds.add(memberId)) {
+                    // registrations of deleted members are kept for the statistics
+                    final var member = dsl.newRecord(MEMBER);
+                    member.setId(memberId);
+                    member.setFirstName(RandomStringUtils.randomAlphabetic(32));
+                    member.setLastName(RandomStringUtils.randomAlphabetic(32));
+                    member.setEmail(RandomStringUtils.randomAlphabetic(32));
+                    member.setRegistrationDate(registerDate);
+                    member.setAccountDeleted(true);
+                    newMembers.add(member);
+                }
+                final var registration = dsl.newRecord(REGISTRATION);
+                registration.setEventId(eventId);
+                registration.setMemberId(memberId);
+                registration.setDate(registerDate);
+                registration.setNoShow(onlineEventIds.contains(eventId) || "1".equals(result.getString("noshow")));
+                registration.setDeregister(Objects.requireNonNullElse(result.getString("hashtag"), ""));
+                newRegistrations.add(registration);
+                counter++;
+                if (newRegistrations.size() >= BATCH_SIZE) {
+                    // the members have to exist before their registrations are written
+                    flush(newMembers);
+                    flush(newRegistrations);
+                }
+            }
+        }
+        flush(newMembers);
+        flush(newRegistrations);
+        showProgress(counter + " new registrations imported.");
+    }
+
+    private LongHashSet fetchIds(@NotNull final TableField<?, Long> idField) {
+        final var ids = new LongHashSet();
+        try (var cursor = dsl.select(idField).from(idField.getTable()).fetchSize(FETCH_SIZE).fetchLazy()) {
+            cursor.forEach(id -> ids.add(id.value1()));
+        }
+        return ids;
+    }
+
+    /**
+     * Create a forward-only, read-only statement, which fetches the rows of
+     * the old database in chunks instead of loading the whole result.
+     * Whether the fetch size is honoured depends on the JDBC driver: MariaDB
+     * Connector/J streams with any positive fetch size, MySQL Connector/J
+     * only with server side cursors, which are enabled by the connection
+     * property {@code useCursorFetch=true} set for the old database.
+     * (Without cursors, MySQL Connector/J streams row by row only with a
+     * fetch size of {@link Integer#MIN_VALUE}.)
+     */
+    private static Statement createStreamingStatement(@NotNull final Connection connection)
+            throws SQLException {
+        final var statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(FETCH_SIZE);
+        return statement;
+    }
+
+    /**
+     * Combine two IDs into one value for a {@link LongHashSet}. The IDs of the
+     * old database are 32-bit integers.
+     */
+    private static long pair(final long first, final long second) {
+        if ((first | second) >>> Integer.SIZE != 0) {
+            throw new IllegalArgumentException("ID out of range: %d/%d".formatted(first, second));
+        }
+        return first << Integer.SIZE | second;
+    }
+
+    private void flushIfFull(@NotNull final List<? extends TableRecord<?>> records) {
+        if (records.size() >= BATCH_SIZE) {
+            flush(records);
+        }
+    }
+
+    /**
+     * Write the records with one batch in a transaction and clear the list.
+     */
+    private void flush(@NotNull final List<? extends TableRecord<?>> records) {
+        if (!records.isEmpty()) {
+            dsl.transaction(configuration -> DSL.using(configuration).batchInsert(records).execute());
+            records.clear();
+        }
     }
 
     private void addMissingMembers() {
@@ -291,7 +522,16 @@ public final class JUGSImporter {
         sandroRuchId = sandroRuch.getId().intValue();
     }
 
-    private void importRegistrations(@NotNull final Connection connection)
+    void importRegistrations(@NotNull final Connection connection)
+            throws SQLException {
+        if (bulkLoad) {
+            bulkLoadRegistrations(connection);
+        } else {
+            importRegistrationsRowByRow(connection);
+        }
+    }
+
+    private void importRegistrationsRowByRow(@NotNull final Connection connection)
             throws SQLException {
         final var counter = new AtomicInteger(0);
         try (var statement = connection.createStatement()) {
@@ -342,7 +582,7 @@ public final class JUGSImporter {
                 }
             }
         }
-        showNotification(counter.get() + " new registrations imported.");
+        showProgress(counter.get() + " new registrations imported.");
     }
 
     private LocalDateTime getRegisterDate(@Nullable final String aenderung, @Nullable final String anmdatum) {
@@ -370,7 +610,7 @@ public final class JUGSImporter {
                     event.set(EVENT.LEVEL, EventLevel.All);
                     event.store();
                 });
-        showNotification("Updating event levels done.");
+        showProgress("Updating event levels done.");
     }
 
     private void importSpeakers(@NotNull final Connection connection)
@@ -452,7 +692,7 @@ public final class JUGSImporter {
                 }
             }
         }
-        showNotification(counter.get() + " speakers imported.");
+        showProgress(counter.get() + " speakers imported.");
     }
 
     private SpeakerRecord getSpeaker(final @NotNull ResultSet result) throws SQLException {
@@ -562,7 +802,7 @@ public final class JUGSImporter {
             }
         }
         applicationServiceInitListener.reloadRedirects();
-        showNotification(counter.get() + " new events imported.");
+        showProgress(counter.get() + " new events imported.");
     }
 
     private String getPlainText(@NotNull final String html) {
@@ -712,7 +952,7 @@ public final class JUGSImporter {
                 }
             }
         }
-        showNotification(counter.get() + " new members imported.");
+        showProgress(counter.get() + " new members imported.");
     }
 
     private LocalTime getDuration(@NotNull final String startzeit, @NotNull final String zeitende) {
@@ -804,7 +1044,7 @@ public final class JUGSImporter {
                 counter.incrementAndGet();
             }
         }
-        showNotification(counter.get() + " sponsors imported.");
+        showProgress(counter.get() + " sponsors imported.");
     }
 
     private String loadImageFromWeb(@NotNull final String imageURL) {
@@ -815,9 +1055,8 @@ public final class JUGSImporter {
             final var url = new URL(imageURL);
             try (var is = url.openStream()) {
                 final var bytes = org.apache.commons.io.IOUtils.toByteArray(is);
-                final var imageString = Base64.encodeBase64String(bytes);
                 final var imageType = extension.equals("svg") ? "svg+xml" : extension;
-                return "data:image/%s;base64,%s".formatted(imageType, imageString);
+                return databaseService.storeMedia("image/" + imageType, bytes);
             }
         } catch (final Exception e) {
             return "";
@@ -825,131 +1064,15 @@ public final class JUGSImporter {
     }
 
     private void mergeMembers() {
-        memberMergeCount = 0;
-        dsl.select(MEMBER.EMAIL, DSL.count(MEMBER.EMAIL).as("email_count"))
-                .from(MEMBER)
-                .groupBy(MEMBER.EMAIL)
-                .having(DSL.count(MEMBER.EMAIL).greaterThan(1))
-                .stream().forEach(this::mergeMembers);
-        showNotification(memberMergeCount + " duplicate members merged");
-    }
-
-    private void mergeMembers(@NotNull final Record2<String, Integer> record) {
-        mergeMembers(record.get(MEMBER.EMAIL));
-        memberMergeCount += record.get("email_count", Integer.class);
-    }
-
-    private void mergeMembers(@NotNull final String email) {
-        final var recordList = dsl.selectFrom(MEMBER)
-                .where(MEMBER.EMAIL.eq(email))
-                .orderBy(MEMBER.ID.asc())
-                .stream().collect(Collectors.toList());
-        while (recordList.size() > 1) {
-            mergeMembers(recordList.get(0), recordList.get(1));
-            recordList.remove(1);
-        }
-    }
-
-    private void mergeMembers(@NotNull final MemberRecord member1, @NotNull final MemberRecord member2) {
-        dsl.update(EVENT_ORGANIZER)
-                .set(EVENT_ORGANIZER.MEMBER_ID, member1.getId())
-                .where(EVENT_ORGANIZER.MEMBER_ID.eq(member2.getId()))
-                .execute();
-
-        dsl.selectFrom(REGISTRATION)
-                .where(REGISTRATION.MEMBER_ID.eq(member2.getId()))
-                .forEach(record ->
-                        dsl.insertInto(REGISTRATION, REGISTRATION.EVENT_ID, REGISTRATION.MEMBER_ID, REGISTRATION.DATE, REGISTRATION.NO_SHOW)
-                                .values(record.getEventId(), member1.getId(), record.getDate(), record.getNoShow())
-                                .onDuplicateKeyIgnore()
-                                .execute());
-        dsl.deleteFrom(REGISTRATION)
-                .where(REGISTRATION.MEMBER_ID.eq(member2.getId()))
-                .execute();
-
-        Stream.of(MEMBER.FIRST_NAME, MEMBER.LAST_NAME, MEMBER.COMPANY, MEMBER.EMAIL, MEMBER.ADDRESS, MEMBER.ZIP_CODE,
-                MEMBER.CITY, MEMBER.STATE, MEMBER.COUNTRY).forEach(field -> {
-            if (!member2.get(field).isBlank()) {
-                member1.set(field, member2.get(field));
-            }
-        });
-
-        if (member1.getRegistrationDate() == null && member2.getRegistrationDate() != null
-                || member1.getRegistrationDate() != null && member2.getRegistrationDate() != null
-                && member1.getRegistrationDate().isAfter(member2.getRegistrationDate())) {
-            member1.setRegistrationDate(member2.getRegistrationDate());
-        }
-
-        if (member1.getMembershipBegin() == null && member2.getMembershipBegin() != null
-                || member1.getMembershipBegin() != null && member2.getMembershipBegin() != null
-                && member1.getMembershipBegin().isAfter(member2.getMembershipBegin())) {
-            member1.setMembershipBegin(member2.getMembershipBegin());
-        }
-
-        if (member1.getMembershipEnd() == null && member2.getMembershipEnd() != null
-                || member1.getMembershipEnd() != null && member2.getMembershipEnd() != null
-                && member1.getMembershipEnd().isBefore(member2.getMembershipEnd())) {
-            member1.setMembershipEnd(member2.getMembershipEnd());
-        }
-
-        if (member1.getMembershipId() == 0 && member2.getMembershipId() > 0) {
-            member1.setMembershipId(member2.getMembershipId());
-        }
-
-        if (!member1.getAdmin() && member2.getAdmin()) {
-            member1.setAdmin(true);
-        }
-
-        member1.store();
-        member2.delete();
+        final var clusters = databaseService.findDuplicateMembers(DuplicateNormalization.IGNORE_CASE);
+        final var mergeCount = databaseService.mergeDuplicateMembers(clusters);
+        showProgress(mergeCount + " duplicate members merged");
     }
 
     private void mergeSpeakers() {
-        speakerMergeCount = 0;
-        dsl.select(SPEAKER.FIRST_NAME, SPEAKER.LAST_NAME, DSL.count(DSL.asterisk()).as("name_count"))
-                .from(SPEAKER)
-                .groupBy(SPEAKER.FIRST_NAME, SPEAKER.LAST_NAME)
-                .having(DSL.count(DSL.asterisk()).greaterThan(1))
-                .stream().forEach(this::mergeSpeakers);
-        showNotification(speakerMergeCount + " duplicate speakers merged");
-    }
-
-    private void mergeSpeakers(@NotNull final Record3<String, String, Integer> record) {
-        mergeSpeakers(record.get(SPEAKER.FIRST_NAME), record.get(SPEAKER.LAST_NAME));
-        speakerMergeCount += record.get("name_count", Integer.class);
-    }
-
-    private void mergeSpeakers(@NotNull final String firstName, @NotNull final String lastName) {
-        final var recordList = dsl.selectFrom(SPEAKER)
-                .where(SPEAKER.FIRST_NAME.eq(firstName).and(SPEAKER.LAST_NAME.eq(lastName)))
-                .orderBy(SPEAKER.ID.desc())
-                .stream().collect(Collectors.toList());
-        while (recordList.size() > 1) {
-            final var speaker1 = recordList.get(0);
-            final var speaker2 = recordList.get(1);
-            if (speaker1.getId() > speaker2.getId()) {
-                mergeSpeakers(speaker1, speaker2);
-                recordList.remove(1);
-            } else {
-                mergeSpeakers(speaker2, speaker1);
-                recordList.remove(0);
-            }
-        }
-    }
-
-    private void mergeSpeakers(@NotNull final SpeakerRecord speaker1, @NotNull final SpeakerRecord speaker2) {
-        dsl.selectFrom(EVENT_SPEAKER)
-                .where(EVENT_SPEAKER.SPEAKER_ID.eq(speaker2.getId()))
-                .forEach(record ->
-                        dsl.insertInto(EVENT_SPEAKER, EVENT_SPEAKER.EVENT_ID, EVENT_SPEAKER.SPEAKER_ID)
-                                .values(record.getEventId(), speaker1.getId())
-                                .onDuplicateKeyIgnore()
-                                .execute());
-        dsl.deleteFrom(EVENT_SPEAKER)
-                .where(EVENT_SPEAKER.SPEAKER_ID.eq(speaker2.getId()))
-                .execute();
-
-        speaker2.delete();
+        final var clusters = databaseService.findDuplicateSpeakers(DuplicateNormalization.IGNORE_CASE);
+        final var mergeCount = databaseService.mergeDuplicateSpeakers(clusters);
+        showProgress(mergeCount + " duplicate speakers merged");
     }
 
 }
@@ -0,0 +1,143 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.komunumo.data.service;
+
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.entity.CohortAnalysis;
+import org.komunumo.data.entity.NoShows;
+import org.komunumo.data.entity.YearStatistics;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Year;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.time.Month.DECEMBER;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
+/**
+ * Loads the dashboard statistics in the background. The queries of a year
+ * run in parallel on a small thread pool. Statistics of past years can't
+ * change anymore, so they are cached for the lifetime of the application.
+ */
+@Service
+public class AnalyticsService {
+
+    /**
+     * The number of years (up to and including the selected year) used to count the distinct attendees.
+     */
+    public static final int DISTINCT_ATTENDEES_YEARS = 5;
+
+    private static final int THREAD_COUNT = 4;
+    private static final Duration COHORT_ANALYSIS_MAX_AGE = Duration.ofHours(1);
+
+    private final DatabaseService databaseService;
+    private final ExecutorService executor;
+    private final Map<Year, CompletableFuture<YearStatistics>> pastYears = new ConcurrentHashMap<>();
+    private CompletableFuture<CohortAnalysis> cohortAnalysis;
+    private Instant cohortAnalysisCreated;
+
+    public AnalyticsService(@NotNull final DatabaseService databaseService) {
+        this.databaseService = databaseService;
+        final var threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(THREAD_COUNT, runnable -> {
+            final var thread = new Thread(runnable, "analytics-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the statistics of a year. Past years are served from the cache.
+     * @param year the year
+     * @return the statistics, completed in the background
+     */
+    public CompletableFuture<YearStatistics> getYearStatistics(@NotNull final Year year) {
+        if (year.isBefore(Year.now())) {
+            return pastYears.computeIfAbsent(year, this::loadPastYearStatistics);
+        }
+        return loadYearStatistics(year);
+    }
+
+    /**
+     * Get the colors configured for the event locations. They are not cached
+     * because they can be changed at any time.
+     * @return a map with the location as key and the color as value, completed in the background
+     */
+    public CompletableFuture<Map<String, String>> getLocationColors() {
+        return supplyAsync(databaseService::getAllLocationColors, executor);
+    }
+
+    /**
+     * Get the retention analysis of the attendees. It has to scan all
+     * registrations, so the result is reused for an hour.
+     * @return the cohort analysis, completed in the background
+     */
+    public synchronized CompletableFuture<CohortAnalysis> getCohortAnalysis() {
+        if (cohortAnalysis == null || cohortAnalysis.isCompletedExceptionally()
+                || cohortAnalysisCreated.plus(COHORT_ANALYSIS_MAX_AGE).isBefore(Instant.now())) {
+            cohortAnalysis = supplyAsync(databaseService::analyzeCohorts, executor);
+            cohortAnalysisCreated = Instant.now();
+        }
+        return cohortAnalysis;
+    }
+
+    private CompletableFuture<YearStatistics> loadPastYearStatistics(@NotNull final Year year) {
+        final var statistics = loadYearStatistics(year);
+        // don't cache failures, the next request should try again
+        statistics.whenCompleteAsync((result, throwable) -> {
+            if (throwable != null) {
+                pastYears.remove(year, statistics);
+            }
+        }, executor);
+        return statistics;
+    }
+
+    private CompletableFuture<YearStatistics> loadYearStatistics(@NotNull final Year year) {
+        final var registrations = supplyAsync(() -> databaseService.countAttendeesByYear(year, NoShows.INCLUDE), executor);
+        final var noShows = supplyAsync(() -> databaseService.countAttendeesByYear(year, NoShows.ONLY), executor);
+        final var events = supplyAsync(() -> databaseService.countEventsByYear(year), executor);
+        final var distinctAttendees = supplyAsync(() -> databaseService.countDistinctAttendees(
+                year.minusYears(DISTINCT_ATTENDEES_YEARS - 1).atDay(1), year.atMonth(DECEMBER).atEndOfMonth(),
+                List.of(), List.of(), NoShows.EXCLUDE), executor);
+        final var monthlyVisitors = supplyAsync(() -> List.copyOf(databaseService.calculateMonthlyVisitorsByYear(year)), executor);
+
+        return CompletableFuture.allOf(registrations, noShows, events, distinctAttendees, monthlyVisitors)
+                .thenApply(ignored -> new YearStatistics(year, registrations.join(), events.join(), noShows.join(),
+                        distinctAttendees.join(), monthlyVisitors.join()));
+    }
+
+    /**
+     * Stop the background threads when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the missing monthly attendee sketches in the background, so that
+ * counting the distinct attendees never has to build them on the read path.
+ * Sketches are missing for the month which was just closed and for every
+ * month which was invalidated since the last run.
+ */
+@Service
+public class AttendeeSketchBuilder {
+
+    public static final Duration INITIAL_DELAY = Duration.ofMinutes(1);
+    public static final Duration INTERVAL = Duration.ofHours(1);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AttendeeSketchBuilder.class);
+
+    private final DatabaseService databaseService;
+    private final ScheduledExecutorService scheduler;
+
+    public AttendeeSketchBuilder(@NotNull final DatabaseService databaseService) {
+        this.databaseService = databaseService;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "attendee-sketches");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::buildMissingSketches,
+                INITIAL_DELAY.toMillis(), INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void buildMissingSketches() {
+        try {
+            final var builtMonths = databaseService.buildMissingAttendeeSketches();
+            if (builtMonths > 0) {
+                LOGGER.info("Built the attendee sketches of {} month(s)", builtMonths);
+            }
+        } catch (final RuntimeException e) {
+            // keep the schedule alive, the next run tries again
+            LOGGER.error("Unable to build the attendee sketches: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+}
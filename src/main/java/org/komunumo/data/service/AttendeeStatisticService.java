@@ -0,0 +1,308 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.komunumo.data.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jooq.Condition;
+import org.jooq.Query;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.komunumo.data.db.enums.EventType;
+import org.komunumo.data.entity.DistinctAttendees;
+import org.komunumo.data.entity.NoShows;
+import org.komunumo.data.service.getter.DSLContextGetter;
+import org.komunumo.data.statistic.HyperLogLog;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Objects;
+
+import static org.jooq.impl.DSL.coalesce;
+import static org.jooq.impl.DSL.select;
+import static org.komunumo.data.db.tables.AttendeeSketch.ATTENDEE_SKETCH;
+import static org.komunumo.data.db.tables.AttendeeSketchMonth.ATTENDEE_SKETCH_MONTH;
+import static org.komunumo.data.db.tables.Event.EVENT;
+import static org.komunumo.data.db.tables.Registration.REGISTRATION;
+
+/**
+ * Counts distinct attendees (members with at least one registration) in
+ * arbitrary date ranges, optionally filtered by location and event type.
+ *
+ * <p>Ranges up to {@link #EXACT_COUNT_MAX_DAYS} days are counted exactly with
+ * {@code COUNT(DISTINCT member_id)}. Longer ranges are estimated by merging
+ * per-month {@link HyperLogLog} sketches, which are built in the background
+ * for every closed month and stored in the {@code attendee_sketch} table
+ * (see {@link AttendeeSketchBuilder}). Months without stored sketches are
+ * counted from the registrations directly. Changes to registrations of a
+ * closed month, and to the location or type of their event, invalidate the
+ * sketches of that month.</p>
+ */
+interface AttendeeStatisticService extends DSLContextGetter {
+
+    /**
+     * Date ranges up to this number of days are counted exactly.
+     */
+    int EXACT_COUNT_MAX_DAYS = 366;
+
+    /**
+     * Count the distinct attendees in a date range.
+     *
+     * @param fromDate the first day of the range (inclusive)
+     * @param toDate the last day of the range (inclusive)
+     * @param locations the event locations to include, all locations if empty
+     * @param eventTypes the event types to include, all event types if empty
+     * @param noShows how to handle registrations marked as no-show
+     * @return the (exact or estimated) number of distinct attendees
+     */
+    default DistinctAttendees countDistinctAttendees(@NotNull final LocalDate fromDate,
+                                                     @NotNull final LocalDate toDate,
+                                                     @NotNull final Collection<String> locations,
+                                                     @NotNull final Collection<EventType> eventTypes,
+                                                     @NotNull final NoShows noShows) {
+        if (toDate.isBefore(fromDate)) {
+            throw new IllegalArgumentException("The end of the date range must not be before its start!");
+        }
+        if (ChronoUnit.DAYS.between(fromDate, toDate) < EXACT_COUNT_MAX_DAYS) {
+            return new DistinctAttendees(countDistinctAttendeesExact(fromDate, toDate, locations, eventTypes, noShows), false);
+        }
+        return new DistinctAttendees(countDistinctAttendeesEstimated(fromDate, toDate, locations, eventTypes, noShows), true);
+    }
+
+    /**
+     * Invalidate the stored sketches of the month of a registration. Has to be
+     * called whenever a registration is added, changed, or removed.
+     *
+     * @param registrationDate the date of the changed registration
+     */
+    default void invalidateAttendeeSketch(@Nullable final LocalDateTime registrationDate) {
+        if (registrationDate != null) {
+            final var month = YearMonth.from(registrationDate);
+            if (month.isBefore(YearMonth.now())) {
+                dsl().deleteFrom(ATTENDEE_SKETCH_MONTH)
+                        .where(ATTENDEE_SKETCH_MONTH.SKETCH_MONTH.eq(month.atDay(1)))
+                        .execute();
+            }
+        }
+    }
+
+    /**
+     * Invalidate the stored sketches of all months with registrations for an
+     * event. Has to be called when the location or the type of the event
+     * changes or the event is deleted.
+     *
+     * @param eventId the ID of the changed event
+     */
+    default void invalidateAttendeeSketchesOfEvent(@Nullable final Long eventId) {
+        if (eventId != null) {
+            dsl().select(REGISTRATION.DATE)
+                    .from(REGISTRATION)
+                    .where(REGISTRATION.EVENT_ID.eq(eventId))
+                    .fetch(REGISTRATION.DATE)
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .map(YearMonth::from)
+                    .distinct()
+                    .forEach(month -> invalidateAttendeeSketch(month.atDay(1).atStartOfDay()));
+        }
+    }
+
+    /**
+     * Invalidate all stored sketches, e.g. after bulk changes like merging members.
+     */
+    default void invalidateAllAttendeeSketches() {
+        dsl().deleteFrom(ATTENDEE_SKETCH_MONTH).execute();
+    }
+
+    /**
+     * Build and store the sketches of all closed months which have none.
+     * Called in the background, the read path never builds sketches.
+     *
+     * @return the number of months the sketches were built for
+     */
+    default int buildMissingAttendeeSketches() {
+        final var firstRegistration = dsl().select(DSL.min(REGISTRATION.DATE))
+                .from(REGISTRATION)
+                .fetchOne(0, LocalDateTime.class);
+        if (firstRegistration == null) {
+            return 0;
+        }
+        final var storedMonths = new HashSet<>(dsl().select(ATTENDEE_SKETCH_MONTH.SKETCH_MONTH)
+                .from(ATTENDEE_SKETCH_MONTH)
+                .fetch(ATTENDEE_SKETCH_MONTH.SKETCH_MONTH));
+        final var lastClosedMonth = YearMonth.now().minusMonths(1);
+        var builtMonths = 0;
+        for (var month = YearMonth.from(firstRegistration); !month.isAfter(lastClosedMonth); month = month.plusMonths(1)) {
+            if (!storedMonths.contains(month.atDay(1))) {
+                buildAttendeeSketches(month);
+                builtMonths++;
+            }
+        }
+        return builtMonths;
+    }
+
+    private long countDistinctAttendeesExact(@NotNull final LocalDate fromDate,
+                                             @NotNull final LocalDate toDate,
+                                             @NotNull final Collection<String> locations,
+                                             @NotNull final Collection<EventType> eventTypes,
+                                             @NotNull final NoShows noShows) {
+        final var count = dsl().select(DSL.countDistinct(REGISTRATION.MEMBER_ID))
+                .from(REGISTRATION)
+                .where(REGISTRATION.DATE.greaterOrEqual(fromDate.atStartOfDay())
+                        .and(REGISTRATION.DATE.lessThan(toDate.plusDays(1).atStartOfDay()))
+                        .and(registrationFilter(locations, eventTypes, noShows)))
+                .fetchOne(0, Long.class);
+        return count != null ? count : 0;
+    }
+
+    private long countDistinctAttendeesEstimated(@NotNull final LocalDate fromDate,
+                                                 @NotNull final LocalDate toDate,
+                                                 @NotNull final Collection<String> locations,
+                                                 @NotNull final Collection<EventType> eventTypes,
+                                                 @NotNull final NoShows noShows) {
+        final var sketch = new HyperLogLog();
+        final var filter = registrationFilter(locations, eventTypes, noShows);
+
+        final var fromMonth = YearMonth.from(fromDate);
+        final var toMonth = YearMonth.from(toDate);
+        final var firstSketchMonth = fromDate.getDayOfMonth() == 1 ? fromMonth : fromMonth.plusMonths(1);
+        final var lastFullMonth = toDate.equals(toMonth.atEndOfMonth()) ? toMonth : toMonth.minusMonths(1);
+        final var lastClosedMonth = YearMonth.now().minusMonths(1);
+        final var lastSketchMonth = lastFullMonth.isBefore(lastClosedMonth) ? lastFullMonth : lastClosedMonth;
+
+        if (firstSketchMonth.isAfter(lastSketchMonth)) {
+            addAttendees(sketch, fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay(), filter);
+        } else {
+            mergeAttendeeSketches(sketch, firstSketchMonth, lastSketchMonth, locations, eventTypes, noShows, filter);
+            addAttendees(sketch, fromDate.atStartOfDay(), firstSketchMonth.atDay(1).atStartOfDay(), filter);
+            addAttendees(sketch, lastSketchMonth.plusMonths(1).atDay(1).atStartOfDay(), toDate.plusDays(1).atStartOfDay(), filter);
+        }
+
+        return sketch.estimate();
+    }
+
+    private void addAttendees(@NotNull final HyperLogLog sketch,
+                              @NotNull final LocalDateTime from,
+                              @NotNull final LocalDateTime toExclusive,
+                              @NotNull final Condition filter) {
+        if (from.isBefore(toExclusive)) {
+            try (var cursor = dsl().selectDistinct(REGISTRATION.MEMBER_ID)
+                    .from(REGISTRATION)
+                    .where(REGISTRATION.DATE.greaterOrEqual(from)
+                            .and(REGISTRATION.DATE.lessThan(toExclusive))
+                            .and(filter))
+                    .fetchSize(1_000)
+                    .fetchLazy()) {
+                cursor.forEach(record -> sketch.add(record.value1()));
+            }
+        }
+    }
+
+    private void mergeAttendeeSketches(@NotNull final HyperLogLog sketch,
+                                       @NotNull final YearMonth firstMonth,
+                                       @NotNull final YearMonth lastMonth,
+                                       @NotNull final Collection<String> locations,
+                                       @NotNull final Collection<EventType> eventTypes,
+                                       @NotNull final NoShows noShows,
+                                       @NotNull final Condition filter) {
+        // one statement, so a month invalidated concurrently is either merged completely or counted exactly
+        final var storedMonths = new HashSet<LocalDate>();
+        final var eventTypeLiterals = eventTypes.stream().map(EventType::getLiteral).toList();
+        dsl().select(ATTENDEE_SKETCH_MONTH.SKETCH_MONTH, ATTENDEE_SKETCH.SKETCH)
+                .from(ATTENDEE_SKETCH_MONTH)
+                .leftJoin(ATTENDEE_SKETCH).on(ATTENDEE_SKETCH.SKETCH_MONTH.eq(ATTENDEE_SKETCH_MONTH.SKETCH_MONTH)
+                        .and(locations.isEmpty() ? DSL.noCondition() : ATTENDEE_SKETCH.LOCATION.in(locations))
+                        .and(eventTypes.isEmpty() ? DSL.noCondition() : ATTENDEE_SKETCH.EVENT_TYPE.in(eventTypeLiterals))
+                        .and(noShows == NoShows.INCLUDE ? DSL.noCondition() : ATTENDEE_SKETCH.NO_SHOW.eq(noShows == NoShows.ONLY)))
+                .where(ATTENDEE_SKETCH_MONTH.SKETCH_MONTH.between(firstMonth.atDay(1), lastMonth.atDay(1)))
+                .forEach(record -> {
+                    storedMonths.add(record.value1());
+                    if (record.value2() != null) {
+                        sketch.merge(HyperLogLog.fromBytes(record.value2()));
+                    }
+                });
+
+        for (var month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            if (!storedMonths.contains(month.atDay(1))) {
+                addAttendees(sketch, month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay(), filter);
+            }
+        }
+    }
+
+    private void buildAttendeeSketches(@NotNull final YearMonth month) {
+        final var sketches = new HashMap<SketchKey, HyperLogLog>();
+        try (var cursor = dsl().select(coalesce(EVENT.LOCATION, ""), EVENT.TYPE, REGISTRATION.NO_SHOW, REGISTRATION.MEMBER_ID)
+                .from(REGISTRATION)
+                .join(EVENT).on(REGISTRATION.EVENT_ID.eq(EVENT.ID))
+                .where(REGISTRATION.DATE.greaterOrEqual(month.atDay(1).atStartOfDay())
+                        .and(REGISTRATION.DATE.lessThan(month.plusMonths(1).atDay(1).atStartOfDay())))
+                .fetchSize(1_000)
+                .fetchLazy()) {
+            cursor.forEach(record -> sketches
+                    .computeIfAbsent(new SketchKey(record.value1(), record.value2(), record.value3()), key -> new HyperLogLog())
+                    .add(record.value4()));
+        }
+
+        final var sketchMonth = month.atDay(1);
+        final var rows = new ArrayList<Query>();
+        sketches.forEach((key, sketch) -> rows.add(dsl().insertInto(ATTENDEE_SKETCH,
+                        ATTENDEE_SKETCH.SKETCH_MONTH, ATTENDEE_SKETCH.LOCATION, ATTENDEE_SKETCH.EVENT_TYPE,
+                        ATTENDEE_SKETCH.NO_SHOW, ATTENDEE_SKETCH.SKETCH)
+                .values(sketchMonth, key.location(), key.eventType().getLiteral(), key.noShow(), sketch.toBytes())));
+        try {
+            dsl().transaction(transaction -> {
+                final var tx = DSL.using(transaction);
+                tx.insertInto(ATTENDEE_SKETCH_MONTH, ATTENDEE_SKETCH_MONTH.SKETCH_MONTH, ATTENDEE_SKETCH_MONTH.CREATED)
+                        .values(sketchMonth, LocalDateTime.now())
+                        .execute();
+                if (!rows.isEmpty()) {
+                    tx.batch(rows).execute();
+                }
+            });
+        } catch (final DataAccessException ignored) {
+            // another node stored the sketches of this month concurrently
+        }
+    }
+
+    private static Condition registrationFilter(@NotNull final Collection<String> locations,
+                                                @NotNull final Collection<EventType> eventTypes,
+                                                @NotNull final NoShows noShows) {
+        final Condition eventCondition = (locations.isEmpty() ? DSL.noCondition() : coalesce(EVENT.LOCATION, "").in(locations))
+                .and(eventTypes.isEmpty() ? DSL.noCondition() : EVENT.TYPE.in(eventTypes));
+        return (locations.isEmpty() && eventTypes.isEmpty() ? DSL.noCondition()
+                        : REGISTRATION.EVENT_ID.in(select(EVENT.ID).from(EVENT).where(eventCondition)))
+                .and(noShows == NoShows.INCLUDE ? DSL.noCondition() : REGISTRATION.NO_SHOW.eq(noShows == NoShows.ONLY));
+    }
+
+    /**
+     * The dimensions a monthly attendee sketch is stored for.
+     * @param location the event location
+     * @param eventType the event type
+     * @param noShow true for registrations marked as no-show
+     */
+    record SketchKey(@NotNull String location, @NotNull EventType eventType, boolean noShow) { }
+
+}
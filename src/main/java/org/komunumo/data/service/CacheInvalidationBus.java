@@ -0,0 +1,149 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distributes cache invalidations to all nodes of the application, using
+ * nothing but the database. Every topic has a version number in the table
+ * <code>cache_version</code>. Publishing a topic increments its version and
+ * reloads the local caches right away, the other nodes poll the versions
+ * every {@link #POLL_INTERVAL} and reload the caches of changed topics only.
+ */
+@Service
+public class CacheInvalidationBus {
+
+    /**
+     * The interval in which the nodes check for changes made on other nodes.
+     */
+    public static final Duration POLL_INTERVAL = Duration.ofSeconds(5);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    /**
+     * The cached content which can be invalidated.
+     */
+    public enum Topic {
+        CONFIGURATION, REDIRECTS, PAGES, SPONSORS, NEWS, FAQ, MEMBERS
+    }
+
+    private final DatabaseService databaseService;
+    private final Map<Topic, List<Runnable>> subscribers = new EnumMap<>(Topic.class);
+    private final Map<Topic, Long> versions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public CacheInvalidationBus(@NotNull final DatabaseService databaseService) {
+        this.databaseService = databaseService;
+        for (final var topic : Topic.values()) {
+            subscribers.put(topic, new CopyOnWriteArrayList<>());
+        }
+        readVersions().forEach(versions::put);
+
+        // the database service is needed by this bus, it can't subscribe itself
+        subscribe(Topic.CONFIGURATION, databaseService::reloadConfiguration);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "cache-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll,
+                POLL_INTERVAL.toMillis(), POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Register a cache to be reloaded when a topic is published on any node.
+     * @param topic the topic
+     * @param reloader invalidates or reloads the cached content
+     */
+    public void subscribe(@NotNull final Topic topic, @NotNull final Runnable reloader) {
+        subscribers.get(topic).add(reloader);
+    }
+
+    /**
+     * Publish a change of a topic. The caches of this node are reloaded
+     * immediately, the caches of the other nodes with their next poll.
+     * @param topic the changed topic
+     */
+    public void publish(@NotNull final Topic topic) {
+        final var version = databaseService.incrementCacheVersion(topic.name());
+        versions.merge(topic, version, Math::max);
+        notifySubscribers(topic);
+    }
+
+    /**
+     * Check for topics published on other nodes and reload the affected caches.
+     * Called periodically, but may also be called to synchronize immediately.
+     */
+    public void poll() {
+        try {
+            readVersions().forEach((topic, version) -> {
+                final var previous = versions.put(topic, version);
+                if (previous == null || previous < version) {
+                    notifySubscribers(topic);
+                }
+            });
+        } catch (final RuntimeException e) {
+            LOGGER.warn("Unable to poll the cache versions: {}", e.getMessage());
+        }
+    }
+
+    private Map<Topic, Long> readVersions() {
+        final var topics = new EnumMap<Topic, Long>(Topic.class);
+        databaseService.getCacheVersions().forEach((name, version) -> {
+            try {
+                topics.put(Topic.valueOf(name), version);
+            } catch (final IllegalArgumentException ignored) {
+                // topic of another application version, not used here
+            }
+        });
+        return topics;
+    }
+
+    private void notifySubscribers(@NotNull final Topic topic) {
+        for (final var reloader : subscribers.get(topic)) {
+            try {
+                reloader.run();
+            } catch (final RuntimeException e) {
+                LOGGER.error("Unable to reload a cache of topic {}: {}", topic, e.getMessage(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+}
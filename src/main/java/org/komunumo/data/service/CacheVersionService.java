@@ -0,0 +1,51 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.service.getter.DSLContextGetter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.komunumo.data.db.tables.CacheVersion.CACHE_VERSION;
+
+interface CacheVersionService extends DSLContextGetter {
+
+    default long incrementCacheVersion(@NotNull final String topic) {
+        final var now = LocalDateTime.now();
+        dsl().insertInto(CACHE_VERSION, CACHE_VERSION.TOPIC, CACHE_VERSION.VERSION, CACHE_VERSION.CHANGED)
+                .values(topic, 1L, now)
+                .onDuplicateKeyUpdate()
+                .set(CACHE_VERSION.VERSION, CACHE_VERSION.VERSION.plus(1))
+                .set(CACHE_VERSION.CHANGED, now)
+                .execute();
+        return dsl().select(CACHE_VERSION.VERSION)
+                .from(CACHE_VERSION)
+                .where(CACHE_VERSION.TOPIC.eq(topic))
+                .fetchSingle(CACHE_VERSION.VERSION);
+    }
+
+    default Map<String, Long> getCacheVersions() {
+        return dsl().select(CACHE_VERSION.TOPIC, CACHE_VERSION.VERSION)
+                .from(CACHE_VERSION)
+                .fetchMap(CACHE_VERSION.TOPIC, CACHE_VERSION.VERSION);
+    }
+
+}
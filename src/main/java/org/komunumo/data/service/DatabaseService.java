@@ -29,10 +29,11 @@ import org.springframework.stereotype.Service;
 
 @Service
 @SuppressWarnings("PMD.AvoidFieldNameMatchingMethodName")
-public class DatabaseService implements DSLContextGetter, ConfigurationGetter, MailSenderGetter, ConfigurationService, EventService,
-        EventKeywordService, EventOrganizerService, EventSpeakerService, FaqService, FeedbackService, KeywordService, LocationColorService,
-        MailService, MailTemplateService, MemberService, NewsService, PageService, RedirectService, RegistrationService, SpeakerService,
-        SponsorService, StatisticService, SubscriptionService {
+public class DatabaseService implements DSLContextGetter, ConfigurationGetter, MailSenderGetter, CacheVersionService, ConfigurationService,
+        DeduplicationService, EventService, EventKeywordService, EventOrganizerService, EventSpeakerService, FaqService, FeedbackService,
+        ImportJobService, KeywordService, LocationColorService, LoginFailureService, MailService, MailTemplateService, MediaService,
+        MemberService, NewsService, PageService, RedirectService, RegistrationService, SpeakerService, SponsorService, StatisticService,
+        SubscriptionService {
 
     private final DSLContext dsl;
     private final MailSender mailSender;
@@ -47,7 +48,8 @@ public class DatabaseService implements DSLContextGetter, ConfigurationGetter, M
     }
 
     /**
-     * Reload the configuration from the database.
+     * Reload the configuration from the database on this node. To reload it
+     * on all nodes, publish {@link CacheInvalidationBus.Topic#CONFIGURATION}.
      */
     public void reloadConfiguration() {
         configuration = loadConfigurationFromDatabase();
@@ -0,0 +1,295 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+import org.jooq.Row2;
+import org.jooq.Table;
+import org.jooq.TableField;
+import org.jooq.impl.DSL;
+import org.komunumo.data.db.tables.records.MemberRecord;
+import org.komunumo.data.db.tables.records.SpeakerRecord;
+import org.komunumo.data.entity.DuplicateCluster;
+import org.komunumo.data.entity.DuplicateNormalization;
+import org.komunumo.data.service.getter.DSLContextGetter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.komunumo.data.db.tables.EventOrganizer.EVENT_ORGANIZER;
+import static org.komunumo.data.db.tables.EventSpeaker.EVENT_SPEAKER;
+import static org.komunumo.data.db.tables.Member.MEMBER;
+import static org.komunumo.data.db.tables.Registration.REGISTRATION;
+import static org.komunumo.data.db.tables.Speaker.SPEAKER;
+
+interface DeduplicationService extends DSLContextGetter, AttendeeStatisticService {
+
+    /**
+     * Find members with the same email address. The oldest member of a
+     * cluster survives, members without an email address are ignored.
+     * @param normalization how the email addresses are compared
+     * @return the clusters of duplicate members
+     */
+    default List<DuplicateCluster> findDuplicateMembers(@NotNull final DuplicateNormalization normalization) {
+        try (var members = dsl().select(MEMBER.ID, MEMBER.FIRST_NAME, MEMBER.LAST_NAME, MEMBER.EMAIL)
+                .from(MEMBER)
+                .orderBy(MEMBER.ID.asc())
+                .stream()) {
+            return findClusters(normalization, members.map(member -> new Candidate(member.value1(),
+                    memberKey(normalization, member.value4()),
+                    "%s %s <%s>".formatted(member.value2(), member.value3(), member.value4()))));
+        }
+    }
+
+    /**
+     * Find speakers with the same first and last name. The newest speaker of
+     * a cluster survives, because it has the most recent data.
+     * @param normalization how the names are compared
+     * @return the clusters of duplicate speakers
+     */
+    default List<DuplicateCluster> findDuplicateSpeakers(@NotNull final DuplicateNormalization normalization) {
+        try (var speakers = dsl().select(SPEAKER.ID, SPEAKER.FIRST_NAME, SPEAKER.LAST_NAME, SPEAKER.COMPANY)
+                .from(SPEAKER)
+                .orderBy(SPEAKER.ID.desc())
+                .stream()) {
+            return findClusters(normalization, speakers.map(speaker -> new Candidate(speaker.value1(),
+                    speakerKey(normalization, speaker.value2(), speaker.value3()),
+                    speaker.value4().isBlank() ? "%s %s".formatted(speaker.value2(), speaker.value3())
+                            : "%s %s (%s)".formatted(speaker.value2(), speaker.value3(), speaker.value4()))));
+        }
+    }
+
+    /**
+     * Merge duplicate members into the survivor of their cluster, all clusters
+     * in one transaction. Non-blank fields of newer duplicates overwrite the
+     * fields of the survivor, except the email address of the survivor, which
+     * is kept. Registrations and event organizers are moved to the survivor
+     * with a few set-based statements per cluster and table. Records deleted
+     * or changed to another key since the clusters were found are skipped.
+     * The members cached by the sessions must be invalidated afterwards.
+     * @param clusters the clusters found by {@link #findDuplicateMembers(DuplicateNormalization)}
+     * @return the number of merged (deleted) duplicates
+     */
+    default int mergeDuplicateMembers(@NotNull final List<DuplicateCluster> clusters) {
+        final int mergeCount = dsl().transactionResult(transaction -> {
+            final var tx = DSL.using(transaction);
+            var count = 0;
+            for (final var cluster : clusters) {
+                count += mergeMembers(tx, cluster);
+            }
+            return count;
+        });
+        if (mergeCount > 0) {
+            invalidateAllAttendeeSketches();
+        }
+        return mergeCount;
+    }
+
+    /**
+     * Merge duplicate speakers into the survivor of their cluster, all
+     * clusters in one transaction. Blank fields of the survivor are filled
+     * with the values of the duplicates, the event speakers are moved to the
+     * survivor with a few set-based statements per cluster. Records deleted
+     * or changed to another key since the clusters were found are skipped.
+     * @param clusters the clusters found by {@link #findDuplicateSpeakers(DuplicateNormalization)}
+     * @return the number of merged (deleted) duplicates
+     */
+    default int mergeDuplicateSpeakers(@NotNull final List<DuplicateCluster> clusters) {
+        return dsl().transactionResult(transaction -> {
+            final var tx = DSL.using(transaction);
+            var count = 0;
+            for (final var cluster : clusters) {
+                count += mergeSpeakers(tx, cluster);
+            }
+            return count;
+        });
+    }
+
+    private static String memberKey(@NotNull final DuplicateNormalization normalization, @NotNull final String email) {
+        return normalization.normalize(email);
+    }
+
+    private static String speakerKey(@NotNull final DuplicateNormalization normalization,
+                                     @NotNull final String firstName, @NotNull final String lastName) {
+        return (normalization.normalize(firstName) + " " + normalization.normalize(lastName)).trim();
+    }
+
+    private static List<DuplicateCluster> findClusters(@NotNull final DuplicateNormalization normalization,
+                                                       @NotNull final Stream<Candidate> candidates) {
+        final var candidatesByKey = new LinkedHashMap<String, List<Candidate>>();
+        candidates.filter(candidate -> !candidate.key().isBlank())
+                .forEach(candidate -> candidatesByKey.computeIfAbsent(candidate.key(), key -> new ArrayList<>()).add(candidate));
+        return candidatesByKey.entrySet().stream()
+                .filter(entry -> entry.getValue().size() > 1)
+                .map(entry -> new DuplicateCluster(entry.getKey(), normalization,
+                        entry.getValue().get(0).id(),
+                        entry.getValue().stream().skip(1).map(Candidate::id).toList(),
+                        entry.getValue().stream().map(Candidate::label).toList()))
+                .toList();
+    }
+
+    private static int mergeMembers(@NotNull final DSLContext tx, @NotNull final DuplicateCluster cluster) {
+        final var members = tx.selectFrom(MEMBER)
+                .where(MEMBER.ID.eq(cluster.survivorId()).or(MEMBER.ID.in(cluster.duplicateIds())))
+                .orderBy(MEMBER.ID.asc())
+                .forUpdate()
+                .fetch().stream()
+                .filter(member -> memberKey(cluster.normalization(), member.getEmail()).equals(cluster.key()))
+                .toList();
+        final var survivor = members.stream()
+                .filter(member -> member.getId() == cluster.survivorId())
+                .findAny().orElse(null);
+        final var duplicates = members.stream()
+                .filter(member -> member != survivor)
+                .toList();
+        if (survivor == null || duplicates.isEmpty()) {
+            return 0;
+        }
+
+        duplicates.forEach(duplicate -> mergeMemberFields(survivor, duplicate));
+        final var duplicateIds = duplicates.stream().map(MemberRecord::getId).toList();
+        moveLinks(tx, REGISTRATION, REGISTRATION.EVENT_ID, REGISTRATION.MEMBER_ID, survivor.getId(), duplicateIds);
+        moveLinks(tx, EVENT_ORGANIZER, EVENT_ORGANIZER.EVENT_ID, EVENT_ORGANIZER.MEMBER_ID, survivor.getId(), duplicateIds);
+        tx.deleteFrom(MEMBER)
+                .where(MEMBER.ID.in(duplicateIds))
+                .execute();
+        survivor.update();
+        return duplicates.size();
+    }
+
+    private static void mergeMemberFields(@NotNull final MemberRecord survivor, @NotNull final MemberRecord duplicate) {
+        Stream.of(MEMBER.FIRST_NAME, MEMBER.LAST_NAME, MEMBER.COMPANY, MEMBER.ADDRESS, MEMBER.ZIP_CODE,
+                MEMBER.CITY, MEMBER.STATE, MEMBER.COUNTRY).forEach(field -> {
+            if (!duplicate.get(field).isBlank()) {
+                survivor.set(field, duplicate.get(field));
+            }
+        });
+
+        if (duplicate.getRegistrationDate() != null && (survivor.getRegistrationDate() == null
+                || survivor.getRegistrationDate().isAfter(duplicate.getRegistrationDate()))) {
+            survivor.setRegistrationDate(duplicate.getRegistrationDate());
+        }
+        if (duplicate.getMembershipBegin() != null && (survivor.getMembershipBegin() == null
+                || survivor.getMembershipBegin().isAfter(duplicate.getMembershipBegin()))) {
+            survivor.setMembershipBegin(duplicate.getMembershipBegin());
+        }
+        if (duplicate.getMembershipEnd() != null && (survivor.getMembershipEnd() == null
+                || survivor.getMembershipEnd().isBefore(duplicate.getMembershipEnd()))) {
+            survivor.setMembershipEnd(duplicate.getMembershipEnd());
+        }
+        if (survivor.getMembershipId() == 0 && duplicate.getMembershipId() > 0) {
+            survivor.setMembershipId(duplicate.getMembershipId());
+        }
+        if (!survivor.getAdmin() && duplicate.getAdmin()) {
+            survivor.setAdmin(true);
+        }
+    }
+
+    private static int mergeSpeakers(@NotNull final DSLContext tx, @NotNull final DuplicateCluster cluster) {
+        final var speakers = tx.selectFrom(SPEAKER)
+                .where(SPEAKER.ID.eq(cluster.survivorId()).or(SPEAKER.ID.in(cluster.duplicateIds())))
+                .orderBy(SPEAKER.ID.desc())
+                .forUpdate()
+                .fetch().stream()
+                .filter(speaker -> speakerKey(cluster.normalization(), speaker.getFirstName(), speaker.getLastName())
+                        .equals(cluster.key()))
+                .toList();
+        final var survivor = speakers.stream()
+                .filter(speaker -> speaker.getId() == cluster.survivorId())
+                .findAny().orElse(null);
+        final var duplicates = speakers.stream()
+                .filter(speaker -> speaker != survivor)
+                .toList();
+        if (survivor == null || duplicates.isEmpty()) {
+            return 0;
+        }
+
+        duplicates.forEach(duplicate -> Stream.of(SPEAKER.COMPANY, SPEAKER.BIO, SPEAKER.PHOTO, SPEAKER.EMAIL, SPEAKER.TWITTER,
+                SPEAKER.LINKEDIN, SPEAKER.WEBSITE, SPEAKER.ADDRESS, SPEAKER.ZIP_CODE, SPEAKER.CITY, SPEAKER.STATE,
+                SPEAKER.COUNTRY).forEach(field -> {
+            if (survivor.get(field).isBlank() && !duplicate.get(field).isBlank()) {
+                survivor.set(field, duplicate.get(field));
+            }
+        }));
+        final var duplicateIds = duplicates.stream().map(SpeakerRecord::getId).toList();
+        moveLinks(tx, EVENT_SPEAKER, EVENT_SPEAKER.EVENT_ID, EVENT_SPEAKER.SPEAKER_ID, survivor.getId(), duplicateIds);
+        tx.deleteFrom(SPEAKER)
+                .where(SPEAKER.ID.in(duplicateIds))
+                .execute();
+        survivor.update();
+        return duplicates.size();
+    }
+
+    /**
+     * Move the links of the duplicates to the survivor. If several records of
+     * a cluster are linked to the same event, the link of the survivor is
+     * kept, otherwise the link of the first duplicate. The other links would
+     * violate the primary key and are deleted before the update.
+     */
+    private static <R extends org.jooq.Record> void moveLinks(@NotNull final DSLContext tx,
+                                                              @NotNull final Table<R> table,
+                                                              @NotNull final TableField<R, Long> eventId,
+                                                              @NotNull final TableField<R, Long> ownerId,
+                                                              final long survivorId,
+                                                              @NotNull final List<Long> duplicateIds) {
+        final var ownerIds = new ArrayList<Long>(duplicateIds.size() + 1);
+        ownerIds.add(survivorId);
+        ownerIds.addAll(duplicateIds);
+        final var rank = new HashMap<Long, Integer>();
+        for (var index = 0; index < ownerIds.size(); index++) {
+            rank.put(ownerIds.get(index), index);
+        }
+
+        final var linkedEvents = new HashSet<Long>();
+        final var conflicts = new ArrayList<Row2<Long, Long>>();
+        tx.select(eventId, ownerId)
+                .from(table)
+                .where(ownerId.in(ownerIds))
+                .fetch().stream()
+                .sorted(Comparator.comparingInt(link -> rank.get(link.value2())))
+                .forEach(link -> {
+                    if (!linkedEvents.add(link.value1())) {
+                        conflicts.add(DSL.row(link.value1(), link.value2()));
+                    }
+                });
+
+        if (!conflicts.isEmpty()) {
+            tx.deleteFrom(table)
+                    .where(DSL.row(eventId, ownerId).in(conflicts))
+                    .execute();
+        }
+        tx.update(table)
+                .set(ownerId, survivorId)
+                .where(ownerId.in(duplicateIds))
+                .execute();
+    }
+
+    /**
+     * A record which may have duplicates, with its normalized key.
+     */
+    record Candidate(long id, String key, String label) {
+    }
+
+}
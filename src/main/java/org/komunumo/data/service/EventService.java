@@ -30,9 +30,11 @@ import org.komunumo.data.service.getter.DSLContextGetter;
 import java.time.LocalDateTime;
 import java.time.Year;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
 
+import static org.jooq.impl.DSL.coalesce;
 import static org.jooq.impl.DSL.concat;
 import static org.jooq.impl.DSL.condition;
 import static org.jooq.impl.DSL.field;
@@ -43,7 +45,7 @@ import static org.komunumo.data.db.tables.Keyword.KEYWORD;
 import static org.komunumo.data.db.tables.Registration.REGISTRATION;
 import static org.komunumo.data.db.tables.Speaker.SPEAKER;
 
-interface EventService extends DSLContextGetter, EventKeywordService, EventSpeakerService, EventOrganizerService {
+interface EventService extends DSLContextGetter, AttendeeStatisticService, EventKeywordService, EventSpeakerService, EventOrganizerService {
 
     default Event newEvent() {
         final var event = dsl().newRecord(EVENT)
@@ -124,6 +126,8 @@ interface EventService extends DSLContextGetter, EventKeywordService, EventSpeak
         removeAllSpeakersFromEvent(event);
         removeAllOrganizersFromEvent(event);
         removeAllKeywordsFromEvent(event);
+        invalidateAttendeeSketchesOfEvent(event.getId());
+        dsl().delete(REGISTRATION).where(REGISTRATION.EVENT_ID.eq(event.getId())).execute();
         dsl().delete(EVENT).where(EVENT.ID.eq(event.getId())).execute();
     }
 
@@ -155,6 +159,65 @@ interface EventService extends DSLContextGetter, EventKeywordService, EventSpeak
                 .map(this::addAdditionalData);
     }
 
+    /**
+     * Get a page of past events as lightweight summaries for the event previews.
+     * The description is shortened to its first paragraph, the speakers and
+     * keywords of the whole page are loaded with one query each, and the
+     * attendee count is not loaded at all.
+     * @param year the year of the events or {@code null} for all years
+     * @param after the last event of the previous page or {@code null} for the first page
+     * @param limit the maximum number of events of the page
+     * @return the events of the page, the most recent first
+     */
+    default List<Event> pastEventSummaries(@Nullable final Year year, @Nullable final Event after, final int limit) {
+        final var paragraphEnd = DSL.position(DSL.lower(EVENT.DESCRIPTION), "</p>");
+        final var teaser = DSL.when(paragraphEnd.gt(0), DSL.substring(EVENT.DESCRIPTION, DSL.inline(1), paragraphEnd.plus(3)))
+                .otherwise(EVENT.DESCRIPTION)
+                .as(EVENT.DESCRIPTION.getName());
+        var condition = condition(EVENT.PUBLISHED).and(EVENT.DATE.lessOrEqual(LocalDateTime.now()));
+        if (year != null) {
+            condition = condition.and(DSL.year(EVENT.DATE).eq(year.getValue()));
+        }
+        // the location is nullable, a seek on NULL would skip the rest of the events with the same date
+        final var location = coalesce(EVENT.LOCATION, "");
+        final var query = dsl().select(EVENT.ID, EVENT.TYPE, EVENT.TITLE, EVENT.SUBTITLE, EVENT.LOCATION,
+                        EVENT.DATE, EVENT.EVENT_URL, teaser)
+                .from(EVENT)
+                .where(condition)
+                .orderBy(EVENT.DATE.desc(), location.asc(), EVENT.ID.asc());
+        final List<Event> events;
+        if (after == null) {
+            events = query.limit(limit).fetchInto(Event.class);
+        } else {
+            events = query.seek(after.getDate(), Objects.requireNonNullElse(after.getLocation(), ""), after.getId()).limit(limit).fetchInto(Event.class);
+        }
+        addSpeakersAndKeywords(events);
+        return events;
+    }
+
+    private void addSpeakersAndKeywords(@NotNull final List<Event> events) {
+        final var eventIds = events.stream().map(Event::getId).toList();
+        final var speakers = dsl().select(EVENT_SPEAKER.EVENT_ID, SPEAKER.ID, SPEAKER.FIRST_NAME, SPEAKER.LAST_NAME,
+                        SPEAKER.COMPANY, SPEAKER.PHOTO, SPEAKER.BIO)
+                .from(SPEAKER)
+                .join(EVENT_SPEAKER).on(SPEAKER.ID.eq(EVENT_SPEAKER.SPEAKER_ID))
+                .where(EVENT_SPEAKER.EVENT_ID.in(eventIds))
+                .orderBy(SPEAKER.FIRST_NAME, SPEAKER.LAST_NAME)
+                .fetchGroups(EVENT_SPEAKER.EVENT_ID, record -> new EventSpeakerEntity(record.get(SPEAKER.ID),
+                        record.get(SPEAKER.FIRST_NAME), record.get(SPEAKER.LAST_NAME), record.get(SPEAKER.COMPANY),
+                        record.get(SPEAKER.PHOTO), record.get(SPEAKER.BIO)));
+        final var keywords = dsl().select(EVENT_KEYWORD.EVENT_ID, KEYWORD.ID, KEYWORD.KEYWORD_)
+                .from(KEYWORD)
+                .join(EVENT_KEYWORD).on(KEYWORD.ID.eq(EVENT_KEYWORD.KEYWORD_ID))
+                .where(EVENT_KEYWORD.EVENT_ID.in(eventIds))
+                .orderBy(KEYWORD.KEYWORD_)
+                .fetchGroups(EVENT_KEYWORD.EVENT_ID, record -> new KeywordEntity(record.get(KEYWORD.ID), record.get(KEYWORD.KEYWORD_)));
+        events.forEach(event -> {
+            event.setSpeakers(speakers.getOrDefault(event.getId(), List.of()));
+            event.setKeywords(keywords.getOrDefault(event.getId(), List.of()));
+        });
+    }
+
     private Event addAdditionalData(@NotNull final Event event) {
         addSpeakers(event);
         addKeywords(event);
@@ -188,6 +251,20 @@ interface EventService extends DSLContextGetter, EventKeywordService, EventSpeak
         event.setAttendeeCount(attendeeCount);
     }
 
+    /**
+     * Get the published events for the calendar feeds and the sitemap. Only
+     * the fields needed there are loaded, without descriptions and additional data.
+     * @return the published events, the earliest first
+     */
+    default List<Event> getPublishedEventSummaries() {
+        return dsl().select(EVENT.ID, EVENT.TYPE, EVENT.TITLE, EVENT.SUBTITLE, EVENT.LOCATION, EVENT.ROOM,
+                        EVENT.DATE, EVENT.DURATION, EVENT.EVENT_URL)
+                .from(EVENT)
+                .where(condition(EVENT.PUBLISHED).and(EVENT.DATE.isNotNull()))
+                .orderBy(EVENT.DATE.asc(), EVENT.ID.asc())
+                .fetchInto(Event.class);
+    }
+
     default List<String> getAllEventLocations() {
         return dsl().selectDistinct(EVENT.LOCATION)
                 .from(EVENT)
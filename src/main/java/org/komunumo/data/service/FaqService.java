@@ -22,8 +22,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jooq.impl.DSL;
 import org.komunumo.data.db.tables.records.FaqRecord;
+import org.komunumo.data.entity.FaqEntity;
 import org.komunumo.data.service.getter.DSLContextGetter;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -42,6 +44,12 @@ interface FaqService extends DSLContextGetter {
                 .stream();
     }
 
+    default List<FaqEntity> getAllFaqEntities() {
+        return dsl().selectFrom(FAQ)
+                .orderBy(FAQ.ID.asc())
+                .fetchInto(FaqEntity.class);
+    }
+
     default Optional<FaqRecord> getFaqRecord(@NotNull final Long id) {
         return dsl().selectFrom(FAQ)
                 .where(FAQ.ID.eq(id))
@@ -0,0 +1,372 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.komunumo.data.entity.Event;
+import org.komunumo.data.entity.Feed;
+import org.komunumo.data.entity.NewsEntity;
+import org.komunumo.util.URLUtil;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generates the machine readable feeds of the public website: the event
+ * calendars (iCalendar), the news feed (RSS) and the sitemap. The feeds are
+ * cached as encoded (and gzipped) byte arrays. A feed is only generated
+ * again when the content it is made of has changed, so polling clients are
+ * served from memory.
+ */
+@Service
+public class FeedService {
+
+    /**
+     * The maximum time the published events are used without reloading them.
+     */
+    public static final Duration EVENTS_MAX_AGE = Duration.ofMinutes(1);
+
+    private static final String CALENDAR_CONTENT_TYPE = "text/calendar; charset=UTF-8";
+    private static final String RSS_CONTENT_TYPE = "application/rss+xml; charset=UTF-8";
+    private static final String SITEMAP_CONTENT_TYPE = "application/xml; charset=UTF-8";
+
+    private static final DateTimeFormatter CALENDAR_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final int CALENDAR_LINE_LENGTH = 75;
+    private static final String[] STATIC_PAGES = {"", "/events", "/events/past", "/news", "/sponsors", "/members", "/faq"};
+
+    private final DatabaseService databaseService;
+    private final PublicContentCache publicContentCache;
+    private final PageRegistry pageRegistry;
+    private final AtomicReference<PublishedEvents> publishedEvents = new AtomicReference<>();
+    private final Map<String, CachedFeed> feeds = new ConcurrentHashMap<>();
+
+    public FeedService(@NotNull final DatabaseService databaseService,
+                       @NotNull final PublicContentCache publicContentCache,
+                       @NotNull final PageRegistry pageRegistry) {
+        this.databaseService = databaseService;
+        this.publicContentCache = publicContentCache;
+        this.pageRegistry = pageRegistry;
+    }
+
+    /**
+     * Get the calendar of the events of all locations.
+     * @return the calendar feed
+     */
+    public Feed getEventCalendar() {
+        final var events = getPublishedEvents();
+        return getFeed("events", List.of(events), CALENDAR_CONTENT_TYPE,
+                () -> filterCalendarEvents(events, null),
+                calendarEvents -> renderCalendar(calendarEvents, null));
+    }
+
+    /**
+     * Get the calendar of the events of a location.
+     * @param location the location as used in the URLs of the website
+     * @return the calendar feed or empty, if there are no events at this location
+     */
+    public Optional<Feed> getEventCalendar(@NotNull final String location) {
+        final var events = getPublishedEvents();
+        final var locationName = events.stream()
+                .map(Event::getLocation)
+                .filter(name -> name != null && URLUtil.createReadableUrl(name).equals(location))
+                .findAny();
+        return locationName.map(name -> getFeed("events/" + location, List.of(events), CALENDAR_CONTENT_TYPE,
+                () -> filterCalendarEvents(events, name),
+                calendarEvents -> renderCalendar(calendarEvents, name)));
+    }
+
+    /**
+     * Get the feed of the visible news.
+     * @return the RSS feed
+     */
+    public Feed getNewsFeed() {
+        final var news = publicContentCache.getVisibleNews();
+        return getFeed("news", List.of(news), RSS_CONTENT_TYPE, () -> news, this::renderNewsFeed);
+    }
+
+    /**
+     * Get the sitemap of the public website.
+     * @return the sitemap
+     */
+    public Feed getSitemap() {
+        final var sources = new ArrayList<>();
+        sources.add(getPublishedEvents());
+        sources.add(publicContentCache.getVisibleNews());
+        sources.add(pageRegistry.getAllPages());
+        return getFeed("sitemap", sources, SITEMAP_CONTENT_TYPE, () -> sources, content -> renderSitemap());
+    }
+
+    private List<Event> getPublishedEvents() {
+        final var current = publishedEvents.get();
+        if (current != null && current.loaded().plus(EVENTS_MAX_AGE).isAfter(Instant.now())) {
+            return current.events();
+        }
+        final var loaded = new PublishedEvents(List.copyOf(databaseService.getPublishedEventSummaries()), Instant.now());
+        publishedEvents.compareAndSet(current, loaded);
+        return loaded.events();
+    }
+
+    /**
+     * Get a feed from the cache. As long as the sources (compared by identity)
+     * don't change, the cached feed is returned right away. Otherwise, the
+     * content is compared by value and the feed is only rendered again if
+     * the content has changed.
+     */
+    private <T> Feed getFeed(@NotNull final String key, @NotNull final List<?> sources, @NotNull final String contentType,
+                             @NotNull final Supplier<T> contentSupplier, @NotNull final Function<T, String> renderer) {
+        final var cached = feeds.get(key);
+        if (cached != null && cached.isFrom(sources)) {
+            return cached.feed();
+        }
+        final var content = contentSupplier.get();
+        final var feed = cached != null && cached.content().equals(content)
+                ? cached.feed()
+                : createFeed(contentType, renderer.apply(content));
+        feeds.put(key, new CachedFeed(feed, List.copyOf(sources), content));
+        return feed;
+    }
+
+    private static List<Event> filterCalendarEvents(@NotNull final List<Event> events, @Nullable final String location) {
+        final var from = LocalDateTime.now().minusYears(1);
+        return events.stream()
+                .filter(event -> event.getDate().isAfter(from))
+                .filter(event -> location == null || location.equals(event.getLocation()))
+                .toList();
+    }
+
+    private String renderCalendar(@NotNull final List<Event> events, @Nullable final String location) {
+        final var configuration = databaseService.configuration();
+        final var baseUrl = configuration.getWebsiteBaseUrl();
+        final var domain = URLUtil.getDomainFromUrl(baseUrl);
+        final var calendarName = location == null ? configuration.getWebsiteName()
+                : "%s (%s)".formatted(configuration.getWebsiteName(), location);
+        final var timestamp = formatCalendarDateTime(LocalDateTime.now());
+
+        final var calendar = new StringBuilder();
+        appendCalendarLine(calendar, "BEGIN:VCALENDAR");
+        appendCalendarLine(calendar, "VERSION:2.0");
+        appendCalendarLine(calendar, "PRODID:-//Komunumo//" + escapeCalendarText(configuration.getWebsiteName()) + "//EN");
+        appendCalendarLine(calendar, "CALSCALE:GREGORIAN");
+        appendCalendarLine(calendar, "METHOD:PUBLISH");
+        appendCalendarLine(calendar, "X-WR-CALNAME:" + escapeCalendarText(calendarName));
+        for (final var event : events) {
+            final var eventUrl = baseUrl + event.getCompleteEventUrl();
+            final var description = event.getSubtitle().isBlank() ? eventUrl : event.getSubtitle() + "\n\n" + eventUrl;
+            final var place = event.getRoom() == null || event.getRoom().isBlank() ? event.getLocation()
+                    : "%s, %s".formatted(event.getLocation(), event.getRoom());
+            appendCalendarLine(calendar, "BEGIN:VEVENT");
+            appendCalendarLine(calendar, "UID:event-%d@%s".formatted(event.getId(), domain));
+            appendCalendarLine(calendar, "DTSTAMP:" + timestamp);
+            appendCalendarLine(calendar, "DTSTART:" + formatCalendarDateTime(event.getDate()));
+            if (event.getDuration() != null) {
+                final var duration = event.getDuration();
+                final var end = event.getDate().plusHours(duration.getHour()).plusMinutes(duration.getMinute());
+                appendCalendarLine(calendar, "DTEND:" + formatCalendarDateTime(end));
+            }
+            appendCalendarLine(calendar, "SUMMARY:" + escapeCalendarText(event.getTitle()));
+            appendCalendarLine(calendar, "DESCRIPTION:" + escapeCalendarText(description));
+            appendCalendarLine(calendar, "LOCATION:" + escapeCalendarText(place));
+            appendCalendarLine(calendar, "CATEGORIES:" + escapeCalendarText(event.getType().getLiteral()));
+            appendCalendarLine(calendar, "URL:" + eventUrl);
+            appendCalendarLine(calendar, "END:VEVENT");
+        }
+        appendCalendarLine(calendar, "END:VCALENDAR");
+        return calendar.toString();
+    }
+
+    private static String formatCalendarDateTime(@NotNull final LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault())
+                .withZoneSameInstant(ZoneOffset.UTC)
+                .format(CALENDAR_DATE_TIME_FORMATTER);
+    }
+
+    private static String escapeCalendarText(@Nullable final String text) {
+        return text == null ? "" : text
+                .replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n");
+    }
+
+    /**
+     * Append a content line to a calendar. Lines longer than 75 octets are
+     * folded as required by RFC 5545, without splitting UTF-8 characters.
+     */
+    static void appendCalendarLine(@NotNull final StringBuilder calendar, @NotNull final String line) {
+        var octets = 0;
+        for (var offset = 0; offset < line.length(); ) {
+            final var codePoint = line.codePointAt(offset);
+            final var length = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8).length;
+            if (octets + length > CALENDAR_LINE_LENGTH) {
+                calendar.append("\r\n ");
+                octets = 1;
+            }
+            calendar.appendCodePoint(codePoint);
+            octets += length;
+            offset += Character.charCount(codePoint);
+        }
+        calendar.append("\r\n");
+    }
+
+    private String renderNewsFeed(@NotNull final List<NewsEntity> news) {
+        final var configuration = databaseService.configuration();
+        final var baseUrl = configuration.getWebsiteBaseUrl();
+        return renderXml(xml -> {
+            xml.writeStartElement("rss");
+            xml.writeAttribute("version", "2.0");
+            xml.writeStartElement("channel");
+            writeElement(xml, "title", configuration.getWebsiteName());
+            writeElement(xml, "link", baseUrl + "/news");
+            writeElement(xml, "description", "News of " + configuration.getWebsiteName());
+            for (final var newsEntity : news) {
+                final var link = "%s/news/%d".formatted(baseUrl, newsEntity.id());
+                xml.writeStartElement("item");
+                writeElement(xml, "title", newsEntity.title());
+                writeElement(xml, "link", link);
+                xml.writeStartElement("guid");
+                xml.writeAttribute("isPermaLink", "true");
+                xml.writeCharacters(link);
+                xml.writeEndElement();
+                if (newsEntity.created() != null) {
+                    writeElement(xml, "pubDate", newsEntity.created().atZone(ZoneId.systemDefault())
+                            .format(DateTimeFormatter.RFC_1123_DATE_TIME));
+                }
+                writeElement(xml, "description", newsEntity.teaser());
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+            xml.writeEndElement();
+        });
+    }
+
+    private String renderSitemap() {
+        final var baseUrl = databaseService.configuration().getWebsiteBaseUrl();
+        final var urls = new ArrayList<String>();
+        Arrays.stream(STATIC_PAGES).map(baseUrl::concat).forEach(urls::add);
+        getPublishedEvents().stream()
+                .filter(event -> event.getDate().isBefore(LocalDateTime.now().plusYears(1)))
+                .map(event -> baseUrl + event.getCompleteEventUrl())
+                .forEach(urls::add);
+        publicContentCache.getVisibleNews().stream()
+                .map(newsEntity -> "%s/news/%d".formatted(baseUrl, newsEntity.id()))
+                .forEach(urls::add);
+        pageRegistry.getAllPages().stream()
+                .map(page -> "%s/%s".formatted(baseUrl, page.completePageUrl()))
+                .forEach(urls::add);
+        return renderXml(xml -> {
+            xml.writeStartElement("urlset");
+            xml.writeDefaultNamespace("http://www.sitemaps.org/schemas/sitemap/0.9");
+            for (final var url : urls.stream().distinct().toList()) {
+                xml.writeStartElement("url");
+                writeElement(xml, "loc", url);
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+        });
+    }
+
+    private static String renderXml(@NotNull final XmlRenderer renderer) {
+        final var output = new StringWriter();
+        try {
+            final var xml = XMLOutputFactory.newFactory().createXMLStreamWriter(output);
+            xml.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            renderer.render(xml);
+            xml.writeEndDocument();
+            xml.close();
+        } catch (final XMLStreamException e) {
+            throw new IllegalStateException("Failed to render XML", e);
+        }
+        return output.toString();
+    }
+
+    private static void writeElement(@NotNull final XMLStreamWriter xml, @NotNull final String name,
+                                     @Nullable final String text) throws XMLStreamException {
+        xml.writeStartElement(name);
+        xml.writeCharacters(text != null ? text : "");
+        xml.writeEndElement();
+    }
+
+    private static Feed createFeed(@NotNull final String contentType, @NotNull final String text) {
+        final var content = text.getBytes(StandardCharsets.UTF_8);
+        final var gzipContent = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(gzipContent)) {
+            gzip.write(content);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            final var hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content), 0, 16);
+            return new Feed(contentType, content, gzipContent.toByteArray(), hash);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface XmlRenderer {
+        void render(@NotNull XMLStreamWriter xml) throws XMLStreamException;
+    }
+
+    private record PublishedEvents(List<Event> events, Instant loaded) { }
+
+    private record CachedFeed(Feed feed, List<?> sources, Object content) {
+
+        boolean isFrom(@NotNull final List<?> otherSources) {
+            if (sources.size() != otherSources.size()) {
+                return false;
+            }
+            for (var i = 0; i < sources.size(); i++) {
+                if (sources.get(i) != otherSources.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.entity.ImageVariant;
+import org.komunumo.data.entity.Media;
+import org.komunumo.util.ImageUtil;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the downscaled variants of uploaded images in the background.
+ * Decoding and scaling images is expensive in CPU and memory, so it runs
+ * on a small thread pool with a bounded queue. Variants which could not be
+ * queued are created later, when they are requested for the first time.
+ */
+@Service
+public class ImageService {
+
+    private static final int THREAD_COUNT = 2;
+    private static final int QUEUE_CAPACITY = 100;
+    private static final long MAX_PIXELS = 40_000_000L;
+    private static final int MAX_VARIANT_WIDTH = Arrays.stream(ImageVariant.values()).mapToInt(ImageVariant::getMaxWidth).max().orElseThrow();
+    private static final int MAX_VARIANT_HEIGHT = Arrays.stream(ImageVariant.values()).mapToInt(ImageVariant::getMaxHeight).max().orElseThrow();
+
+    private final DatabaseService databaseService;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public ImageService(@NotNull final DatabaseService databaseService) {
+        this.databaseService = databaseService;
+        final var threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    final var thread = new Thread(runnable, "image-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    /**
+     * Store an image in the media store and create its variants in the background.
+     * @param contentType the MIME type of the image
+     * @param content the content of the image
+     * @return the URL of the stored image
+     */
+    public String storeImage(@NotNull final String contentType, @NotNull final byte[] content) {
+        final var url = databaseService.storeMedia(contentType, content);
+        createVariants(url.substring(MediaService.MEDIA_PATH.length()));
+        return url;
+    }
+
+    /**
+     * Get a variant of an image. If the variant was not created yet, its
+     * creation is started in the background.
+     * @param hash the hash of the original image
+     * @param variant the variant
+     * @return the image variant or empty, if it is not available yet
+     */
+    public Optional<Media> getImageVariant(@NotNull final String hash, @NotNull final ImageVariant variant) {
+        final var mediaVariant = databaseService.getMediaVariant(hash, variant.getName());
+        if (mediaVariant.isEmpty()) {
+            createVariants(hash);
+            return Optional.empty();
+        }
+        final var content = mediaVariant.get().content();
+        return content != null
+                ? Optional.of(new Media(hash, mediaVariant.get().contentType(), content))
+                : databaseService.getMedia(hash);
+    }
+
+    private void createVariants(@NotNull final String hash) {
+        if (pending.add(hash)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        databaseService.getMedia(hash).ifPresent(this::createVariants);
+                    } finally {
+                        pending.remove(hash);
+                    }
+                });
+            } catch (final RejectedExecutionException ignored) {
+                pending.remove(hash);
+            }
+        }
+    }
+
+    private void createVariants(@NotNull final Media media) {
+        BufferedImage image;
+        try {
+            image = ImageUtil.readImage(media.content(), MAX_PIXELS, MAX_VARIANT_WIDTH, MAX_VARIANT_HEIGHT).orElse(null);
+        } catch (final IOException ignored) {
+            image = null;
+        }
+        for (final var variant : ImageVariant.values()) {
+            if (databaseService.getMediaVariant(media.hash(), variant.getName()).isEmpty()) {
+                createVariant(media, image, variant);
+            }
+        }
+    }
+
+    private void createVariant(@NotNull final Media media, final BufferedImage image, @NotNull final ImageVariant variant) {
+        if (image != null) {
+            final var scaled = ImageUtil.scaleToFit(image, variant.getMaxWidth(), variant.getMaxHeight());
+            if (scaled != image) {
+                try {
+                    final var encoded = ImageUtil.encodeImage(scaled);
+                    if (encoded.content().length < media.content().length) {
+                        databaseService.storeMediaVariant(media.hash(), variant.getName(), encoded.contentType(), encoded.content());
+                        return;
+                    }
+                } catch (final IOException ignored) {
+                    // fall through and use the original image
+                }
+            }
+        }
+        // vector graphics, unsupported formats, and images which are already small enough are used as they are
+        databaseService.storeMediaVariant(media.hash(), variant.getName(), null, null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,277 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.db.enums.ImportJobStatus;
+import org.komunumo.data.entity.ImportJobEntity;
+import org.komunumo.data.importer.ImportProgress;
+import org.komunumo.data.importer.ImportSource;
+import org.komunumo.data.importer.ImportTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs imports in the background on a small, bounded executor. Every import
+ * is recorded in the {@code import_job} table with its status, counts and
+ * errors, so the progress can be shown on all nodes and survives restarts.
+ * Only one import per source can be active at the same time, on all nodes.
+ *
+ * <p>The progress of the local jobs is written to the database every
+ * {@link #SYNC_INTERVAL}, which also serves as heartbeat. Cancellations are
+ * requested in the database and picked up by the node running the job.</p>
+ */
+@Service
+public class ImportJobExecutor {
+
+    /**
+     * The time after which an active job without a heartbeat is considered aborted.
+     */
+    public static final Duration STALE_AFTER = Duration.ofMinutes(5);
+
+    /**
+     * The interval to write the progress of the local jobs to the database.
+     */
+    public static final Duration SYNC_INTERVAL = Duration.ofSeconds(2);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportJobExecutor.class);
+    private static final int THREADS = 2;
+    private static final int QUEUE_CAPACITY = 10;
+
+    private final DatabaseService databaseService;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService scheduler;
+    private final Map<Long, RunningJob> runningJobs = new ConcurrentHashMap<>();
+    private final List<Consumer<ImportJobEntity>> listeners = new CopyOnWriteArrayList<>();
+
+    public ImportJobExecutor(@NotNull final DatabaseService databaseService) {
+        this.databaseService = databaseService;
+        final var threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(THREADS, THREADS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    final var thread = new Thread(runnable, "import-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "import-job-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::syncRunningJobs,
+                SYNC_INTERVAL.toMillis(), SYNC_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Submit an import to run in the background.
+     * @param source the source of the import, only one import per source can be active
+     * @param description a description of the import, shown to the administrators
+     * @param task the import
+     * @return the queued job
+     * @throws IllegalStateException if an import of the source is already active
+     * @throws RejectedExecutionException if too many imports are queued
+     */
+    public ImportJobEntity submit(@NotNull final ImportSource source,
+                                  @NotNull final String description,
+                                  @NotNull final ImportTask task) {
+        final var job = databaseService.createImportJob(source.name(), description, STALE_AFTER)
+                .orElseThrow(() -> new IllegalStateException(
+                        "An import from %s is already running.".formatted(source.getTitle())));
+        final var runningJob = new RunningJob(job.id(), task);
+        runningJobs.put(job.id(), runningJob);
+        try {
+            executor.execute(runningJob);
+        } catch (final RejectedExecutionException e) {
+            runningJobs.remove(job.id());
+            databaseService.finishImportJob(job.id(), ImportJobStatus.FAILED, "Too many imports are queued.");
+            throw e;
+        }
+        notifyListeners(job.id());
+        return job;
+    }
+
+    /**
+     * Request the cancellation of an import job. The job stops at its next
+     * check, on whatever node it is running.
+     * @param id the ID of the job
+     */
+    public void cancel(final long id) {
+        databaseService.requestImportJobCancellation(id);
+        final var runningJob = runningJobs.get(id);
+        if (runningJob != null) {
+            runningJob.cancelled = true;
+        }
+    }
+
+    public List<ImportJobEntity> getLatestJobs(final int limit) {
+        return databaseService.getLatestImportJobs(limit);
+    }
+
+    /**
+     * Add a listener, which is called from a background thread whenever an
+     * import job of this node has changed.
+     * @param listener the listener
+     */
+    public void addListener(@NotNull final Consumer<ImportJobEntity> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@NotNull final Consumer<ImportJobEntity> listener) {
+        listeners.remove(listener);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private void syncRunningJobs() {
+        for (final var runningJob : runningJobs.values()) {
+            try {
+                runningJob.sync();
+            } catch (final RuntimeException e) {
+                LOGGER.warn("Unable to update the progress of import job {}: {}", runningJob.id, e.getMessage());
+            }
+        }
+    }
+
+    private void notifyListeners(final long id) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        databaseService.getImportJob(id).ifPresent(job -> {
+            for (final var listener : listeners) {
+                try {
+                    listener.accept(job);
+                } catch (final RuntimeException e) {
+                    LOGGER.warn("Import job listener failed: {}", e.getMessage());
+                }
+            }
+        });
+    }
+
+    private final class RunningJob implements Runnable, ImportProgress {
+
+        private final long id;
+        private final ImportTask task;
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+        private volatile Integer total;
+        private volatile String message;
+        private volatile String summary;
+        private volatile boolean cancelled;
+
+        private RunningJob(final long id, @NotNull final ImportTask task) {
+            this.id = id;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                databaseService.startImportJob(id);
+                notifyListeners(id);
+                checkCancelled();
+                task.run(this);
+                finish(ImportJobStatus.SUCCEEDED, summary != null ? summary
+                        : "Imported %d records with %d errors.".formatted(processed.get(), errors.get()));
+            } catch (final CancellationException e) {
+                finish(ImportJobStatus.CANCELLED, "Cancelled after %d records.".formatted(processed.get()));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finish(ImportJobStatus.CANCELLED, "Interrupted after %d records.".formatted(processed.get()));
+            } catch (final Exception e) {
+                LOGGER.error("Import job {} failed: {}", id, e.getMessage(), e);
+                finish(ImportJobStatus.FAILED, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            } finally {
+                runningJobs.remove(id);
+            }
+        }
+
+        private void finish(@NotNull final ImportJobStatus status, @NotNull final String finalMessage) {
+            try {
+                databaseService.updateImportJobProgress(id, total, processed.get(), errors.get(), message);
+                databaseService.finishImportJob(id, status, finalMessage);
+                notifyListeners(id);
+            } catch (final RuntimeException e) {
+                LOGGER.error("Unable to finish import job {}: {}", id, e.getMessage(), e);
+            }
+        }
+
+        private void sync() {
+            databaseService.updateImportJobProgress(id, total, processed.get(), errors.get(), message);
+            if (!cancelled && databaseService.isImportJobCancellationRequested(id)) {
+                cancelled = true;
+            }
+            notifyListeners(id);
+        }
+
+        @Override
+        public void setTotal(final int total) {
+            this.total = total;
+        }
+
+        @Override
+        public void processed() {
+            processed.incrementAndGet();
+        }
+
+        @Override
+        public void failed(@NotNull final String error) {
+            errors.incrementAndGet();
+            message = error;
+        }
+
+        @Override
+        public void message(@NotNull final String message) {
+            this.message = message;
+        }
+
+        @Override
+        public void summary(@NotNull final String summary) {
+            this.summary = summary;
+        }
+
+        @Override
+        public void checkCancelled() {
+            if (cancelled || Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+        }
+    }
+
+}
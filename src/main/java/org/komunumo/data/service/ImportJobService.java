@@ -0,0 +1,144 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jooq.Field;
+import org.komunumo.data.db.enums.ImportJobStatus;
+import org.komunumo.data.entity.ImportJobEntity;
+import org.komunumo.data.service.getter.DSLContextGetter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.komunumo.data.db.tables.ImportJob.IMPORT_JOB;
+
+interface ImportJobService extends DSLContextGetter {
+
+    /**
+     * Create a queued import job. Only one job per source can be active at
+     * the same time, on all nodes: the active job holds a lock on its source
+     * (a unique column), which is released when the job is finished. Locks
+     * of jobs without a heartbeat within {@code staleAfter} are released,
+     * because the node running the job has stopped.
+     * @return the new job or an empty optional if another job of the source is active
+     */
+    default Optional<ImportJobEntity> createImportJob(@NotNull final String source,
+                                                      @NotNull final String description,
+                                                      @NotNull final Duration staleAfter) {
+        final var now = LocalDateTime.now();
+        dsl().update(IMPORT_JOB)
+                .set(IMPORT_JOB.STATUS, ImportJobStatus.FAILED)
+                .set(IMPORT_JOB.MESSAGE, "Aborted, the node running the import has stopped.")
+                .set(IMPORT_JOB.FINISHED, now)
+                .setNull(IMPORT_JOB.LOCK_SOURCE)
+                .where(IMPORT_JOB.LOCK_SOURCE.eq(source))
+                .and(IMPORT_JOB.HEARTBEAT.lt(now.minus(staleAfter)))
+                .execute();
+        final var inserted = dsl().insertInto(IMPORT_JOB)
+                .set(IMPORT_JOB.SOURCE, source)
+                .set(IMPORT_JOB.DESCRIPTION, description)
+                .set(IMPORT_JOB.STATUS, ImportJobStatus.QUEUED)
+                .set(IMPORT_JOB.CREATED, now)
+                .set(IMPORT_JOB.HEARTBEAT, now)
+                .set(IMPORT_JOB.LOCK_SOURCE, source)
+                .onDuplicateKeyIgnore()
+                .execute();
+        if (inserted == 0) {
+            return Optional.empty();
+        }
+        return dsl().select(importJobFields())
+                .from(IMPORT_JOB)
+                .where(IMPORT_JOB.LOCK_SOURCE.eq(source))
+                .fetchOptionalInto(ImportJobEntity.class);
+    }
+
+    default void updateImportJobProgress(final long id, @Nullable final Integer total, final int processed,
+                                         final int errors, @Nullable final String message) {
+        dsl().update(IMPORT_JOB)
+                .set(IMPORT_JOB.TOTAL, total)
+                .set(IMPORT_JOB.PROCESSED, processed)
+                .set(IMPORT_JOB.ERRORS, errors)
+                .set(IMPORT_JOB.MESSAGE, message)
+                .set(IMPORT_JOB.HEARTBEAT, LocalDateTime.now())
+                .where(IMPORT_JOB.ID.eq(id))
+                .execute();
+    }
+
+    default void startImportJob(final long id) {
+        final var now = LocalDateTime.now();
+        dsl().update(IMPORT_JOB)
+                .set(IMPORT_JOB.STATUS, ImportJobStatus.RUNNING)
+                .set(IMPORT_JOB.STARTED, now)
+                .set(IMPORT_JOB.HEARTBEAT, now)
+                .where(IMPORT_JOB.ID.eq(id))
+                .execute();
+    }
+
+    /**
+     * Finish an import job and release the lock on its source.
+     */
+    default void finishImportJob(final long id, @NotNull final ImportJobStatus status, @Nullable final String message) {
+        final var now = LocalDateTime.now();
+        dsl().update(IMPORT_JOB)
+                .set(IMPORT_JOB.STATUS, status)
+                .set(IMPORT_JOB.MESSAGE, message)
+                .set(IMPORT_JOB.FINISHED, now)
+                .set(IMPORT_JOB.HEARTBEAT, now)
+                .setNull(IMPORT_JOB.LOCK_SOURCE)
+                .where(IMPORT_JOB.ID.eq(id))
+                .execute();
+    }
+
+    default void requestImportJobCancellation(final long id) {
+        dsl().update(IMPORT_JOB)
+                .set(IMPORT_JOB.CANCEL_REQUESTED, true)
+                .where(IMPORT_JOB.ID.eq(id))
+                .execute();
+    }
+
+    default boolean isImportJobCancellationRequested(final long id) {
+        return dsl().fetchExists(IMPORT_JOB, IMPORT_JOB.ID.eq(id).and(IMPORT_JOB.CANCEL_REQUESTED.isTrue()));
+    }
+
+    default Optional<ImportJobEntity> getImportJob(final long id) {
+        return dsl().select(importJobFields())
+                .from(IMPORT_JOB)
+                .where(IMPORT_JOB.ID.eq(id))
+                .fetchOptionalInto(ImportJobEntity.class);
+    }
+
+    default List<ImportJobEntity> getLatestImportJobs(final int limit) {
+        return dsl().select(importJobFields())
+                .from(IMPORT_JOB)
+                .orderBy(IMPORT_JOB.ID.desc())
+                .limit(limit)
+                .fetchInto(ImportJobEntity.class);
+    }
+
+    private static List<Field<?>> importJobFields() {
+        return List.of(IMPORT_JOB.ID, IMPORT_JOB.SOURCE, IMPORT_JOB.DESCRIPTION, IMPORT_JOB.STATUS,
+                IMPORT_JOB.TOTAL, IMPORT_JOB.PROCESSED, IMPORT_JOB.ERRORS, IMPORT_JOB.MESSAGE,
+                IMPORT_JOB.CREATED, IMPORT_JOB.STARTED, IMPORT_JOB.FINISHED);
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.jooq.impl.DSL;
+import org.komunumo.data.entity.LoginFailureCount;
+import org.komunumo.data.service.getter.DSLContextGetter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+
+import static org.komunumo.data.db.tables.LoginAttempt.LOGIN_ATTEMPT;
+
+interface LoginFailureService extends DSLContextGetter {
+
+    default void addLoginFailures(@NotNull final Collection<LoginFailureCount> failureCounts) {
+        if (failureCounts.isEmpty()) {
+            return;
+        }
+        var insert = dsl().insertInto(LOGIN_ATTEMPT,
+                LOGIN_ATTEMPT.KIND, LOGIN_ATTEMPT.SUBJECT, LOGIN_ATTEMPT.WINDOW_START, LOGIN_ATTEMPT.FAILURES);
+        for (final var failureCount : failureCounts) {
+            insert = insert.values(failureCount.kind(), failureCount.subject(), failureCount.windowStart(), failureCount.failures());
+        }
+        insert.onDuplicateKeyUpdate()
+                .set(LOGIN_ATTEMPT.FAILURES, LOGIN_ATTEMPT.FAILURES.plus(DSL.excluded(LOGIN_ATTEMPT.FAILURES)))
+                .execute();
+    }
+
+    /**
+     * Get the subjects exceeding a limit of login failures, estimated over a
+     * sliding window: all failures of the current window plus the weighted
+     * failures of the previous window.
+     */
+    default Set<String> getBlockedLoginSubjects(@NotNull final String kind, final int limit,
+                                                @NotNull final LocalDateTime currentWindowStart,
+                                                @NotNull final LocalDateTime previousWindowStart,
+                                                final double previousWindowWeight, final int maxResults) {
+        final var estimate = DSL.sum(DSL.when(LOGIN_ATTEMPT.WINDOW_START.eq(currentWindowStart), LOGIN_ATTEMPT.FAILURES.cast(BigDecimal.class))
+                .otherwise(LOGIN_ATTEMPT.FAILURES.cast(BigDecimal.class).mul(BigDecimal.valueOf(previousWindowWeight))));
+        return dsl().select(LOGIN_ATTEMPT.SUBJECT)
+                .from(LOGIN_ATTEMPT)
+                .where(LOGIN_ATTEMPT.KIND.eq(kind))
+                .and(LOGIN_ATTEMPT.WINDOW_START.in(currentWindowStart, previousWindowStart))
+                .groupBy(LOGIN_ATTEMPT.SUBJECT)
+                .having(estimate.ge(BigDecimal.valueOf(limit)))
+                .limit(maxResults)
+                .fetchSet(LOGIN_ATTEMPT.SUBJECT);
+    }
+
+    default void deleteLoginFailures(@NotNull final String kind, @NotNull final String subject) {
+        dsl().deleteFrom(LOGIN_ATTEMPT)
+                .where(LOGIN_ATTEMPT.KIND.eq(kind))
+                .and(LOGIN_ATTEMPT.SUBJECT.eq(subject))
+                .execute();
+    }
+
+    default void deleteLoginFailuresBefore(@NotNull final LocalDateTime windowStart) {
+        dsl().deleteFrom(LOGIN_ATTEMPT)
+                .where(LOGIN_ATTEMPT.WINDOW_START.lt(windowStart))
+                .execute();
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.komunumo.data.entity.Media;
+import org.komunumo.data.entity.MediaVariant;
+import org.komunumo.data.service.getter.DSLContextGetter;
+import org.komunumo.util.ImageUtil;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import static org.komunumo.data.db.tables.Media.MEDIA;
+import static org.komunumo.data.db.tables.MediaVariant.MEDIA_VARIANT;
+
+/**
+ * Stores binary media (images) addressed by the SHA-256 hash of their
+ * content. The same content is stored only once and never changes, so it
+ * can be cached by the browsers forever.
+ */
+interface MediaService extends DSLContextGetter {
+
+    /**
+     * The path of the endpoint serving the media.
+     */
+    String MEDIA_PATH = "/media/";
+
+    /**
+     * The pattern of a valid media hash.
+     */
+    Pattern MEDIA_HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    /**
+     * Store a media. Content types other than raster images are stored as
+     * binary, so the media can't be rendered (and run scripts) in the browser.
+     * @param contentType the MIME type of the media
+     * @param content the content of the media
+     * @return the URL of the stored media
+     */
+    default String storeMedia(@NotNull final String contentType, @NotNull final byte[] content) {
+        final var hash = hashMedia(content);
+        dsl().insertInto(MEDIA, MEDIA.HASH, MEDIA.CONTENT_TYPE, MEDIA.CONTENT, MEDIA.CREATED)
+                .values(hash, ImageUtil.safeContentType(contentType), content, LocalDateTime.now())
+                .onDuplicateKeyIgnore()
+                .execute();
+        return MEDIA_PATH + hash;
+    }
+
+    /**
+     * Get a media.
+     * @param hash the hash of the media
+     * @return the media or empty, if there is no media with this hash
+     */
+    default Optional<Media> getMedia(@NotNull final String hash) {
+        if (!MEDIA_HASH_PATTERN.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        return dsl().select(MEDIA.HASH, MEDIA.CONTENT_TYPE, MEDIA.CONTENT)
+                .from(MEDIA)
+                .where(MEDIA.HASH.eq(hash))
+                .fetchOptionalInto(Media.class);
+    }
+
+    /**
+     * Store a variant of a media. Without content, the variant is recorded
+     * as "use the original media" (e.g. because it is already small enough).
+     * @param hash the hash of the original media
+     * @param variant the name of the variant
+     * @param contentType the MIME type of the variant
+     * @param content the content of the variant
+     */
+    default void storeMediaVariant(@NotNull final String hash, @NotNull final String variant,
+                                   @Nullable final String contentType, @Nullable final byte[] content) {
+        dsl().insertInto(MEDIA_VARIANT, MEDIA_VARIANT.HASH, MEDIA_VARIANT.VARIANT,
+                        MEDIA_VARIANT.CONTENT_TYPE, MEDIA_VARIANT.CONTENT, MEDIA_VARIANT.CREATED)
+                .values(hash, variant, contentType, content, LocalDateTime.now())
+                .onDuplicateKeyIgnore()
+                .execute();
+    }
+
+    /**
+     * Get a variant of a media.
+     * @param hash the hash of the original media
+     * @param variant the name of the variant
+     * @return the variant or empty, if the variant was not created yet
+     */
+    default Optional<MediaVariant> getMediaVariant(@NotNull final String hash, @NotNull final String variant) {
+        if (!MEDIA_HASH_PATTERN.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        return dsl().select(MEDIA_VARIANT.HASH, MEDIA_VARIANT.VARIANT, MEDIA_VARIANT.CONTENT_TYPE, MEDIA_VARIANT.CONTENT)
+                .from(MEDIA_VARIANT)
+                .where(MEDIA_VARIANT.HASH.eq(hash).and(MEDIA_VARIANT.VARIANT.eq(variant)))
+                .fetchOptionalInto(MediaVariant.class);
+    }
+
+    private static String hashMedia(@NotNull final byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+}
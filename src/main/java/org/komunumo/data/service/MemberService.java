@@ -22,12 +22,17 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jooq.impl.DSL;
+import org.komunumo.data.db.tables.records.MemberRecord;
 import org.komunumo.data.entity.MailTemplateId;
 import org.komunumo.data.entity.Member;
 import org.komunumo.data.service.getter.DSLContextGetter;
 import org.komunumo.util.URLUtil;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -37,6 +42,11 @@ import static org.komunumo.data.db.tables.Member.MEMBER;
 
 interface MemberService extends DSLContextGetter, MailService {
 
+    /**
+     * The maximum number of values in one {@code IN} list.
+     */
+    int MAX_IN_LIST_SIZE = 1_000;
+
     default Member newMember() {
         final var member = dsl().newRecord(MEMBER)
                 .into(Member.class);
@@ -104,6 +114,66 @@ interface MemberService extends DSLContextGetter, MailService {
                 .fetchOptionalInto(Member.class);
     }
 
+    /**
+     * Get the members with the given email addresses at once, e.g. to resolve
+     * the attendees of an import. Deleted members are ignored.
+     * @param emails the email addresses
+     * @return the members by lowercase email address, the latest registered
+     *         member if an address is used by several members
+     */
+    default Map<String, Member> getMembersByEmail(@NotNull final Collection<String> emails) {
+        final var addresses = emails.stream()
+                .map(email -> email.toLowerCase(Locale.ROOT))
+                .distinct()
+                .toList();
+        final var members = new HashMap<String, Member>();
+        for (var from = 0; from < addresses.size(); from += MAX_IN_LIST_SIZE) {
+            dsl().selectFrom(MEMBER)
+                    .where(MEMBER.EMAIL.in(addresses.subList(from, Math.min(from + MAX_IN_LIST_SIZE, addresses.size())))
+                            .and(MEMBER.ACCOUNT_DELETED.isFalse()))
+                    .orderBy(MEMBER.REGISTRATION_DATE.desc())
+                    .fetchInto(Member.class)
+                    .forEach(member -> members.putIfAbsent(member.getEmail().toLowerCase(Locale.ROOT), member));
+        }
+        return members;
+    }
+
+    /**
+     * Get all members with an email address, e.g. to synchronize them with an
+     * export of another system. Deleted members are ignored.
+     * @return the members by lowercase email address, the latest registered
+     *         member if an address is used by several members
+     */
+    default Map<String, Member> getAllMembersByEmail() {
+        final var members = new HashMap<String, Member>();
+        dsl().selectFrom(MEMBER)
+                .where(MEMBER.ACCOUNT_DELETED.isFalse())
+                .and(MEMBER.EMAIL.ne(""))
+                .orderBy(MEMBER.REGISTRATION_DATE.desc())
+                .fetchInto(Member.class)
+                .forEach(member -> members.putIfAbsent(member.getEmail().trim().toLowerCase(Locale.ROOT), member));
+        return members;
+    }
+
+    /**
+     * Store new and changed members in one transaction, with one batch each.
+     * Only the changed fields of the changed members are updated.
+     * @param newMembers the members to insert
+     * @param changedMembers the members to update
+     */
+    default void storeMembers(@NotNull final List<? extends MemberRecord> newMembers,
+                              @NotNull final List<? extends MemberRecord> changedMembers) {
+        dsl().transaction(transaction -> {
+            final var tx = DSL.using(transaction);
+            if (!newMembers.isEmpty()) {
+                tx.batchInsert(newMembers).execute();
+            }
+            if (!changedMembers.isEmpty()) {
+                tx.batchUpdate(changedMembers).execute();
+            }
+        });
+    }
+
     /**
      * @deprecated remove after migration of JUG.CH to Komunumo has finished
      */
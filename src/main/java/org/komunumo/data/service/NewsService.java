@@ -82,6 +82,28 @@ interface NewsService extends DSLContextGetter {
                 .fetchOneInto(NewsEntity.class);
     }
 
+    /**
+     * Get the next point in time when a news will appear or disappear on the website.
+     * @return the next visibility change, empty if no change is scheduled
+     */
+    default Optional<LocalDateTime> getNextNewsVisibilityChange() {
+        final var now = LocalDateTime.now();
+        final var nextShowFrom = dsl().select(DSL.min(NEWS.SHOW_FROM))
+                .from(NEWS)
+                .where(NEWS.SHOW_FROM.greaterThan(now))
+                .fetchOne(0, LocalDateTime.class);
+        final var nextShowTo = dsl().select(DSL.min(NEWS.SHOW_TO))
+                .from(NEWS)
+                .where(NEWS.SHOW_TO.greaterOrEqual(now))
+                .fetchOne(0, LocalDateTime.class);
+        // a news is still visible during the second of its show_to value
+        final var nextHide = nextShowTo != null ? nextShowTo.plusSeconds(1) : null;
+        if (nextShowFrom == null || nextHide != null && nextHide.isBefore(nextShowFrom)) {
+            return Optional.ofNullable(nextHide);
+        }
+        return Optional.of(nextShowFrom);
+    }
+
     default List<NewsEntity> getAllVisibleNews() {
         return dsl().selectFrom(NEWS)
                 .where(NEWS.SHOW_FROM.isNull().or(NEWS.SHOW_FROM.lessOrEqual(LocalDateTime.now())))
@@ -0,0 +1,137 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.db.enums.PageParent;
+import org.komunumo.data.entity.PageEntity;
+import org.komunumo.data.service.CacheInvalidationBus.Topic;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the metadata and the rendered content of all CMS pages in memory.
+ * The pages are held in an immutable snapshot shared by all sessions, so
+ * navigating to a page or building a sub menu never hits the database.
+ * After a page was modified, {@link #reload()} replaces the snapshot on all
+ * nodes and notifies the registered listeners (e.g. to update the routes).
+ */
+@Service
+public class PageRegistry {
+
+    private final DatabaseService databaseService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final AtomicReference<Pages> pages = new AtomicReference<>();
+    private final List<Consumer<List<PageEntity>>> changeListeners = new CopyOnWriteArrayList<>();
+
+    public PageRegistry(@NotNull final DatabaseService databaseService,
+                        @NotNull final CacheInvalidationBus cacheInvalidationBus) {
+        this.databaseService = databaseService;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        cacheInvalidationBus.subscribe(Topic.PAGES, this::reloadLocally);
+    }
+
+    /**
+     * Get all pages.
+     * @return all pages in the order they were created
+     */
+    public List<PageEntity> getAllPages() {
+        return pages().all();
+    }
+
+    /**
+     * Get the pages of a website section.
+     * @param parent the parent of the pages
+     * @return the pages in the order they were created
+     */
+    public List<PageEntity> getPages(@NotNull final PageParent parent) {
+        return pages().byParent().getOrDefault(parent, List.of());
+    }
+
+    /**
+     * Get a page by its complete URL.
+     * @param completePageUrl the URL of the page including the parent (e.g. "members/about")
+     * @return the page or empty, if no page exists with this URL
+     */
+    public Optional<PageEntity> getPage(@NotNull final String completePageUrl) {
+        return Optional.ofNullable(pages().byUrl().get(completePageUrl));
+    }
+
+    /**
+     * Register a listener which is called with all pages after they were
+     * (re)loaded. If the pages are already loaded, the listener is called
+     * immediately.
+     * @param listener the listener
+     */
+    public void addChangeListener(@NotNull final Consumer<List<PageEntity>> listener) {
+        changeListeners.add(listener);
+        listener.accept(getAllPages());
+    }
+
+    /**
+     * Reload all pages from the database and notify the listeners, on all nodes.
+     * Must be called after a page was created, modified, or deleted.
+     */
+    public void reload() {
+        cacheInvalidationBus.publish(Topic.PAGES);
+    }
+
+    private synchronized void reloadLocally() {
+        final var loaded = load();
+        pages.set(loaded);
+        changeListeners.forEach(listener -> listener.accept(loaded.all()));
+    }
+
+    private Pages pages() {
+        final var current = pages.get();
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (pages.get() == null) {
+                pages.set(load());
+            }
+            return pages.get();
+        }
+    }
+
+    private Pages load() {
+        final var all = databaseService.getAllPages().toList();
+        final var byParent = new EnumMap<PageParent, List<PageEntity>>(PageParent.class);
+        final var byUrl = new HashMap<String, PageEntity>();
+        for (final var page : all) {
+            byParent.computeIfAbsent(page.parent(), parent -> new ArrayList<>()).add(page);
+            byUrl.put(page.completePageUrl(), page);
+        }
+        byParent.replaceAll((parent, parentPages) -> List.copyOf(parentPages));
+        return new Pages(all, Map.copyOf(byParent), Map.copyOf(byUrl));
+    }
+
+    private record Pages(List<PageEntity> all, Map<PageParent, List<PageEntity>> byParent, Map<String, PageEntity> byUrl) { }
+
+}
@@ -18,14 +18,12 @@
 
 package org.komunumo.data.service;
 
-import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jooq.impl.DSL;
-import org.komunumo.data.db.enums.PageParent;
 import org.komunumo.data.entity.Page;
+import org.komunumo.data.entity.PageEntity;
 import org.komunumo.data.service.getter.DSLContextGetter;
 
-import java.util.Optional;
 import java.util.stream.Stream;
 
 import static org.komunumo.data.db.tables.Page.PAGE;
@@ -55,19 +53,13 @@ interface PageService extends DSLContextGetter {
                 .stream();
     }
 
-    default Stream<Page> getPages(@NotNull final PageParent parent) {
-        return dsl().select(PAGE.asterisk())
-                .from(PAGE)
-                .where(PAGE.PARENT.eq(parent))
+    default Stream<PageEntity> getAllPages() {
+        return dsl().selectFrom(PAGE)
                 .orderBy(PAGE.ID.asc())
                 .fetchInto(Page.class)
-                .stream();
-    }
-
-    default Optional<Page> getPage(@NotNull final PageParent parent, @NotNull final String url) {
-        return dsl().select(PAGE.asterisk())
-                .from(PAGE)
-                .where(PAGE.PARENT.eq(parent).and(PAGE.PAGE_URL.eq(url)))
-                .fetchOptionalInto(Page.class);
+                .stream()
+                .map(page -> new PageEntity(page.getId(), page.getParent(), page.getPageUrl(),
+                        page.getCompletePageUrl(), page.getTitle(),
+                        "<div>%s</div>".formatted(page.getContent())));
     }
 }
@@ -0,0 +1,202 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.komunumo.data.db.enums.SponsorLevel;
+import org.komunumo.data.entity.FaqEntity;
+import org.komunumo.data.entity.NewsEntity;
+import org.komunumo.data.entity.SponsorEntity;
+import org.komunumo.data.service.CacheInvalidationBus.Topic;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Caches the content shown on every page of the public website. The content
+ * is held in immutable snapshots shared by all sessions. A snapshot is
+ * reloaded when it gets older than {@link #MAX_AGE}, when a time window of
+ * its content (e.g. the visibility of a news) opens or closes, or when it
+ * is invalidated after a modification in the admin area. Invalidations are
+ * published on the {@link CacheInvalidationBus}, so they apply to all nodes.
+ */
+@Service
+public class PublicContentCache {
+
+    /**
+     * The maximum time a snapshot is used without reloading it.
+     */
+    public static final Duration MAX_AGE = Duration.ofMinutes(10);
+
+    private final CachedContent<Map<SponsorLevel, List<SponsorEntity>>> sponsors;
+    private final CachedContent<List<NewsEntity>> news;
+    private final CachedContent<List<FaqEntity>> faq;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public PublicContentCache(@NotNull final DatabaseService databaseService,
+                              @NotNull final CacheInvalidationBus cacheInvalidationBus) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        sponsors = new CachedContent<>(() -> {
+            final var activeSponsors = new EnumMap<SponsorLevel, List<SponsorEntity>>(SponsorLevel.class);
+            for (final var level : SponsorLevel.values()) {
+                activeSponsors.put(level, databaseService.getActiveSponsors(level).toList());
+            }
+            // sponsors are valid for whole days
+            return new Snapshot<>(Map.copyOf(activeSponsors), earliest(LocalDate.now().plusDays(1).atStartOfDay()));
+        });
+        news = new CachedContent<>(() -> {
+            final var nextVisibilityChange = databaseService.getNextNewsVisibilityChange().orElse(null);
+            return new Snapshot<>(List.copyOf(databaseService.getAllVisibleNews()), earliest(nextVisibilityChange));
+        });
+        faq = new CachedContent<>(() ->
+                new Snapshot<>(List.copyOf(databaseService.getAllFaqEntities()), earliest(null)));
+
+        cacheInvalidationBus.subscribe(Topic.SPONSORS, sponsors::invalidate);
+        cacheInvalidationBus.subscribe(Topic.NEWS, news::invalidate);
+        cacheInvalidationBus.subscribe(Topic.FAQ, faq::invalidate);
+    }
+
+    /**
+     * Get the sponsors which are currently active.
+     * @param level the sponsor level
+     * @return the active sponsors of the level, ordered by name
+     */
+    public List<SponsorEntity> getActiveSponsors(@NotNull final SponsorLevel level) {
+        return sponsors.get().getOrDefault(level, List.of());
+    }
+
+    /**
+     * Get the news which are currently visible.
+     * @return the visible news, latest first
+     */
+    public List<NewsEntity> getVisibleNews() {
+        return news.get();
+    }
+
+    /**
+     * Get a news if it is currently visible.
+     * @param id the ID of the news
+     * @return the news or empty, if there is no visible news with this ID
+     */
+    public Optional<NewsEntity> getVisibleNews(@NotNull final Long id) {
+        return news.get().stream()
+                .filter(newsEntity -> id.equals(newsEntity.id()))
+                .findAny();
+    }
+
+    /**
+     * Get the latest visible news.
+     * @return the latest news or empty, if there is no visible news
+     */
+    public Optional<NewsEntity> getLatestNews() {
+        return news.get().stream().findFirst();
+    }
+
+    /**
+     * Get all FAQ entries.
+     * @return the FAQ entries
+     */
+    public List<FaqEntity> getFaq() {
+        return faq.get();
+    }
+
+    /**
+     * Reload the sponsors on the next access, on all nodes.
+     */
+    public void invalidateSponsors() {
+        cacheInvalidationBus.publish(Topic.SPONSORS);
+    }
+
+    /**
+     * Reload the news on the next access, on all nodes.
+     */
+    public void invalidateNews() {
+        cacheInvalidationBus.publish(Topic.NEWS);
+    }
+
+    /**
+     * Reload the FAQ on the next access, on all nodes.
+     */
+    public void invalidateFaq() {
+        cacheInvalidationBus.publish(Topic.FAQ);
+    }
+
+    private static LocalDateTime earliest(@Nullable final LocalDateTime nextChange) {
+        final var maxAge = LocalDateTime.now().plus(MAX_AGE);
+        return nextChange != null && nextChange.isBefore(maxAge) ? nextChange : maxAge;
+    }
+
+    private record Snapshot<T>(T content, LocalDateTime expires, long version) {
+
+        Snapshot(@NotNull final T content, @NotNull final LocalDateTime expires) {
+            this(content, expires, 0);
+        }
+
+        Snapshot<T> withVersion(final long newVersion) {
+            return new Snapshot<>(content, expires, newVersion);
+        }
+
+    }
+
+    /**
+     * Holds the current snapshot of some content. Every invalidation
+     * increments the version, so a snapshot which was loaded concurrently
+     * to an invalidation is used once but never stored.
+     */
+    private static final class CachedContent<T> {
+
+        private final Supplier<Snapshot<T>> loader;
+        private final AtomicReference<Snapshot<T>> snapshot = new AtomicReference<>();
+        private final AtomicLong version = new AtomicLong();
+
+        CachedContent(@NotNull final Supplier<Snapshot<T>> loader) {
+            this.loader = loader;
+        }
+
+        T get() {
+            final var current = snapshot.get();
+            final var currentVersion = version.get();
+            if (current != null && current.version() == currentVersion && LocalDateTime.now().isBefore(current.expires())) {
+                return current.content();
+            }
+            final var loaded = loader.get().withVersion(currentVersion);
+            if (version.get() == currentVersion) {
+                snapshot.compareAndSet(current, loaded);
+            }
+            return loaded.content();
+        }
+
+        void invalidate() {
+            version.incrementAndGet();
+            snapshot.set(null);
+        }
+
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.komunumo.data.db.enums.SubscriptionStatus;
+import org.komunumo.data.entity.Event;
+import org.komunumo.data.entity.FormStatistics;
+import org.komunumo.data.entity.Member;
+import org.komunumo.data.entity.RegistrationResult;
+import org.komunumo.security.RateLimitExceededException;
+import org.komunumo.security.TokenBucketRateLimiter;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Handles the submissions of the public forms of the website, which write
+ * to the database and send emails. The submissions are limited per client
+ * IP address ("website.form.limit.ip") and per email address
+ * ("website.form.limit.email") within {@link #PERIOD}, using token
+ * buckets, so bots can't exhaust the mail relay or the database.
+ */
+@Service
+public class PublicFormService {
+
+    /**
+     * The time to refill the submission limits.
+     */
+    public static final Duration PERIOD = Duration.ofHours(1);
+
+    private static final int MAX_TRACKED_KEYS = 100_000;
+
+    public enum Form { REGISTRATION, SUBSCRIPTION, FEEDBACK }
+
+    private final DatabaseService databaseService;
+    private final TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(MAX_TRACKED_KEYS);
+    private final Map<Form, Counters> counters = new EnumMap<>(Form.class);
+
+    public PublicFormService(@NotNull final DatabaseService databaseService) {
+        this.databaseService = databaseService;
+        Arrays.stream(Form.values()).forEach(form -> counters.put(form, new Counters()));
+    }
+
+    /**
+     * Register for an event, creating the member if needed.
+     * @param clientIp the IP address of the client
+     * @param event the event to register for
+     * @param member the existing member or {@code null} to create a new member
+     * @param firstName the first name of a new member
+     * @param lastName the last name of a new member
+     * @param emailAddress the email address
+     * @param source how the member heard of the event
+     * @param subscribe true to subscribe to the newsletter, too
+     * @return the result of the registration
+     * @throws RateLimitExceededException if there were too many submissions
+     */
+    public RegistrationResult registerForEvent(@NotNull final String clientIp,
+                                               @NotNull final Event event,
+                                               @Nullable final Member member,
+                                               @Nullable final String firstName,
+                                               @Nullable final String lastName,
+                                               @NotNull final String emailAddress,
+                                               @NotNull final String source,
+                                               final boolean subscribe) {
+        checkLimit(Form.REGISTRATION, clientIp, emailAddress);
+        final var attendee = member != null ? member
+                : databaseService.createMember(firstName != null ? firstName : "", lastName != null ? lastName : "", emailAddress);
+        final var registrationResult = databaseService.registerForEvent(event, attendee, source);
+        if (subscribe) {
+            databaseService.addSubscription(emailAddress);
+        }
+        return registrationResult;
+    }
+
+    /**
+     * Subscribe to the newsletter.
+     * @param clientIp the IP address of the client
+     * @param emailAddress the email address
+     * @return the status of the subscription
+     * @throws RateLimitExceededException if there were too many submissions
+     */
+    public SubscriptionStatus addSubscription(@NotNull final String clientIp,
+                                              @NotNull final String emailAddress) {
+        checkLimit(Form.SUBSCRIPTION, clientIp, emailAddress);
+        return databaseService.addSubscription(emailAddress);
+    }
+
+    /**
+     * Send feedback to the organizers.
+     * @param clientIp the IP address of the client
+     * @param firstName the first name of the sender
+     * @param lastName the last name of the sender
+     * @param emailAddress the email address of the sender
+     * @param feedback the feedback
+     * @throws RateLimitExceededException if there were too many submissions
+     */
+    public void receiveFeedback(@NotNull final String clientIp,
+                                @NotNull final String firstName,
+                                @NotNull final String lastName,
+                                @NotNull final String emailAddress,
+                                @NotNull final String feedback) {
+        checkLimit(Form.FEEDBACK, clientIp, emailAddress);
+        databaseService.receiveFeedback(firstName, lastName, emailAddress, feedback);
+    }
+
+    private void checkLimit(@NotNull final Form form, @NotNull final String clientIp, @NotNull final String emailAddress) {
+        final var configuration = databaseService.configuration();
+        final var formCounters = counters.get(form);
+        if (!rateLimiter.tryAcquire("ip:" + clientIp, configuration.getWebsiteFormLimitPerIp(), PERIOD)) {
+            formCounters.rejectedByIp().increment();
+            throw new RateLimitExceededException("Too many submissions from this IP address");
+        }
+        final var email = emailAddress.trim().toLowerCase(Locale.getDefault());
+        if (!rateLimiter.tryAcquire("email:" + email, configuration.getWebsiteFormLimitPerEmail(), PERIOD)) {
+            formCounters.rejectedByEmail().increment();
+            throw new RateLimitExceededException("Too many submissions for this email address");
+        }
+        formCounters.accepted().increment();
+    }
+
+    /**
+     * Get the number of accepted and rejected submissions of the public forms.
+     * @return the statistics per form
+     */
+    public List<FormStatistics> getStatistics() {
+        return counters.entrySet().stream()
+                .map(entry -> new FormStatistics(entry.getKey().name().toLowerCase(Locale.getDefault()),
+                        entry.getValue().accepted().sum(),
+                        entry.getValue().rejectedByIp().sum(),
+                        entry.getValue().rejectedByEmail().sum()))
+                .toList();
+    }
+
+    private record Counters(LongAdder accepted, LongAdder rejectedByIp, LongAdder rejectedByEmail) {
+        Counters() {
+            this(new LongAdder(), new LongAdder(), new LongAdder());
+        }
+    }
+
+}
@@ -21,13 +21,16 @@ package org.komunumo.data.service;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jooq.Query;
 import org.jooq.impl.DSL;
 import org.komunumo.data.db.tables.records.RegistrationRecord;
 import org.komunumo.data.entity.Event;
+import org.komunumo.data.entity.ImportedRegistration;
 import org.komunumo.data.entity.MailTemplateId;
 import org.komunumo.data.entity.Member;
 import org.komunumo.data.entity.Registration;
 import org.komunumo.data.entity.RegistrationListEntity;
+import org.komunumo.data.entity.RegistrationImportResult;
 import org.komunumo.data.entity.RegistrationMemberEntity;
 import org.komunumo.data.entity.RegistrationResult;
 import org.komunumo.data.entity.reports.RegistrationListEntityWrapper;
@@ -36,8 +39,14 @@ import org.komunumo.util.URLUtil;
 import org.springframework.mail.SimpleMailMessage;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -45,7 +54,7 @@ import static org.komunumo.data.db.tables.Member.MEMBER;
 import static org.komunumo.data.db.tables.Registration.REGISTRATION;
 import static org.komunumo.util.FormatterUtil.formatDateTime;
 
-interface RegistrationService extends DSLContextGetter, EventOrganizerService, MailService {
+interface RegistrationService extends DSLContextGetter, AttendeeStatisticService, EventOrganizerService, MailService {
 
     default Optional<Registration> getRegistration(@NotNull final Long eventId,
                                                   @NotNull final Long memberId) {
@@ -111,6 +120,7 @@ interface RegistrationService extends DSLContextGetter, EventOrganizerService, M
                 registration.setDeregister(RandomStringUtils.randomAlphanumeric(16));
                 registration.setNoShow(noShow);
                 registration.store();
+                invalidateAttendeeSketch(date);
             } else {
                 registration = hasRegistered.get();
             }
@@ -134,6 +144,75 @@ interface RegistrationService extends DSLContextGetter, EventOrganizerService, M
         }
     }
 
+    /**
+     * Store imported registrations in one transaction: the new members are
+     * stored first, then the new registrations are inserted and the no-show
+     * flag of existing registrations is updated, with one batch each. No
+     * confirmation mails are sent and the attendee limits are not checked.
+     * @param registrations the registrations, at most one per event and member
+     * @return the number of new members, new and updated registrations
+     */
+    default RegistrationImportResult storeImportedRegistrations(@NotNull final List<ImportedRegistration> registrations) {
+        final var result = dsl().transactionResult(transaction -> {
+            final var tx = DSL.using(transaction);
+            final var newMembers = Collections.newSetFromMap(new IdentityHashMap<Member, Boolean>());
+            for (final var registration : registrations) {
+                final var member = registration.member();
+                if (member.getId() == null && newMembers.add(member)) {
+                    member.attach(transaction);
+                    member.store();
+                }
+            }
+
+            final var eventIds = registrations.stream().map(ImportedRegistration::eventId).distinct().toList();
+            final var noShowByEventAndMember = new HashMap<Long, Map<Long, Boolean>>();
+            tx.select(REGISTRATION.EVENT_ID, REGISTRATION.MEMBER_ID, REGISTRATION.NO_SHOW)
+                    .from(REGISTRATION)
+                    .where(REGISTRATION.EVENT_ID.in(eventIds))
+                    .forEach(registration -> noShowByEventAndMember
+                            .computeIfAbsent(registration.value1(), eventId -> new HashMap<>())
+                            .put(registration.value2(), registration.value3()));
+
+            final var inserts = new ArrayList<RegistrationRecord>();
+            final var updates = new ArrayList<Query>();
+            for (final var registration : registrations) {
+                final var memberId = registration.member().getId();
+                final var noShow = noShowByEventAndMember
+                        .getOrDefault(registration.eventId(), Map.of())
+                        .get(memberId);
+                if (noShow == null) {
+                    final var record = tx.newRecord(REGISTRATION);
+                    record.setEventId(registration.eventId());
+                    record.setMemberId(memberId);
+                    record.setDate(registration.date());
+                    record.setSource(registration.source());
+                    record.setDeregister(RandomStringUtils.randomAlphanumeric(16));
+                    record.setNoShow(registration.noShow());
+                    inserts.add(record);
+                } else if (noShow != registration.noShow()) {
+                    updates.add(tx.update(REGISTRATION)
+                            .set(REGISTRATION.NO_SHOW, registration.noShow())
+                            .where(REGISTRATION.EVENT_ID.eq(registration.eventId()))
+                            .and(REGISTRATION.MEMBER_ID.eq(memberId)));
+                }
+            }
+            if (!inserts.isEmpty()) {
+                tx.batchInsert(inserts).execute();
+            }
+            if (!updates.isEmpty()) {
+                tx.batch(updates).execute();
+            }
+            return new RegistrationImportResult(newMembers.size(), inserts.size(), updates.size());
+        });
+        registrations.stream()
+                .map(ImportedRegistration::date)
+                .filter(Objects::nonNull)
+                .map(YearMonth::from)
+                .distinct()
+                .forEach(month -> invalidateAttendeeSketch(month.atDay(1).atStartOfDay()));
+        return result;
+    }
+
     /**
      * @deprecated remove after migration of JUG.CH to Komunumo has finished
      */
@@ -152,6 +231,7 @@ interface RegistrationService extends DSLContextGetter, EventOrganizerService, M
             eventMember.setNoShow(noShow);
             eventMember.setDeregister(deregisterCode);
             eventMember.store();
+            invalidateAttendeeSketch(registerDate);
         }
         return hasRegistered.isEmpty();
     }
@@ -159,13 +239,17 @@ interface RegistrationService extends DSLContextGetter, EventOrganizerService, M
     default boolean deregisterFromEvent(@NotNull final String deregisterCode) {
         final var registration = getRegistration(deregisterCode);
         if (registration != null) {
+            invalidateAttendeeSketch(registration.getDate());
             return registration.delete() > 0;
         }
         return false;
     }
 
     default void deregisterFromEvent(final long eventId, final long memberId) {
-        getRegistration(eventId, memberId).ifPresent(Registration::delete);
+        getRegistration(eventId, memberId).ifPresent(registration -> {
+            invalidateAttendeeSketch(registration.getDate());
+            registration.delete();
+        });
     }
 
     default int countRegistrations(final long eventId) {
@@ -181,6 +265,7 @@ interface RegistrationService extends DSLContextGetter, EventOrganizerService, M
     default void updateNoShow(@NotNull final Registration registration, final boolean noShow) {
         registration.setNoShow(noShow);
         registration.store();
+        invalidateAttendeeSketch(registration.getDate());
     }
 
     default Stream<RegistrationListEntity> findRegistrations(final long eventId, final int offset, final int limit, @Nullable final String filter) {
@@ -0,0 +1,208 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.Year;
+
+/**
+ * Writes the statistics of one or more years as a multi-sheet XLSX report.
+ * The workbook is written with a streaming {@link SXSSFWorkbook}: only a
+ * small window of rows is kept in memory, older rows are flushed to a
+ * temporary file, so even large multi-year reports need very little heap.
+ */
+@Service
+public class ReportService {
+
+    /**
+     * The content type of the XLSX reports.
+     */
+    public static final String CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private static final int ROW_ACCESS_WINDOW = 100;
+
+    private final DatabaseService databaseService;
+
+    public ReportService(@NotNull final DatabaseService databaseService) {
+        this.databaseService = databaseService;
+    }
+
+    /**
+     * Write the statistics report for a range of years.
+     * @param fromYear the first year of the report
+     * @param toYear the last year of the report
+     * @param outputStream the stream to write the XLSX file to, will not be closed
+     * @throws IOException if writing the report fails
+     */
+    public void writeStatisticsReport(@NotNull final Year fromYear, @NotNull final Year toYear,
+                                      @NotNull final OutputStream outputStream) throws IOException {
+        final var workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            final var styles = new Styles(workbook);
+            writeMonthlyVisitors(workbook.createSheet("Monthly visitors"), styles, fromYear, toYear);
+            writeEvents(workbook.createSheet("Events"), styles, fromYear, toYear);
+            writeNoShowRates(workbook.createSheet("No-show rates"), styles, fromYear, toYear);
+            writeRegistrationSources(workbook.createSheet("Registration sources"), styles, fromYear, toYear);
+            writeRegistrations(workbook.createSheet("Registrations"), styles, fromYear, toYear);
+            workbook.write(outputStream);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private void writeMonthlyVisitors(@NotNull final SXSSFSheet sheet, @NotNull final Styles styles,
+                                      @NotNull final Year fromYear, @NotNull final Year toYear) {
+        writeHeader(sheet, styles, "Year", "Location", "Jan", "Feb", "Mar", "Apr", "May", "Jun",
+                "Jul", "Aug", "Sep", "Oct", "Nov", "Dec", "Total");
+        for (var year = fromYear; !year.isAfter(toYear); year = year.plusYears(1)) {
+            for (final var visitors : databaseService.calculateMonthlyVisitorsByYear(year)) {
+                final var row = sheet.createRow(sheet.getLastRowNum() + 1);
+                final int[] months = {visitors.january(), visitors.february(), visitors.march(),
+                        visitors.april(), visitors.may(), visitors.june(), visitors.july(), visitors.august(),
+                        visitors.september(), visitors.october(), visitors.november(), visitors.december()};
+                row.createCell(0).setCellValue(year.getValue());
+                row.createCell(1).setCellValue(visitors.location() != null ? visitors.location() : "");
+                var total = 0;
+                for (int month = 0; month < months.length; month++) {
+                    row.createCell(month + 2).setCellValue(months[month]);
+                    total += months[month];
+                }
+                row.createCell(months.length + 2).setCellValue(total);
+            }
+        }
+    }
+
+    private void writeEvents(@NotNull final SXSSFSheet sheet, @NotNull final Styles styles,
+                             @NotNull final Year fromYear, @NotNull final Year toYear) {
+        writeHeader(sheet, styles, "Date", "Type", "Title", "Location", "Registrations", "No-shows", "No-show rate");
+        try (var events = databaseService.getEventReport(fromYear, toYear)) {
+            events.forEach(event -> {
+                final var row = sheet.createRow(sheet.getLastRowNum() + 1);
+                setDateTime(row, 0, event.date(), styles);
+                row.createCell(1).setCellValue(event.type().getLiteral());
+                row.createCell(2).setCellValue(event.title());
+                row.createCell(3).setCellValue(event.location());
+                row.createCell(4).setCellValue(event.registrations());
+                row.createCell(5).setCellValue(event.noShows());
+                setRate(row, 6, event.noShows(), event.registrations(), styles);
+            });
+        }
+    }
+
+    private void writeNoShowRates(@NotNull final SXSSFSheet sheet, @NotNull final Styles styles,
+                                  @NotNull final Year fromYear, @NotNull final Year toYear) {
+        writeHeader(sheet, styles, "Year", "Location", "Registrations", "No-shows", "No-show rate");
+        try (var noShows = databaseService.getNoShowReport(fromYear, toYear)) {
+            noShows.forEach(entry -> {
+                final var row = sheet.createRow(sheet.getLastRowNum() + 1);
+                row.createCell(0).setCellValue(entry.year().getValue());
+                row.createCell(1).setCellValue(entry.location());
+                row.createCell(2).setCellValue(entry.registrations());
+                row.createCell(3).setCellValue(entry.noShows());
+                setRate(row, 4, entry.noShows(), entry.registrations(), styles);
+            });
+        }
+    }
+
+    private void writeRegistrationSources(@NotNull final SXSSFSheet sheet, @NotNull final Styles styles,
+                                          @NotNull final Year fromYear, @NotNull final Year toYear) {
+        writeHeader(sheet, styles, "Year", "Source", "Registrations");
+        try (var sources = databaseService.getRegistrationSourceReport(fromYear, toYear)) {
+            sources.forEach(entry -> {
+                final var row = sheet.createRow(sheet.getLastRowNum() + 1);
+                row.createCell(0).setCellValue(entry.year().getValue());
+                row.createCell(1).setCellValue(entry.source());
+                row.createCell(2).setCellValue(entry.registrations());
+            });
+        }
+    }
+
+    private void writeRegistrations(@NotNull final SXSSFSheet sheet, @NotNull final Styles styles,
+                                    @NotNull final Year fromYear, @NotNull final Year toYear) {
+        writeHeader(sheet, styles, "Event date", "Event", "Location", "Member ID", "Registration date", "Source", "No-show");
+        try (var registrations = databaseService.getRegistrationReport(fromYear, toYear)) {
+            registrations.forEach(registration -> {
+                final var row = sheet.createRow(sheet.getLastRowNum() + 1);
+                setDateTime(row, 0, registration.eventDate(), styles);
+                row.createCell(1).setCellValue(registration.eventTitle());
+                row.createCell(2).setCellValue(registration.location());
+                row.createCell(3).setCellValue(registration.memberId());
+                setDateTime(row, 4, registration.registrationDate(), styles);
+                row.createCell(5).setCellValue(registration.source());
+                row.createCell(6).setCellValue(registration.noShow());
+            });
+        }
+    }
+
+    private static void writeHeader(@NotNull final SXSSFSheet sheet, @NotNull final Styles styles,
+                                    @NotNull final String... titles) {
+        final var row = sheet.createRow(0);
+        for (int column = 0; column < titles.length; column++) {
+            final var cell = row.createCell(column);
+            cell.setCellValue(titles[column]);
+            cell.setCellStyle(styles.header());
+        }
+        sheet.createFreezePane(0, 1);
+    }
+
+    private static void setDateTime(@NotNull final SXSSFRow row, final int column,
+                                    @Nullable final LocalDateTime value, @NotNull final Styles styles) {
+        final var cell = row.createCell(column);
+        if (value != null) {
+            cell.setCellValue(value);
+            cell.setCellStyle(styles.dateTime());
+        }
+    }
+
+    private static void setRate(@NotNull final SXSSFRow row, final int column,
+                                final int part, final int total, @NotNull final Styles styles) {
+        final var cell = row.createCell(column);
+        cell.setCellValue(total == 0 ? 0.0 : (double) part / total);
+        cell.setCellStyle(styles.percentage());
+    }
+
+    /**
+     * The cell styles are shared by all cells, a workbook supports only a limited number of styles.
+     */
+    private record Styles(CellStyle header, CellStyle dateTime, CellStyle percentage) {
+
+        Styles(@NotNull final SXSSFWorkbook workbook) {
+            this(workbook.createCellStyle(), workbook.createCellStyle(), workbook.createCellStyle());
+            final var bold = workbook.createFont();
+            bold.setBold(true);
+            header.setFont(bold);
+            dateTime.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+            percentage.setDataFormat(workbook.createDataFormat().getFormat("0.0%"));
+        }
+
+    }
+
+}
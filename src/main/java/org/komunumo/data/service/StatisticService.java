@@ -22,15 +22,28 @@ import org.jetbrains.annotations.NotNull;
 import org.jfree.data.time.Month;
 import org.jooq.impl.DSL;
 import org.komunumo.data.db.enums.EventType;
+import org.komunumo.data.entity.CohortAnalysis;
 import org.komunumo.data.entity.MonthlyVisitors;
 import org.komunumo.data.entity.NoShows;
+import org.komunumo.data.entity.reports.EventReportEntry;
+import org.komunumo.data.entity.reports.NoShowReportEntry;
+import org.komunumo.data.entity.reports.RegistrationReportEntry;
+import org.komunumo.data.entity.reports.RegistrationSourceReportEntry;
 import org.komunumo.data.service.getter.DSLContextGetter;
+import org.komunumo.data.statistic.CohortAnalyzer;
+import org.komunumo.data.statistic.CohortMatrix;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.Year;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import static java.time.Month.DECEMBER;
 import static java.time.Month.JANUARY;
@@ -39,7 +52,7 @@ import static org.komunumo.data.db.tables.Event.EVENT;
 import static org.komunumo.data.db.tables.Member.MEMBER;
 import static org.komunumo.data.db.tables.Registration.REGISTRATION;
 
-interface StatisticService extends DSLContextGetter {
+interface StatisticService extends DSLContextGetter, AttendeeStatisticService {
 
     default int countMembersByYear(@NotNull final Year year) {
         final var endOfYear = year.atMonth(DECEMBER).atEndOfMonth();
@@ -72,16 +85,9 @@ interface StatisticService extends DSLContextGetter {
     }
 
     default int countUniqueAttendeesByYear(@NotNull final Year year, @NotNull final NoShows noShows) {
-        final var firstDay = year.atMonth(JANUARY).atDay(1).atTime(LocalTime.MIN);
-        final var lastDay = year.atMonth(DECEMBER).atEndOfMonth().atTime(LocalTime.MAX);
-        return dsl().selectCount()
-                .from(REGISTRATION)
-                .where(REGISTRATION.DATE.between(firstDay, lastDay)
-                        .and(noShows == NoShows.INCLUDE
-                                ? DSL.noCondition()
-                                : REGISTRATION.NO_SHOW.eq(noShows == NoShows.ONLY)))
-                .groupBy(REGISTRATION.MEMBER_ID)
-                .execute();
+        final var firstDay = year.atMonth(JANUARY).atDay(1);
+        final var lastDay = year.atMonth(DECEMBER).atEndOfMonth();
+        return (int) countDistinctAttendees(firstDay, lastDay, List.of(), List.of(), noShows).count();
     }
 
     default Collection<MonthlyVisitors> calculateMonthlyVisitorsByYear(@NotNull final Year year) {
@@ -111,6 +117,115 @@ interface StatisticService extends DSLContextGetter {
                 .fetchInto(MonthlyVisitors.class);
     }
 
+    /**
+     * Analyze the retention of the attendees. Streams all attendances ordered
+     * by member once and computes the cohorts of all events, per location and
+     * per event type in the same pass.
+     * @return the cohort analysis, limited to the last {@value CohortAnalyzer#MAX_YEARS} years
+     */
+    default CohortAnalysis analyzeCohorts() {
+        final var now = LocalDateTime.now();
+        final var lastYear = Year.from(now);
+        final var earliestYear = lastYear.minusYears(CohortAnalyzer.MAX_YEARS - 1);
+        final var firstEventDate = dsl().select(DSL.min(EVENT.DATE)).from(EVENT).fetchOne(0, LocalDateTime.class);
+        var firstYear = firstEventDate != null ? Year.from(firstEventDate) : lastYear;
+        if (firstYear.isBefore(earliestYear)) {
+            firstYear = earliestYear;
+        }
+
+        final var location = DSL.coalesce(EVENT.LOCATION, "");
+        final var locations = dsl().selectDistinct(location).from(EVENT).orderBy(location).fetch(location);
+        final var locationIndexes = new HashMap<String, Integer>();
+        locations.forEach(name -> locationIndexes.put(name, locationIndexes.size()));
+        final var eventTypes = EventType.values();
+
+        final var analyzer = new CohortAnalyzer(firstYear, lastYear, locations.size(), eventTypes.length);
+        try (var cursor = dsl().select(REGISTRATION.MEMBER_ID, DSL.year(EVENT.DATE), location, EVENT.TYPE)
+                .from(REGISTRATION)
+                .join(EVENT).on(REGISTRATION.EVENT_ID.eq(EVENT.ID))
+                .where(REGISTRATION.NO_SHOW.isFalse())
+                .and(EVENT.DATE.lessOrEqual(now))
+                .orderBy(REGISTRATION.MEMBER_ID)
+                .fetchSize(1_000)
+                .fetchLazy()) {
+            for (final var record : cursor) {
+                analyzer.add(record.value1(), record.value2(), locationIndexes.get(record.value3()), record.value4().ordinal());
+            }
+        }
+
+        final var byLocation = new LinkedHashMap<String, CohortMatrix>();
+        for (int index = 0; index < locations.size(); index++) {
+            byLocation.put(locations.get(index), analyzer.getLocationCohortMatrix(index));
+        }
+        final var byEventType = new EnumMap<EventType, CohortMatrix>(EventType.class);
+        for (final var eventType : eventTypes) {
+            byEventType.put(eventType, analyzer.getEventTypeCohortMatrix(eventType.ordinal()));
+        }
+        return new CohortAnalysis(analyzer.getCohortMatrix(), Map.copyOf(byLocation), Map.copyOf(byEventType));
+    }
+
+    default Stream<EventReportEntry> getEventReport(@NotNull final Year fromYear, @NotNull final Year toYear) {
+        final var firstDay = fromYear.atMonth(JANUARY).atDay(1).atTime(LocalTime.MIN);
+        final var lastDay = toYear.atMonth(DECEMBER).atEndOfMonth().atTime(LocalTime.MAX);
+        return dsl().select(EVENT.DATE, EVENT.TYPE, EVENT.TITLE, EVENT.LOCATION,
+                        DSL.count(REGISTRATION.MEMBER_ID), DSL.count().filterWhere(REGISTRATION.NO_SHOW.isTrue()))
+                .from(EVENT)
+                .leftJoin(REGISTRATION).on(REGISTRATION.EVENT_ID.eq(EVENT.ID))
+                .where(EVENT.DATE.between(firstDay, lastDay))
+                .and(EVENT.PUBLISHED.isTrue())
+                .groupBy(EVENT.ID, EVENT.DATE, EVENT.TYPE, EVENT.TITLE, EVENT.LOCATION)
+                .orderBy(EVENT.DATE)
+                .fetchSize(1_000)
+                .stream()
+                .map(record -> new EventReportEntry(record.value1(), record.value2(), record.value3(),
+                        record.value4() != null ? record.value4() : "", record.value5(), record.value6()));
+    }
+
+    default Stream<NoShowReportEntry> getNoShowReport(@NotNull final Year fromYear, @NotNull final Year toYear) {
+        final var firstDay = fromYear.atMonth(JANUARY).atDay(1).atTime(LocalTime.MIN);
+        final var lastDay = toYear.atMonth(DECEMBER).atEndOfMonth().atTime(LocalTime.MAX);
+        final var year = DSL.year(EVENT.DATE);
+        final var location = DSL.coalesce(EVENT.LOCATION, "");
+        return dsl().select(year, location, DSL.count(), DSL.count().filterWhere(REGISTRATION.NO_SHOW.isTrue()))
+                .from(REGISTRATION)
+                .join(EVENT).on(REGISTRATION.EVENT_ID.eq(EVENT.ID))
+                .where(EVENT.DATE.between(firstDay, lastDay))
+                .groupBy(year, location)
+                .orderBy(year, location)
+                .stream()
+                .map(record -> new NoShowReportEntry(Year.of(record.value1()), record.value2(), record.value3(), record.value4()));
+    }
+
+    default Stream<RegistrationSourceReportEntry> getRegistrationSourceReport(@NotNull final Year fromYear, @NotNull final Year toYear) {
+        final var firstDay = fromYear.atMonth(JANUARY).atDay(1).atTime(LocalTime.MIN);
+        final var lastDay = toYear.atMonth(DECEMBER).atEndOfMonth().atTime(LocalTime.MAX);
+        final var year = DSL.year(EVENT.DATE);
+        return dsl().select(year, REGISTRATION.SOURCE, DSL.count())
+                .from(REGISTRATION)
+                .join(EVENT).on(REGISTRATION.EVENT_ID.eq(EVENT.ID))
+                .where(EVENT.DATE.between(firstDay, lastDay))
+                .groupBy(year, REGISTRATION.SOURCE)
+                .orderBy(year, DSL.count().desc())
+                .stream()
+                .map(record -> new RegistrationSourceReportEntry(Year.of(record.value1()), record.value2(), record.value3()));
+    }
+
+    default Stream<RegistrationReportEntry> getRegistrationReport(@NotNull final Year fromYear, @NotNull final Year toYear) {
+        final var firstDay = fromYear.atMonth(JANUARY).atDay(1).atTime(LocalTime.MIN);
+        final var lastDay = toYear.atMonth(DECEMBER).atEndOfMonth().atTime(LocalTime.MAX);
+        return dsl().select(EVENT.DATE, EVENT.TITLE, EVENT.LOCATION, REGISTRATION.MEMBER_ID,
+                        REGISTRATION.DATE, REGISTRATION.SOURCE, REGISTRATION.NO_SHOW)
+                .from(REGISTRATION)
+                .join(EVENT).on(REGISTRATION.EVENT_ID.eq(EVENT.ID))
+                .where(EVENT.DATE.between(firstDay, lastDay))
+                .orderBy(EVENT.DATE, REGISTRATION.MEMBER_ID)
+                .fetchSize(1_000)
+                .stream()
+                .map(record -> new RegistrationReportEntry(record.value1(), record.value2(),
+                        record.value3() != null ? record.value3() : "", record.value4(),
+                        record.value5(), record.value6(), record.value7()));
+    }
+
     default List<Year> getYearsWithEvents() {
         return dsl().selectDistinct(DSL.year(EVENT.DATE).as("year"))
                 .from(EVENT)
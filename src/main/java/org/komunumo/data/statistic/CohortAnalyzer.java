@@ -0,0 +1,175 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.statistic;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Year;
+import java.util.Arrays;
+
+/**
+ * Computes cohort matrices in a single pass over the attendances of all
+ * members. The attendances must be provided ordered by member ID, so only
+ * the years attended by the current member have to be kept in memory. They
+ * are tracked as bit masks (one bit per year), which limits the analysis to
+ * {@value #MAX_YEARS} years.
+ *
+ * <p>Besides the matrix of all attendances, one matrix per location and one
+ * matrix per event type is computed. In those, the cohort of a member is the
+ * first year the member attended an event at that location or of that type.
+ * Locations and event types are referenced by their index.</p>
+ */
+public final class CohortAnalyzer {
+
+    /**
+     * The maximum number of years which can be analyzed.
+     */
+    public static final int MAX_YEARS = Long.SIZE;
+
+    private final Year firstYear;
+    private final int yearCount;
+    private final int matrixSize;
+    private final int locationCount;
+    private final int eventTypeCount;
+
+    private final int[] overall;
+    private final int[] byLocation;
+    private final int[] byEventType;
+
+    private final long[] locationYears;
+    private final long[] eventTypeYears;
+    private long overallYears;
+    private long currentMemberId;
+    private boolean hasCurrentMember;
+
+    /**
+     * Create a new analyzer.
+     * @param firstYear the first year to analyze
+     * @param lastYear the last year to analyze
+     * @param locationCount the number of distinct locations
+     * @param eventTypeCount the number of distinct event types
+     */
+    public CohortAnalyzer(@NotNull final Year firstYear, @NotNull final Year lastYear,
+                          final int locationCount, final int eventTypeCount) {
+        this.firstYear = firstYear;
+        this.yearCount = lastYear.getValue() - firstYear.getValue() + 1;
+        if (yearCount < 1 || yearCount > MAX_YEARS) {
+            throw new IllegalArgumentException("Can only analyze between 1 and %d years!".formatted(MAX_YEARS));
+        }
+        this.matrixSize = yearCount * yearCount;
+        this.locationCount = locationCount;
+        this.eventTypeCount = eventTypeCount;
+
+        this.overall = new int[matrixSize];
+        this.byLocation = new int[locationCount * matrixSize];
+        this.byEventType = new int[eventTypeCount * matrixSize];
+        this.locationYears = new long[locationCount];
+        this.eventTypeYears = new long[eventTypeCount];
+    }
+
+    /**
+     * Add an attendance. Attendances have to be added ordered by member ID.
+     * Attendances outside the analyzed years are ignored.
+     *
+     * @param memberId the ID of the member
+     * @param year the year of the attended event
+     * @param locationIndex the index of the event location
+     * @param eventTypeIndex the index of the event type
+     */
+    public void add(final long memberId, final int year, final int locationIndex, final int eventTypeIndex) {
+        if (!hasCurrentMember || memberId != currentMemberId) {
+            if (hasCurrentMember && memberId < currentMemberId) {
+                throw new IllegalStateException("Attendances must be ordered by member ID!");
+            }
+            flushCurrentMember();
+            currentMemberId = memberId;
+            hasCurrentMember = true;
+        }
+
+        final var yearIndex = year - firstYear.getValue();
+        if (yearIndex < 0 || yearIndex >= yearCount) {
+            return;
+        }
+        final var yearBit = 1L << yearIndex;
+        overallYears |= yearBit;
+        locationYears[locationIndex] |= yearBit;
+        eventTypeYears[eventTypeIndex] |= yearBit;
+    }
+
+    /**
+     * Get the cohort matrix of all attendances.
+     * @return the cohort matrix
+     */
+    public CohortMatrix getCohortMatrix() {
+        flushCurrentMember();
+        return new CohortMatrix(firstYear, yearCount, overall);
+    }
+
+    /**
+     * Get the cohort matrix of the attendances at one location.
+     * @param locationIndex the index of the location
+     * @return the cohort matrix
+     */
+    public CohortMatrix getLocationCohortMatrix(final int locationIndex) {
+        flushCurrentMember();
+        final var offset = locationIndex * matrixSize;
+        return new CohortMatrix(firstYear, yearCount, Arrays.copyOfRange(byLocation, offset, offset + matrixSize));
+    }
+
+    /**
+     * Get the cohort matrix of the attendances of one event type.
+     * @param eventTypeIndex the index of the event type
+     * @return the cohort matrix
+     */
+    public CohortMatrix getEventTypeCohortMatrix(final int eventTypeIndex) {
+        flushCurrentMember();
+        final var offset = eventTypeIndex * matrixSize;
+        return new CohortMatrix(firstYear, yearCount, Arrays.copyOfRange(byEventType, offset, offset + matrixSize));
+    }
+
+    private void flushCurrentMember() {
+        if (overallYears != 0) {
+            count(overall, 0, overallYears);
+            overallYears = 0;
+        }
+        for (int index = 0; index < locationCount; index++) {
+            if (locationYears[index] != 0) {
+                count(byLocation, index * matrixSize, locationYears[index]);
+                locationYears[index] = 0;
+            }
+        }
+        for (int index = 0; index < eventTypeCount; index++) {
+            if (eventTypeYears[index] != 0) {
+                count(byEventType, index * matrixSize, eventTypeYears[index]);
+                eventTypeYears[index] = 0;
+            }
+        }
+    }
+
+    private void count(@NotNull final int[] matrix, final int offset, final long years) {
+        final var cohortIndex = Long.numberOfTrailingZeros(years);
+        final var rowOffset = offset + cohortIndex * yearCount - cohortIndex;
+        var remainingYears = years;
+        while (remainingYears != 0) {
+            matrix[rowOffset + Long.numberOfTrailingZeros(remainingYears)]++;
+            remainingYears &= remainingYears - 1;
+        }
+    }
+
+}
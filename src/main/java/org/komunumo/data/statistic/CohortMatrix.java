@@ -0,0 +1,98 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.statistic;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Year;
+import java.util.Arrays;
+
+/**
+ * A cohort matrix: for every cohort (the members who attended for the first
+ * time in a specific year) it contains how many of them attended again in
+ * each of the following years. The counts are stored in a flat primitive
+ * array, row by row.
+ */
+public final class CohortMatrix {
+
+    private final Year firstYear;
+    private final int yearCount;
+    private final int[] counts;
+
+    CohortMatrix(@NotNull final Year firstYear, final int yearCount, @NotNull final int[] counts) {
+        if (counts.length != yearCount * yearCount) {
+            throw new IllegalArgumentException("A cohort matrix of %d years needs %d counts!"
+                    .formatted(yearCount, yearCount * yearCount));
+        }
+        this.firstYear = firstYear;
+        this.yearCount = yearCount;
+        this.counts = Arrays.copyOf(counts, counts.length);
+    }
+
+    /**
+     * Get the year of the first (oldest) cohort.
+     * @return the year of the first cohort
+     */
+    public Year getFirstYear() {
+        return firstYear;
+    }
+
+    /**
+     * Get the number of years (and cohorts) covered by this matrix.
+     * @return the number of years
+     */
+    public int getYearCount() {
+        return yearCount;
+    }
+
+    /**
+     * Get the number of members who attended for the first time in a year.
+     * @param cohort the year of the cohort
+     * @return the size of the cohort
+     */
+    public int getCohortSize(@NotNull final Year cohort) {
+        return getReturning(cohort, 0);
+    }
+
+    /**
+     * Get the number of members of a cohort who attended again some years later.
+     * @param cohort the year of the cohort
+     * @param yearsLater the number of years after the cohort year
+     * @return the number of returning members, zero if out of range
+     */
+    public int getReturning(@NotNull final Year cohort, final int yearsLater) {
+        final var cohortIndex = cohort.getValue() - firstYear.getValue();
+        if (cohortIndex < 0 || cohortIndex >= yearCount || yearsLater < 0 || cohortIndex + yearsLater >= yearCount) {
+            return 0;
+        }
+        return counts[cohortIndex * yearCount + yearsLater];
+    }
+
+    /**
+     * Get the percentage of members of a cohort who attended again some years later.
+     * @param cohort the year of the cohort
+     * @param yearsLater the number of years after the cohort year
+     * @return the retention rate in percent, zero for an empty cohort
+     */
+    public double getRetentionRate(@NotNull final Year cohort, final int yearsLater) {
+        final var cohortSize = getCohortSize(cohort);
+        return cohortSize == 0 ? 0.0 : getReturning(cohort, yearsLater) * 100.0 / cohortSize;
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.komunumo.data.statistic;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A HyperLogLog sketch to estimate the number of distinct {@code long} values
+ * (e.g. member IDs). Sketches are mergeable: the union of two sketches is the
+ * register-wise maximum, so sketches of disjoint time ranges can be combined
+ * to estimate the distinct count of the whole range.
+ *
+ * <p>The sketch uses 2^12 registers of one byte each, which results in a
+ * standard error of about 1.6%.</p>
+ */
+public final class HyperLogLog {
+
+    /**
+     * The number of bits of the hash used to select a register.
+     */
+    public static final int PRECISION = 12;
+
+    /**
+     * The number of registers and the size of the serialized sketch in bytes.
+     */
+    public static final int REGISTER_COUNT = 1 << PRECISION;
+
+    private static final double ALPHA = 0.7213 / (1.0 + 1.079 / REGISTER_COUNT);
+
+    private final byte[] registers;
+
+    /**
+     * Create a new, empty sketch.
+     */
+    public HyperLogLog() {
+        this.registers = new byte[REGISTER_COUNT];
+    }
+
+    private HyperLogLog(@NotNull final byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * Restore a sketch from its serialized form.
+     * @param bytes the serialized sketch as created by {@link #toBytes()}
+     * @return the restored sketch
+     */
+    public static HyperLogLog fromBytes(@NotNull final byte[] bytes) {
+        if (bytes.length != REGISTER_COUNT) {
+            throw new IllegalArgumentException("Invalid sketch size: " + bytes.length);
+        }
+        return new HyperLogLog(Arrays.copyOf(bytes, REGISTER_COUNT));
+    }
+
+    /**
+     * Add a value to the sketch.
+     * @param value the value to add
+     */
+    public void add(final long value) {
+        final var hash = hash(value);
+        final var index = (int) (hash >>> (Long.SIZE - PRECISION));
+        final var rank = (byte) Math.min(Long.numberOfLeadingZeros(hash << PRECISION) + 1, Long.SIZE - PRECISION + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Merge another sketch into this one.
+     * @param other the sketch to merge into this one
+     * @return this sketch
+     */
+    public HyperLogLog merge(@NotNull final HyperLogLog other) {
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Estimate the number of distinct values added to this sketch.
+     * @return the estimated number of distinct values
+     */
+    public long estimate() {
+        var sum = 0.0;
+        var zeros = 0;
+        for (final var register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        final var estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            // small range correction (linear counting)
+            return Math.round(REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros));
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Check if no value has been added to this sketch.
+     * @return true if the sketch is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        for (final var register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Serialize this sketch to store it in the database.
+     * @return the serialized sketch
+     */
+    public byte[] toBytes() {
+        return Arrays.copyOf(registers, REGISTER_COUNT);
+    }
+
+    private static long hash(final long value) {
+        // finalizer of the SplitMix64 generator, spreads sequential IDs over all bits
+        var hash = value + 0x9E3779B97F4A7C15L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+}
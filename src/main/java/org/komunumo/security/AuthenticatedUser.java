@@ -20,8 +20,11 @@ package org.komunumo.security;
 
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.server.VaadinSession;
 import org.jetbrains.annotations.NotNull;
 import org.komunumo.data.entity.Member;
+import org.komunumo.data.service.CacheInvalidationBus;
+import org.komunumo.data.service.CacheInvalidationBus.Topic;
 import org.komunumo.data.service.DatabaseService;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -29,16 +32,28 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
 import org.springframework.stereotype.Component;
 
+import java.io.Serializable;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Provides the member which is logged in. The member is cached in the
+ * Vaadin session, so navigating does not look it up again and again. All
+ * cached members carry a version stamp, which is incremented on every node
+ * by {@link #invalidate()}, so stale members are reloaded on their next access.
+ */
 @Component
-@SuppressWarnings("ClassCanBeRecord")
 public final class AuthenticatedUser {
 
     private final DatabaseService databaseService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final AtomicLong version = new AtomicLong();
 
-    public AuthenticatedUser(@NotNull final DatabaseService databaseService) {
+    public AuthenticatedUser(@NotNull final DatabaseService databaseService,
+                             @NotNull final CacheInvalidationBus cacheInvalidationBus) {
         this.databaseService = databaseService;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        cacheInvalidationBus.subscribe(Topic.MEMBERS, version::incrementAndGet);
     }
 
     private Optional<Authentication> getAuthentication() {
@@ -48,7 +63,36 @@ public final class AuthenticatedUser {
     }
 
     public Optional<Member> get() {
-        return getAuthentication().flatMap(authentication -> databaseService.getMemberByEmail(authentication.getName()));
+        return getAuthentication().flatMap(authentication -> getMember(authentication.getName()));
+    }
+
+    private Optional<Member> getMember(@NotNull final String email) {
+        final var session = VaadinSession.getCurrent();
+        if (session == null) {
+            return databaseService.getMemberByEmail(email);
+        }
+        final var currentVersion = version.get();
+        if (session.getAttribute(CachedMember.class) instanceof CachedMember cachedMember
+                && cachedMember.version() == currentVersion && cachedMember.email().equals(email)) {
+            return Optional.of(cachedMember.member());
+        }
+        final var member = databaseService.getMemberByEmail(email);
+        session.setAttribute(CachedMember.class, member
+                .map(value -> new CachedMember(email, value, currentVersion))
+                .orElse(null));
+        return member;
+    }
+
+    /**
+     * Reload the cached members of all sessions on their next access, on all
+     * nodes. Must be called after a member was modified, blocked, or deleted.
+     */
+    public void invalidate() {
+        cacheInvalidationBus.publish(Topic.MEMBERS);
+    }
+
+    public boolean isAnonymous() {
+        return getAuthentication().isEmpty();
     }
 
     public void logout() {
@@ -61,4 +105,6 @@ public final class AuthenticatedUser {
         logoutHandler.logout(VaadinServletRequest.getCurrent().getHttpServletRequest(), null, null);
     }
 
+    private record CachedMember(String email, Member member, long version) implements Serializable { }
+
 }
@@ -38,12 +38,8 @@ public final class AuthenticationFailureListener implements ApplicationListener<
 
     @Override
     public void onApplicationEvent(@NotNull final AuthenticationFailureBadCredentialsEvent event) {
-        final var xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader == null) {
-            loginAttemptService.loginFailed(request.getRemoteAddr());
-        } else {
-            loginAttemptService.loginFailed(xfHeader.split(",")[0]);
-        }
+        // the remote address is resolved from trusted proxies only (see "server.forward-headers-strategy")
+        loginAttemptService.loginFailed(request.getRemoteAddr(), event.getAuthentication().getName());
     }
 
 }
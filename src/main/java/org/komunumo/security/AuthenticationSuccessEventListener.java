@@ -38,11 +38,8 @@ public final class AuthenticationSuccessEventListener implements ApplicationList
 
     @Override
     public void onApplicationEvent(@NotNull final AuthenticationSuccessEvent e) {
-        final var xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader == null) {
-            loginAttemptService.loginSucceeded(request.getRemoteAddr());
-        } else {
-            loginAttemptService.loginSucceeded(xfHeader.split(",")[0]);
-        }
+        loginAttemptService.loginSucceeded(request.getRemoteAddr(), e.getAuthentication().getName());
+        // anonymous sessions may have a shorter timeout, authenticated sessions use the default
+        request.getSession().setMaxInactiveInterval(request.getServletContext().getSessionTimeout() * 60);
     }
 }
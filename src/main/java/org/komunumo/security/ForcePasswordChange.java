@@ -23,6 +23,7 @@ import com.vaadin.flow.server.ServiceInitEvent;
 import com.vaadin.flow.server.VaadinServiceInitListener;
 import com.vaadin.flow.spring.annotation.SpringComponent;
 import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.entity.Member;
 import org.komunumo.ui.view.login.ChangePasswordView;
 
 import java.io.Serial;
@@ -48,7 +49,7 @@ public final class ForcePasswordChange implements VaadinServiceInitListener {
     }
 
     private void beforeEnter(@NotNull final BeforeEnterEvent event) {
-        if (authenticatedUser.get().isPresent() && authenticatedUser.get().get().getPasswordChange()) {
+        if (authenticatedUser.get().map(Member::getPasswordChange).orElse(false)) {
             event.forwardTo(ChangePasswordView.class);
         }
     }
@@ -18,51 +18,209 @@
 
 package org.komunumo.security;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import jakarta.annotation.PreDestroy;
 import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.entity.LoginFailureCount;
+import org.komunumo.data.service.DatabaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.ExecutionException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Throttles failed logins per IP address and per account, shared by all
+ * nodes. Failures are counted in memory and flushed to the database in
+ * batches every {@link #FLUSH_INTERVAL}. With every flush, the subjects
+ * which exceeded their limit are read back from the database, so checking
+ * whether a login is blocked is a cheap lookup in memory and happens before
+ * the password is verified.
+ *
+ * <p>The failures are counted in fixed windows of one {@link #WINDOW}. The
+ * failures of a sliding window are estimated by adding the failures of the
+ * previous window, weighted by its overlap with the sliding window. IP
+ * addresses and accounts are only stored as hashes.</p>
+ */
 @Service
 public final class LoginAttemptService {
 
-    public static final int MAX_LOGIN_ATTEMPTS = 3;
-    private final LoadingCache<String, Integer> attemptsCache;
-
-    public LoginAttemptService() {
-        super();
-        attemptsCache = CacheBuilder.newBuilder().
-                expireAfterWrite(1, TimeUnit.DAYS).build(new CacheLoader<>() {
-                    public @NotNull Integer load(@NotNull final String ip) {
-                        return 0;
-                    }
-                });
+    public static final Duration WINDOW = Duration.ofHours(1);
+    public static final Duration FLUSH_INTERVAL = Duration.ofSeconds(1);
+    public static final int MAX_FAILURES_PER_IP = 10;
+    public static final int MAX_FAILURES_PER_ACCOUNT = 5;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoginAttemptService.class);
+    private static final String KIND_IP = "ip";
+    private static final String KIND_ACCOUNT = "account";
+    private static final int MAX_TRACKED_SUBJECTS = 10_000;
+
+    private final DatabaseService databaseService;
+    private final Clock clock;
+    private final Map<Subject, Integer> pendingFailures = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private volatile Set<Subject> blockedSubjects = Set.of();
+
+    @Autowired
+    public LoginAttemptService(@NotNull final DatabaseService databaseService) {
+        this(databaseService, Clock.systemDefaultZone());
+        scheduler.scheduleWithFixedDelay(this::flush,
+                FLUSH_INTERVAL.toMillis(), FLUSH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
     }
 
-    public void loginSucceeded(@NotNull final String ip) {
-        attemptsCache.invalidate(ip);
+    /**
+     * Create the service without flushing in the background, used by tests.
+     */
+    LoginAttemptService(@NotNull final DatabaseService databaseService, @NotNull final Clock clock) {
+        this.databaseService = databaseService;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "login-throttle");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
-    public void loginFailed(@NotNull final String ip) {
-        int attempts;
-        try {
-            attempts = attemptsCache.get(ip);
-        } catch (final ExecutionException e) {
-            attempts = 0;
+    /**
+     * Record a successful login. The failures of the account are reset, the
+     * failures of the IP address are kept (a valid login of an attacker
+     * must not reset the throttling of its IP address).
+     * @param ip the IP address of the client
+     * @param email the email address used to login
+     */
+    public void loginSucceeded(@NotNull final String ip, @NotNull final String email) {
+        final var account = Subject.of(KIND_ACCOUNT, email);
+        pendingFailures.remove(account);
+        if (blockedSubjects.contains(account)) {
+            final var newBlockedSubjects = new HashSet<>(blockedSubjects);
+            newBlockedSubjects.remove(account);
+            blockedSubjects = Set.copyOf(newBlockedSubjects);
+        }
+        databaseService.deleteLoginFailures(account.kind(), account.hash());
+    }
+
+    /**
+     * Record a failed login.
+     * @param ip the IP address of the client
+     * @param email the email address used to login
+     */
+    public void loginFailed(@NotNull final String ip, @NotNull final String email) {
+        countFailure(Subject.of(KIND_IP, ip));
+        countFailure(Subject.of(KIND_ACCOUNT, email));
+        if (pendingFailures.size() >= MAX_TRACKED_SUBJECTS) {
+            flush();
         }
-        attempts++;
-        attemptsCache.put(ip, attempts);
     }
 
+    /**
+     * Check if logins from an IP address are blocked.
+     * @param ip the IP address of the client
+     * @return true if there were too many failed logins from this IP address
+     */
     public boolean isBlocked(@NotNull final String ip) {
+        return isBlocked(Subject.of(KIND_IP, ip), MAX_FAILURES_PER_IP);
+    }
+
+    /**
+     * Check if a login is blocked because of too many failures from the IP
+     * address or for the account.
+     * @param ip the IP address of the client
+     * @param email the email address used to login
+     * @return true if the login is blocked
+     */
+    public boolean isBlocked(@NotNull final String ip, @NotNull final String email) {
+        return isBlocked(ip) || isBlocked(Subject.of(KIND_ACCOUNT, email), MAX_FAILURES_PER_ACCOUNT);
+    }
+
+    private boolean isBlocked(@NotNull final Subject subject, final int limit) {
+        if (blockedSubjects.contains(subject)) {
+            return true;
+        }
+        // failures of this node which have not been flushed yet
+        final var pending = pendingFailures.get(subject);
+        return pending != null && pending >= limit;
+    }
+
+    private void countFailure(@NotNull final Subject subject) {
+        pendingFailures.merge(subject, 1, Integer::sum);
+    }
+
+    /**
+     * Write the pending failures to the database and read back the blocked subjects.
+     */
+    synchronized void flush() {
         try {
-            return attemptsCache.get(ip) >= MAX_LOGIN_ATTEMPTS;
-        } catch (final ExecutionException e) {
-            return false;
+            final var now = LocalDateTime.now(clock);
+            final var currentWindowStart = windowStart(now);
+            final var previousWindowStart = currentWindowStart.minus(WINDOW);
+            final var failureCounts = new ArrayList<LoginFailureCount>();
+            for (final var subject : pendingFailures.keySet()) {
+                final var failures = pendingFailures.remove(subject);
+                if (failures != null) {
+                    failureCounts.add(new LoginFailureCount(subject.kind(), subject.hash(), currentWindowStart, failures));
+                }
+            }
+            databaseService.addLoginFailures(failureCounts);
+
+            final var elapsed = Duration.between(currentWindowStart, now).toMillis();
+            final var previousWindowWeight = 1.0 - (double) elapsed / WINDOW.toMillis();
+            final var blocked = new HashSet<Subject>();
+            databaseService.getBlockedLoginSubjects(KIND_IP, MAX_FAILURES_PER_IP,
+                            currentWindowStart, previousWindowStart, previousWindowWeight, MAX_TRACKED_SUBJECTS)
+                    .forEach(hash -> blocked.add(new Subject(KIND_IP, hash)));
+            databaseService.getBlockedLoginSubjects(KIND_ACCOUNT, MAX_FAILURES_PER_ACCOUNT,
+                            currentWindowStart, previousWindowStart, previousWindowWeight, MAX_TRACKED_SUBJECTS)
+                    .forEach(hash -> blocked.add(new Subject(KIND_ACCOUNT, hash)));
+            blockedSubjects = Set.copyOf(blocked);
+
+            databaseService.deleteLoginFailuresBefore(previousWindowStart);
+        } catch (final RuntimeException e) {
+            LOGGER.warn("Unable to synchronize the login failures: {}", e.getMessage());
         }
     }
+
+    private static LocalDateTime windowStart(@NotNull final LocalDateTime time) {
+        final var startOfDay = time.truncatedTo(ChronoUnit.DAYS);
+        final var windowMillis = WINDOW.toMillis();
+        final var millisOfDay = Duration.between(startOfDay, time).toMillis();
+        return startOfDay.plus(Duration.ofMillis(millisOfDay - millisOfDay % windowMillis));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    private record Subject(String kind, String hash) {
+
+        static Subject of(@NotNull final String kind, @NotNull final String value) {
+            try {
+                final var digest = MessageDigest.getInstance("SHA-256")
+                        .digest(value.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+                return new Subject(kind, HexFormat.of().formatHex(digest));
+            } catch (final NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+    }
+
 }
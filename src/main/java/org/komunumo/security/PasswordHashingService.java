@@ -0,0 +1,197 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.security;
+
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.komunumo.data.entity.PasswordHashingStatistics;
+import org.komunumo.data.service.DatabaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Hashes and verifies passwords with BCrypt on a small, bounded executor,
+ * so a burst of logins can't starve the request threads rendering pages.
+ * Tasks which can't be queued or don't complete in time fail with an
+ * {@link AuthenticationServiceException}. BCrypt can't be interrupted, so a
+ * timed out task keeps its worker thread busy until the hash is completed.
+ *
+ * <p>The cost of new hashes is configurable ("security.password.cost",
+ * default {@code 10}). Hashes with a different cost are reported by
+ * {@link #upgradeEncoding(String)}, so they are re-hashed with the
+ * configured cost on the next successful login.</p>
+ */
+@Service
+public final class PasswordHashingService implements PasswordEncoder {
+
+    public static final int MIN_COST = 4;
+    /**
+     * Each step doubles the hashing time. A cost of 10 takes around 100 ms,
+     * so 14 takes well over a second; much higher costs can't complete
+     * within the timeout and would make every login fail.
+     */
+    public static final int MAX_COST = 14;
+    public static final int DEFAULT_COST = 10;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PasswordHashingService.class);
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final int QUEUE_CAPACITY = 50;
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final DatabaseService databaseService;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final BCryptPasswordEncoder verifier = new BCryptPasswordEncoder();
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+
+    @Autowired
+    public PasswordHashingService(@NotNull final DatabaseService databaseService) {
+        this(databaseService, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    PasswordHashingService(@NotNull final DatabaseService databaseService, final int threads) {
+        this.databaseService = databaseService;
+        final var threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    final var thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Get the configured cost for new hashes, limited to {@link #MIN_COST} and {@link #MAX_COST}.
+     * @return the BCrypt cost (log rounds)
+     */
+    public int getCost() {
+        try {
+            final var cost = databaseService.configuration().getSecurityPasswordCost();
+            return Math.max(MIN_COST, Math.min(MAX_COST, cost));
+        } catch (final NumberFormatException e) {
+            LOGGER.warn("Invalid password cost configured: {}", e.getMessage());
+            return DEFAULT_COST;
+        }
+    }
+
+    @Override
+    public String encode(@NotNull final CharSequence rawPassword) {
+        final var cost = getCost();
+        return execute(() -> new BCryptPasswordEncoder(cost, secureRandom).encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(@NotNull final CharSequence rawPassword, @Nullable final String encodedPassword) {
+        return execute(() -> verifier.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(@Nullable final String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        final var matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != getCost();
+    }
+
+    private <T> T execute(@NotNull final Callable<T> task) {
+        final var submitted = System.nanoTime();
+        final var future = submit(() -> {
+            final var started = System.nanoTime();
+            waitNanos.add(started - submitted);
+            try {
+                return task.call();
+            } finally {
+                final var duration = System.nanoTime() - started;
+                hashNanos.add(duration);
+                maxHashNanos.accumulate(duration);
+                completed.increment();
+            }
+        });
+        try {
+            return future.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException e) {
+            // BCrypt doesn't check the interrupt flag, the worker stays busy until the hash is completed
+            future.cancel(true);
+            timedOut.increment();
+            throw new AuthenticationServiceException("Password hashing timed out, please try again later", e);
+        } catch (final InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Password hashing interrupted", e);
+        } catch (final ExecutionException e) {
+            throw new AuthenticationServiceException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private <T> Future<T> submit(@NotNull final Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (final RejectedExecutionException e) {
+            rejected.increment();
+            throw new AuthenticationServiceException("Too many concurrent logins, please try again later", e);
+        }
+    }
+
+    /**
+     * Get the load of the password hashing executor.
+     * @return the password hashing statistics
+     */
+    public PasswordHashingStatistics getStatistics() {
+        final var count = completed.sum();
+        return new PasswordHashingStatistics(getCost(), executor.getMaximumPoolSize(), executor.getQueue().size(),
+                count, rejected.sum(), timedOut.sum(),
+                count == 0 ? 0 : waitNanos.sum() / 1_000_000.0 / count,
+                count == 0 ? 0 : hashNanos.sum() / 1_000_000.0 / count,
+                TimeUnit.NANOSECONDS.toMillis(maxHashNanos.get()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
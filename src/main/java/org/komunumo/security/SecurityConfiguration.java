@@ -20,18 +20,14 @@ package org.komunumo.security;
 
 import com.vaadin.flow.spring.security.VaadinWebSecurity;
 import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.entity.Role;
 import org.komunumo.data.service.DatabaseService;
 import org.komunumo.ui.view.login.LoginView;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
-import java.security.SecureRandom;
-
 @EnableWebSecurity
 @Configuration
 public class SecurityConfiguration extends VaadinWebSecurity {
@@ -45,15 +41,6 @@ public class SecurityConfiguration extends VaadinWebSecurity {
         this.databaseService = databaseService;
     }
 
-    /**
-     * Get a password encoder.
-     * @return a password encoder
-     */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10, new SecureRandom());
-    }
-
     /**
      * @see VaadinWebSecurity#configure(HttpSecurity)
      */
@@ -85,6 +72,15 @@ public class SecurityConfiguration extends VaadinWebSecurity {
                 new AntPathRequestMatcher("/images/**"),
                 new AntPathRequestMatcher("/styles/**"),
 
+                // binary media (images) stored in the database
+                new AntPathRequestMatcher("/media/**"),
+
+                // machine readable feeds (calendars, news, sitemap)
+                new AntPathRequestMatcher("/events.ics"),
+                new AntPathRequestMatcher("/events/*.ics"),
+                new AntPathRequestMatcher("/news.rss"),
+                new AntPathRequestMatcher("/sitemap.xml"),
+
                 // (development mode) H2 debugging console
                 new AntPathRequestMatcher("/h2-console/**")
         ).permitAll();
@@ -97,6 +93,9 @@ public class SecurityConfiguration extends VaadinWebSecurity {
             }
         });
 
+        // diagnostics and metrics, for administrators only
+        http.authorizeHttpRequests().requestMatchers(new AntPathRequestMatcher("/metrics/**")).hasRole(Role.Type.ADMIN);
+
         super.configure(http);
 
         setLoginView(http, LoginView.class, LOGOUT_URL);
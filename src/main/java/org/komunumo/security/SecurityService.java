@@ -30,6 +30,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -40,7 +41,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
-public final class SecurityService implements UserDetailsService {
+public final class SecurityService implements UserDetailsService, UserDetailsPasswordService {
 
     private final DatabaseService databaseService;
     private final PasswordEncoder passwordEncoder;
@@ -62,8 +63,8 @@ public final class SecurityService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(@NotNull final String email) throws UsernameNotFoundException {
-        if (loginAttemptService.isBlocked(getClientIP())) {
-            throw new RuntimeException("Too many failed login attempts, IP address blocked for 24 hours!");
+        if (loginAttemptService.isBlocked(getClientIP(), email)) {
+            throw new RuntimeException("Too many failed login attempts, login temporarily blocked!");
         }
 
         final var optionalMember = databaseService.getMemberByEmail(email);
@@ -75,6 +76,23 @@ public final class SecurityService implements UserDetailsService {
         }
     }
 
+    /**
+     * Called after a successful login if the password hash has to be
+     * upgraded, e.g. because the configured hashing cost has changed.
+     * @see PasswordHashingService#upgradeEncoding(String)
+     */
+    @Override
+    public UserDetails updatePassword(@NotNull final UserDetails user, @NotNull final String newPasswordHash) {
+        final var optionalMember = databaseService.getMemberByEmail(user.getUsername());
+        if (optionalMember.isPresent()) {
+            final var member = optionalMember.get();
+            member.setPasswordHash(newPasswordHash);
+            member.store();
+            authenticatedUser.invalidate();
+        }
+        return User.withUserDetails(user).password(newPasswordHash).build();
+    }
+
     private static List<GrantedAuthority> getAuthorities(@NotNull final Member member) {
         return member.getRoles().stream()
                 .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getRoleName()))
@@ -92,6 +110,7 @@ public final class SecurityService implements UserDetailsService {
                 record.setPasswordHash(passwordHash);
                 record.setPasswordChange(true);
                 record.store();
+                authenticatedUser.invalidate();
 
                 databaseService.sendMail(MailTemplateId.SECURITY_RESET_PASSWORD, Map.of("password", password), email);
             }
@@ -107,6 +126,7 @@ public final class SecurityService implements UserDetailsService {
             member.setPasswordHash(newPasswordHash);
             member.setPasswordChange(false);
             member.store();
+            authenticatedUser.invalidate();
         } else {
             throw new BadCredentialsException("Password change denied!");
         }
@@ -118,17 +138,19 @@ public final class SecurityService implements UserDetailsService {
         if (member != null && member.getActivationCode().equals(activationCode)) {
             member.setAccountActive(true);
             member.store();
+            authenticatedUser.invalidate();
         } else {
             throw new BadCredentialsException("Activation failed");
         }
     }
 
+    /**
+     * The "X-Forwarded-For" header is only honored for trusted proxies,
+     * which is configured with "server.forward-headers-strategy".
+     * @return the IP address of the client
+     */
     public String getClientIP() {
-        final var xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader == null) {
-            return request.getRemoteAddr();
-        }
-        return xfHeader.split(",")[0];
+        return request.getRemoteAddr();
     }
 
 }
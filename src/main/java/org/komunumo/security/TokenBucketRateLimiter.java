@@ -0,0 +1,115 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.security;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A lock-free token bucket per key. A bucket holds up to {@code capacity}
+ * tokens and is refilled completely within {@code period}, every request
+ * takes one token.
+ *
+ * <p>The state of a bucket is a single timestamp (the time when the bucket
+ * will be full again, as in the generic cell rate algorithm), updated with
+ * compare-and-set. When the number of keys exceeds the configured maximum,
+ * one thread removes the full buckets, which carry no information. If that
+ * is not enough (e.g. during a flood of distinct keys), the buckets closest
+ * to full are removed as well, until three quarters of the maximum are
+ * left. The removal scans all buckets, but it only runs again after a
+ * quarter of the maximum of new keys were added.</p>
+ */
+public final class TokenBucketRateLimiter {
+
+    private final int maxKeys;
+    private final LongSupplier nanoTime;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public TokenBucketRateLimiter(final int maxKeys) {
+        this(maxKeys, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(final int maxKeys, @NotNull final LongSupplier nanoTime) {
+        this.maxKeys = maxKeys;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Take a token from the bucket of a key.
+     * @param key the key of the bucket
+     * @param capacity the maximum number of tokens, {@code 0} or less disables the limit
+     * @param period the time to refill an empty bucket
+     * @return true if a token was available
+     */
+    public boolean tryAcquire(@NotNull final String key, final int capacity, @NotNull final Duration period) {
+        if (capacity <= 0) {
+            return true;
+        }
+        final var periodNanos = period.toNanos();
+        final var tokenNanos = periodNanos / capacity;
+        final var now = nanoTime.getAsLong();
+        final var bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            final var fullAt = bucket.get();
+            final var newFullAt = (fullAt - now > 0 ? fullAt : now) + tokenNanos;
+            if (newFullAt - now > periodNanos) {
+                return false;
+            }
+            if (bucket.compareAndSet(fullAt, newFullAt)) {
+                evictBuckets(now);
+                return true;
+            }
+        }
+    }
+
+    private void evictBuckets(final long now) {
+        if (buckets.size() <= maxKeys || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+            final var excess = buckets.size() - maxKeys * 3L / 4;
+            if (excess > 0) {
+                buckets.entrySet().stream()
+                        .map(entry -> Map.entry(entry.getKey(), entry.getValue().get() - now))
+                        .sorted(Map.Entry.comparingByValue())
+                        .limit(excess)
+                        .forEach(entry -> buckets.remove(entry.getKey()));
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Get the number of tracked keys.
+     * @return the number of buckets which are not full
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+}
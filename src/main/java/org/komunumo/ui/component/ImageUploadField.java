@@ -28,13 +28,12 @@ import com.vaadin.flow.component.upload.Upload;
 import com.vaadin.flow.dom.Element;
 import elemental.json.Json;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.web.util.UriUtils;
+import org.komunumo.ApplicationContextHolder;
+import org.komunumo.data.entity.ImageVariant;
+import org.komunumo.data.service.ImageService;
 
 import java.io.ByteArrayOutputStream;
 import java.io.Serial;
-import java.util.Base64;
-
-import static java.nio.charset.StandardCharsets.UTF_8;
 
 public final class ImageUploadField extends CustomField<String> {
 
@@ -46,6 +45,7 @@ public final class ImageUploadField extends CustomField<String> {
     private final Image preview;
     private final Div delete;
     private final Upload upload;
+    private String imageUrl = "";
 
     public ImageUploadField() {
         this("100%", "100px");
@@ -70,10 +70,10 @@ public final class ImageUploadField extends CustomField<String> {
         upload.setReceiver((fileName, mimeType) -> uploadBuffer);
         upload.addSucceededListener(succeededEvent -> {
             final var mimeType = succeededEvent.getMIMEType();
-            final var base64ImageData = Base64.getEncoder().encodeToString(uploadBuffer.toByteArray());
-            final var dataUrl = "data:" + mimeType + ";base64," + UriUtils.encodeQuery(base64ImageData, UTF_8);
+            final var imageService = ApplicationContextHolder.getBean(ImageService.class);
+            final var mediaUrl = imageService.storeImage(mimeType, uploadBuffer.toByteArray());
             upload.getElement().setPropertyJson("files", Json.createArray());
-            setValue(dataUrl);
+            setValue(mediaUrl);
             uploadBuffer.reset();
         });
         upload.addFailedListener(failedEvent -> Notification.show(failedEvent.getReason().getMessage()));
@@ -89,12 +89,13 @@ public final class ImageUploadField extends CustomField<String> {
 
     @Override
     protected String generateModelValue() {
-        return preview.getSrc();
+        return imageUrl;
     }
 
     @Override
     protected void setPresentationValue(@NotNull final String value) {
-        preview.setSrc(value);
+        imageUrl = value;
+        preview.setSrc(ImageVariant.THUMBNAIL.getUrl(value));
         if (value.isBlank()) {
             removeChild(preview.getElement());
             removeChild(delete.getElement());
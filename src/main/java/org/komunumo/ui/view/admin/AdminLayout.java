@@ -44,6 +44,7 @@ import org.jetbrains.annotations.NotNull;
 import org.komunumo.data.db.enums.MemberTheme;
 import org.komunumo.security.AuthenticatedUser;
 import org.komunumo.ui.view.admin.dashboard.DashboardView;
+import org.komunumo.ui.view.admin.diagnostics.DiagnosticsView;
 import org.komunumo.ui.view.admin.events.EventsView;
 import org.komunumo.ui.view.admin.faq.FaqView;
 import org.komunumo.ui.view.admin.feedback.FeedbackView;
@@ -127,6 +128,7 @@ public final class AdminLayout extends AppLayout {
             authenticatedUser.get().ifPresent(member -> {
                 member.setTheme(MemberTheme.dark);
                 member.store();
+                authenticatedUser.invalidate();
             });
             UI.getCurrent().getElement().setAttribute("theme", "dark");
             lightThemeItem.setChecked(false);
@@ -136,6 +138,7 @@ public final class AdminLayout extends AppLayout {
             authenticatedUser.get().ifPresent(member -> {
                 member.setTheme(MemberTheme.light);
                 member.store();
+                authenticatedUser.invalidate();
             });
             UI.getCurrent().getElement().setAttribute("theme", "light");
             darkThemeItem.setChecked(false);
@@ -201,6 +204,7 @@ public final class AdminLayout extends AppLayout {
         views.add(new AdminMenuItem("Sponsors", SponsorsView.class, false));
         views.add(new AdminMenuItem("Settings", SettingsView.class, true));
         views.add(new AdminMenuItem("Imports", ImportsView.class, false));
+        views.add(new AdminMenuItem("Diagnostics", DiagnosticsView.class, false));
 
         final var tabs = new ArrayList<Tab>();
         views.forEach(adminMenuItem -> {
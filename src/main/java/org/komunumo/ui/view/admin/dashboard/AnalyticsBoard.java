@@ -18,6 +18,7 @@
 
 package org.komunumo.ui.view.admin.dashboard;
 
+import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.board.Board;
 import com.vaadin.flow.component.charts.Chart;
@@ -33,35 +34,45 @@ import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.H2;
 import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.notification.Notification;
 import org.jetbrains.annotations.NotNull;
-import org.komunumo.data.entity.NoShows;
-import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.entity.YearStatistics;
+import org.komunumo.data.service.AnalyticsService;
 import org.komunumo.util.FormatterUtil;
 
 import java.io.Serial;
 import java.time.Year;
+import java.util.Map;
 
 @CssImport(value = "./themes/komunumo/views/admin/analytics-board.css")
 public class AnalyticsBoard extends Div {
 
     @Serial
     private static final long serialVersionUID = 5025158769585320565L;
+    private static final String PLACEHOLDER = "…";
+
     private final Chart monthlyVisitors = new Chart();
-    private final H2 numberOfRegistrations = new H2();
-    private final H2 numberOfEvents = new H2();
-    private final H2 noShowRate = new H2();
+    private final H2 numberOfRegistrations = new H2(PLACEHOLDER);
+    private final H2 numberOfEvents = new H2(PLACEHOLDER);
+    private final H2 noShowRate = new H2(PLACEHOLDER);
+    private final H2 uniqueAttendees = new H2(PLACEHOLDER);
 
-    private final DatabaseService databaseService;
+    private final AnalyticsService analyticsService;
+    private final Year year;
+    private boolean populated;
 
-    public AnalyticsBoard(@NotNull final DatabaseService databaseService, @NotNull final Year year) {
-        this.databaseService = databaseService;
-        addClassName("analytics-board");
+    public AnalyticsBoard(@NotNull final AnalyticsService analyticsService, @NotNull final Year year) {
+        this.analyticsService = analyticsService;
+        this.year = year;
+        addClassNames("analytics-board", "loading");
 
         final var board = new Board();
         board.addRow(
                 createBadge("Registrations", numberOfRegistrations, "primary-text", "Registrations this year", "badge"),
                 createBadge("Events", numberOfEvents, "success-text", "Events this year", "badge success"),
-                createBadge("No-shows", noShowRate, "error-text", "No-show-rate this year", "badge error")
+                createBadge("No-shows", noShowRate, "error-text", "No-show-rate this year", "badge error"),
+                createBadge("Attendees", uniqueAttendees, "primary-text",
+                        "Unique attendees in the last %d years".formatted(AnalyticsService.DISTINCT_ATTENDEES_YEARS), "badge contrast")
         );
 
         monthlyVisitors.getConfiguration().setTitle("Monthly visitors per location");
@@ -70,7 +81,27 @@ public class AnalyticsBoard extends Div {
         board.add(monthlyVisitorsWrapper);
 
         add(board);
-        populateCharts(year);
+    }
+
+    @Override
+    protected void onAttach(@NotNull final AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        if (populated) {
+            return;
+        }
+        final var ui = attachEvent.getUI();
+        analyticsService.getYearStatistics(year)
+                .thenCombine(analyticsService.getLocationColors(), YearStatisticsWithColors::new)
+                .whenComplete((result, throwable) -> {
+                    if (throwable == null) {
+                        ui.access(() -> populateCharts(result.statistics(), result.locationColors()));
+                    } else {
+                        ui.access(() -> {
+                            removeClassName("loading");
+                            Notification.show("Loading the analytics for %s failed!".formatted(year));
+                        });
+                    }
+                });
     }
 
     private WrapperCard createBadge(@NotNull final String title, @NotNull final H2 h2, @NotNull final String h2ClassName,
@@ -87,20 +118,20 @@ public class AnalyticsBoard extends Div {
         return new WrapperCard("wrapper", new Component[]{titleSpan, h2, descriptionSpan}, "card", "space-m");
     }
 
-    private void populateCharts(@NotNull final Year year) {
+    private void populateCharts(@NotNull final YearStatistics statistics, @NotNull final Map<String, String> locationColorMap) {
         // Top row widgets
-        final var registrations = databaseService.countAttendeesByYear(year, NoShows.INCLUDE);
-        final var events = databaseService.countEventsByYear(year);
-        final var noShows = databaseService.countAttendeesByYear(year, NoShows.ONLY);
+        final var registrations = statistics.registrations();
+        final var noShows = statistics.noShows();
         numberOfRegistrations.setText(FormatterUtil.formatNumber(registrations));
-        numberOfEvents.setText(FormatterUtil.formatNumber(events));
+        numberOfEvents.setText(FormatterUtil.formatNumber(statistics.events()));
         noShowRate.setText(FormatterUtil.formatNumber(registrations == 0 ? 0 : noShows * 100L / registrations) + "%");
 
-        final var locationColorMap = databaseService.getAllLocationColors();
+        final var distinctAttendees = statistics.distinctAttendees();
+        uniqueAttendees.setText((distinctAttendees.estimated() ? "≈ " : "") + FormatterUtil.formatNumber(distinctAttendees.count()));
 
         // First chart
         final var configuration = monthlyVisitors.getConfiguration();
-        databaseService.calculateMonthlyVisitorsByYear(year).stream()
+        statistics.monthlyVisitors().stream()
                 .map(data -> {
                     final var series = new ListSeries(data.location(),
                             data.january(), data.february(), data.march(),
@@ -129,6 +160,12 @@ public class AnalyticsBoard extends Div {
         final var tooltip = new Tooltip();
         tooltip.setShared(true);
         configuration.setTooltip(tooltip);
+
+        monthlyVisitors.drawChart();
+        removeClassName("loading");
+        populated = true;
     }
 
+    private record YearStatisticsWithColors(YearStatistics statistics, Map<String, String> locationColors) { }
+
 }
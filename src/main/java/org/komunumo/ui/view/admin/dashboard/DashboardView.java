@@ -18,18 +18,29 @@
 
 package org.komunumo.ui.view.admin.dashboard;
 
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.checkbox.Checkbox;
 import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.H3;
+import com.vaadin.flow.component.icon.Icon;
+import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.textfield.IntegerField;
 import com.vaadin.flow.component.textfield.TextFieldVariant;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.RouteAlias;
+import com.vaadin.flow.server.StreamRegistration;
+import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.server.VaadinSession;
 import jakarta.annotation.security.RolesAllowed;
 import org.jetbrains.annotations.NotNull;
 import org.komunumo.data.entity.Role;
+import org.komunumo.data.service.AnalyticsService;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.ReportService;
+import org.komunumo.ui.component.EnhancedButton;
 import org.komunumo.ui.view.admin.AdminLayout;
 
 import java.io.Serial;
@@ -46,7 +57,11 @@ public class DashboardView extends Div {
     @Serial
     private static final long serialVersionUID = 3466563649520421310L;
 
-    public DashboardView(@NotNull final DatabaseService databaseService) {
+    private StreamRegistration reportRegistration;
+
+    public DashboardView(@NotNull final DatabaseService databaseService,
+                         @NotNull final AnalyticsService analyticsService,
+                         @NotNull final ReportService reportService) {
         addClassName("dashboard-view");
 
         final var years = databaseService.getYearsWithEvents();
@@ -68,13 +83,51 @@ public class DashboardView extends Div {
         yearSelector.setMax(maxYear.getValue());
         yearSelector.setValue(selectedYear.getValue());
 
-        final var analyticsContainer = new Div(new AnalyticsBoard(databaseService, selectedYear));
+        final var allYears = new Checkbox("All years");
+        final var downloadReportButton = new EnhancedButton(new Icon(VaadinIcon.DOWNLOAD), clickEvent -> {
+            final var toYear = yearSelector.getValue() != null ? Year.of(yearSelector.getValue()) : selectedYear;
+            final var fromYear = allYears.getValue() ? minYear : toYear;
+            downloadReport(reportService, fromYear, toYear);
+        });
+        downloadReportButton.setTitle("Download the statistics report");
+
+        final var analyticsContainer = new Div(new AnalyticsBoard(analyticsService, selectedYear));
         yearSelector.addValueChangeListener(valueChangeEvent -> {
             analyticsContainer.removeAll();
-            analyticsContainer.add(new AnalyticsBoard(databaseService, Year.of(valueChangeEvent.getValue())));
+            analyticsContainer.add(new AnalyticsBoard(analyticsService, Year.of(valueChangeEvent.getValue())));
         });
 
-        add(title, new Div(yearSelector), analyticsContainer);
+        final var retentionTitle = new H3("Retention");
+        retentionTitle.addClassName("title");
+
+        add(title, new Div(yearSelector, downloadReportButton, allYears), analyticsContainer, retentionTitle, new RetentionBoard(analyticsService));
+    }
+
+    private void downloadReport(@NotNull final ReportService reportService, @NotNull final Year fromYear, @NotNull final Year toYear) {
+        final var fileName = fromYear.equals(toYear) ? "statistics-%s.xlsx".formatted(toYear)
+                : "statistics-%s-%s.xlsx".formatted(fromYear, toYear);
+        final var resource = new StreamResource(fileName,
+                (outputStream, session) -> reportService.writeStatisticsReport(fromYear, toYear, outputStream));
+        resource.setContentType(ReportService.CONTENT_TYPE);
+        unregisterReport();
+        reportRegistration = VaadinSession.getCurrent().getResourceRegistry().registerResource(resource);
+        UI.getCurrent().getPage().setLocation(reportRegistration.getResourceUri());
+    }
+
+    @Override
+    protected void onDetach(@NotNull final DetachEvent detachEvent) {
+        unregisterReport();
+        super.onDetach(detachEvent);
+    }
+
+    /**
+     * Only the latest report stays registered, every click would leak a resource in the session otherwise.
+     */
+    private void unregisterReport() {
+        if (reportRegistration != null) {
+            reportRegistration.unregister();
+            reportRegistration = null;
+        }
     }
 
 }
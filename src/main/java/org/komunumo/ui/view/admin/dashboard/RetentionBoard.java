@@ -0,0 +1,181 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.ui.view.admin.dashboard;
+
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.charts.Chart;
+import com.vaadin.flow.component.charts.model.ChartType;
+import com.vaadin.flow.component.charts.model.ColorAxis;
+import com.vaadin.flow.component.charts.model.DataLabels;
+import com.vaadin.flow.component.charts.model.HeatSeries;
+import com.vaadin.flow.component.charts.model.PlotOptionsHeatmap;
+import com.vaadin.flow.component.charts.model.Tooltip;
+import com.vaadin.flow.component.charts.model.XAxis;
+import com.vaadin.flow.component.charts.model.YAxis;
+import com.vaadin.flow.component.charts.model.style.SolidColor;
+import com.vaadin.flow.component.dependency.CssImport;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.select.Select;
+import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.entity.CohortAnalysis;
+import org.komunumo.data.service.AnalyticsService;
+import org.komunumo.data.statistic.CohortMatrix;
+
+import java.io.Serial;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@CssImport(value = "./themes/komunumo/views/admin/analytics-board.css")
+public class RetentionBoard extends Div {
+
+    @Serial
+    private static final long serialVersionUID = -2890441826330520398L;
+    private static final String ALL_EVENTS = "All events";
+    private static final int MAX_COHORTS = 15;
+    private static final int MAX_YEARS_LATER = 10;
+
+    private final Select<String> dimensionSelector = new Select<>();
+    private final Div chartContainer = new Div();
+
+    private final AnalyticsService analyticsService;
+    private final Map<String, CohortMatrix> cohortMatrices = new LinkedHashMap<>();
+    private boolean populated;
+
+    public RetentionBoard(@NotNull final AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+        addClassNames("analytics-board", "loading");
+
+        dimensionSelector.setItems(ALL_EVENTS);
+        dimensionSelector.setValue(ALL_EVENTS);
+        dimensionSelector.setEnabled(false);
+        dimensionSelector.addValueChangeListener(valueChangeEvent -> {
+            if (valueChangeEvent.getValue() != null && cohortMatrices.containsKey(valueChangeEvent.getValue())) {
+                showCohortMatrix(valueChangeEvent.getValue(), cohortMatrices.get(valueChangeEvent.getValue()));
+            }
+        });
+
+        chartContainer.setWidthFull();
+        add(new WrapperCard("wrapper", new Component[]{dimensionSelector, chartContainer}, "card", "space-m"));
+    }
+
+    @Override
+    protected void onAttach(@NotNull final AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        if (populated) {
+            return;
+        }
+        final var ui = attachEvent.getUI();
+        analyticsService.getCohortAnalysis()
+                .whenComplete((analysis, throwable) -> {
+                    if (throwable == null) {
+                        ui.access(() -> populate(analysis));
+                    } else {
+                        ui.access(() -> {
+                            removeClassName("loading");
+                            Notification.show("Loading the retention analytics failed!");
+                        });
+                    }
+                });
+    }
+
+    private void populate(@NotNull final CohortAnalysis analysis) {
+        cohortMatrices.clear();
+        cohortMatrices.put(ALL_EVENTS, analysis.all());
+        analysis.byLocation().entrySet().stream()
+                .filter(entry -> !entry.getKey().isBlank())
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> cohortMatrices.put("Location: " + entry.getKey(), entry.getValue()));
+        analysis.byEventType().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> cohortMatrices.put("Event type: " + entry.getKey().getLiteral(), entry.getValue()));
+
+        dimensionSelector.setItems(cohortMatrices.keySet());
+        dimensionSelector.setValue(ALL_EVENTS);
+        dimensionSelector.setEnabled(true);
+        showCohortMatrix(ALL_EVENTS, analysis.all());
+
+        removeClassName("loading");
+        populated = true;
+    }
+
+    private void showCohortMatrix(@NotNull final String title, @NotNull final CohortMatrix cohortMatrix) {
+        final var chart = new Chart(ChartType.HEATMAP);
+        final var configuration = chart.getConfiguration();
+        configuration.setTitle("Retention of first-time attendees – " + title);
+
+        final var lastYear = Year.now();
+        final var firstCohort = Year.of(Math.max(cohortMatrix.getFirstYear().getValue(),
+                lastYear.getValue() - MAX_COHORTS + 1));
+
+        final var cohortCategories = new ArrayList<String>();
+        final var series = new HeatSeries("Retention");
+        for (var cohort = firstCohort; !cohort.isAfter(lastYear); cohort = cohort.plusYears(1)) {
+            final var cohortSize = cohortMatrix.getCohortSize(cohort);
+            if (cohortSize == 0) {
+                continue;
+            }
+            final var row = cohortCategories.size();
+            cohortCategories.add("%s (%d)".formatted(cohort, cohortSize));
+            for (int yearsLater = 1; yearsLater <= MAX_YEARS_LATER && !cohort.plusYears(yearsLater).isAfter(lastYear); yearsLater++) {
+                series.addHeatPoint(yearsLater - 1, row, Math.round(cohortMatrix.getRetentionRate(cohort, yearsLater)));
+            }
+        }
+
+        final var yearsLaterCategories = new String[MAX_YEARS_LATER];
+        for (int yearsLater = 1; yearsLater <= MAX_YEARS_LATER; yearsLater++) {
+            yearsLaterCategories[yearsLater - 1] = "+" + yearsLater;
+        }
+        final var x = new XAxis();
+        x.setTitle("Years after the first attendance");
+        x.setCategories(yearsLaterCategories);
+        configuration.addxAxis(x);
+
+        final var y = new YAxis();
+        y.setTitle("First attendance (cohort size)");
+        y.setCategories(cohortCategories.toArray(String[]::new));
+        y.setReversed(true);
+        configuration.addyAxis(y);
+
+        final var colorAxis = new ColorAxis();
+        colorAxis.setMin(0);
+        colorAxis.setMax(100);
+        colorAxis.setMinColor(new SolidColor("#FFFFFF"));
+        colorAxis.setMaxColor(new SolidColor("#1676F3"));
+        configuration.addColorAxis(colorAxis);
+
+        final var dataLabels = new DataLabels(true);
+        dataLabels.setFormat("{point.value}%");
+        final var plotOptions = new PlotOptionsHeatmap();
+        plotOptions.setDataLabels(dataLabels);
+        series.setPlotOptions(plotOptions);
+        configuration.addSeries(series);
+
+        final var tooltip = new Tooltip();
+        tooltip.setPointFormat("{point.value}% attended again");
+        configuration.setTooltip(tooltip);
+
+        chartContainer.removeAll();
+        chartContainer.add(chart);
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.ui.view.admin.diagnostics;
+
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.icon.Icon;
+import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.orderedlayout.FlexComponent;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.Route;
+import jakarta.annotation.security.RolesAllowed;
+import org.jetbrains.annotations.NotNull;
+import org.komunumo.SessionDiagnostics;
+import org.komunumo.data.entity.Role;
+import org.komunumo.data.entity.ViewStatistics;
+import org.komunumo.ui.component.EnhancedButton;
+import org.komunumo.ui.component.ResizableView;
+import org.komunumo.ui.view.admin.AdminLayout;
+
+@Route(value = "admin/diagnostics", layout = AdminLayout.class)
+@PageTitle("Diagnostics")
+@RolesAllowed(Role.Type.ADMIN)
+public class DiagnosticsView extends ResizableView {
+
+    private final SessionDiagnostics sessionDiagnostics;
+    private final Span summary;
+    private final Grid<ViewStatistics> grid;
+
+    public DiagnosticsView(@NotNull final SessionDiagnostics sessionDiagnostics) {
+        this.sessionDiagnostics = sessionDiagnostics;
+
+        addClassNames("diagnostics-view", "flex", "flex-col", "h-full");
+
+        summary = new Span();
+        grid = new Grid<>();
+        configureGrid();
+
+        final var refreshButton = new EnhancedButton(new Icon(VaadinIcon.REFRESH), clickEvent -> reloadStatistics());
+        refreshButton.setTitle("Refresh the session statistics");
+
+        final var optionBar = new HorizontalLayout(refreshButton, summary);
+        optionBar.setPadding(true);
+        optionBar.setAlignItems(FlexComponent.Alignment.CENTER);
+
+        add(optionBar, grid);
+        reloadStatistics();
+    }
+
+    private void configureGrid() {
+        grid.setSelectionMode(Grid.SelectionMode.NONE);
+        grid.addThemeVariants(GridVariant.LUMO_NO_BORDER, GridVariant.LUMO_ROW_STRIPES);
+
+        grid.addColumn(ViewStatistics::view)
+                .setHeader("View").setAutoWidth(true).setFlexGrow(1);
+        grid.addColumn(ViewStatistics::uiCount)
+                .setHeader("UIs").setAutoWidth(true).setFlexGrow(0);
+        grid.addColumn(ViewStatistics::maxNodeCount)
+                .setHeader("Max. Nodes").setAutoWidth(true).setFlexGrow(0);
+        grid.addColumn(ViewStatistics::averageNodeCount)
+                .setHeader("Avg. Nodes").setAutoWidth(true).setFlexGrow(0);
+
+        grid.setHeightFull();
+    }
+
+    private void reloadStatistics() {
+        final var statistics = sessionDiagnostics.getSessionStatistics();
+        summary.setText("%d sessions with %d UIs, %d sessions measured: average %s, maximum %s, budget %s".formatted(
+                statistics.liveSessions(), statistics.liveUIs(), statistics.sampledSessions(),
+                formatSize(statistics.averageSessionSize()), formatSize(statistics.maxSessionSize()),
+                formatSize(statistics.sessionBudget())));
+        grid.setItems(statistics.views());
+    }
+
+    private static String formatSize(final long bytes) {
+        return bytes < 0 ? "unknown" : "%,d KiB".formatted(bytes / 1024);
+    }
+
+}
@@ -51,6 +51,7 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.Year;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -318,6 +319,8 @@ public final class EventDialog extends EditDialog<Event> {
             organizers.add(organizer.get());
         }
         keywords = Set.copyOf(event.getKeywords());
+        final var originalLocation = event.getLocation();
+        final var originalType = event.getType();
         super.open(event,
                 () -> {
                     if (afterOpen != null) {
@@ -328,6 +331,9 @@ public final class EventDialog extends EditDialog<Event> {
                     databaseService.setEventSpeakers(event, speakers);
                     databaseService.setEventOrganizers(event, organizers);
                     databaseService.setEventKeywords(event, keywords);
+                    if (!Objects.equals(originalLocation, event.getLocation()) || originalType != event.getType()) {
+                        databaseService.invalidateAttendeeSketchesOfEvent(event.getId());
+                    }
                     if (afterSave != null) {
                         afterSave.execute();
                     }
@@ -40,6 +40,7 @@ import org.jetbrains.annotations.Nullable;
 import org.komunumo.data.db.tables.records.FaqRecord;
 import org.komunumo.data.entity.Role;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PublicContentCache;
 import org.komunumo.ui.component.EnhancedButton;
 import org.komunumo.ui.component.FilterField;
 import org.komunumo.ui.component.ResizableView;
@@ -58,11 +59,14 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class FaqView extends ResizableView {
 
     private final DatabaseService databaseService;
+    private final PublicContentCache publicContentCache;
     private final TextField filterField;
     private final Grid<FaqRecord> grid;
 
-    public FaqView(@NotNull final DatabaseService databaseService) {
+    public FaqView(@NotNull final DatabaseService databaseService,
+                   @NotNull final PublicContentCache publicContentCache) {
         this.databaseService = databaseService;
+        this.publicContentCache = publicContentCache;
 
         addClassNames("faq-view", "flex", "flex-col", "h-full");
 
@@ -112,7 +116,7 @@ public class FaqView extends ResizableView {
 
     private void showEditDialog(@Nullable final FaqRecord faqRecord) {
         final var dialog = new FaqDialog(faqRecord != null ? "Edit FAQ Entry" : "New FAQ Entry");
-        dialog.open(faqRecord != null ? faqRecord : databaseService.newFaqRecord(), this::reloadGridItems);
+        dialog.open(faqRecord != null ? faqRecord : databaseService.newFaqRecord(), this::faqModified);
     }
 
     private void deleteEntry(@NotNull final FaqRecord faqRecord) {
@@ -120,13 +124,18 @@ public class FaqView extends ResizableView {
                 String.format("Are you sure you want to permanently delete the FAQ entry \"%s\"?", faqRecord.getQuestion()),
                 "Delete", dialogEvent -> {
             faqRecord.delete();
-            reloadGridItems();
+            faqModified();
             dialogEvent.getSource().close();
         },
                 "Cancel", dialogEvent -> dialogEvent.getSource().close()
         ).open();
     }
 
+    private void faqModified() {
+        publicContentCache.invalidateFaq();
+        reloadGridItems();
+    }
+
     private void reloadGridItems() {
         grid.setItems(query -> databaseService.findFaqRecords(query.getOffset(), query.getLimit(), filterField.getValue()));
     }
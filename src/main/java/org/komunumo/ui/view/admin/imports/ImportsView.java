@@ -18,7 +18,10 @@
 
 package org.komunumo.ui.view.admin.imports;
 
+import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.formlayout.FormLayout;
@@ -26,33 +29,58 @@ import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.H2;
 import com.vaadin.flow.component.html.H3;
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.select.Select;
 import com.vaadin.flow.component.textfield.PasswordField;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.component.upload.Upload;
-import com.vaadin.flow.component.upload.receivers.MemoryBuffer;
-import com.vaadin.flow.component.upload.receivers.MultiFileMemoryBuffer;
+import com.vaadin.flow.component.upload.receivers.FileBuffer;
+import com.vaadin.flow.component.upload.receivers.MultiFileBuffer;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import elemental.json.Json;
 import jakarta.annotation.security.RolesAllowed;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jooq.DSLContext;
 import org.komunumo.ApplicationServiceInitListener;
+import org.komunumo.data.entity.DuplicateCluster;
+import org.komunumo.data.entity.DuplicateNormalization;
+import org.komunumo.data.entity.ImportJobEntity;
 import org.komunumo.data.entity.Role;
+import org.komunumo.data.importer.ImportSource;
+import org.komunumo.data.importer.ImportTask;
+import org.komunumo.data.importer.bigmarker.BigMarkerBatchImport;
 import org.komunumo.data.importer.bigmarker.BigMarkerRegistration;
 import org.komunumo.data.importer.bigmarker.BigMarkerReport;
+import org.komunumo.data.importer.clubdesk.ClubDeskChange;
 import org.komunumo.data.importer.clubdesk.ClubDeskFile;
-import org.komunumo.data.importer.clubdesk.ClubDeskMember;
+import org.komunumo.data.importer.clubdesk.ClubDeskSync;
 import org.komunumo.data.importer.jugs.JUGSImporter;
+import org.komunumo.data.service.CacheInvalidationBus;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.ImportJobExecutor;
+import org.komunumo.data.service.PublicContentCache;
 import org.komunumo.ui.component.ResizableView;
 import org.komunumo.ui.view.admin.AdminLayout;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.NoSuchElementException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 import static com.vaadin.flow.data.value.ValueChangeMode.EAGER;
+import static org.komunumo.util.FormatterUtil.formatDateTime;
 
 @Route(value = "admin/imports", layout = AdminLayout.class)
 @PageTitle("Imports")
@@ -60,39 +88,69 @@ import static com.vaadin.flow.data.value.ValueChangeMode.EAGER;
 @RolesAllowed(Role.Type.ADMIN)
 public class ImportsView extends ResizableView {
 
+    private static final int MAX_JOBS = 10;
+
     private final DSLContext dsl; // TODO Should not be used here
     private final DatabaseService databaseService;
+    private final PublicContentCache publicContentCache;
     private final ApplicationServiceInitListener applicationServiceInitListener;
+    private final ImportJobExecutor importJobExecutor;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final Grid<ImportJobEntity> jobGrid = new Grid<>();
+    private final List<ImportJobEntity> jobs = new ArrayList<>();
+
+    /**
+     * Uploaded files which were not handed over to an import job yet.
+     */
+    private final Set<File> pendingUploads = ConcurrentHashMap.newKeySet();
+
+    private Consumer<ImportJobEntity> jobListener;
 
     public ImportsView(
             @NotNull final DSLContext dsl,
             @NotNull final DatabaseService databaseService,
-            @NotNull final ApplicationServiceInitListener applicationServiceInitListener) {
+            @NotNull final PublicContentCache publicContentCache,
+            @NotNull final ApplicationServiceInitListener applicationServiceInitListener,
+            @NotNull final ImportJobExecutor importJobExecutor,
+            @NotNull final CacheInvalidationBus cacheInvalidationBus) {
         this.dsl = dsl;
         this.databaseService = databaseService;
+        this.publicContentCache = publicContentCache;
         this.applicationServiceInitListener = applicationServiceInitListener;
+        this.importJobExecutor = importJobExecutor;
+        this.cacheInvalidationBus = cacheInvalidationBus;
 
         addClassName("imports-view");
         add(
+                new H2("Import Jobs"),
+                createImportJobs(),
                 new H2("BigMarker"),
                 createImportBigMarkerRegistrations(),
                 createImportBigMarkerRegistrationsMulti(),
                 new H2("ClubDesk"),
                 createImportClubDeskMembers(),
                 new H2("Java User Group Switzerland"),
-                createImportJavaUserGroupSwitzerland()
+                createImportJavaUserGroupSwitzerland(),
+                new H2("Duplicates"),
+                createMergeDuplicates("Merge duplicate members", "members",
+                        databaseService::findDuplicateMembers, this::mergeDuplicateMembers),
+                createMergeDuplicates("Merge duplicate speakers", "speakers",
+                        databaseService::findDuplicateSpeakers, databaseService::mergeDuplicateSpeakers)
         );
     }
 
     private Component createImportBigMarkerRegistrations() {
         final var title = new H3("Import registrations");
 
-        final var buffer = new MemoryBuffer();
+        final var buffer = new FileBuffer();
         final var upload = new Upload(buffer);
         upload.setAcceptedFileTypes("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
         upload.addSucceededListener(succeededEvent -> {
+            final var file = buffer.getFileData().getFile();
+            pendingUploads.add(file);
             try {
-                final var report = new BigMarkerReport(buffer.getInputStream());
+                final var report = new BigMarkerReport(file.toPath());
                 final var registrations = report.getBigMarkerRegistrations();
 
                 final var grid = new Grid<BigMarkerRegistration>();
@@ -126,25 +184,29 @@ public class ImportsView extends ResizableView {
                 importButton.setDisableOnClick(true);
                 importButton.setEnabled(false);
                 importButton.addClickListener(buttonClickEvent -> {
-                    try {
-                        cancelButton.setEnabled(false);
-                        report.importRegistrations(databaseService);
+                    final var description = "Registrations from '%s'".formatted(succeededEvent.getFileName());
+                    if (submitImport(ImportSource.BIGMARKER, description, progress -> {
+                        try {
+                            report.importRegistrations(databaseService, progress);
+                        } finally {
+                            deleteUpload(file);
+                        }
+                    })) {
+                        pendingUploads.remove(file);
                         importButton.getElement().removeFromParent();
                         cancelButton.getElement().removeFromParent();
                         grid.getElement().removeFromParent();
                         upload.getElement().setPropertyJson("files", Json.createArray());
-                        Notification.show(String.format("Successfully imported %d registrations.", registrations.size()));
-                    } catch (final NoSuchElementException e) {
-                        Notification.show(e.getMessage());
+                    } else {
                         importButton.setText("Retry Import");
                         importButton.setEnabled(true);
-                        cancelButton.setEnabled(true);
                     }
                 });
                 importButton.setEnabled(!registrations.isEmpty());
                 upload.getElement().getParent().appendChild(importButton.getElement());
 
                 cancelButton.addClickListener(buttonClickEvent -> {
+                    deleteUpload(file);
                     importButton.getElement().removeFromParent();
                     cancelButton.getElement().removeFromParent();
                     grid.getElement().removeFromParent();
@@ -153,7 +215,8 @@ public class ImportsView extends ResizableView {
                 upload.getElement().getParent().appendChild(cancelButton.getElement());
 
                 Notification.show("Excel file successfully parsed.");
-            } catch (final IOException e) {
+            } catch (final IOException | RuntimeException e) {
+                deleteUpload(file);
                 Notification.show(e.getMessage());
             }
         });
@@ -167,121 +230,332 @@ public class ImportsView extends ResizableView {
     private Component createImportBigMarkerRegistrationsMulti() {
         final var title = new H3("Import multiple registrations");
 
-        final var buffer = new MultiFileMemoryBuffer();
+        final var files = new LinkedHashMap<String, File>();
+        final var importButton = new Button("Start Import");
+        importButton.setDisableOnClick(true);
+        importButton.setEnabled(false);
+
+        final var buffer = new MultiFileBuffer();
         final var upload = new Upload(buffer);
         upload.setAcceptedFileTypes("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
         upload.addSucceededListener(succeededEvent -> {
-            try {
-                final var report = new BigMarkerReport(buffer.getInputStream(succeededEvent.getFileName()));
-                final var registrations = report.getBigMarkerRegistrations();
+            final var fileName = succeededEvent.getFileName();
+            final var file = buffer.getFileData(fileName).getFile();
+            if (files.containsKey(fileName)) {
+                // the reports are identified by their names, a second report with the same name must not replace the first
+                if (!file.equals(files.get(fileName))) {
+                    deleteUpload(file);
+                }
+                Notification.show("A report named '%s' was already uploaded, the second one is ignored.".formatted(fileName));
+                return;
+            }
+            pendingUploads.add(file);
+            files.put(fileName, file);
+            importButton.setEnabled(true);
+        });
+        upload.addFileRejectedListener(event -> Notification.show(event.getErrorMessage()));
 
+        importButton.addClickListener(buttonClickEvent -> {
+            final var reports = new LinkedHashMap<String, Path>();
+            files.forEach((fileName, file) -> reports.put(fileName, file.toPath()));
+            final var description = "Registrations from %d files".formatted(reports.size());
+            if (submitImport(ImportSource.BIGMARKER, description, progress -> {
                 try {
-                    report.importRegistrations(databaseService);
-                    Notification.show(String.format("Successfully imported %d registrations from excel file '%s'.",
-                            registrations.size(), succeededEvent.getFileName()));
-                } catch (final NoSuchElementException e) {
-                    Notification.show(e.getMessage());
+                    final var batchImport = new BigMarkerBatchImport(reports);
+                    progress.summary(batchImport.importRegistrations(databaseService, progress).toString());
+                } finally {
+                    reports.values().forEach(path -> deleteUpload(path.toFile()));
                 }
-            } catch (final IOException e) {
-                Notification.show(e.getMessage());
+            })) {
+                files.values().forEach(pendingUploads::remove);
+                files.clear();
+                upload.getElement().setPropertyJson("files", Json.createArray());
+            } else {
+                importButton.setEnabled(true);
             }
         });
-        upload.addFileRejectedListener(event -> Notification.show(event.getErrorMessage()));
 
         return new Div(
-                title, upload
+                title, upload, importButton
         );
     }
 
     private Component createImportClubDeskMembers() {
-        final var title = new H3("Import members");
+        final var title = new H3("Synchronize members");
 
-        final var buffer = new MemoryBuffer();
+        final var buffer = new FileBuffer();
         final var upload = new Upload(buffer);
         upload.setAcceptedFileTypes("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
         upload.addSucceededListener(succeededEvent -> {
-            try {
-                final var clubDeskFile = new ClubDeskFile(buffer.getInputStream());
-                final var members = clubDeskFile.getMembers();
+            final var file = buffer.getFileData().getFile();
+            final var fileName = succeededEvent.getFileName();
+            pendingUploads.add(file);
+            // the dry run reads the whole file and all members, so it runs as a job and the preview is pushed when it is done
+            final var ui = UI.getCurrent();
+            final var description = "Dry run of members from '%s'".formatted(fileName);
+            if (!submitImport(ImportSource.CLUBDESK, description, progress -> {
+                try {
+                    final var clubDeskSync = new ClubDeskSync(new ClubDeskFile(file.toPath()));
+                    final var changes = clubDeskSync.diff(databaseService, progress);
+                    progress.summary("Dry run: " + ClubDeskSync.summarize(changes));
+                    ui.access(() -> showClubDeskChanges(upload, file, fileName, clubDeskSync, changes));
+                } catch (final IOException | RuntimeException e) {
+                    deleteUpload(file);
+                    ui.access(() -> {
+                        upload.getElement().setPropertyJson("files", Json.createArray());
+                        Notification.show(e.getMessage() != null ? e.getMessage() : "The dry run failed.");
+                    });
+                    throw e;
+                }
+            })) {
+                deleteUpload(file);
+                upload.getElement().setPropertyJson("files", Json.createArray());
+            }
+        });
+        upload.addFileRejectedListener(event -> Notification.show(event.getErrorMessage()));
 
-                final var grid = new Grid<ClubDeskMember>();
-                grid.addColumn(ClubDeskMember::membershipBeginDate)
-                        .setHeader("Membership Begin Date")
-                        .setAutoWidth(true);
-                grid.addColumn(ClubDeskMember::membershipEndDate)
-                        .setHeader("Membership End Date")
-                        .setAutoWidth(true);
-                grid.addColumn(ClubDeskMember::membershipId)
-                        .setHeader("Membership ID")
-                        .setAutoWidth(true);
-                grid.addColumn(ClubDeskMember::firstName)
-                        .setHeader("First Name")
-                        .setAutoWidth(true);
-                grid.addColumn(ClubDeskMember::lastName)
-                        .setHeader("Last Name")
-                        .setAutoWidth(true);
-                grid.addColumn(ClubDeskMember::company)
-                        .setHeader("Company")
-                        .setAutoWidth(true);
-                grid.addColumn(ClubDeskMember::email)
-                        .setHeader("Email")
-                        .setAutoWidth(true);
-                grid.addColumn(ClubDeskMember::address)
-                        .setHeader("Address")
-                        .setAutoWidth(true);
-                grid.addColumn(ClubDeskMember::zipCode)
-                        .setHeader("Zip Code")
-                        .setAutoWidth(true);
-                grid.addColumn(ClubDeskMember::city)
-                        .setHeader("City")
-                        .setAutoWidth(true);
-                grid.setItems(members);
-                upload.getElement().getParent().appendChild(grid.getElement());
+        return new Div(
+                title, upload
+        );
+    }
 
-                final var importButton = new Button("Start Import");
-                final var cancelButton = new Button("Cancel");
+    private void showClubDeskChanges(@NotNull final Upload upload,
+                                     @NotNull final File file,
+                                     @NotNull final String fileName,
+                                     @NotNull final ClubDeskSync clubDeskSync,
+                                     @NotNull final List<ClubDeskChange> changes) {
+        final var grid = new Grid<ClubDeskChange>();
+        grid.addColumn(ClubDeskChange::type)
+                .setHeader("Change")
+                .setAutoWidth(true);
+        grid.addColumn(ClubDeskChange::name)
+                .setHeader("Name")
+                .setAutoWidth(true);
+        grid.addColumn(ClubDeskChange::email)
+                .setHeader("Email")
+                .setAutoWidth(true);
+        grid.addColumn(change -> String.join(", ", change.differences()))
+                .setHeader("Differences")
+                .setFlexGrow(1);
+        grid.setItems(changes);
+        upload.getElement().getParent().appendChild(grid.getElement());
 
-                importButton.setDisableOnClick(true);
-                importButton.setEnabled(false);
-                importButton.addClickListener(buttonClickEvent -> {
-                    try {
-                        cancelButton.setEnabled(false);
-                        clubDeskFile.importMembers(databaseService);
-                        importButton.getElement().removeFromParent();
-                        cancelButton.getElement().removeFromParent();
-                        grid.getElement().removeFromParent();
-                        upload.getElement().setPropertyJson("files", Json.createArray());
-                        Notification.show(String.format("Successfully imported %d members.", members.size()));
-                    } catch (final NoSuchElementException e) {
-                        Notification.show(e.getMessage());
-                        importButton.setText("Retry Import");
-                        importButton.setEnabled(true);
-                        cancelButton.setEnabled(true);
-                    }
-                });
-                importButton.setEnabled(!members.isEmpty());
-                upload.getElement().getParent().appendChild(importButton.getElement());
+        final var importButton = new Button("Start Import");
+        final var cancelButton = new Button("Cancel");
 
-                cancelButton.addClickListener(buttonClickEvent -> {
-                    importButton.getElement().removeFromParent();
-                    cancelButton.getElement().removeFromParent();
-                    grid.getElement().removeFromParent();
-                    upload.getElement().setPropertyJson("files", Json.createArray());
-                });
-                upload.getElement().getParent().appendChild(cancelButton.getElement());
+        importButton.setDisableOnClick(true);
+        importButton.setEnabled(false);
+        importButton.addClickListener(buttonClickEvent -> {
+            final var description = "Members from '%s'".formatted(fileName);
+            if (submitImport(ImportSource.CLUBDESK, description, progress -> {
+                try {
+                    progress.summary(clubDeskSync.sync(databaseService, cacheInvalidationBus, progress));
+                } finally {
+                    deleteUpload(file);
+                }
+            })) {
+                pendingUploads.remove(file);
+                importButton.getElement().removeFromParent();
+                cancelButton.getElement().removeFromParent();
+                grid.getElement().removeFromParent();
+                upload.getElement().setPropertyJson("files", Json.createArray());
+            } else {
+                importButton.setText("Retry Import");
+                importButton.setEnabled(true);
+            }
+        });
+        importButton.setEnabled(!changes.isEmpty());
+        upload.getElement().getParent().appendChild(importButton.getElement());
+
+        cancelButton.addClickListener(buttonClickEvent -> {
+            deleteUpload(file);
+            importButton.getElement().removeFromParent();
+            cancelButton.getElement().removeFromParent();
+            grid.getElement().removeFromParent();
+            upload.getElement().setPropertyJson("files", Json.createArray());
+        });
+        upload.getElement().getParent().appendChild(cancelButton.getElement());
 
-                Notification.show("Excel file successfully parsed.");
-            } catch (final IOException e) {
-                Notification.show(e.getMessage());
+        Notification.show("Dry run: " + ClubDeskSync.summarize(changes));
+    }
+
+    private Component createMergeDuplicates(@NotNull final String title,
+                                            @NotNull final String records,
+                                            @NotNull final Function<DuplicateNormalization, List<DuplicateCluster>> finder,
+                                            @NotNull final ToIntFunction<List<DuplicateCluster>> merger) {
+        final var normalization = new Select<DuplicateNormalization>();
+        normalization.setLabel("Compare");
+        normalization.setItems(DuplicateNormalization.values());
+        normalization.setItemLabelGenerator(DuplicateNormalization::getTitle);
+        normalization.setValue(DuplicateNormalization.IGNORE_CASE);
+
+        final var grid = new Grid<DuplicateCluster>();
+        grid.addColumn(DuplicateCluster::key)
+                .setHeader("Key")
+                .setAutoWidth(true);
+        grid.addColumn(DuplicateCluster::size)
+                .setHeader("Records")
+                .setAutoWidth(true);
+        grid.addColumn(cluster -> String.join(", ", cluster.labels()))
+                .setHeader("Survivor, Duplicates")
+                .setFlexGrow(1);
+        grid.setVisible(false);
+
+        final var mergeButton = new Button("Merge");
+        mergeButton.setDisableOnClick(true);
+        mergeButton.setVisible(false);
+
+        final var findButton = new Button("Find Duplicates", clickEvent -> {
+            final var clusters = finder.apply(normalization.getValue());
+            grid.setItems(clusters);
+            grid.setVisible(!clusters.isEmpty());
+            mergeButton.setVisible(!clusters.isEmpty());
+            mergeButton.setEnabled(!clusters.isEmpty());
+            Notification.show("%d duplicate %s found.".formatted(
+                    clusters.stream().mapToInt(cluster -> cluster.duplicateIds().size()).sum(), records));
+        });
+        normalization.addValueChangeListener(valueChangeEvent -> {
+            grid.setVisible(false);
+            mergeButton.setVisible(false);
+        });
+
+        mergeButton.addClickListener(clickEvent -> {
+            final var clusters = grid.getListDataView().getItems().toList();
+            final var description = "Merge %d clusters of duplicate %s".formatted(clusters.size(), records);
+            if (submitImport(ImportSource.DEDUPLICATION, description,
+                    progress -> progress.summary("%d duplicate %s merged.".formatted(merger.applyAsInt(clusters), records)))) {
+                grid.setVisible(false);
+                mergeButton.setVisible(false);
+            } else {
+                mergeButton.setEnabled(true);
             }
         });
-        upload.addFileRejectedListener(event -> Notification.show(event.getErrorMessage()));
 
         return new Div(
-                title, upload
+                new H3(title), normalization, findButton, grid, mergeButton
         );
     }
 
+    /**
+     * Merge duplicate members and invalidate the members cached by the sessions,
+     * because merged members are deleted and the survivors are changed.
+     */
+    private int mergeDuplicateMembers(@NotNull final List<DuplicateCluster> clusters) {
+        final var mergeCount = databaseService.mergeDuplicateMembers(clusters);
+        if (mergeCount > 0) {
+            cacheInvalidationBus.publish(CacheInvalidationBus.Topic.MEMBERS);
+        }
+        return mergeCount;
+    }
+
+    private Component createImportJobs() {
+        jobGrid.addColumn(job -> ImportSource.valueOf(job.source()).getTitle())
+                .setHeader("Source")
+                .setAutoWidth(true);
+        jobGrid.addColumn(ImportJobEntity::description)
+                .setHeader("Description")
+                .setAutoWidth(true);
+        jobGrid.addColumn(ImportJobEntity::status)
+                .setHeader("Status")
+                .setAutoWidth(true);
+        jobGrid.addColumn(job -> job.total() != null
+                        ? "%d / %d".formatted(job.processed(), job.total()) : String.valueOf(job.processed()))
+                .setHeader("Progress")
+                .setAutoWidth(true);
+        jobGrid.addColumn(ImportJobEntity::errors)
+                .setHeader("Errors")
+                .setAutoWidth(true);
+        jobGrid.addColumn(ImportJobEntity::message)
+                .setHeader("Message")
+                .setFlexGrow(1);
+        jobGrid.addColumn(job -> formatDateTime(job.started()))
+                .setHeader("Started")
+                .setAutoWidth(true);
+        jobGrid.addColumn(job -> formatDateTime(job.finished()))
+                .setHeader("Finished")
+                .setAutoWidth(true);
+        jobGrid.addComponentColumn(job -> job.isActive()
+                        ? new Button("Cancel", clickEvent -> {
+                            clickEvent.getSource().setEnabled(false);
+                            importJobExecutor.cancel(job.id());
+                        })
+                        : new Span())
+                .setAutoWidth(true);
+        jobGrid.setAllRowsVisible(true);
+
+        final var refreshButton = new Button("Refresh", clickEvent -> reloadJobs());
+        return new Div(jobGrid, refreshButton);
+    }
+
+    private void reloadJobs() {
+        jobs.clear();
+        jobs.addAll(importJobExecutor.getLatestJobs(MAX_JOBS));
+        jobGrid.setItems(jobs);
+    }
+
+    private void updateJob(@NotNull final ImportJobEntity job) {
+        final var index = jobs.stream().map(ImportJobEntity::id).toList().indexOf(job.id());
+        if (index >= 0) {
+            jobs.set(index, job);
+        } else {
+            jobs.add(0, job);
+            if (jobs.size() > MAX_JOBS) {
+                jobs.remove(jobs.size() - 1);
+            }
+        }
+        jobGrid.setItems(jobs);
+    }
+
+    /**
+     * Submit an import to run in the background. The progress is shown in the job grid.
+     * @return true if the import was submitted
+     */
+    private boolean submitImport(@NotNull final ImportSource source,
+                                 @NotNull final String description,
+                                 @NotNull final ImportTask task) {
+        try {
+            importJobExecutor.submit(source, description, task);
+            Notification.show("The import was started in the background.");
+            return true;
+        } catch (final IllegalStateException | RejectedExecutionException e) {
+            Notification.show(e.getMessage() != null ? e.getMessage() : "The import could not be started, try again later.");
+            return false;
+        }
+    }
+
+    @Override
+    protected void onAttach(@Nullable final AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        reloadJobs();
+        getUI().ifPresent(ui -> {
+            jobListener = job -> ui.access(() -> updateJob(job));
+            importJobExecutor.addListener(jobListener);
+        });
+    }
+
+    @Override
+    protected void onDetach(@Nullable final DetachEvent detachEvent) {
+        if (jobListener != null) {
+            importJobExecutor.removeListener(jobListener);
+            jobListener = null;
+        }
+        pendingUploads.forEach(this::deleteUpload);
+        super.onDetach(detachEvent);
+    }
+
+    /**
+     * Uploads are spooled to temporary files, which are deleted after the
+     * import, when the import is cancelled, or when the view is left.
+     */
+    private void deleteUpload(@NotNull final File file) {
+        pendingUploads.remove(file);
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (final IOException ignored) {
+            // the temporary directory is cleaned up by the system anyway
+        }
+    }
+
     private Component createImportJavaUserGroupSwitzerland() {
         final var dbURL = new TextField("Database URL");
         final var dbUser = new TextField("Database User");
@@ -305,8 +579,15 @@ public class ImportsView extends ResizableView {
         importButton.setDisableOnClick(true);
         importButton.setEnabled(!dbURL.isEmpty() && !dbUser.isEmpty() && !dbPass.isEmpty());
         importButton.addClickListener(buttonClickEvent -> {
-            final var importer = new JUGSImporter(dsl, databaseService, applicationServiceInitListener);
-            importer.importFromJavaUserGroupSwitzerland(dbURL.getValue(), dbUser.getValue(), dbPass.getValue());
+            final var url = dbURL.getValue();
+            final var user = dbUser.getValue();
+            final var password = dbPass.getValue();
+            final var importer = new JUGSImporter(dsl, databaseService, publicContentCache, applicationServiceInitListener);
+            submitImport(ImportSource.JUGS, "Data from the old database", progress -> {
+                importer.importFromJavaUserGroupSwitzerland(url, user, password, progress);
+                cacheInvalidationBus.publish(CacheInvalidationBus.Topic.MEMBERS); // members were merged
+            });
+            importButton.setEnabled(true);
         });
 
         final var dbForm = new FormLayout(dbURL, dbUser, dbPass);
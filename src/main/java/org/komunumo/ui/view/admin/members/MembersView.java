@@ -46,6 +46,7 @@ import org.jetbrains.annotations.Nullable;
 import org.komunumo.data.entity.Member;
 import org.komunumo.data.entity.Role;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.security.AuthenticatedUser;
 import org.komunumo.ui.component.EnhancedButton;
 import org.komunumo.ui.component.FilterField;
 import org.komunumo.ui.component.ResizableView;
@@ -75,11 +76,14 @@ public final class MembersView extends ResizableView implements HasUrlParameter<
     private static final int EMAIL_SPLIT_LIMIT = 2;
 
     private final DatabaseService databaseService;
+    private final AuthenticatedUser authenticatedUser;
     private final TextField filterField;
     private final Grid<Member> grid;
 
-    public MembersView(@NotNull final DatabaseService databaseService) {
+    public MembersView(@NotNull final DatabaseService databaseService,
+                       @NotNull final AuthenticatedUser authenticatedUser) {
         this.databaseService = databaseService;
+        this.authenticatedUser = authenticatedUser;
 
         addClassNames("members-view", "flex", "flex-col", "h-full");
 
@@ -203,7 +207,7 @@ public final class MembersView extends ResizableView implements HasUrlParameter<
 
     private void showMemberDialog(@NotNull final Member member) {
         final var dialog = new MemberDialog(member.getId() != null ? "Edit Member" : "New Member");
-        dialog.open(member, this::reloadGridItems);
+        dialog.open(member, this::afterChange);
     }
 
     private void deleteMember(final Member member) {
@@ -211,13 +215,18 @@ public final class MembersView extends ResizableView implements HasUrlParameter<
                 String.format("Are you sure you want to permanently delete the member \"%s\"?", member.getFullName()),
                 "Delete", dialogEvent -> {
             databaseService.deleteMember(member);
-            reloadGridItems();
+            afterChange();
             dialogEvent.getSource().close();
         },
                 "Cancel", dialogEvent -> dialogEvent.getSource().close()
         ).open();
     }
 
+    private void afterChange() {
+        authenticatedUser.invalidate();
+        reloadGridItems();
+    }
+
     private void reloadGridItems() {
         grid.setItems(query -> databaseService.findMembers(query.getOffset(), query.getLimit(), filterField.getValue()));
         grid.recalculateColumnWidths();
@@ -44,6 +44,7 @@ import org.jetbrains.annotations.Nullable;
 import org.komunumo.data.entity.NewsEntity;
 import org.komunumo.data.entity.Role;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PublicContentCache;
 import org.komunumo.ui.component.EnhancedButton;
 import org.komunumo.ui.component.FilterField;
 import org.komunumo.ui.component.ResizableView;
@@ -67,11 +68,14 @@ public final class NewsView extends ResizableView implements HasUrlParameter<Str
     @Serial
     private static final long serialVersionUID = 3334331354830473196L;
     private final DatabaseService databaseService;
+    private final PublicContentCache publicContentCache;
     private final TextField filterField;
     private final Grid<NewsEntity> grid;
 
-    public NewsView(@NotNull final DatabaseService databaseService) {
+    public NewsView(@NotNull final DatabaseService databaseService,
+                    @NotNull final PublicContentCache publicContentCache) {
         this.databaseService = databaseService;
+        this.publicContentCache = publicContentCache;
 
         addClassNames("news-view", "flex", "flex-col", "h-full");
 
@@ -153,7 +157,7 @@ public final class NewsView extends ResizableView implements HasUrlParameter<Str
         final var newsRecord = newsEntity == null || newsEntity.id() == null ? databaseService.newNews()
                 : databaseService.getNewsRecord(newsEntity.id()).orElse(databaseService.newNews());
         final var dialog = new NewsDialog(newsRecord.getId() != null ? "Edit News" : "New News");
-        dialog.open(newsRecord, this::reloadGridItems);
+        dialog.open(newsRecord, this::newsModified);
     }
 
     private void deleteNews(final NewsEntity newsEntity) {
@@ -161,13 +165,18 @@ public final class NewsView extends ResizableView implements HasUrlParameter<Str
                 String.format("Are you sure you want to permanently delete the news \"%s\"?", newsEntity.title()),
                 "Delete", dialogEvent -> {
             databaseService.deleteNews(newsEntity.id());
-            reloadGridItems();
+            newsModified();
             dialogEvent.getSource().close();
         },
                 "Cancel", dialogEvent -> dialogEvent.getSource().close()
         ).open();
     }
 
+    private void newsModified() {
+        publicContentCache.invalidateNews();
+        reloadGridItems();
+    }
+
     private void reloadGridItems() {
         grid.setItems(query -> databaseService.findNews(query.getOffset(), query.getLimit(), filterField.getValue()));
     }
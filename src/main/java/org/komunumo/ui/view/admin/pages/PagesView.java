@@ -34,7 +34,6 @@ import com.vaadin.flow.router.HasUrlParameter;
 import com.vaadin.flow.router.OptionalParameter;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
-import com.vaadin.flow.router.RouteConfiguration;
 import com.vaadin.flow.server.StreamRegistration;
 import com.vaadin.flow.server.StreamResource;
 import com.vaadin.flow.server.VaadinSession;
@@ -44,13 +43,11 @@ import org.jetbrains.annotations.Nullable;
 import org.komunumo.data.entity.Page;
 import org.komunumo.data.entity.Role;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PageRegistry;
 import org.komunumo.ui.component.EnhancedButton;
 import org.komunumo.ui.component.FilterField;
 import org.komunumo.ui.component.ResizableView;
 import org.komunumo.ui.view.admin.AdminLayout;
-import org.komunumo.ui.view.website.WebsiteLayout;
-import org.komunumo.ui.view.website.members.MembersView;
-import org.komunumo.ui.view.website.sponsors.SponsorsView;
 
 import java.io.ByteArrayInputStream;
 import java.io.Serial;
@@ -69,11 +66,14 @@ public final class PagesView extends ResizableView implements HasUrlParameter<St
     @Serial
     private static final long serialVersionUID = -5966921736397165550L;
     private final DatabaseService databaseService;
+    private final PageRegistry pageRegistry;
     private final TextField filterField;
     private final Grid<Page> grid;
 
-    public PagesView(@NotNull final DatabaseService databaseService) {
+    public PagesView(@NotNull final DatabaseService databaseService,
+                     @NotNull final PageRegistry pageRegistry) {
         this.databaseService = databaseService;
+        this.pageRegistry = pageRegistry;
 
         addClassNames("news-view", "flex", "flex-col", "h-full");
 
@@ -137,34 +137,22 @@ public final class PagesView extends ResizableView implements HasUrlParameter<St
     }
 
     private void showEditDialog(@Nullable final Page page) {
-        final var oldURL = page != null ? page.getCompletePageUrl() : null;
         final var dialog = new PageDialog(page != null ? "Edit Page" : "New Page");
         final var pageToEdit = page != null ? page : databaseService.newPage();
-        dialog.open(pageToEdit, () -> afterSave(oldURL, pageToEdit));
+        dialog.open(pageToEdit, this::afterChange);
     }
 
-    private void afterSave(@Nullable final String oldURL, @NotNull final Page page) {
+    private void afterChange() {
+        pageRegistry.reload();
         reloadGridItems();
-        if (!page.getCompletePageUrl().equals(oldURL)) {
-            if (oldURL != null) {
-                RouteConfiguration.forApplicationScope().removeRoute(oldURL);
-            }
-            final var clazz = switch (page.getParent()) {
-                case Members -> MembersView.class;
-                case Sponsors -> SponsorsView.class;
-            };
-            RouteConfiguration.forApplicationScope().setRoute(
-                    page.getCompletePageUrl(), clazz, List.of(WebsiteLayout.class));
-        }
     }
 
     private void deletePage(final Page page) {
         new ConfirmDialog("Confirm deletion",
                 String.format("Are you sure you want to permanently delete the page \"%s\"?", page.getTitle()),
                 "Delete", dialogEvent -> {
-            RouteConfiguration.forApplicationScope().removeRoute(page.getCompletePageUrl());
             page.delete();
-            reloadGridItems();
+            afterChange();
             dialogEvent.getSource().close();
         },
                 "Cancel", dialogEvent -> dialogEvent.getSource().close()
@@ -26,20 +26,20 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.komunumo.Callback;
 import org.komunumo.data.db.tables.records.ConfigurationRecord;
-import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.CacheInvalidationBus;
 import org.komunumo.ui.component.EditDialog;
 
 import static com.vaadin.flow.data.value.ValueChangeMode.EAGER;
 
 public final class ConfigurationDialog extends EditDialog<ConfigurationRecord> {
 
-    private final DatabaseService databaseService;
+    private final CacheInvalidationBus cacheInvalidationBus;
     private Callback afterOpen;
 
     public ConfigurationDialog(@NotNull final String title,
-                               @NotNull final DatabaseService databaseService) {
+                               @NotNull final CacheInvalidationBus cacheInvalidationBus) {
         super(title);
-        this.databaseService = databaseService;
+        this.cacheInvalidationBus = cacheInvalidationBus;
     }
 
     @Override
@@ -77,7 +77,7 @@ public final class ConfigurationDialog extends EditDialog<ConfigurationRecord> {
                     }
                 },
                 () -> {
-                    databaseService.reloadConfiguration();
+                    cacheInvalidationBus.publish(CacheInvalidationBus.Topic.CONFIGURATION);
                     if (afterSave != null) {
                         afterSave.execute();
                     }
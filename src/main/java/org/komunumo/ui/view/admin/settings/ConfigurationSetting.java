@@ -35,6 +35,7 @@ import com.vaadin.flow.server.VaadinSession;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.komunumo.data.db.tables.records.ConfigurationRecord;
+import org.komunumo.data.service.CacheInvalidationBus;
 import org.komunumo.data.service.DatabaseService;
 import org.komunumo.ui.component.EnhancedButton;
 import org.komunumo.ui.component.FilterField;
@@ -49,12 +50,15 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class ConfigurationSetting extends ResizableView {
 
     private final DatabaseService databaseService;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     private final TextField filterField;
     private final Grid<ConfigurationRecord> grid;
 
-    public ConfigurationSetting(@NotNull final DatabaseService databaseService) {
+    public ConfigurationSetting(@NotNull final DatabaseService databaseService,
+                                @NotNull final CacheInvalidationBus cacheInvalidationBus) {
         this.databaseService = databaseService;
+        this.cacheInvalidationBus = cacheInvalidationBus;
 
         addClassNames("configuration-setting", "flex", "flex-col", "h-full");
 
@@ -107,7 +111,7 @@ public class ConfigurationSetting extends ResizableView {
 
     private void showEditDialog(@Nullable final ConfigurationRecord configurationRecord) {
         final var dialog = new ConfigurationDialog(configurationRecord != null ? "Edit Configuration Setting" : "New ConfigurationSetting",
-                databaseService);
+                cacheInvalidationBus);
         dialog.open(configurationRecord != null ? configurationRecord : databaseService.newConfiguration(), this::reloadGridItems);
     }
 
@@ -116,7 +120,7 @@ public class ConfigurationSetting extends ResizableView {
                 String.format("Are you sure you want to permanently delete the configuration setting \"%s\"?", configurationRecord.getConfKey()),
                 "Delete", dialogEvent -> {
             configurationRecord.delete();
-            databaseService.reloadConfiguration();
+            cacheInvalidationBus.publish(CacheInvalidationBus.Topic.CONFIGURATION);
             reloadGridItems();
             dialogEvent.getSource().close();
         },
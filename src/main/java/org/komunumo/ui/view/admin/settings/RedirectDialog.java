@@ -26,6 +26,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.komunumo.ApplicationServiceInitListener;
 import org.komunumo.Callback;
+import org.komunumo.RedirectTable;
 import org.komunumo.data.db.tables.records.RedirectRecord;
 import org.komunumo.ui.component.EditDialog;
 
@@ -46,6 +47,7 @@ public final class RedirectDialog extends EditDialog<RedirectRecord> {
     public void createForm(@NotNull final FormLayout formLayout,
                            @NotNull final Binder<RedirectRecord> binder) {
         final var oldUrl = new TextField("Old URL");
+        oldUrl.setHelperText("Use \"*\" for any single segment and a trailing \"/**\" for a whole subtree");
         oldUrl.setRequiredIndicatorVisible(true);
         oldUrl.setValueChangeMode(EAGER);
         formLayout.add(oldUrl);
@@ -58,6 +60,8 @@ public final class RedirectDialog extends EditDialog<RedirectRecord> {
         binder.forField(oldUrl)
                 .withValidator(new StringLengthValidator(
                         "Please enter the old URL (max. 255 chars)", 1, 255))
+                .withValidator(RedirectTable::isValidPattern,
+                        "The old URL must start with \"/\" and may only end with \"/**\"")
                 .bind(RedirectRecord::getOldUrl, RedirectRecord::setOldUrl);
 
         binder.forField(newUrl)
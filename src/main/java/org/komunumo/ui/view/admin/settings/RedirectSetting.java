@@ -95,6 +95,9 @@ public class RedirectSetting extends ResizableView {
         grid.addColumn(RedirectRecord::getNewUrl)
                 .setHeader("New URL").setAutoWidth(true).setFlexGrow(0);
 
+        grid.addColumn(redirectRecord -> applicationServiceInitListener.getRedirectHits(redirectRecord.getOldUrl()))
+                .setHeader("Hits").setAutoWidth(true).setFlexGrow(0);
+
         grid.addColumn(new ComponentRenderer<>(redirectRecord -> {
                     final var editButton = new EnhancedButton(new Icon(VaadinIcon.EDIT), clickEvent -> showEditDialog(redirectRecord));
                     editButton.setTitle("Edit this location color setting");
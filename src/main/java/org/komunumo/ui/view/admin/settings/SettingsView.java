@@ -33,6 +33,7 @@ import jakarta.annotation.security.RolesAllowed;
 import org.jetbrains.annotations.NotNull;
 import org.komunumo.ApplicationServiceInitListener;
 import org.komunumo.data.entity.Role;
+import org.komunumo.data.service.CacheInvalidationBus;
 import org.komunumo.data.service.DatabaseService;
 import org.komunumo.ui.component.ResizableView;
 import org.komunumo.ui.view.admin.AdminLayout;
@@ -55,15 +56,18 @@ public final class SettingsView extends ResizableView implements BeforeEnterObse
 
     private final DatabaseService databaseService;
     private final ApplicationServiceInitListener applicationServiceInitListener;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     private final List<Tab> settingTabs;
     private final Div content;
     private final Tabs tabs;
 
     public SettingsView(@NotNull final DatabaseService databaseService,
-                        @NotNull final ApplicationServiceInitListener applicationServiceInitListener) {
+                        @NotNull final ApplicationServiceInitListener applicationServiceInitListener,
+                        @NotNull final CacheInvalidationBus cacheInvalidationBus) {
         this.databaseService = databaseService;
         this.applicationServiceInitListener = applicationServiceInitListener;
+        this.cacheInvalidationBus = cacheInvalidationBus;
         addClassNames("settings-view", "flex", "flex-col", "h-full");
         settingTabs = new ArrayList<>();
 
@@ -111,7 +115,7 @@ public final class SettingsView extends ResizableView implements BeforeEnterObse
         content.removeAll();
         final var tabId = tab.getId().orElse("");
         final var tabContent = switch (tabId) {
-            case "configuration" -> new ConfigurationSetting(databaseService);
+            case "configuration" -> new ConfigurationSetting(databaseService, cacheInvalidationBus);
             case "mail-templates" -> new MailTemplateSetting(databaseService);
             case "location-colors" -> new LocationColorSetting(databaseService);
             case "redirects" -> new RedirectSetting(databaseService, applicationServiceInitListener);
@@ -44,6 +44,7 @@ import org.jetbrains.annotations.Nullable;
 import org.komunumo.data.entity.Role;
 import org.komunumo.data.entity.SponsorEntity;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PublicContentCache;
 import org.komunumo.ui.component.EnhancedButton;
 import org.komunumo.ui.component.FilterField;
 import org.komunumo.ui.component.ResizableView;
@@ -67,11 +68,14 @@ public final class SponsorsView extends ResizableView implements HasUrlParameter
     @Serial
     private static final long serialVersionUID = -5938974936125304046L;
     private final DatabaseService databaseService;
+    private final PublicContentCache publicContentCache;
     private final TextField filterField;
     private final Grid<SponsorEntity> grid;
 
-    public SponsorsView(@NotNull final DatabaseService databaseService) {
+    public SponsorsView(@NotNull final DatabaseService databaseService,
+                        @NotNull final PublicContentCache publicContentCache) {
         this.databaseService = databaseService;
+        this.publicContentCache = publicContentCache;
 
         addClassNames("sponsors-view", "flex", "flex-col", "h-full");
 
@@ -160,7 +164,7 @@ public final class SponsorsView extends ResizableView implements HasUrlParameter
         final var sponsorRecord = sponsorEntity == null || sponsorEntity.id() == null ? databaseService.newSponsor()
                 : databaseService.getSponsorRecord(sponsorEntity.id()).orElse(databaseService.newSponsor());
         final var dialog = new SponsorDialog(sponsorRecord.getId() != null ? "Edit Sponsor" : "New Sponsor", databaseService);
-        dialog.open(sponsorRecord, this::reloadGridItems);
+        dialog.open(sponsorRecord, this::sponsorsModified);
     }
 
     private void deleteSponsor(final SponsorEntity sponsorEntity) {
@@ -168,13 +172,18 @@ public final class SponsorsView extends ResizableView implements HasUrlParameter
                 String.format("Are you sure you want to permanently delete the sponsor \"%s\"?", sponsorEntity.name()),
                 "Delete", dialogEvent -> {
             databaseService.deleteSponsor(sponsorEntity.id());
-            reloadGridItems();
+            sponsorsModified();
             dialogEvent.getSource().close();
         },
                 "Cancel", dialogEvent -> dialogEvent.getSource().close()
         ).open();
     }
 
+    private void sponsorsModified() {
+        publicContentCache.invalidateSponsors();
+        reloadGridItems();
+    }
+
     private void reloadGridItems() {
         grid.setItems(query -> databaseService.findSponsors(query.getOffset(), query.getLimit(), filterField.getValue()));
     }
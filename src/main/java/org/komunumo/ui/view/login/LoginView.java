@@ -64,11 +64,12 @@ public final class LoginView extends LoginOverlay implements BeforeEnterObserver
         i18n.getForm().setForgotPassword("I forgot my password");
 
         if (loginAttemptService.isBlocked(securityService.getClientIP())) {
-            i18n.getErrorMessage().setTitle("IP address blocked for 24 hours");
-            i18n.getErrorMessage().setMessage("Too many failed login attempts from your IP address. Try again in 24 hours or later.");
+            i18n.getErrorMessage().setTitle("Login temporarily blocked");
+            i18n.getErrorMessage().setMessage("Too many failed login attempts from your IP address. Try again in an hour.");
         } else {
             i18n.getErrorMessage().setTitle("Incorrect email or password");
-            i18n.getErrorMessage().setMessage("Check that you have entered the correct email and password and try again.");
+            i18n.getErrorMessage().setMessage("Check that you have entered the correct email and password and try again. "
+                    + "After too many failed login attempts, the login is blocked for an hour.");
         }
 
         setI18n(i18n);
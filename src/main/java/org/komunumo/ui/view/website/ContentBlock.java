@@ -28,10 +28,8 @@ import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.router.NotFoundException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.komunumo.data.db.enums.PageParent;
-import org.komunumo.data.entity.Page;
-import org.komunumo.data.service.DatabaseService;
-import org.komunumo.util.FormatterUtil;
+import org.komunumo.data.entity.PageEntity;
+import org.komunumo.data.service.PageRegistry;
 
 import java.io.Serial;
 
@@ -100,21 +98,16 @@ public class ContentBlock extends HorizontalLayout {
     }
 
     /**
-     * Load a page from the database.
-     * @param databaseService the service to access the database
-     * @param url the URL of the page to load
-     * @return the loaded page
+     * Show a page from the page registry.
+     * @param pageRegistry the registry holding the pages
+     * @param url the complete URL of the page to show
+     * @return the shown page
      */
-    public Page loadPage(@NotNull final DatabaseService databaseService, @NotNull final String url) {
-        final var urlParts = url.split("/", 2);
-        if (urlParts.length < 2 || urlParts[1].isBlank()) {
-            throw new NotFoundException();
-        }
-        final var parent = PageParent.valueOf(FormatterUtil.camelCase(urlParts[0]));
-        final var page = databaseService.getPage(parent, urlParts[1]).orElseThrow(NotFoundException::new);
+    public PageEntity loadPage(@NotNull final PageRegistry pageRegistry, @NotNull final String url) {
+        final var page = pageRegistry.getPage(url).orElseThrow(NotFoundException::new);
         setContent(
-                new H2(page.getTitle()),
-                new Html("<div>%s</div>".formatted(page.getContent()))
+                new H2(page.title()),
+                new Html(page.html())
         );
         return page;
     }
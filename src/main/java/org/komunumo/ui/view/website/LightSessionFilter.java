@@ -0,0 +1,158 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.ui.view.website;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.HasValue;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.server.HandlerHelper;
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinServiceInitListener;
+import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.flow.shared.communication.PushMode;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.service.DatabaseService;
+import org.komunumo.security.AuthenticatedUser;
+
+import java.io.IOException;
+import java.io.Serial;
+
+/**
+ * The light session mode for anonymous visitors of the public website
+ * (configuration key "website.session.light"). Anonymous sessions get a
+ * short idle timeout ("website.session.timeout" in seconds). If a website
+ * view has no interactive components (no fields, no buttons), the session
+ * is dropped right after the view was rendered. The browser then follows
+ * all links with full page loads, which create a new session if needed.
+ * The client keeps sending heartbeats for the dropped session; they are
+ * answered without a session, so the page neither shows a "session
+ * expired" message nor reloads itself.
+ */
+@org.springframework.stereotype.Component
+public final class LightSessionFilter implements Filter, VaadinServiceInitListener {
+
+    @Serial
+    private static final long serialVersionUID = -2318076154312764791L;
+
+    private static final String DROP_SESSION_ATTRIBUTE = LightSessionFilter.class.getName() + ".drop";
+
+    private static final String FULL_PAGE_NAVIGATION_SCRIPT = """
+            window.addEventListener('click', event => {
+                if (event.defaultPrevented || event.button !== 0
+                        || event.metaKey || event.ctrlKey || event.shiftKey || event.altKey) {
+                    return;
+                }
+                const anchor = event.composedPath().find(element => element.tagName === 'A');
+                if (anchor && anchor.href && anchor.origin === window.location.origin && !anchor.target) {
+                    event.preventDefault();
+                    event.stopImmediatePropagation();
+                    window.location.href = anchor.href;
+                }
+            }, true);
+            """;
+
+    private final DatabaseService databaseService;
+    private final AuthenticatedUser authenticatedUser;
+
+    public LightSessionFilter(@NotNull final DatabaseService databaseService,
+                              @NotNull final AuthenticatedUser authenticatedUser) {
+        this.databaseService = databaseService;
+        this.authenticatedUser = authenticatedUser;
+    }
+
+    @Override
+    public void serviceInit(@NotNull final ServiceInitEvent serviceInitEvent) {
+        final var service = serviceInitEvent.getSource();
+        service.addSessionInitListener(sessionInitEvent -> {
+            if (isLightMode()) {
+                sessionInitEvent.getSession().getSession().setMaxInactiveInterval(
+                        databaseService.configuration().getWebsiteSessionTimeout());
+            }
+        });
+        service.addUIInitListener(uiInitEvent -> {
+            final var ui = uiInitEvent.getUI();
+            ui.addAfterNavigationListener(afterNavigationEvent -> afterNavigation(ui));
+        });
+    }
+
+    private boolean isLightMode() {
+        return databaseService.configuration().isWebsiteLightSessions() && authenticatedUser.isAnonymous();
+    }
+
+    private void afterNavigation(@NotNull final UI ui) {
+        if (!isLightMode() || ui.getSession().getUIs().size() > 1) {
+            return; // don't drop the session while other browser tabs are using it
+        }
+        final var websiteView = ui.getInternals().getActiveRouterTargetsChain().stream()
+                .anyMatch(WebsiteLayout.class::isInstance);
+        if (websiteView && !isInteractive(ui)) {
+            ui.getPushConfiguration().setPushMode(PushMode.DISABLED);
+            ui.getPage().executeJs(FULL_PAGE_NAVIGATION_SCRIPT);
+            ui.getSession().getSession().setAttribute(DROP_SESSION_ATTRIBUTE, Boolean.TRUE);
+        }
+    }
+
+    private static boolean isInteractive(@NotNull final Component component) {
+        return component instanceof HasValue<?, ?> || component instanceof Button
+                || component.getChildren().anyMatch(LightSessionFilter::isInteractive);
+    }
+
+    /**
+     * Drops a session marked by {@link #afterNavigation(UI)}, after the
+     * response with the rendered view was completely written.
+     */
+    @Override
+    public void doFilter(@NotNull final ServletRequest request, @NotNull final ServletResponse response,
+                         @NotNull final FilterChain chain) throws IOException, ServletException {
+        if (request instanceof HttpServletRequest httpServletRequest && isHeartbeatOfDroppedSession(httpServletRequest)) {
+            ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_OK);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request instanceof HttpServletRequest httpServletRequest) {
+                final var session = httpServletRequest.getSession(false);
+                if (session != null && session.getAttribute(DROP_SESSION_ATTRIBUTE) != null) {
+                    session.invalidate();
+                }
+            }
+        }
+    }
+
+    /**
+     * A heartbeat of a session which no longer exists. Without light mode,
+     * Vaadin answers it with "session expired", which makes the client
+     * reload the page or show a notification.
+     */
+    private boolean isHeartbeatOfDroppedSession(@NotNull final HttpServletRequest request) {
+        return HandlerHelper.RequestType.HEARTBEAT.getIdentifier().equals(request.getParameter(ApplicationConstants.REQUEST_TYPE_PARAMETER))
+                && request.getRequestedSessionId() != null && !request.isRequestedSessionIdValid()
+                && databaseService.configuration().isWebsiteLightSessions();
+    }
+
+}
@@ -33,23 +33,27 @@ import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.textfield.EmailField;
 import com.vaadin.flow.component.textfield.TextFieldVariant;
 import com.vaadin.flow.data.value.ValueChangeMode;
+import com.vaadin.flow.server.VaadinRequest;
 import org.jetbrains.annotations.NotNull;
 import org.komunumo.data.entity.NewsEntity;
-import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PublicContentCache;
+import org.komunumo.data.service.PublicFormService;
+import org.komunumo.security.RateLimitExceededException;
 import org.komunumo.ui.component.More;
 
 @CssImport("./themes/komunumo/views/website/news-block.css")
 public class NewsBlock extends ContentBlock {
 
-    public NewsBlock(@NotNull final DatabaseService databaseService) {
+    public NewsBlock(@NotNull final PublicFormService publicFormService,
+                     @NotNull final PublicContentCache publicContentCache) {
         super("News");
         addClassName("news-block");
 
-        final var newsEntity = databaseService.getLatestNews();
-        if (newsEntity == null) {
-            setContent(createNewsletterForm(databaseService));
+        final var newsEntity = publicContentCache.getLatestNews();
+        if (newsEntity.isEmpty()) {
+            setContent(createNewsletterForm(publicFormService));
         } else {
-            setContent(new HorizontalLayout(createNewsContent(newsEntity), createNewsletterForm(databaseService)));
+            setContent(new HorizontalLayout(createNewsContent(newsEntity.get()), createNewsletterForm(publicFormService)));
         }
     }
 
@@ -66,7 +70,7 @@ public class NewsBlock extends ContentBlock {
         return container;
     }
 
-    private Component createNewsletterForm(@NotNull final DatabaseService databaseService) {
+    private Component createNewsletterForm(@NotNull final PublicFormService publicFormService) {
         final var emailField = new EmailField();
         emailField.setPlaceholder("Your email address");
         emailField.setValueChangeMode(ValueChangeMode.EAGER);
@@ -78,11 +82,7 @@ public class NewsBlock extends ContentBlock {
         final var subscribeButton = new Button("Subscribe", (clickEvent) -> {
             final var emailAddress = emailField.getValue().trim();
             if (!emailAddress.isBlank()) {
-                final var subscriptionStatus = databaseService.addSubscription(emailAddress);
-                final var infoMessage = switch (subscriptionStatus) {
-                    case PENDING -> "You have been added to the newsletter. Please check your email account for verification (opt-in).";
-                    case ACTIVE -> "You are already subscribed to the newsletter. If you don't receive it, check your spam folder.";
-                };
+                final var infoMessage = subscribe(publicFormService, emailAddress);
                 UI.getCurrent().access(() -> {
                     emailField.setValue("");
                     message.add(new Paragraph(infoMessage));
@@ -106,4 +106,16 @@ public class NewsBlock extends ContentBlock {
         return container;
     }
 
+    private String subscribe(@NotNull final PublicFormService publicFormService, @NotNull final String emailAddress) {
+        try {
+            final var subscriptionStatus = publicFormService.addSubscription(VaadinRequest.getCurrent().getRemoteAddr(), emailAddress);
+            return switch (subscriptionStatus) {
+                case PENDING -> "You have been added to the newsletter. Please check your email account for verification (opt-in).";
+                case ACTIVE -> "You are already subscribed to the newsletter. If you don't receive it, check your spam folder.";
+            };
+        } catch (final RateLimitExceededException e) {
+            return "Sorry, there were too many subscriptions. Please try again later.";
+        }
+    }
+
 }
@@ -26,33 +26,34 @@ import com.vaadin.flow.component.html.H3;
 import com.vaadin.flow.component.html.Image;
 import org.jetbrains.annotations.NotNull;
 import org.komunumo.data.db.enums.SponsorLevel;
+import org.komunumo.data.entity.ImageVariant;
 import org.komunumo.data.entity.SponsorEntity;
-import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PublicContentCache;
 
 import java.util.Locale;
 
 @CssImport("./themes/komunumo/views/website/sponsor-block.css")
 public class SponsorBlock extends ContentBlock {
 
-    public SponsorBlock(@NotNull final DatabaseService databaseService) {
+    public SponsorBlock(@NotNull final PublicContentCache publicContentCache) {
         super("Sponsors");
         addClassName("sponsor-block");
-        setContent(createSponsorComponent(databaseService));
+        setContent(createSponsorComponent(publicContentCache));
     }
 
-    private Component createSponsorComponent(@NotNull final DatabaseService databaseService) {
-        return new Div(createSponsorComponent(databaseService, SponsorLevel.Platinum),
-                createSponsorComponent(databaseService, SponsorLevel.Gold),
-                createSponsorComponent(databaseService, SponsorLevel.Silver));
+    private Component createSponsorComponent(@NotNull final PublicContentCache publicContentCache) {
+        return new Div(createSponsorComponent(publicContentCache, SponsorLevel.Platinum),
+                createSponsorComponent(publicContentCache, SponsorLevel.Gold),
+                createSponsorComponent(publicContentCache, SponsorLevel.Silver));
     }
 
-    private Component createSponsorComponent(@NotNull final DatabaseService databaseService, @NotNull final SponsorLevel sponsorLevel) {
+    private Component createSponsorComponent(@NotNull final PublicContentCache publicContentCache, @NotNull final SponsorLevel sponsorLevel) {
         final var levelTitle = new H3(sponsorLevel.getLiteral());
         levelTitle.addClassName("sponsor-level");
 
         final var sponsorLogos = new Div();
         sponsorLogos.addClassName("sponsor-logos");
-        databaseService.getActiveSponsors(sponsorLevel).map(SponsorBlock::toLogo).forEach(sponsorLogos::add);
+        publicContentCache.getActiveSponsors(sponsorLevel).stream().map(SponsorBlock::toLogo).forEach(sponsorLogos::add);
 
         final var sponsorComponent = new Div(levelTitle, sponsorLogos);
         sponsorComponent.addClassName("sponsor-level-%s".formatted(sponsorLevel.getLiteral().toLowerCase(Locale.getDefault())));
@@ -62,7 +63,7 @@ public class SponsorBlock extends ContentBlock {
     private static Component toLogo(@NotNull final SponsorEntity sponsor) {
         final var logoHint = "Go to %s website".formatted(sponsor.name());
 
-        final var logo = new Div(new Image(sponsor.logo(), logoHint));
+        final var logo = new Div(new Image(ImageVariant.LOGO.getUrl(sponsor.logo()), logoHint));
         logo.addClassName("sponsor-logo");
 
         final var logoContainer = new Div(new Anchor(sponsor.website(), logo));
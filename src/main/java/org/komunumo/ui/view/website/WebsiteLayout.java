@@ -19,7 +19,6 @@
 package org.komunumo.ui.view.website;
 
 import com.vaadin.flow.component.HasElement;
-import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Main;
@@ -28,6 +27,7 @@ import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.router.RouterLayout;
 import org.jetbrains.annotations.NotNull;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PublicContentCache;
 import org.komunumo.security.AuthenticatedUser;
 
 import java.io.Serial;
@@ -38,10 +38,10 @@ public final class WebsiteLayout extends Div implements RouterLayout {
     @Serial
     private static final long serialVersionUID = 3096690154788879457L;
     private final Main main;
-    private final TwitterFeed twitterFeed;
 
     public WebsiteLayout(@NotNull final AuthenticatedUser authenticatedUser,
-                         @NotNull final DatabaseService databaseService) {
+                         @NotNull final DatabaseService databaseService,
+                         @NotNull final PublicContentCache publicContentCache) {
         addClassName("website-container");
 
         final var website = new VerticalLayout();
@@ -53,24 +53,14 @@ public final class WebsiteLayout extends Div implements RouterLayout {
 
         main = new Main();
 
-        twitterFeed = new TwitterFeed();
-
         final var mainLayout = new HorizontalLayout(
                 new VerticalLayout(
                         main,
-                        new SponsorBlock(databaseService)),
-                twitterFeed);
+                        new SponsorBlock(publicContentCache)),
+                new TwitterFeed());
         mainLayout.setId("main-layout");
         website.add(mainLayout);
         website.add(new WebsiteFooter(databaseService));
-
-        final var page = UI.getCurrent().getPage();
-        page.retrieveExtendedClientDetails(extendedClientDetails -> pageResized(extendedClientDetails.getBodyClientWidth()));
-        page.addBrowserWindowResizeListener(event -> pageResized(event.getWidth()));
-    }
-
-    private void pageResized(final int width) {
-        twitterFeed.setVisible(width >= 1500);
     }
 
     @Override
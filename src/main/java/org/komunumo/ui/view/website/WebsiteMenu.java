@@ -24,6 +24,7 @@ import com.vaadin.flow.component.html.AnchorTarget;
 import com.vaadin.flow.component.html.Nav;
 import com.vaadin.flow.router.RouterLink;
 import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.entity.Member;
 import org.komunumo.security.AuthenticatedUser;
 import org.komunumo.ui.view.website.events.EventsView;
 import org.komunumo.ui.view.website.faq.FaqView;
@@ -48,7 +49,7 @@ public class WebsiteMenu extends Nav {
         add(new RouterLink("Members", MembersView.class));
         add(new RouterLink("Sponsors", SponsorsView.class));
         add(new RouterLink("FAQ", FaqView.class));
-        if (authenticatedUser.get().isPresent() && authenticatedUser.get().get().getAdmin()) {
+        if (authenticatedUser.get().map(Member::getAdmin).orElse(false)) {
             add(new Anchor("/admin", "Admin", AnchorTarget.TOP));
         }
     }
@@ -29,7 +29,9 @@ import com.vaadin.flow.component.html.Image;
 import com.vaadin.flow.component.html.Span;
 import org.jetbrains.annotations.NotNull;
 import org.komunumo.data.entity.Event;
+import org.komunumo.data.entity.ImageVariant;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PublicFormService;
 
 import java.time.LocalDateTime;
 import java.util.Locale;
@@ -46,7 +48,7 @@ public final class EventDetailArticle extends EventArticle {
         div.addClassName("speakerbox");
         for (final var speaker : event.getSpeakers()) {
             if (!speaker.photo().isBlank()) {
-                div.add(new Image(speaker.photo(), speaker.fullName()));
+                div.add(new Image(ImageVariant.PORTRAIT.getUrl(speaker.photo()), speaker.fullName()));
             }
             div.add(new Html("<div>%s</div>".formatted(speaker.bio())));
         }
@@ -129,12 +131,13 @@ public final class EventDetailArticle extends EventArticle {
     }
 
     protected void addRegistrationForm(@NotNull final DatabaseService databaseService,
+                                       @NotNull final PublicFormService publicFormService,
                                        @NotNull final Event event,
                                        @NotNull final String deregisterCode) {
         if (event.getDate().isAfter(LocalDateTime.now())) {
             add(new Hr());
             if (deregisterCode.isBlank()) {
-                add(new EventRegistrationForm(databaseService, event));
+                add(new EventRegistrationForm(databaseService, publicFormService, event));
             } else {
                 add(new EventDeregistrationForm(databaseService, event, deregisterCode));
             }
@@ -27,6 +27,7 @@ import com.vaadin.flow.server.auth.AnonymousAllowed;
 import org.jetbrains.annotations.NotNull;
 import org.komunumo.data.entity.Event;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PublicFormService;
 import org.komunumo.ui.view.website.ContentBlock;
 import org.komunumo.ui.view.website.SubMenu;
 import org.komunumo.ui.view.website.SubMenuItem;
@@ -47,14 +48,17 @@ public final class EventDetailView extends ContentBlock implements BeforeEnterOb
     @Serial
     private static final long serialVersionUID = 7793548424072752819L;
     private final DatabaseService databaseService;
+    private final PublicFormService publicFormService;
 
     private final Map<String, String> locationMapper = new HashMap<>();
 
     private Event event;
 
-    public EventDetailView(@NotNull final DatabaseService databaseService) {
+    public EventDetailView(@NotNull final DatabaseService databaseService,
+                           @NotNull final PublicFormService publicFormService) {
         super("Events");
         this.databaseService = databaseService;
+        this.publicFormService = publicFormService;
     }
 
     @Override
@@ -93,7 +97,7 @@ public final class EventDetailView extends ContentBlock implements BeforeEnterOb
         article.addLevel(event);
         article.addLanguage(event);
         article.addYoutube(event);
-        article.addRegistrationForm(databaseService, event, deregisterCode);
+        article.addRegistrationForm(databaseService, publicFormService, event, deregisterCode);
         article.addLevelInfo();
         setContent(article);
         setSubMenu(new SubMenu(new SubMenuItem("/events", "Events overview")));
@@ -35,11 +35,14 @@ import com.vaadin.flow.component.textfield.EmailField;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.component.textfield.TextFieldVariant;
 import com.vaadin.flow.data.value.ValueChangeMode;
+import com.vaadin.flow.server.VaadinRequest;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.komunumo.data.entity.Event;
-import org.komunumo.data.entity.Member;
+import org.komunumo.data.entity.RegistrationResult;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PublicFormService;
+import org.komunumo.security.RateLimitExceededException;
 
 import java.io.Serial;
 
@@ -56,6 +59,7 @@ public class EventRegistrationForm extends Div {
 
     @SuppressWarnings("checkstyle:MethodLength") // TODO split steps in methods
     public EventRegistrationForm(@NotNull final DatabaseService databaseService,
+                                 @NotNull final PublicFormService publicFormService,
                                  @NotNull final Event event) {
         addClassName("event-registration-form");
         add(new H4("Register"));
@@ -192,10 +196,19 @@ public class EventRegistrationForm extends Div {
                 }
 
                 registerButton.addClickListener(registerButtonClickEvent -> {
-                    final var member = memberFound.orElse(createMember(databaseService, emailAddress, firstName, lastName));
                     final var sourceValue = source.getValue().equalsIgnoreCase("other")
                             ? otherSource.getValue() : source.getValue();
-                    final var registrationResult = databaseService.registerForEvent(event, member, sourceValue);
+                    final RegistrationResult registrationResult;
+                    try {
+                        registrationResult = publicFormService.registerForEvent(VaadinRequest.getCurrent().getRemoteAddr(), event,
+                                memberFound.orElse(null), firstName != null ? firstName.getValue() : null,
+                                lastName != null ? lastName.getValue() : null, emailAddress, sourceValue, newsletter.getValue());
+                    } catch (final RateLimitExceededException e) {
+                        final var rateLimitInfo = new Paragraph("Sorry, there were too many registrations. Please try again later.");
+                        rateLimitInfo.addClassName("registration-info");
+                        replace(registrationForm, rateLimitInfo);
+                        return;
+                    }
                     final var registrationInfo = switch (registrationResult) {
                         case SUCCESS -> new Paragraph("Thank you for your registration! Within the next few minutes "
                                         + "you will receive a copy of your registration and a reminder will follow shortly before the event.");
@@ -205,9 +218,6 @@ public class EventRegistrationForm extends Div {
                                         + "Unfortunately, this event is now fully booked.");
                     };
                     registrationInfo.addClassName("registration-info");
-                    if (newsletter.getValue()) {
-                        databaseService.addSubscription(emailAddress);
-                    }
                     replace(registrationForm, registrationInfo);
                 });
             }
@@ -219,16 +229,6 @@ public class EventRegistrationForm extends Div {
         });
     }
 
-    private Member createMember(@NotNull final DatabaseService databaseService,
-                                @NotNull final String emailAddress,
-                                @Nullable final TextField firstName,
-                                @Nullable final TextField lastName) {
-        if (firstName != null && lastName != null) {
-            return databaseService.createMember(firstName.getValue(), lastName.getValue(), emailAddress);
-        }
-        return null;
-    }
-
     private boolean isRegisterButtonEnabled(@Nullable final TextField firstName,
                                             @Nullable final TextField lastName,
                                             @NotNull final RadioButtonGroup<String> source,
@@ -0,0 +1,117 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.ui.view.website.events;
+
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.ClientCallable;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.html.Div;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.komunumo.data.entity.Event;
+import org.komunumo.data.service.DatabaseService;
+
+import java.io.Serial;
+import java.time.Year;
+
+/**
+ * A list of past event previews which is loaded page by page while the
+ * visitor scrolls down. Only the first page is rendered up front, the next
+ * pages are requested by the browser as soon as the end of the list comes
+ * close to the viewport (or when the visitor clicks "More events").
+ */
+public final class EventTimeline extends Div {
+
+    @Serial
+    private static final long serialVersionUID = 4526183925840671394L;
+
+    private static final int PAGE_SIZE = 10;
+
+    private static final String OBSERVER_SCRIPT = """
+            const timeline = this;
+            if (timeline._timelineObserver) {
+                timeline._timelineObserver.disconnect();
+            }
+            timeline._timelineObserver = new IntersectionObserver(entries => {
+                if (entries.some(entry => entry.isIntersecting)) {
+                    timeline._timelineObserver.unobserve($0);
+                    timeline.$server.loadMore();
+                }
+            }, { rootMargin: '800px' });
+            timeline._timelineObserver.observe($0);
+            """;
+
+    private final DatabaseService databaseService;
+    private final Year year;
+    private final Div more;
+
+    private Event lastEvent;
+    private boolean complete;
+
+    /**
+     * Create a timeline of past events.
+     * @param databaseService the database service
+     * @param year the year of the events or {@code null} for all years
+     */
+    public EventTimeline(@NotNull final DatabaseService databaseService, @Nullable final Year year) {
+        this.databaseService = databaseService;
+        this.year = year;
+        addClassName("events-list");
+        addClassName("event-timeline");
+
+        more = new Div(new Button("More events", clickEvent -> loadMore()));
+        more.addClassName("more-events");
+
+        loadNextPage();
+    }
+
+    @Override
+    protected void onAttach(@NotNull final AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        if (!complete) {
+            getElement().executeJs(OBSERVER_SCRIPT, more.getElement());
+        }
+    }
+
+    @ClientCallable
+    private void loadMore() {
+        loadNextPage();
+        if (!complete) {
+            getElement().executeJs("if (this._timelineObserver) { this._timelineObserver.observe($0); }", more.getElement());
+        }
+    }
+
+    private void loadNextPage() {
+        if (complete) {
+            return;
+        }
+        final var events = databaseService.pastEventSummaries(year, lastEvent, PAGE_SIZE);
+        remove(more);
+        events.stream()
+                .map(EventPreview::new)
+                .forEach(this::add);
+        if (events.size() < PAGE_SIZE) {
+            complete = true;
+        } else {
+            lastEvent = events.get(events.size() - 1);
+            add(more);
+        }
+    }
+
+}
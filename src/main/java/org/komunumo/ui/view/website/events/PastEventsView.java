@@ -20,7 +20,6 @@ package org.komunumo.ui.view.website.events;
 
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.dependency.CssImport;
-import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.H1;
 import com.vaadin.flow.router.BeforeEnterEvent;
 import com.vaadin.flow.router.BeforeEnterObserver;
@@ -50,6 +49,8 @@ public final class PastEventsView extends ContentBlock implements BeforeEnterObs
 
     @Serial
     private static final long serialVersionUID = -5927631850104413849L;
+    private static final String ALL_YEARS = "all";
+
     private final DatabaseService databaseService;
 
     private Year selectedYear;
@@ -68,23 +69,15 @@ public final class PastEventsView extends ContentBlock implements BeforeEnterObs
     public void beforeEnter(@NotNull final BeforeEnterEvent beforeEnterEvent) {
         final var params = beforeEnterEvent.getRouteParameters();
         final var year = params.get("year");
-        selectedYear = year.isPresent() ? Year.parse(year.get()) : Year.now();
+        final var allYears = year.isPresent() && year.get().equals(ALL_YEARS);
+        selectedYear = allYears ? null : year.map(Year::parse).orElseGet(Year::now);
         final var years = databaseService.getYearsWithPastEvents();
-        if (!years.contains(selectedYear) && !years.isEmpty()) {
+        if (!allYears && !years.contains(selectedYear) && !years.isEmpty()) {
             beforeEnterEvent.forwardTo(PastEventsView.class, new RouteParameters("year", years.get(0).toString()));
         }
 
-        final var events = databaseService.pastEvents(selectedYear).toList();
-
-        final var subMenu = createSubMenu(years, selectedYear);
-
-        final var eventsList = new Div();
-        eventsList.addClassName("events-list");
-        events.stream()
-                .map(EventPreview::new)
-                .forEach(eventsList::add);
-        setSubMenu(subMenu);
-        setContent(eventsList);
+        setSubMenu(createSubMenu(years, selectedYear));
+        setContent(new EventTimeline(databaseService, selectedYear));
     }
 
     private static Component createSubMenu(@NotNull final List<Year> years,
@@ -101,12 +94,15 @@ public final class PastEventsView extends ContentBlock implements BeforeEnterObs
                 .sorted(Comparator.reverseOrder())
                 .map(year -> new SubMenuItem("/events/past/%s".formatted(year), year.toString(), year.equals(selectedYear)))
                 .forEach(subMenu::add);
+        subMenu.add(new SubMenuItem("/events/past/%s".formatted(ALL_YEARS), "All years", selectedYear == null));
         return subMenu;
     }
 
     @Override
     public String getPageTitle() {
-        return "%s: Past events from %s".formatted(databaseService.configuration().getWebsiteName(), selectedYear);
+        final var websiteName = databaseService.configuration().getWebsiteName();
+        return selectedYear == null ? "%s: All past events".formatted(websiteName)
+                : "%s: Past events from %s".formatted(websiteName, selectedYear);
     }
 
 }
@@ -29,8 +29,9 @@ import com.vaadin.flow.router.HasDynamicTitle;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.server.auth.AnonymousAllowed;
 import org.jetbrains.annotations.NotNull;
-import org.komunumo.data.db.tables.records.FaqRecord;
+import org.komunumo.data.entity.FaqEntity;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PublicContentCache;
 import org.komunumo.ui.view.website.ContentBlock;
 import org.komunumo.ui.view.website.WebsiteLayout;
 
@@ -45,24 +46,25 @@ public final class FaqView extends ContentBlock implements HasDynamicTitle {
     private static final long serialVersionUID = -8726387602573264111L;
     private final DatabaseService databaseService;
 
-    public FaqView(@NotNull final DatabaseService databaseService) {
+    public FaqView(@NotNull final DatabaseService databaseService,
+                   @NotNull final PublicContentCache publicContentCache) {
         super("FAQ");
         this.databaseService = databaseService;
         addClassName("faq-view");
 
         final var content = new Div();
         content.add(new H2("Frequently asked questions"));
-        databaseService.getAllFaqRecords()
+        publicContentCache.getFaq().stream()
                 .map(this::toArticle)
                 .forEach(content::add);
         setContent(content);
     }
 
-    private Component toArticle(@NotNull final FaqRecord faqRecord) {
+    private Component toArticle(@NotNull final FaqEntity faqEntity) {
         final var article = new Article();
         article.addClassName("faq-entry");
-        article.add(new H3(faqRecord.getQuestion()));
-        article.add(new Html("<div>%s</div>".formatted(faqRecord.getAnswer())));
+        article.add(new H3(faqEntity.question()));
+        article.add(new Html("<div>%s</div>".formatted(faqEntity.answer())));
         return article;
     }
 
@@ -25,6 +25,8 @@ import com.vaadin.flow.router.Route;
 import com.vaadin.flow.server.auth.AnonymousAllowed;
 import org.jetbrains.annotations.NotNull;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PublicContentCache;
+import org.komunumo.data.service.PublicFormService;
 import org.komunumo.ui.view.website.NewsBlock;
 import org.komunumo.ui.view.website.WebsiteLayout;
 
@@ -40,11 +42,13 @@ public final class HomeView extends Div implements HasDynamicTitle {
     private static final long serialVersionUID = 4681250337377422329L;
     private final DatabaseService databaseService;
 
-    public HomeView(@NotNull final DatabaseService databaseService) {
+    public HomeView(@NotNull final DatabaseService databaseService,
+                    @NotNull final PublicContentCache publicContentCache,
+                    @NotNull final PublicFormService publicFormService) {
         this.databaseService = databaseService;
         addClassName("home-view");
         add(
-                new NewsBlock(databaseService),
+                new NewsBlock(publicFormService, publicContentCache),
                 new EventPreviewBlock(databaseService)
         );
     }
@@ -36,10 +36,14 @@ import com.vaadin.flow.router.BeforeEnterEvent;
 import com.vaadin.flow.router.BeforeEnterObserver;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.RouteAlias;
+import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.auth.AnonymousAllowed;
 import org.jetbrains.annotations.NotNull;
 import org.komunumo.data.db.enums.PageParent;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PageRegistry;
+import org.komunumo.data.service.PublicFormService;
+import org.komunumo.security.RateLimitExceededException;
 import org.komunumo.ui.view.website.ContentBlock;
 import org.komunumo.ui.view.website.SubMenu;
 import org.komunumo.ui.view.website.SubMenuItem;
@@ -57,10 +61,16 @@ public final class MembersView extends ContentBlock implements BeforeEnterObserv
     @Serial
     private static final long serialVersionUID = -2944489591379876351L;
     private final DatabaseService databaseService;
+    private final PageRegistry pageRegistry;
+    private final PublicFormService publicFormService;
 
-    public MembersView(@NotNull final DatabaseService databaseService) {
+    public MembersView(@NotNull final DatabaseService databaseService,
+                       @NotNull final PageRegistry pageRegistry,
+                       @NotNull final PublicFormService publicFormService) {
         super("Members");
         this.databaseService = databaseService;
+        this.pageRegistry = pageRegistry;
+        this.publicFormService = publicFormService;
         addClassName("members-view");
     }
 
@@ -75,16 +85,16 @@ public final class MembersView extends ContentBlock implements BeforeEnterObserv
     public void afterNavigation(@NotNull final AfterNavigationEvent afterNavigationEvent) {
         final var url = afterNavigationEvent.getLocation().getPath();
         final var subMenu = new SubMenu();
-        databaseService.getPages(PageParent.Members).forEach(page ->
-                subMenu.add(new SubMenuItem(page.getCompletePageUrl(), page.getTitle(), url.equals(page.getCompletePageUrl()))));
+        pageRegistry.getPages(PageParent.Members).forEach(page ->
+                subMenu.add(new SubMenuItem(page.completePageUrl(), page.title(), url.equals(page.completePageUrl()))));
         subMenu.add(new SubMenuItem("/members/feedback", "Feedback", url.equals("members/feedback")));
         setSubMenu(subMenu);
         if (url.equals("members/feedback")) {
             setContent(createFeedbackForm());
         } else if (url.contains("/")) {
-            final var page = loadPage(databaseService, url);
+            final var page = loadPage(pageRegistry, url);
             this.getUI().ifPresent(ui -> ui.getPage().setTitle("%s: %s"
-                    .formatted(databaseService.configuration().getWebsiteName(), page != null ? page.getTitle() : "Members")));
+                    .formatted(databaseService.configuration().getWebsiteName(), page != null ? page.title() : "Members")));
         }
     }
 
@@ -126,8 +136,13 @@ public final class MembersView extends ContentBlock implements BeforeEnterObserv
         div.add(form);
 
         submit.addClickListener(buttonClickEvent -> {
-            databaseService.receiveFeedback(firstName.getValue(), lastName.getValue(), email.getValue(), feedback.getValue());
-            div.replace(form, new Paragraph("We have received your feedback, thank you very much!"));
+            try {
+                publicFormService.receiveFeedback(VaadinRequest.getCurrent().getRemoteAddr(),
+                        firstName.getValue(), lastName.getValue(), email.getValue(), feedback.getValue());
+                div.replace(form, new Paragraph("We have received your feedback, thank you very much!"));
+            } catch (final RateLimitExceededException e) {
+                div.replace(form, new Paragraph("Sorry, we have received too much feedback. Please try again later."));
+            }
         });
 
         firstName.focus();
@@ -35,6 +35,7 @@ import com.vaadin.flow.server.auth.AnonymousAllowed;
 import org.jetbrains.annotations.NotNull;
 import org.komunumo.data.entity.NewsEntity;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PublicContentCache;
 import org.komunumo.ui.view.website.ContentBlock;
 import org.komunumo.ui.view.website.SubMenu;
 import org.komunumo.ui.view.website.SubMenuItem;
@@ -55,12 +56,15 @@ public final class NewsView extends ContentBlock implements BeforeEnterObserver,
     @Serial
     private static final long serialVersionUID = 4588464261444649592L;
     private final DatabaseService databaseService;
+    private final PublicContentCache publicContentCache;
 
     private NewsEntity newsEntity = null;
 
-    public NewsView(@NotNull final DatabaseService databaseService) {
+    public NewsView(@NotNull final DatabaseService databaseService,
+                    @NotNull final PublicContentCache publicContentCache) {
         super("News");
         this.databaseService = databaseService;
+        this.publicContentCache = publicContentCache;
         addClassName("news-view");
     }
 
@@ -72,7 +76,7 @@ public final class NewsView extends ContentBlock implements BeforeEnterObserver,
         final var idParam = params.get("id");
         if (idParam.isPresent()) {
             final var id = Long.parseLong(idParam.get());
-            databaseService.getNewsWhenVisible(id).ifPresent(newsEntities::add);
+            publicContentCache.getVisibleNews(id).ifPresent(newsEntities::add);
             if (newsEntities.isEmpty()) {
                 beforeEnterEvent.forwardTo(NewsView.class);
             } else {
@@ -84,7 +88,7 @@ public final class NewsView extends ContentBlock implements BeforeEnterObserver,
         }
 
         if (newsEntities.isEmpty()) {
-            newsEntities.addAll(databaseService.getAllVisibleNews());
+            newsEntities.addAll(publicContentCache.getVisibleNews());
         }
 
         if (newsEntities.isEmpty()) {
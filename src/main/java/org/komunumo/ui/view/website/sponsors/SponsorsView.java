@@ -38,8 +38,11 @@ import com.vaadin.flow.server.auth.AnonymousAllowed;
 import org.jetbrains.annotations.NotNull;
 import org.komunumo.data.db.enums.PageParent;
 import org.komunumo.data.db.enums.SponsorLevel;
+import org.komunumo.data.entity.ImageVariant;
 import org.komunumo.data.entity.SponsorEntity;
 import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PageRegistry;
+import org.komunumo.data.service.PublicContentCache;
 import org.komunumo.ui.view.website.ContentBlock;
 import org.komunumo.ui.view.website.SubMenu;
 import org.komunumo.ui.view.website.SubMenuItem;
@@ -56,10 +59,16 @@ public final class SponsorsView extends ContentBlock implements AfterNavigationO
     @Serial
     private static final long serialVersionUID = 1434267042866729347L;
     private final DatabaseService databaseService;
+    private final PublicContentCache publicContentCache;
+    private final PageRegistry pageRegistry;
 
-    public SponsorsView(@NotNull final DatabaseService databaseService) {
+    public SponsorsView(@NotNull final DatabaseService databaseService,
+                        @NotNull final PublicContentCache publicContentCache,
+                        @NotNull final PageRegistry pageRegistry) {
         super("Sponsors");
         this.databaseService = databaseService;
+        this.publicContentCache = publicContentCache;
+        this.pageRegistry = pageRegistry;
         addClassName("sponsors-view");
     }
 
@@ -68,16 +77,16 @@ public final class SponsorsView extends ContentBlock implements AfterNavigationO
         final var url = event.getLocation().getPath();
         final var subMenu = new SubMenu();
         subMenu.add(new SubMenuItem("sponsors", "Our sponsors", url.equals("sponsors")));
-        databaseService.getPages(PageParent.Sponsors).forEach(page ->
-                subMenu.add(new SubMenuItem(page.getCompletePageUrl(), page.getTitle(), url.equals(page.getCompletePageUrl()))));
+        pageRegistry.getPages(PageParent.Sponsors).forEach(page ->
+                subMenu.add(new SubMenuItem(page.completePageUrl(), page.title(), url.equals(page.completePageUrl()))));
         setSubMenu(subMenu);
         final String pageTitle;
         if (url.equals("sponsors")) {
             showSponsors();
             pageTitle = "Sponsors";
         } else {
-            final var page = loadPage(databaseService, url);
-            pageTitle = page.getTitle();
+            final var page = loadPage(pageRegistry, url);
+            pageTitle = page.title();
         }
         this.getUI().ifPresent(ui -> ui.getPage().setTitle("%s: %s".formatted(databaseService.configuration().getWebsiteName(), pageTitle)));
     }
@@ -98,7 +107,7 @@ public final class SponsorsView extends ContentBlock implements AfterNavigationO
     private Component createSponsorSection(@NotNull final SponsorLevel sponsorLevel) {
         final var section = new Section(new H3(sponsorLevel.getLiteral()));
         section.addClassName("level-%s".formatted(URLUtil.createReadableUrl(sponsorLevel.getLiteral())));
-        databaseService.getActiveSponsors(sponsorLevel)
+        publicContentCache.getActiveSponsors(sponsorLevel).stream()
                 .map(this::createSponsorArticle)
                 .forEach(section::add);
         return section;
@@ -108,7 +117,7 @@ public final class SponsorsView extends ContentBlock implements AfterNavigationO
         final var sponsor = new Article();
 
         final var logoHint = "Go to %s website".formatted(sponsorEntity.name());
-        final var logo = new Div(new Anchor(sponsorEntity.website(), new Image(sponsorEntity.logo(), logoHint)));
+        final var logo = new Div(new Anchor(sponsorEntity.website(), new Image(ImageVariant.LOGO.getUrl(sponsorEntity.logo()), logoHint)));
         logo.addClassName("sponsor-logo");
         logo.setTitle(logoHint);
         sponsor.add(logo);
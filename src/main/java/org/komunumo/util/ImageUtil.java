@@ -0,0 +1,207 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+public final class ImageUtil {
+
+    /**
+     * The content type of media which must not be rendered by the browser.
+     */
+    public static final String BINARY_CONTENT_TYPE = "application/octet-stream";
+
+    /**
+     * The raster image types which are stored and served as they are.
+     */
+    public static final Set<String> IMAGE_CONTENT_TYPES = Set.of("image/bmp", "image/gif", "image/jpeg", "image/png", "image/webp");
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    /**
+     * An encoded image.
+     * @param contentType the MIME type of the image
+     * @param content the encoded image data
+     */
+    public record EncodedImage(String contentType, byte[] content) { }
+
+    /**
+     * Get a content type which is safe to serve. Client supplied content
+     * types can't be trusted: SVG and HTML can contain scripts, so only the
+     * raster image types are kept, everything else is treated as binary.
+     * @param contentType the content type as supplied by the client
+     * @return the normalized image content type or {@link #BINARY_CONTENT_TYPE}
+     */
+    public static String safeContentType(@Nullable final String contentType) {
+        if (contentType == null) {
+            return BINARY_CONTENT_TYPE;
+        }
+        final var mimeType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        if ("image/jpg".equals(mimeType) || "image/pjpeg".equals(mimeType)) {
+            return "image/jpeg";
+        }
+        return IMAGE_CONTENT_TYPES.contains(mimeType) ? mimeType : BINARY_CONTENT_TYPE;
+    }
+
+    /**
+     * Decode an image. The dimensions are checked before the pixels are
+     * decoded, so huge images can't exhaust the memory.
+     * @param content the encoded image data
+     * @param maxPixels the maximum number of pixels the image may have
+     * @return the decoded image or empty, if the format is not supported or the image is too big
+     * @throws IOException if the image data can't be read
+     */
+    public static Optional<BufferedImage> readImage(@NotNull final byte[] content, final long maxPixels) throws IOException {
+        return readImage(content, maxPixels, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Decode an image which is going to be downscaled to fit into the target
+     * bounds. Big images are subsampled while decoding, so only every n-th
+     * pixel is allocated instead of the full image. The decoded image stays
+     * at least twice the size needed to fit, so the final downscaling can
+     * still smooth out the subsampling artifacts.
+     * @param content the encoded image data
+     * @param maxPixels the maximum number of pixels the image may have
+     * @param targetWidth the width of the bounds the image is going to be scaled to
+     * @param targetHeight the height of the bounds the image is going to be scaled to
+     * @return the decoded image or empty, if the format is not supported or the image is too big
+     * @throws IOException if the image data can't be read
+     */
+    public static Optional<BufferedImage> readImage(@NotNull final byte[] content, final long maxPixels,
+                                                    final int targetWidth, final int targetHeight) throws IOException {
+        try (var input = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            final var readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return Optional.empty();
+            }
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                final var width = reader.getWidth(0);
+                final var height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    return Optional.empty();
+                }
+                final var param = reader.getDefaultReadParam();
+                final var subsampling = subsampling(width, height, targetWidth, targetHeight);
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                return Optional.of(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static int subsampling(final int width, final int height, final int targetWidth, final int targetHeight) {
+        final var scale = Math.min((double) targetWidth / width, (double) targetHeight / height);
+        return scale >= 0.5 ? 1 : (int) Math.floor(0.5 / scale);
+    }
+
+    /**
+     * Downscale an image to fit into the specified bounds, keeping the aspect
+     * ratio. Big reductions are done in multiple halving steps, which is much
+     * faster than a single bicubic pass and avoids aliasing artifacts.
+     * @param image the image to downscale
+     * @param maxWidth the maximum width
+     * @param maxHeight the maximum height
+     * @return the downscaled image or the original image, if it already fits
+     */
+    public static BufferedImage scaleToFit(@NotNull final BufferedImage image, final int maxWidth, final int maxHeight) {
+        final var scale = Math.min((double) maxWidth / image.getWidth(), (double) maxHeight / image.getHeight());
+        if (scale >= 1) {
+            return image;
+        }
+        final var targetWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        final var targetHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        var result = image;
+        var width = image.getWidth();
+        var height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            result = resize(result, width, height);
+        } while (width != targetWidth || height != targetHeight);
+        return result;
+    }
+
+    private static BufferedImage resize(@NotNull final BufferedImage image, final int width, final int height) {
+        final var type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        final var resized = new BufferedImage(width, height, type);
+        final var graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    /**
+     * Encode an image compactly: images with transparency as PNG,
+     * all other images as JPEG.
+     * @param image the image to encode
+     * @return the encoded image
+     * @throws IOException if the image can't be encoded
+     */
+    public static EncodedImage encodeImage(@NotNull final BufferedImage image) throws IOException {
+        final var output = new ByteArrayOutputStream();
+        if (image.getColorModel().hasAlpha()) {
+            ImageIO.write(image, "png", output);
+            return new EncodedImage("image/png", output.toByteArray());
+        }
+
+        final var writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (var imageOutput = ImageIO.createImageOutputStream(output)) {
+            final var param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(imageOutput);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return new EncodedImage("image/jpeg", output.toByteArray());
+    }
+
+    private ImageUtil() {
+        throw new IllegalStateException("Utility class");
+    }
+
+}
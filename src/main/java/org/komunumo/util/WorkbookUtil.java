@@ -18,13 +18,10 @@
 
 package org.komunumo.util;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellType;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.komunumo.data.importer.ColumnHeader;
+import org.komunumo.data.importer.SheetRow;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -35,37 +32,32 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.komunumo.util.DateUtil.dateToLocalDate;
 
 public final class WorkbookUtil {
 
-    public static List<ColumnHeader> getColumnHeaders(@NotNull final Row row) {
+    public static List<ColumnHeader> getColumnHeaders(@NotNull final SheetRow row) {
         final var columnHeaders = new ArrayList<ColumnHeader>();
-        for (final var cell : row) {
-            if (cell != null && cell.getCellType().equals(CellType.STRING)) {
-                final var index = cell.getColumnIndex();
-                final var title = cell.getStringCellValue();
+        for (int index = 0; index < row.cells().size(); index++) {
+            if (row.getCell(index) instanceof String title) {
                 columnHeaders.add(new ColumnHeader(index, title));
             }
         }
         return Collections.unmodifiableList(columnHeaders);
     }
 
-    public static Optional<Cell> findCell(@NotNull final Sheet sheet,
-                                          @NotNull final String... titles) {
-        for (final Row row : sheet) {
-            final var titleCell = row.getCell(0);
-            if (titleCell.getCellType().equals(CellType.STRING)) {
-                final var cellTitle = titleCell.getStringCellValue();
-                for (final var title : titles) {
-                    if (title.equalsIgnoreCase(cellTitle)) {
-                        return Optional.ofNullable(row.getCell(1));
-                    }
-                }
-            }
-        }
-        return Optional.empty();
+    public static Optional<SheetRow> findRow(@NotNull final Stream<SheetRow> rows,
+                                             @NotNull final String... titles) {
+        return rows.filter(row -> row.getCell(0) instanceof String cellTitle
+                        && Stream.of(titles).anyMatch(cellTitle::equalsIgnoreCase))
+                .findFirst();
+    }
+
+    public static Optional<String> findString(@NotNull final Stream<SheetRow> rows,
+                                              @NotNull final String... titles) {
+        return findRow(rows, titles).flatMap(row -> getStringFromRow(row, new ColumnHeader(1, titles[0])));
     }
 
     public static Optional<ColumnHeader> findColumn(@NotNull final List<ColumnHeader> columnHeaders,
@@ -78,59 +70,48 @@ public final class WorkbookUtil {
         return Optional.empty();
     }
 
-    public static Optional<String> getStringFromRow(@NotNull final Row row,
+    public static Optional<String> getStringFromRow(@NotNull final SheetRow row,
                                                     @NotNull final ColumnHeader column) {
-        final var cell = row.getCell(column.index());
-        if (cell != null) {
-            switch (cell.getCellType()) {
-                case STRING: return Optional.ofNullable(cell.getStringCellValue());
-                case BLANK: return Optional.of("");
-                case NUMERIC: return Optional.of(Double.toString(cell.getNumericCellValue()));
-                case BOOLEAN: return Optional.of(Boolean.toString(cell.getBooleanCellValue()));
-                case ERROR: throw new IllegalStateException("Error in cell: code + " + cell.getErrorCellValue());
-                default: throw new IllegalStateException("Unknown cell type: " + cell.getCellType());
-            }
+        final var value = row.getCell(column.index());
+        if (value == null) {
+            return Optional.empty();
+        } else if (value instanceof SheetRow.CellError error) {
+            throw new IllegalStateException("Error in cell: code " + error.code());
         }
-        return Optional.empty();
+        return Optional.of(value.toString());
     }
 
-    public static Optional<Date> getDateFromRow(@NotNull final Row row,
+    public static Optional<Date> getDateFromRow(@NotNull final SheetRow row,
                                                 @NotNull final ColumnHeader column) {
-        final var cell = row.getCell(column.index());
-        if (cell != null) {
-            return switch (cell.getCellType()) {
-                case NUMERIC -> Optional.ofNullable(cell.getDateCellValue());
-                case STRING -> getOptionalDateFromString(cell.getStringCellValue());
-                default -> throw new IllegalStateException("Unexpected date cell type: " + cell.getCellType());
-            };
+        final var value = row.getCell(column.index());
+        if (value == null) {
+            return Optional.empty();
+        } else if (value instanceof Double number) {
+            return Optional.ofNullable(org.apache.poi.ss.usermodel.DateUtil.getJavaDate(number));
+        } else if (value instanceof String string) {
+            return getOptionalDateFromString(string);
         }
-        return Optional.empty();
+        throw new IllegalStateException("Unexpected date cell value: " + value);
     }
 
-    public static Optional<LocalDate> getLocalDateFromRow(@NotNull final Row row,
+    public static Optional<LocalDate> getLocalDateFromRow(@NotNull final SheetRow row,
                                                           @NotNull final ColumnHeader column) {
         return Optional.ofNullable(
                 dateToLocalDate(getDateFromRow(row, column)
                         .orElse(null)));
     }
 
-    public static Optional<Long> getLongFromRow(@NotNull final Row row,
-                                                   @NotNull final ColumnHeader column) {
-        final var cell = row.getCell(column.index());
-        if (cell != null) {
-            switch (cell.getCellType()) {
-                case NUMERIC: return Optional.of((long) cell.getNumericCellValue());
-                case STRING:
-                    final var value = cell.getStringCellValue();
-                    if (value != null && !value.isBlank()) {
-                        return Optional.of(Long.parseLong(value));
-                    }
-                    break;
-                default:
-                    throw new IllegalStateException("Unexpected date cell type: " + cell.getCellType());
-            }
+    public static Optional<Long> getLongFromRow(@NotNull final SheetRow row,
+                                                @NotNull final ColumnHeader column) {
+        final var value = row.getCell(column.index());
+        if (value == null) {
+            return Optional.empty();
+        } else if (value instanceof Double number) {
+            return Optional.of(number.longValue());
+        } else if (value instanceof String string) {
+            return string.isBlank() ? Optional.empty() : Optional.of(Long.parseLong(string));
         }
-        return Optional.empty();
+        throw new IllegalStateException("Unexpected long cell value: " + value);
     }
 
     @SuppressWarnings("java:S108")
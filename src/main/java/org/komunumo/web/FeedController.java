@@ -0,0 +1,138 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.web;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.komunumo.data.entity.Feed;
+import org.komunumo.data.service.FeedService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Serves the event calendars, the news feed and the sitemap without
+ * creating a Vaadin session. The feeds are pre-encoded by the
+ * {@link FeedService}, so a request is answered from memory, with a
+ * "not modified" response if the client already has the current version.
+ */
+@RestController
+public class FeedController {
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+    private static final String GZIP = "gzip";
+
+    private final FeedService feedService;
+
+    public FeedController(@NotNull final FeedService feedService) {
+        this.feedService = feedService;
+    }
+
+    /**
+     * Get the calendar of the events of all locations.
+     * @param ifNoneMatch the entity tag cached by the client, if any
+     * @param acceptEncoding the encodings accepted by the client, if any
+     * @return the calendar or "not modified" if the client has it cached
+     */
+    @GetMapping("/events.ics")
+    public ResponseEntity<byte[]> getEventCalendar(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                   @Nullable final String ifNoneMatch,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                                   @Nullable final String acceptEncoding) {
+        return createResponse(feedService.getEventCalendar(), ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * Get the calendar of the events of a location.
+     * @param location the location as used in the URLs of the website
+     * @param ifNoneMatch the entity tag cached by the client, if any
+     * @param acceptEncoding the encodings accepted by the client, if any
+     * @return the calendar, "not modified" if the client has it cached, or "not found"
+     */
+    @GetMapping("/events/{location}.ics")
+    public ResponseEntity<byte[]> getEventCalendar(@PathVariable("location") @NotNull final String location,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                   @Nullable final String ifNoneMatch,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                                   @Nullable final String acceptEncoding) {
+        return feedService.getEventCalendar(location)
+                .map(feed -> createResponse(feed, ifNoneMatch, acceptEncoding))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get the feed of the visible news.
+     * @param ifNoneMatch the entity tag cached by the client, if any
+     * @param acceptEncoding the encodings accepted by the client, if any
+     * @return the RSS feed or "not modified" if the client has it cached
+     */
+    @GetMapping("/news.rss")
+    public ResponseEntity<byte[]> getNewsFeed(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                              @Nullable final String ifNoneMatch,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                              @Nullable final String acceptEncoding) {
+        return createResponse(feedService.getNewsFeed(), ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * Get the sitemap of the public website.
+     * @param ifNoneMatch the entity tag cached by the client, if any
+     * @param acceptEncoding the encodings accepted by the client, if any
+     * @return the sitemap or "not modified" if the client has it cached
+     */
+    @GetMapping("/sitemap.xml")
+    public ResponseEntity<byte[]> getSitemap(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                             @Nullable final String ifNoneMatch,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                             @Nullable final String acceptEncoding) {
+        return createResponse(feedService.getSitemap(), ifNoneMatch, acceptEncoding);
+    }
+
+    private static ResponseEntity<byte[]> createResponse(@NotNull final Feed feed,
+                                                         @Nullable final String ifNoneMatch,
+                                                         @Nullable final String acceptEncoding) {
+        final var gzip = acceptEncoding != null && acceptEncoding.contains(GZIP);
+        // the gzipped content is a different representation, so it needs its own entity tag
+        final var eTag = gzip ? "\"%s-%s\"".formatted(feed.hash(), GZIP) : "\"%s\"".formatted(feed.hash());
+        if (ifNoneMatch != null && ifNoneMatch.contains(feed.hash())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(CACHE_CONTROL)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        final var response = ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.parseMediaType(feed.contentType()));
+        return gzip
+                ? response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(feed.gzipContent())
+                : response.body(feed.content());
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.web;
+
+import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.entity.FormStatistics;
+import org.komunumo.data.service.PublicFormService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Reports the accepted and rate limited submissions of the public forms as
+ * JSON, for administrators and monitoring tools.
+ */
+@RestController
+public class FormMetricsController {
+
+    private final PublicFormService publicFormService;
+
+    public FormMetricsController(@NotNull final PublicFormService publicFormService) {
+        this.publicFormService = publicFormService;
+    }
+
+    /**
+     * Get the submissions of the public forms.
+     * @return the statistics per form
+     */
+    @GetMapping("/metrics/forms")
+    public List<FormStatistics> getFormStatistics() {
+        return publicFormService.getStatistics();
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.web;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.komunumo.data.entity.ImageVariant;
+import org.komunumo.data.entity.Media;
+import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.ImageService;
+import org.komunumo.util.ImageUtil;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Serves the binary media by their content hash. The content of a hash can
+ * never change, so the responses may be cached by browsers and proxies forever.
+ */
+@RestController
+public class MediaController {
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final String NO_SNIFF_HEADER = "X-Content-Type-Options";
+    private static final String NO_SNIFF = "nosniff";
+
+    private final DatabaseService databaseService;
+    private final ImageService imageService;
+
+    public MediaController(@NotNull final DatabaseService databaseService,
+                           @NotNull final ImageService imageService) {
+        this.databaseService = databaseService;
+        this.imageService = imageService;
+    }
+
+    /**
+     * Get a media.
+     * @param hash the content hash of the media
+     * @param ifNoneMatch the entity tag cached by the client, if any
+     * @return the media, "not modified" if the client has it cached, or "not found"
+     */
+    @GetMapping("/media/{hash}")
+    public ResponseEntity<byte[]> getMedia(@PathVariable("hash") @NotNull final String hash,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                           @Nullable final String ifNoneMatch) {
+        if (!DatabaseService.MEDIA_HASH_PATTERN.matcher(hash).matches()) {
+            return ResponseEntity.notFound().build();
+        }
+        final var eTag = "\"%s\"".formatted(hash);
+        if (ifNoneMatch != null && ifNoneMatch.contains(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(CACHE_CONTROL)
+                    .header(NO_SNIFF_HEADER, NO_SNIFF)
+                    .build();
+        }
+        return databaseService.getMedia(hash)
+                .map(media -> mediaResponse(eTag, media))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get a downscaled variant of an image. As long as the variant is not
+     * available, the client is redirected to the original image.
+     * @param hash the content hash of the original image
+     * @param variant the name of the variant
+     * @param ifNoneMatch the entity tag cached by the client, if any
+     * @return the image variant, "not modified" if the client has it cached,
+     * a redirect to the original image, or "not found"
+     */
+    @GetMapping("/media/{hash}/{variant}")
+    public ResponseEntity<byte[]> getImageVariant(@PathVariable("hash") @NotNull final String hash,
+                                                  @PathVariable("variant") @NotNull final String variant,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                  @Nullable final String ifNoneMatch) {
+        final var imageVariant = ImageVariant.fromName(variant);
+        if (imageVariant.isEmpty() || !DatabaseService.MEDIA_HASH_PATTERN.matcher(hash).matches()) {
+            return ResponseEntity.notFound().build();
+        }
+        final var eTag = "\"%s-%s\"".formatted(hash, variant);
+        if (ifNoneMatch != null && ifNoneMatch.contains(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(CACHE_CONTROL)
+                    .header(NO_SNIFF_HEADER, NO_SNIFF)
+                    .build();
+        }
+        return imageService.getImageVariant(hash, imageVariant.get())
+                .map(media -> mediaResponse(eTag, media))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                        .cacheControl(CacheControl.noStore())
+                        .location(URI.create("/media/" + hash))
+                        .build());
+    }
+
+    /**
+     * Only allowlisted raster images are served with their content type, all
+     * other media are served as binary downloads, so a stored SVG or HTML
+     * document can never run scripts in the context of this site.
+     */
+    private static ResponseEntity<byte[]> mediaResponse(@NotNull final String eTag, @NotNull final Media media) {
+        final var contentType = ImageUtil.safeContentType(media.contentType());
+        final var response = ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CACHE_CONTROL)
+                .header(NO_SNIFF_HEADER, NO_SNIFF)
+                .contentType(MediaType.parseMediaType(contentType));
+        if (!ImageUtil.IMAGE_CONTENT_TYPES.contains(contentType)) {
+            response.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().build().toString());
+        }
+        return response.body(media.content());
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.web;
+
+import org.jetbrains.annotations.NotNull;
+import org.komunumo.data.entity.PasswordHashingStatistics;
+import org.komunumo.security.PasswordHashingService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Reports the load of the password hashing executor as JSON, for
+ * administrators and monitoring tools.
+ */
+@RestController
+public class PasswordHashingMetricsController {
+
+    private final PasswordHashingService passwordHashingService;
+
+    public PasswordHashingMetricsController(@NotNull final PasswordHashingService passwordHashingService) {
+        this.passwordHashingService = passwordHashingService;
+    }
+
+    /**
+     * Get the load of the password hashing executor.
+     * @return the password hashing statistics
+     */
+    @GetMapping("/metrics/passwords")
+    public PasswordHashingStatistics getPasswordHashingStatistics() {
+        return passwordHashingService.getStatistics();
+    }
+
+}
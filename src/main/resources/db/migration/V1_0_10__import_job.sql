@@ -0,0 +1,20 @@
+CREATE TABLE `import_job` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `source` VARCHAR(31) NOT NULL,
+    `description` VARCHAR(255) NOT NULL,
+    `status` ENUM('QUEUED', 'RUNNING', 'SUCCEEDED', 'FAILED', 'CANCELLED') NOT NULL,
+    `total` INT NULL,
+    `processed` INT NOT NULL DEFAULT 0,
+    `errors` INT NOT NULL DEFAULT 0,
+    `message` TEXT NULL,
+    `cancel_requested` BOOLEAN NOT NULL DEFAULT FALSE,
+    `created` DATETIME NOT NULL,
+    `started` DATETIME NULL,
+    `finished` DATETIME NULL,
+    `heartbeat` DATETIME NOT NULL,
+    `lock_source` VARCHAR(31) NULL,
+
+    PRIMARY KEY (`id`),
+    UNIQUE INDEX `import_job_lock_source` (`lock_source`),
+    INDEX `import_job_created` (`created`)
+);
@@ -0,0 +1,17 @@
+CREATE TABLE `attendee_sketch_month` (
+    `sketch_month` DATE NOT NULL,
+    `created` DATETIME NOT NULL,
+
+    PRIMARY KEY (`sketch_month`)
+);
+
+CREATE TABLE `attendee_sketch` (
+    `sketch_month` DATE NOT NULL,
+    `location` VARCHAR(255) NOT NULL DEFAULT '',
+    `event_type` VARCHAR(255) NOT NULL,
+    `no_show` BOOLEAN NOT NULL DEFAULT 0,
+    `sketch` BLOB NOT NULL,
+
+    PRIMARY KEY (`sketch_month`, `location`, `event_type`, `no_show`),
+    FOREIGN KEY (`sketch_month`) REFERENCES `attendee_sketch_month` (`sketch_month`) ON DELETE CASCADE
+);
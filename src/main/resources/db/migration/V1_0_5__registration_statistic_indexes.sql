@@ -0,0 +1 @@
+CREATE INDEX `registration_statistics` ON `registration` (`date`, `no_show`, `member_id`);
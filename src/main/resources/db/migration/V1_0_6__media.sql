@@ -0,0 +1,40 @@
+CREATE TABLE `media` (
+    `hash` CHAR(64) NOT NULL,
+    `content_type` VARCHAR(255) NOT NULL,
+    `content` MEDIUMBLOB NOT NULL,
+    `created` DATETIME NOT NULL,
+
+    PRIMARY KEY (`hash`)
+);
+
+-- [jooq ignore start]
+
+INSERT IGNORE INTO `media` (`hash`, `content_type`, `content`, `created`)
+SELECT SHA2(FROM_BASE64(SUBSTRING(`photo`, LOCATE(';base64,', `photo`) + 8)), 256),
+       SUBSTRING(`photo`, 6, LOCATE(';base64,', `photo`) - 6),
+       FROM_BASE64(SUBSTRING(`photo`, LOCATE(';base64,', `photo`) + 8)),
+       NOW()
+FROM `speaker`
+WHERE `photo` LIKE 'data:%;base64,%'
+  AND FROM_BASE64(SUBSTRING(`photo`, LOCATE(';base64,', `photo`) + 8)) IS NOT NULL;
+
+UPDATE `speaker`
+SET `photo` = CONCAT('/media/', SHA2(FROM_BASE64(SUBSTRING(`photo`, LOCATE(';base64,', `photo`) + 8)), 256))
+WHERE `photo` LIKE 'data:%;base64,%'
+  AND FROM_BASE64(SUBSTRING(`photo`, LOCATE(';base64,', `photo`) + 8)) IS NOT NULL;
+
+INSERT IGNORE INTO `media` (`hash`, `content_type`, `content`, `created`)
+SELECT SHA2(FROM_BASE64(SUBSTRING(`logo`, LOCATE(';base64,', `logo`) + 8)), 256),
+       SUBSTRING(`logo`, 6, LOCATE(';base64,', `logo`) - 6),
+       FROM_BASE64(SUBSTRING(`logo`, LOCATE(';base64,', `logo`) + 8)),
+       NOW()
+FROM `sponsor`
+WHERE `logo` LIKE 'data:%;base64,%'
+  AND FROM_BASE64(SUBSTRING(`logo`, LOCATE(';base64,', `logo`) + 8)) IS NOT NULL;
+
+UPDATE `sponsor`
+SET `logo` = CONCAT('/media/', SHA2(FROM_BASE64(SUBSTRING(`logo`, LOCATE(';base64,', `logo`) + 8)), 256))
+WHERE `logo` LIKE 'data:%;base64,%'
+  AND FROM_BASE64(SUBSTRING(`logo`, LOCATE(';base64,', `logo`) + 8)) IS NOT NULL;
+
+-- [jooq ignore stop]
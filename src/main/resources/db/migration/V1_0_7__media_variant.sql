@@ -0,0 +1,10 @@
+CREATE TABLE `media_variant` (
+    `hash` CHAR(64) NOT NULL,
+    `variant` VARCHAR(31) NOT NULL,
+    `content_type` VARCHAR(255) NULL,
+    `content` MEDIUMBLOB NULL,
+    `created` DATETIME NOT NULL,
+
+    PRIMARY KEY (`hash`, `variant`),
+    FOREIGN KEY (`hash`) REFERENCES `media` (`hash`) ON DELETE CASCADE
+);
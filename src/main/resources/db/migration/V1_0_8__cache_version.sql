@@ -0,0 +1,7 @@
+CREATE TABLE `cache_version` (
+    `topic` VARCHAR(31) NOT NULL,
+    `version` BIGINT NOT NULL DEFAULT 0,
+    `changed` DATETIME NOT NULL,
+
+    PRIMARY KEY (`topic`)
+);
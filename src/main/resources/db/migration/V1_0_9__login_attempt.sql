@@ -0,0 +1,9 @@
+CREATE TABLE `login_attempt` (
+    `kind` VARCHAR(15) NOT NULL,
+    `subject` CHAR(64) NOT NULL,
+    `window_start` DATETIME NOT NULL,
+    `failures` INT NOT NULL,
+
+    PRIMARY KEY (`kind`, `subject`, `window_start`),
+    INDEX `login_attempt_window_start` (`window_start`)
+);
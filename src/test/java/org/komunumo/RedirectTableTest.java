@@ -0,0 +1,109 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedirectTableTest {
+
+    @Test
+    void exactRules() {
+        final var table = new RedirectTable(Map.of(
+                "/members.php", "/members/general",
+                "/sponsors.php", "/sponsors"), null);
+        assertEquals(Optional.of("/members/general"), table.findTarget("/members.php"));
+        assertEquals(Optional.of("/sponsors"), table.findTarget("/sponsors.php/"));
+        assertTrue(table.findTarget("/members").isEmpty());
+        assertTrue(table.findTarget("/members.php/foo").isEmpty());
+    }
+
+    @Test
+    void wildcardRules() {
+        final var table = new RedirectTable(Map.of(
+                "/exec/*", "/admin",
+                "/exec/login", "/login",
+                "/archive/*/index.html", "/events/past"), null);
+        assertEquals(Optional.of("/login"), table.findTarget("/exec/login"));
+        assertEquals(Optional.of("/admin"), table.findTarget("/exec/events"));
+        assertEquals(Optional.of("/events/past"), table.findTarget("/archive/2019/index.html"));
+        assertTrue(table.findTarget("/exec").isEmpty());
+        assertTrue(table.findTarget("/exec/events/1").isEmpty());
+    }
+
+    @Test
+    void wildcardRulesAfterLiteralMismatch() {
+        final var table = new RedirectTable(Map.of(
+                "/a/b/c", "/literal",
+                "/a/*/d", "/wildcard",
+                "/a/**", "/prefix",
+                "/x/y/**", "/literal-prefix",
+                "/x/*/z/**", "/wildcard-prefix"), null);
+        assertEquals(Optional.of("/literal"), table.findTarget("/a/b/c"));
+        assertEquals(Optional.of("/wildcard"), table.findTarget("/a/b/d"));
+        assertEquals(Optional.of("/prefix"), table.findTarget("/a/b/e"));
+        assertEquals(Optional.of("/wildcard-prefix"), table.findTarget("/x/y/z/1"));
+        assertEquals(Optional.of("/literal-prefix"), table.findTarget("/x/y/1"));
+    }
+
+    @Test
+    void prefixRules() {
+        final var table = new RedirectTable(Map.of(
+                "/old/**", "/new/**",
+                "/old/special", "/special",
+                "/legacy/**", "/"), null);
+        assertEquals(Optional.of("/new/a/b"), table.findTarget("/old/a/b"));
+        assertEquals(Optional.of("/new"), table.findTarget("/old"));
+        assertEquals(Optional.of("/special"), table.findTarget("/old/special"));
+        assertEquals(Optional.of("/new/special/more"), table.findTarget("/old/special/more"));
+        assertEquals(Optional.of("/"), table.findTarget("/legacy/page.php"));
+        assertTrue(table.findTarget("/other").isEmpty());
+    }
+
+    @Test
+    void hitsAreCountedAndKeptOnReload() {
+        final var table = new RedirectTable(Map.of("/exec/**", "/admin", "/members.php", "/members"), null);
+        table.findTarget("/exec/a");
+        table.findTarget("/exec/b");
+        table.findTarget("/unknown");
+        assertEquals(2, table.getHits("/exec/**"));
+        assertEquals(0, table.getHits("/members.php"));
+
+        final var reloaded = new RedirectTable(Map.of("/exec/**", "/admin/dashboard"), table);
+        reloaded.findTarget("/exec");
+        assertEquals(Map.of("/exec/**", 3L), reloaded.getHits());
+        assertEquals(0, reloaded.getHits("/members.php"));
+    }
+
+    @Test
+    void validPatterns() {
+        assertTrue(RedirectTable.isValidPattern("/members.php"));
+        assertTrue(RedirectTable.isValidPattern("/exec/*"));
+        assertTrue(RedirectTable.isValidPattern("/exec/**"));
+        assertFalse(RedirectTable.isValidPattern("exec/**"));
+        assertFalse(RedirectTable.isValidPattern("/exec/**/index.html"));
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.importer;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.komunumo.util.WorkbookUtil.findColumn;
+import static org.komunumo.util.WorkbookUtil.findString;
+import static org.komunumo.util.WorkbookUtil.getColumnHeaders;
+import static org.komunumo.util.WorkbookUtil.getLocalDateFromRow;
+import static org.komunumo.util.WorkbookUtil.getLongFromRow;
+import static org.komunumo.util.WorkbookUtil.getStringFromRow;
+
+class StreamingWorkbookTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private Path createWorkbook() throws IOException {
+        final var file = tempDir.resolve("test.xlsx");
+        try (var workbook = new XSSFWorkbook(); var outputStream = Files.newOutputStream(file)) {
+            final var summary = workbook.createSheet("Summary");
+            final var urlRow = summary.createRow(0);
+            urlRow.createCell(0).setCellValue("URL");
+            urlRow.createCell(1).setCellValue("https://www.bigmarker.com/jug/test");
+
+            final var members = workbook.createSheet("Members");
+            final var header = members.createRow(0);
+            header.createCell(0).setCellValue("Vorname");
+            header.createCell(2).setCellValue("PLZ");
+            header.createCell(3).setCellValue("Eintritt");
+            final var member = members.createRow(2);
+            member.createCell(0).setCellValue("Duke");
+            member.createCell(2).setCellValue(8000);
+            member.createCell(3).setCellValue(LocalDate.of(2020, 1, 31));
+            workbook.write(outputStream);
+        }
+        return file;
+    }
+
+    @Test
+    void readSheetByName() throws IOException {
+        final var workbook = new StreamingWorkbook(createWorkbook());
+        try (var rows = workbook.rows("summary")) {
+            assertEquals("https://www.bigmarker.com/jug/test", findString(rows, "url").orElseThrow());
+        }
+    }
+
+    @Test
+    void readSheetByIndex() throws IOException {
+        final var workbook = new StreamingWorkbook(createWorkbook());
+        try (var rows = workbook.rows(1)) {
+            final var list = rows.toList();
+            assertEquals(2, list.size());
+
+            final var columnHeaders = getColumnHeaders(list.get(0));
+            assertEquals(3, columnHeaders.size());
+            assertEquals(2, findColumn(columnHeaders, "PLZ").orElseThrow().index());
+
+            final var member = list.get(1);
+            assertEquals(2, member.index());
+            assertNull(member.getCell(1));
+            assertEquals("Duke", getStringFromRow(member, findColumn(columnHeaders, "Vorname").orElseThrow()).orElseThrow());
+            assertEquals(8000L, getLongFromRow(member, findColumn(columnHeaders, "PLZ").orElseThrow()).orElseThrow());
+            assertEquals(LocalDate.of(2020, 1, 31),
+                    getLocalDateFromRow(member, findColumn(columnHeaders, "Eintritt").orElseThrow()).orElseThrow());
+        }
+    }
+
+    @Test
+    void missingSheet() throws IOException {
+        final var workbook = new StreamingWorkbook(createWorkbook());
+        assertThrows(IOException.class, () -> workbook.rows("registered list"));
+        assertThrows(IOException.class, () -> workbook.rows(2));
+    }
+
+}
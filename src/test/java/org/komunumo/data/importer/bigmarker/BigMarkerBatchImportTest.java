@@ -0,0 +1,166 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.importer.bigmarker;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.komunumo.data.entity.Event;
+import org.komunumo.data.entity.ImportedRegistration;
+import org.komunumo.data.entity.Member;
+import org.komunumo.data.entity.RegistrationImportResult;
+import org.komunumo.data.importer.ImportProgress;
+import org.komunumo.data.service.DatabaseService;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BigMarkerBatchImportTest {
+
+    private static final String WEBINAR_A = "https://www.bigmarker.com/jug/a";
+    private static final String WEBINAR_B = "https://www.bigmarker.com/jug/b";
+
+    @TempDir
+    private Path tempDir;
+
+    private DatabaseService databaseService;
+    private Member duke;
+
+    @BeforeEach
+    void setUp() {
+        databaseService = mock(DatabaseService.class);
+        when(databaseService.getEventByWebinarUrl(anyString())).thenReturn(Optional.empty());
+        when(databaseService.getEventByWebinarUrl(WEBINAR_A)).thenReturn(Optional.of(event(1)));
+        when(databaseService.getEventByWebinarUrl(WEBINAR_B)).thenReturn(Optional.of(event(2)));
+        duke = new Member();
+        duke.setId(7L);
+        duke.setEmail("duke@java.net");
+        when(databaseService.getMembersByEmail(any())).thenReturn(Map.of("duke@java.net", duke));
+        when(databaseService.newMember()).thenAnswer(invocation -> new Member());
+        when(databaseService.storeImportedRegistrations(any())).thenReturn(new RegistrationImportResult(1, 3, 0));
+    }
+
+    private static Event event(final long id) {
+        final var event = new Event();
+        event.setId(id);
+        return event;
+    }
+
+    private Path createReport(final String fileName, final String webinarUrl, final String[]... registrations) throws IOException {
+        final var file = tempDir.resolve(fileName);
+        try (var workbook = new XSSFWorkbook(); var outputStream = Files.newOutputStream(file)) {
+            final var summary = workbook.createSheet("Summary");
+            final var urlRow = summary.createRow(0);
+            urlRow.createCell(0).setCellValue("URL");
+            urlRow.createCell(1).setCellValue(webinarUrl);
+
+            final var sheet = workbook.createSheet("Registered List");
+            final var totalRow = sheet.createRow(0);
+            totalRow.createCell(0).setCellValue("Total Registered");
+            totalRow.createCell(1).setCellValue(Integer.toString(registrations.length));
+            final var header = sheet.createRow(2);
+            final var titles = List.of("#", "First Name", "Last Name", "Email", "Registration Date",
+                    "Time Zone", "Unsubscribed", "Attended Live");
+            for (var column = 0; column < titles.size(); column++) {
+                header.createCell(column).setCellValue(titles.get(column));
+            }
+            for (var index = 0; index < registrations.length; index++) {
+                final var registration = registrations[index];
+                final var row = sheet.createRow(3 + index);
+                row.createCell(0).setCellValue(Integer.toString(index + 1));
+                row.createCell(1).setCellValue(registration[0]);
+                row.createCell(2).setCellValue(registration[1]);
+                row.createCell(3).setCellValue(registration[2]);
+                row.createCell(4).setCellValue(LocalDateTime.of(2021, 3, 1 + index, 12, 0));
+                row.createCell(5).setCellValue("Europe/Zurich");
+                row.createCell(6).setCellValue("No");
+                row.createCell(7).setCellValue(registration[3]);
+            }
+            workbook.write(outputStream);
+        }
+        return file;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mergeAttendeesOfAllReports() throws IOException, InterruptedException {
+        final var files = new LinkedHashMap<String, Path>();
+        files.put("a.xlsx", createReport("a.xlsx", WEBINAR_A,
+                new String[] {"Duke", "Java", "Duke@Java.net", "Yes"},
+                new String[] {"Jane", "Doe", "jane@komunumo.org", "No"},
+                new String[] {"Jane", "Doe", "JANE@komunumo.org", "Yes"}));
+        files.put("b.xlsx", createReport("b.xlsx", WEBINAR_B,
+                new String[] {"Jane", "Doe", "jane@komunumo.org", "No"}));
+        files.put("unknown.xlsx", createReport("unknown.xlsx", "https://www.bigmarker.com/jug/unknown",
+                new String[] {"John", "Doe", "john@komunumo.org", "Yes"}));
+        final var broken = tempDir.resolve("broken.xlsx");
+        Files.writeString(broken, "not a workbook");
+        files.put("broken.xlsx", broken);
+
+        final var summary = new BigMarkerBatchImport(files).importRegistrations(databaseService, ImportProgress.NONE);
+
+        final ArgumentCaptor<List<ImportedRegistration>> captor = ArgumentCaptor.forClass(List.class);
+        verify(databaseService).storeImportedRegistrations(captor.capture());
+        final var registrations = captor.getValue();
+        assertEquals(3, registrations.size());
+
+        final var dukeInA = registrations.get(0);
+        assertEquals(1, dukeInA.eventId());
+        assertSame(duke, dukeInA.member());
+        assertFalse(dukeInA.noShow());
+
+        final var janeInA = registrations.get(1);
+        final var janeInB = registrations.get(2);
+        assertEquals(1, janeInA.eventId());
+        assertEquals(2, janeInB.eventId());
+        assertSame(janeInA.member(), janeInB.member());
+        assertEquals("jane@komunumo.org", janeInA.member().getEmail());
+        assertFalse(janeInA.noShow());
+        assertTrue(janeInB.noShow());
+        assertEquals(LocalDate.of(2021, 3, 2), janeInA.date().toLocalDate());
+
+        assertEquals(4, summary.files());
+        assertEquals(2, summary.failedFiles());
+        assertEquals(4, summary.registrations());
+        assertEquals(1, summary.duplicates());
+        assertEquals(2, summary.errors().size());
+        assertTrue(summary.errors().get(0).startsWith("broken.xlsx: "));
+        assertTrue(summary.errors().get(1).startsWith("unknown.xlsx: "));
+    }
+
+}
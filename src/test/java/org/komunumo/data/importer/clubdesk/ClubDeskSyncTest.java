@@ -0,0 +1,158 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.importer.clubdesk;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.komunumo.data.entity.Member;
+import org.komunumo.data.importer.ImportProgress;
+import org.komunumo.data.service.CacheInvalidationBus;
+import org.komunumo.data.service.DatabaseService;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClubDeskSyncTest {
+
+    private static final LocalDate MEMBERSHIP_BEGIN = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    private Path tempDir;
+
+    private DatabaseService databaseService;
+    private Member jane;
+    private Member gone;
+
+    @BeforeEach
+    void setUp() {
+        databaseService = mock(DatabaseService.class);
+        final var duke = member("Duke", "duke@java.net", 1L, "Zürich");
+        jane = member("Jane", "Jane@Komunumo.org", 2L, "Bern");
+        gone = member("Gone", "gone@komunumo.org", 3L, "Basel");
+        final var visitor = member("Visitor", "visitor@komunumo.org", 0L, "Luzern");
+        visitor.setMembershipBegin(null);
+        when(databaseService.getAllMembersByEmail()).thenReturn(Map.of(
+                "duke@java.net", duke, "jane@komunumo.org", jane,
+                "gone@komunumo.org", gone, "visitor@komunumo.org", visitor));
+        when(databaseService.newMember()).thenAnswer(invocation -> member("", "", 0L, ""));
+    }
+
+    private static Member member(final String firstName, final String email, final long membershipId, final String city) {
+        final var member = new Member();
+        member.setMembershipBegin(MEMBERSHIP_BEGIN);
+        member.setMembershipId(membershipId);
+        member.setFirstName(firstName);
+        member.setLastName(firstName.isEmpty() ? "" : "Doe");
+        member.setCompany("");
+        member.setEmail(email);
+        member.setAddress("");
+        member.setZipCode("");
+        member.setCity(city);
+        member.setComment("");
+        return member;
+    }
+
+    private Path createExport() throws IOException {
+        final var file = tempDir.resolve("clubdesk.xlsx");
+        try (var workbook = new XSSFWorkbook(); var outputStream = Files.newOutputStream(file)) {
+            final var sheet = workbook.createSheet("Mitglieder");
+            final var titles = List.of("Eintritt", "Austritt", "Mitgliedernummer", "Vorname", "Nachname", "Firma",
+                    "E-Mail", "Adresse", "PLZ", "Ort", "Bemerkungen");
+            final var header = sheet.createRow(0);
+            for (var column = 0; column < titles.size(); column++) {
+                header.createCell(column).setCellValue(titles.get(column));
+            }
+            addRow(sheet.createRow(1), "Duke", "duke@java.net", 1, "Zürich");
+            addRow(sheet.createRow(2), "Jane", " jane@komunumo.org", 2, "Zürich");
+            addRow(sheet.createRow(3), "New", "new@komunumo.org", 4, "Bern");
+            addRow(sheet.createRow(4), "Nomail", "", 5, "Bern");
+            addRow(sheet.createRow(5), "Duke", "DUKE@java.net", 1, "Zürich");
+            workbook.write(outputStream);
+        }
+        return file;
+    }
+
+    private static void addRow(final Row row, final String firstName, final String email,
+                               final int membershipId, final String city) {
+        row.createCell(0).setCellValue(MEMBERSHIP_BEGIN);
+        row.createCell(2).setCellValue(membershipId);
+        row.createCell(3).setCellValue(firstName);
+        row.createCell(4).setCellValue("Doe");
+        row.createCell(6).setCellValue(email);
+        row.createCell(9).setCellValue(city);
+    }
+
+    @Test
+    void diffAndSync() throws IOException {
+        final var sync = new ClubDeskSync(new ClubDeskFile(createExport()));
+
+        final var changes = sync.diff(databaseService, ImportProgress.NONE);
+        assertEquals(5, changes.size());
+
+        assertEquals(ClubDeskChange.Type.UPDATED, changes.get(0).type());
+        assertSame(jane, changes.get(0).member());
+        assertEquals(List.of("Email: Jane@Komunumo.org → jane@komunumo.org", "City: Bern → Zürich"),
+                changes.get(0).differences());
+
+        assertEquals(ClubDeskChange.Type.NEW, changes.get(1).type());
+        assertEquals("new@komunumo.org", changes.get(1).member().getEmail());
+
+        assertEquals(ClubDeskChange.Type.INVALID, changes.get(2).type());
+        assertNull(changes.get(2).member());
+        assertEquals(ClubDeskChange.Type.INVALID, changes.get(3).type());
+        assertEquals(List.of("Duplicate email address"), changes.get(3).differences());
+
+        assertEquals(ClubDeskChange.Type.ENDED, changes.get(4).type());
+        assertSame(gone, changes.get(4).member());
+        assertEquals(LocalDate.now(), gone.getMembershipEnd());
+
+        assertEquals("1 new members, 1 updated members, 1 ended memberships, 2 invalid rows.",
+                ClubDeskSync.summarize(changes));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void syncStoresOnlyChangedMembers() throws IOException {
+        final var sync = new ClubDeskSync(new ClubDeskFile(createExport()));
+        final var cacheInvalidationBus = mock(CacheInvalidationBus.class);
+        sync.sync(databaseService, cacheInvalidationBus, ImportProgress.NONE);
+        final ArgumentCaptor<List<Member>> newMembers = ArgumentCaptor.forClass(List.class);
+        final ArgumentCaptor<List<Member>> changedMembers = ArgumentCaptor.forClass(List.class);
+        verify(databaseService).storeMembers(newMembers.capture(), changedMembers.capture());
+        assertEquals(1, newMembers.getValue().size());
+        assertEquals(List.of(jane, gone), changedMembers.getValue());
+        verify(cacheInvalidationBus).publish(CacheInvalidationBus.Topic.MEMBERS);
+    }
+
+}
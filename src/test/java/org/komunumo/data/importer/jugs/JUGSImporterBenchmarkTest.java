@@ -0,0 +1,186 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.importer.jugs;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.komunumo.ApplicationServiceInitListener;
+import org.komunumo.data.db.enums.EventType;
+import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.PublicContentCache;
+import org.komunumo.ui.KaribuTest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.table;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.komunumo.data.db.tables.Event.EVENT;
+import static org.komunumo.data.db.tables.EventKeyword.EVENT_KEYWORD;
+import static org.komunumo.data.db.tables.Keyword.KEYWORD;
+import static org.komunumo.data.db.tables.Member.MEMBER;
+import static org.komunumo.data.db.tables.Registration.REGISTRATION;
+
+/**
+ * Compares the row-by-row import of keywords and registrations from the old
+ * JUG Switzerland database with the bulk-load mode, on a synthetic dataset.
+ * Run it with {@code mvn test -Dtest=JUGSImporterBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JUGSImporterBenchmarkTest extends KaribuTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JUGSImporterBenchmarkTest.class);
+
+    private static final long FIRST_ID = 1_000_000;
+    private static final int EVENTS = 200;
+    private static final int KEYWORDS = 100;
+    private static final int KEYWORDS_PER_EVENT = 4;
+    private static final int MEMBERS = 5_000;
+    private static final int DELETED_MEMBERS = 1_000;
+    private static final int REGISTRATIONS_PER_EVENT = 100;
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    @Autowired
+    private PublicContentCache publicContentCache;
+
+    @Autowired
+    private ApplicationServiceInitListener applicationServiceInitListener;
+
+    @BeforeEach
+    void createLegacyDatabase() {
+        dsl.execute("CREATE TABLE eventlabels (id INT NOT NULL PRIMARY KEY, bezeichnung VARCHAR(255) NOT NULL)");
+        dsl.execute("CREATE TABLE eventsXeventlabels (events_id INT NOT NULL, eventlabels_id INT NOT NULL)");
+        dsl.execute("""
+                CREATE TABLE eventteiln (events_id INT NOT NULL, personen_id INT NOT NULL, aenderung VARCHAR(32),
+                    anmdatum VARCHAR(32), noshow VARCHAR(1), hashtag VARCHAR(32))""");
+
+        final var random = new Random(4711);
+        final var date = LocalDateTime.of(2015, 1, 1, 18, 0);
+        final var events = dsl.insertInto(EVENT, EVENT.ID, EVENT.TYPE, EVENT.TITLE, EVENT.DATE, EVENT.LOCATION, EVENT.PUBLISHED);
+        final var links = dsl.insertInto(table("eventsXeventlabels"),
+                field("events_id"), field("eventlabels_id"));
+        for (int event = 0; event < EVENTS; event++) {
+            events.values(FIRST_ID + event, EventType.Talk, "Event " + event, date.plusWeeks(event),
+                    event % 10 == 0 ? "Online" : "Bern", true);
+            for (int keyword = 0; keyword < KEYWORDS_PER_EVENT; keyword++) {
+                links.values(FIRST_ID + event, FIRST_ID + random.nextInt(KEYWORDS));
+            }
+        }
+        events.execute();
+        links.execute();
+
+        final var keywords = dsl.insertInto(table("eventlabels"),
+                field("id"), field("bezeichnung"));
+        for (int keyword = 0; keyword < KEYWORDS; keyword++) {
+            keywords.values(FIRST_ID + keyword, "Keyword " + keyword);
+        }
+        keywords.execute();
+
+        final var members = dsl.insertInto(MEMBER, MEMBER.ID, MEMBER.FIRST_NAME, MEMBER.LAST_NAME, MEMBER.EMAIL, MEMBER.REGISTRATION_DATE);
+        for (int member = DELETED_MEMBERS; member < MEMBERS; member++) {
+            members.values(FIRST_ID + member, "First " + member, "Last " + member,
+                    "benchmark%d@komunumo.org".formatted(member), date);
+        }
+        members.execute();
+
+        for (int event = 0; event < EVENTS; event++) {
+            final var registrations = dsl.insertInto(table("eventteiln"),
+                    field("events_id"), field("personen_id"),
+                    field("aenderung"), field("anmdatum"),
+                    field("noshow"), field("hashtag"));
+            final var registered = date.plusWeeks(event).minusDays(3);
+            for (int registration = 0; registration < REGISTRATIONS_PER_EVENT; registration++) {
+                registrations.values(FIRST_ID + event, FIRST_ID + random.nextInt(MEMBERS),
+                        registered.toString().replace('T', ' ') + ":00", registered.toLocalDate().toString(),
+                        registration % 7 == 0 ? "1" : "0", "hash%d-%d".formatted(event, registration));
+            }
+            registrations.execute();
+        }
+    }
+
+    @AfterEach
+    void dropLegacyDatabase() {
+        deleteImportedData();
+        dsl.deleteFrom(MEMBER).where(MEMBER.ID.ge(FIRST_ID)).execute();
+        dsl.deleteFrom(EVENT).where(EVENT.ID.ge(FIRST_ID)).execute();
+        dsl.execute("DROP TABLE IF EXISTS eventlabels, eventsXeventlabels, eventteiln");
+    }
+
+    private void deleteImportedData() {
+        dsl.deleteFrom(REGISTRATION).where(REGISTRATION.EVENT_ID.ge(FIRST_ID)).execute();
+        dsl.deleteFrom(EVENT_KEYWORD).where(EVENT_KEYWORD.EVENT_ID.ge(FIRST_ID)).execute();
+        dsl.deleteFrom(KEYWORD).where(KEYWORD.ID.ge(FIRST_ID)).execute();
+        dsl.deleteFrom(MEMBER).where(MEMBER.ID.between(FIRST_ID, FIRST_ID + DELETED_MEMBERS - 1)).execute();
+    }
+
+    @Test
+    void compareRowByRowWithBulkLoad() throws SQLException {
+        final var rowByRowDuration = runImport(false);
+        final var rowByRowResult = countImportedData();
+        deleteImportedData();
+
+        final var bulkLoadDuration = runImport(true);
+        final var bulkLoadResult = countImportedData();
+
+        LOGGER.info("Imported {} keywords, {} event keywords, {} registrations, {} deleted members",
+                bulkLoadResult.get(0), bulkLoadResult.get(1), bulkLoadResult.get(2), bulkLoadResult.get(3));
+        LOGGER.info("Row by row: {} ms, bulk load: {} ms",
+                rowByRowDuration.toMillis(), bulkLoadDuration.toMillis());
+        assertEquals(rowByRowResult, bulkLoadResult);
+        assertEquals(KEYWORDS, bulkLoadResult.get(0));
+    }
+
+    private Duration runImport(final boolean bulkLoad) throws SQLException {
+        final var importer = new JUGSImporter(dsl, databaseService, publicContentCache, applicationServiceInitListener, bulkLoad);
+        try (var connection = dataSource.getConnection()) {
+            final var start = System.nanoTime();
+            importer.importKeywords(connection);
+            importer.importRegistrations(connection);
+            return Duration.ofNanos(System.nanoTime() - start);
+        }
+    }
+
+    private List<Integer> countImportedData() {
+        return List.of(
+                dsl.fetchCount(KEYWORD, KEYWORD.ID.ge(FIRST_ID)),
+                dsl.fetchCount(EVENT_KEYWORD, EVENT_KEYWORD.EVENT_ID.ge(FIRST_ID)),
+                dsl.fetchCount(REGISTRATION, REGISTRATION.EVENT_ID.ge(FIRST_ID)),
+                dsl.fetchCount(MEMBER, MEMBER.ID.ge(FIRST_ID).and(MEMBER.ACCOUNT_DELETED.isTrue())));
+    }
+
+}
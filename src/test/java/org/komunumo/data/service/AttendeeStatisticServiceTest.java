@@ -0,0 +1,156 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.komunumo.data.db.enums.EventType;
+import org.komunumo.data.entity.NoShows;
+import org.komunumo.ui.KaribuTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.komunumo.data.db.tables.Event.EVENT;
+import static org.komunumo.data.db.tables.Member.MEMBER;
+import static org.komunumo.data.db.tables.Registration.REGISTRATION;
+
+class AttendeeStatisticServiceTest extends KaribuTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2019, 5, 15, 18, 0);
+    private static final int ATTENDEES = 3;
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Test
+    void missingSketchesAreCountedExactly() {
+        final var location = UUID.randomUUID().toString();
+        createEventWithAttendees(location);
+
+        assertEquals(ATTENDEES, count(location, List.of()));
+        databaseService.buildMissingAttendeeSketches();
+        assertEquals(ATTENDEES, count(location, List.of()));
+    }
+
+    @Test
+    void changedLocationInvalidatesSketches() {
+        final var location = UUID.randomUUID().toString();
+        final var newLocation = UUID.randomUUID().toString();
+        final var eventId = createEventWithAttendees(location);
+        databaseService.buildMissingAttendeeSketches();
+
+        dsl.update(EVENT).set(EVENT.LOCATION, newLocation).where(EVENT.ID.eq(eventId)).execute();
+        databaseService.invalidateAttendeeSketchesOfEvent(eventId);
+
+        assertEquals(0, count(location, List.of()));
+        assertEquals(ATTENDEES, count(newLocation, List.of()));
+    }
+
+    @Test
+    void changedTypeInvalidatesSketches() {
+        final var location = UUID.randomUUID().toString();
+        final var eventId = createEventWithAttendees(location);
+        databaseService.buildMissingAttendeeSketches();
+
+        dsl.update(EVENT).set(EVENT.TYPE, EventType.Workshop).where(EVENT.ID.eq(eventId)).execute();
+        databaseService.invalidateAttendeeSketchesOfEvent(eventId);
+
+        assertEquals(0, count(location, List.of(EventType.Talk)));
+        assertEquals(ATTENDEES, count(location, List.of(EventType.Workshop)));
+    }
+
+    @Test
+    void deletedEventInvalidatesSketches() {
+        final var location = UUID.randomUUID().toString();
+        final var eventId = createEventWithAttendees(location);
+        databaseService.buildMissingAttendeeSketches();
+        assertEquals(ATTENDEES, count(location, List.of()));
+
+        databaseService.deleteEvent(databaseService.getEvent(eventId).orElseThrow());
+
+        assertEquals(0, dsl.fetchCount(REGISTRATION, REGISTRATION.EVENT_ID.eq(eventId)));
+        assertEquals(0, count(location, List.of()));
+    }
+
+    @Test
+    void deletedMemberKeepsSketchesValid() {
+        final var location = UUID.randomUUID().toString();
+        final var eventId = createEventWithAttendees(location);
+        databaseService.buildMissingAttendeeSketches();
+
+        // deleted members are anonymized, their registrations are kept and still count
+        final var memberId = dsl.select(REGISTRATION.MEMBER_ID)
+                .from(REGISTRATION)
+                .where(REGISTRATION.EVENT_ID.eq(eventId))
+                .limit(1)
+                .fetchOne(REGISTRATION.MEMBER_ID);
+        databaseService.deleteMember(databaseService.getMember(memberId).orElseThrow());
+
+        assertTrue(dsl.fetchSingle(MEMBER, MEMBER.ID.eq(memberId)).getAccountDeleted());
+        assertEquals(ATTENDEES, count(location, List.of()));
+    }
+
+    private long count(final String location, final List<EventType> eventTypes) {
+        final var attendees = databaseService.countDistinctAttendees(LocalDate.of(2018, 1, 1), LocalDate.of(2020, 12, 31),
+                List.of(location), eventTypes, NoShows.INCLUDE);
+        assertTrue(attendees.estimated());
+        return attendees.count();
+    }
+
+    private long createEventWithAttendees(final String location) {
+        final var eventId = dsl.insertInto(EVENT)
+                .set(EVENT.TYPE, EventType.Talk)
+                .set(EVENT.TITLE, location)
+                .set(EVENT.DATE, DATE)
+                .set(EVENT.LOCATION, location)
+                .returning(EVENT.ID)
+                .fetchOne(EVENT.ID);
+        final var memberIds = new ArrayList<Long>();
+        for (var i = 0; i < ATTENDEES; i++) {
+            memberIds.add(dsl.insertInto(MEMBER)
+                    .set(MEMBER.FIRST_NAME, "Jane")
+                    .set(MEMBER.LAST_NAME, location)
+                    .set(MEMBER.EMAIL, i + "-" + location + "@komunumo.org")
+                    .set(MEMBER.REGISTRATION_DATE, DATE)
+                    .set(MEMBER.MEMBERSHIP_BEGIN, LocalDate.of(2019, 1, 1))
+                    .set(MEMBER.MEMBERSHIP_ID, 0L)
+                    .returning(MEMBER.ID)
+                    .fetchOne(MEMBER.ID));
+        }
+        memberIds.forEach(memberId -> dsl.insertInto(REGISTRATION)
+                .set(REGISTRATION.EVENT_ID, eventId)
+                .set(REGISTRATION.MEMBER_ID, memberId)
+                .set(REGISTRATION.DATE, DATE)
+                .execute());
+        // inserted directly, so the month has to be invalidated like the services do
+        databaseService.invalidateAttendeeSketch(DATE);
+        return eventId;
+    }
+
+}
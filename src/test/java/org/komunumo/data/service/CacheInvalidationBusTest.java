@@ -0,0 +1,97 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.komunumo.data.service.CacheInvalidationBus.Topic;
+import org.komunumo.ui.KaribuTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.mail.MailSender;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.komunumo.data.db.tables.Configuration.CONFIGURATION;
+
+class CacheInvalidationBusTest extends KaribuTest {
+
+    private static final String KEY = "website.copyright";
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Autowired
+    private MailSender mailSender;
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    /**
+     * Start a second node sharing the database with the node of the test context.
+     */
+    private AnnotationConfigApplicationContext startOtherNode() {
+        final var otherNode = new AnnotationConfigApplicationContext();
+        otherNode.registerBean(DSLContext.class, () -> dsl);
+        otherNode.registerBean(MailSender.class, () -> mailSender);
+        otherNode.register(DatabaseService.class, CacheInvalidationBus.class, PublicContentCache.class, PageRegistry.class);
+        otherNode.refresh();
+        return otherNode;
+    }
+
+    private void setCopyright(final String copyright) {
+        dsl.insertInto(CONFIGURATION, CONFIGURATION.CONF_KEY, CONFIGURATION.CONF_VALUE)
+                .values(KEY, copyright)
+                .onDuplicateKeyUpdate()
+                .set(CONFIGURATION.CONF_VALUE, copyright)
+                .execute();
+    }
+
+    @Test
+    void publishedTopicIsReloadedOnOtherNode() {
+        final var originalCopyright = databaseService.configuration().getWebsiteCopyright();
+        try (var otherNode = startOtherNode()) {
+            final var otherDatabaseService = otherNode.getBean(DatabaseService.class);
+            final var otherBus = otherNode.getBean(CacheInvalidationBus.class);
+            final var staleConfiguration = otherDatabaseService.configuration();
+
+            setCopyright("Cache Invalidation Test");
+            cacheInvalidationBus.publish(Topic.CONFIGURATION);
+            assertEquals("Cache Invalidation Test", databaseService.configuration().getWebsiteCopyright());
+            assertSame(staleConfiguration, otherDatabaseService.configuration());
+
+            otherBus.poll();
+            assertEquals("Cache Invalidation Test", otherDatabaseService.configuration().getWebsiteCopyright());
+
+            // nothing changed, or only other topics changed: nothing to reload
+            final var currentConfiguration = otherDatabaseService.configuration();
+            otherBus.poll();
+            cacheInvalidationBus.publish(Topic.NEWS);
+            otherBus.poll();
+            assertSame(currentConfiguration, otherDatabaseService.configuration());
+        } finally {
+            setCopyright(originalCopyright);
+            cacheInvalidationBus.publish(Topic.CONFIGURATION);
+        }
+    }
+
+}
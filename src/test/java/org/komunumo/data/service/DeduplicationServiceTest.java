@@ -0,0 +1,201 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.komunumo.data.db.enums.EventType;
+import org.komunumo.data.entity.DuplicateCluster;
+import org.komunumo.data.entity.DuplicateNormalization;
+import org.komunumo.ui.KaribuTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.komunumo.data.db.tables.Event.EVENT;
+import static org.komunumo.data.db.tables.EventOrganizer.EVENT_ORGANIZER;
+import static org.komunumo.data.db.tables.EventSpeaker.EVENT_SPEAKER;
+import static org.komunumo.data.db.tables.Member.MEMBER;
+import static org.komunumo.data.db.tables.Registration.REGISTRATION;
+import static org.komunumo.data.db.tables.Speaker.SPEAKER;
+
+class DeduplicationServiceTest extends KaribuTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2020, 3, 15, 18, 0);
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Test
+    void normalize() {
+        assertEquals(" Jane@Komunumo.org", DuplicateNormalization.EXACT.normalize(" Jane@Komunumo.org"));
+        assertEquals("jane@komunumo.org", DuplicateNormalization.IGNORE_CASE.normalize(" Jane@Komunumo.org "));
+        assertEquals("muller", DuplicateNormalization.LENIENT.normalize(" Mül ler"));
+    }
+
+    @Test
+    void mergeDuplicateMembers() {
+        final var tag = UUID.randomUUID().toString();
+        final var email = tag + "@komunumo.org";
+        final var event1 = createEvent(tag + " 1");
+        final var event2 = createEvent(tag + " 2");
+        final var event3 = createEvent(tag + " 3");
+
+        final var survivor = createMember("Jane", "", email, DATE, 0L);
+        final var duplicate1 = createMember("Jane", "Doe", email.toUpperCase(), DATE.minusYears(1), 42L);
+        final var duplicate2 = createMember("", "", " " + email, DATE, 0L);
+        register(event1, survivor, false);
+        register(event1, duplicate1, true);
+        register(event2, duplicate1, true);
+        register(event2, duplicate2, false);
+        register(event3, duplicate2, false);
+        dsl.insertInto(EVENT_ORGANIZER, EVENT_ORGANIZER.EVENT_ID, EVENT_ORGANIZER.MEMBER_ID)
+                .values(event1, survivor)
+                .values(event1, duplicate2)
+                .execute();
+
+        assertTrue(findCluster(databaseService.findDuplicateMembers(DuplicateNormalization.EXACT), email).isEmpty());
+        final var clusters = findCluster(databaseService.findDuplicateMembers(DuplicateNormalization.IGNORE_CASE), email);
+        assertEquals(1, clusters.size());
+        assertEquals(survivor, clusters.get(0).survivorId());
+        assertEquals(List.of(duplicate1, duplicate2), clusters.get(0).duplicateIds());
+
+        assertEquals(2, databaseService.mergeDuplicateMembers(clusters));
+        assertEquals(0, databaseService.mergeDuplicateMembers(clusters));
+
+        assertEquals(1, dsl.fetchCount(MEMBER, MEMBER.ID.in(survivor, duplicate1, duplicate2)));
+        final var member = dsl.fetchSingle(MEMBER, MEMBER.ID.eq(survivor));
+        assertEquals("Jane", member.getFirstName());
+        assertEquals("Doe", member.getLastName());
+        assertEquals(email, member.getEmail());
+        assertEquals(DATE.minusYears(1), member.getRegistrationDate());
+        assertEquals(42L, member.getMembershipId());
+
+        final var registrations = dsl.selectFrom(REGISTRATION)
+                .where(REGISTRATION.EVENT_ID.in(event1, event2, event3))
+                .orderBy(REGISTRATION.EVENT_ID)
+                .fetch();
+        assertEquals(3, registrations.size());
+        registrations.forEach(registration -> assertEquals(survivor, registration.getMemberId()));
+        assertFalse(registrations.get(0).getNoShow());
+        assertTrue(registrations.get(1).getNoShow());
+        assertFalse(registrations.get(2).getNoShow());
+        assertEquals(1, dsl.fetchCount(EVENT_ORGANIZER, EVENT_ORGANIZER.EVENT_ID.eq(event1)));
+    }
+
+    @Test
+    void changedKeyIsNotMerged() {
+        final var tag = UUID.randomUUID().toString();
+        final var email = tag + "@komunumo.org";
+        final var survivor = createMember("Jane", "Doe", email, DATE, 0L);
+        final var duplicate = createMember("Jane", "Doe", email, DATE, 0L);
+        final var clusters = findCluster(databaseService.findDuplicateMembers(DuplicateNormalization.EXACT), email);
+        assertEquals(1, clusters.size());
+
+        dsl.update(MEMBER)
+                .set(MEMBER.EMAIL, "other-" + email)
+                .where(MEMBER.ID.eq(duplicate))
+                .execute();
+        assertEquals(0, databaseService.mergeDuplicateMembers(clusters));
+        assertEquals(2, dsl.fetchCount(MEMBER, MEMBER.ID.in(survivor, duplicate)));
+    }
+
+    @Test
+    void mergeDuplicateSpeakers() {
+        final var tag = UUID.randomUUID().toString();
+        final var event1 = createEvent(tag + " 1");
+        final var event2 = createEvent(tag + " 2");
+
+        final var older = createSpeaker("Jürg", tag, "Komunumo");
+        final var newer = createSpeaker("jurg", " " + tag, "");
+        dsl.insertInto(EVENT_SPEAKER, EVENT_SPEAKER.EVENT_ID, EVENT_SPEAKER.SPEAKER_ID)
+                .values(event1, older)
+                .values(event1, newer)
+                .values(event2, older)
+                .execute();
+
+        assertTrue(findCluster(databaseService.findDuplicateSpeakers(DuplicateNormalization.IGNORE_CASE), tag).isEmpty());
+        final var clusters = findCluster(databaseService.findDuplicateSpeakers(DuplicateNormalization.LENIENT), tag);
+        assertEquals(1, clusters.size());
+        assertEquals(newer, clusters.get(0).survivorId());
+
+        assertEquals(1, databaseService.mergeDuplicateSpeakers(clusters));
+        assertEquals(0, dsl.fetchCount(SPEAKER, SPEAKER.ID.eq(older)));
+        assertEquals("Komunumo", dsl.fetchSingle(SPEAKER, SPEAKER.ID.eq(newer)).getCompany());
+        assertEquals(2, dsl.fetchCount(EVENT_SPEAKER, EVENT_SPEAKER.SPEAKER_ID.eq(newer)));
+        assertEquals(2, dsl.fetchCount(EVENT_SPEAKER, EVENT_SPEAKER.EVENT_ID.in(event1, event2)));
+    }
+
+    private static List<DuplicateCluster> findCluster(final List<DuplicateCluster> clusters, final String tag) {
+        return clusters.stream()
+                .filter(cluster -> cluster.key().contains(tag))
+                .toList();
+    }
+
+    private long createEvent(final String title) {
+        return dsl.insertInto(EVENT)
+                .set(EVENT.TYPE, EventType.Talk)
+                .set(EVENT.TITLE, title)
+                .set(EVENT.DATE, DATE)
+                .set(EVENT.LOCATION, "Bern")
+                .returning(EVENT.ID)
+                .fetchOne(EVENT.ID);
+    }
+
+    private long createMember(final String firstName, final String lastName, final String email,
+                              final LocalDateTime registrationDate, final long membershipId) {
+        return dsl.insertInto(MEMBER)
+                .set(MEMBER.FIRST_NAME, firstName)
+                .set(MEMBER.LAST_NAME, lastName)
+                .set(MEMBER.EMAIL, email)
+                .set(MEMBER.REGISTRATION_DATE, registrationDate)
+                .set(MEMBER.MEMBERSHIP_BEGIN, LocalDate.of(2020, 1, 1))
+                .set(MEMBER.MEMBERSHIP_ID, membershipId)
+                .returning(MEMBER.ID)
+                .fetchOne(MEMBER.ID);
+    }
+
+    private long createSpeaker(final String firstName, final String lastName, final String company) {
+        return dsl.insertInto(SPEAKER)
+                .set(SPEAKER.FIRST_NAME, firstName)
+                .set(SPEAKER.LAST_NAME, lastName)
+                .set(SPEAKER.COMPANY, company)
+                .returning(SPEAKER.ID)
+                .fetchOne(SPEAKER.ID);
+    }
+
+    private void register(final long eventId, final long memberId, final boolean noShow) {
+        dsl.insertInto(REGISTRATION)
+                .set(REGISTRATION.EVENT_ID, eventId)
+                .set(REGISTRATION.MEMBER_ID, memberId)
+                .set(REGISTRATION.DATE, DATE)
+                .set(REGISTRATION.NO_SHOW, noShow)
+                .execute();
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.komunumo.data.db.enums.EventType;
+import org.komunumo.data.entity.Event;
+import org.komunumo.ui.KaribuTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.komunumo.data.db.tables.Event.EVENT;
+
+class EventServiceTest extends KaribuTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(1971, 6, 1, 18, 0);
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Test
+    void pastEventSummariesWithoutLocationOnPageBoundary() {
+        final var bern = createEvent(DATE, "Bern");
+        final var withoutLocation1 = createEvent(DATE, null);
+        final var emptyLocation = createEvent(DATE, "");
+        final var withoutLocation2 = createEvent(DATE, null);
+        final var zurich = createEvent(DATE, "Zürich");
+        final var older = createEvent(DATE.minusDays(1), null);
+
+        final var expected = List.of(withoutLocation1, emptyLocation, withoutLocation2, bern, zurich, older);
+        for (var limit = 1; limit <= expected.size(); limit++) {
+            assertEquals(expected, fetchAllPages(limit), "page size " + limit);
+        }
+    }
+
+    private List<Long> fetchAllPages(final int limit) {
+        final var ids = new ArrayList<Long>();
+        Event after = null;
+        List<Event> page;
+        do {
+            page = databaseService.pastEventSummaries(Year.of(DATE.getYear()), after, limit);
+            page.forEach(event -> ids.add(event.getId()));
+            after = page.isEmpty() ? null : page.get(page.size() - 1);
+        } while (page.size() == limit);
+        return ids;
+    }
+
+    private long createEvent(final LocalDateTime date, final String location) {
+        return dsl.insertInto(EVENT)
+                .set(EVENT.TYPE, EventType.Talk)
+                .set(EVENT.TITLE, String.valueOf(location))
+                .set(EVENT.DATE, date)
+                .set(EVENT.LOCATION, location)
+                .set(EVENT.PUBLISHED, true)
+                .returning(EVENT.ID)
+                .fetchOne(EVENT.ID);
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.komunumo.configuration.Configuration;
+import org.komunumo.data.db.enums.EventType;
+import org.komunumo.data.db.enums.PageParent;
+import org.komunumo.data.entity.Event;
+import org.komunumo.data.entity.NewsEntity;
+import org.komunumo.data.entity.PageEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FeedServiceTest {
+
+    private DatabaseService databaseService;
+    private PublicContentCache publicContentCache;
+    private PageRegistry pageRegistry;
+    private FeedService feedService;
+
+    @BeforeEach
+    void setUp() {
+        databaseService = mock(DatabaseService.class);
+        when(databaseService.configuration()).thenReturn(new Configuration(Map.of(
+                "website.url", "https://www.example.org",
+                "website.name", "Example User Group")));
+        when(databaseService.getPublishedEventSummaries()).thenReturn(List.of(
+                createEvent(1L, "Modern Java; records, sealed classes", "Zürich"),
+                createEvent(2L, "Spring Boot", "Bern")));
+        publicContentCache = mock(PublicContentCache.class);
+        pageRegistry = mock(PageRegistry.class);
+        when(pageRegistry.getAllPages()).thenReturn(List.of());
+        feedService = new FeedService(databaseService, publicContentCache, pageRegistry);
+    }
+
+    @Test
+    void eventCalendar() {
+        final var feed = feedService.getEventCalendar();
+        final var calendar = new String(feed.content(), StandardCharsets.UTF_8);
+        assertTrue(calendar.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(calendar.endsWith("END:VCALENDAR\r\n"));
+        assertTrue(calendar.contains("UID:event-1@example.org\r\n"));
+        assertTrue(calendar.contains("SUMMARY:Modern Java\\; records\\, sealed classes\r\n"));
+        assertTrue(calendar.contains("SUMMARY:Spring Boot\r\n"));
+        assertTrue(calendar.contains("URL:https://www.example.org/event/bern/"));
+    }
+
+    @Test
+    void eventCalendarOfLocation() {
+        final var feed = feedService.getEventCalendar("zuerich").orElseThrow();
+        final var calendar = new String(feed.content(), StandardCharsets.UTF_8);
+        assertTrue(calendar.contains("SUMMARY:Modern Java"));
+        assertFalse(calendar.contains("SUMMARY:Spring Boot"));
+        assertTrue(feedService.getEventCalendar("basel").isEmpty());
+    }
+
+    @Test
+    void eventCalendarIsCached() {
+        final var feed = feedService.getEventCalendar();
+        assertSame(feed, feedService.getEventCalendar());
+        verify(databaseService, times(1)).getPublishedEventSummaries();
+    }
+
+    @Test
+    void newsFeedIsOnlyRenderedWhenChanged() {
+        final var news = new NewsEntity(1L, LocalDateTime.now(), "Hello & welcome", "", "<p>Teaser</p>", "", null, null);
+        when(publicContentCache.getVisibleNews()).thenReturn(List.of(news));
+        final var feed = feedService.getNewsFeed();
+        final var rss = new String(feed.content(), StandardCharsets.UTF_8);
+        assertTrue(rss.contains("<title>Hello &amp; welcome</title>"));
+        assertTrue(rss.contains("<link>https://www.example.org/news/1</link>"));
+
+        // a new snapshot with the same content must not render the feed again
+        when(publicContentCache.getVisibleNews()).thenReturn(new ArrayList<>(List.of(news)));
+        assertSame(feed, feedService.getNewsFeed());
+
+        final var otherNews = new NewsEntity(2L, LocalDateTime.now(), "Other news", "", "", "", null, null);
+        when(publicContentCache.getVisibleNews()).thenReturn(List.of(otherNews, news));
+        assertNotSame(feed, feedService.getNewsFeed());
+    }
+
+    @Test
+    void newsFeedIsRenderedWhenContentHashCollides() {
+        final var date = LocalDateTime.now();
+        // "Aa" and "BB" have the same String.hashCode()
+        when(publicContentCache.getVisibleNews()).thenReturn(List.of(new NewsEntity(1L, date, "Aa", "", "", "", null, null)));
+        final var feed = feedService.getNewsFeed();
+        when(publicContentCache.getVisibleNews()).thenReturn(List.of(new NewsEntity(1L, date, "BB", "", "", "", null, null)));
+        final var rss = new String(feedService.getNewsFeed().content(), StandardCharsets.UTF_8);
+        assertNotSame(feed, feedService.getNewsFeed());
+        assertTrue(rss.contains("<title>BB</title>"));
+    }
+
+    @Test
+    void sitemap() {
+        final var page = new PageEntity(1L, PageParent.Members, "about", "members/about", "About", "<div></div>");
+        when(publicContentCache.getVisibleNews()).thenReturn(List.of());
+        when(pageRegistry.getAllPages()).thenReturn(List.of(page));
+        final var sitemap = new String(feedService.getSitemap().content(), StandardCharsets.UTF_8);
+        assertTrue(sitemap.contains("<loc>https://www.example.org/events</loc>"));
+        assertTrue(sitemap.contains("<loc>https://www.example.org/members/about</loc>"));
+        assertTrue(sitemap.contains("/event/zuerich/"));
+    }
+
+    @Test
+    void gzipContent() throws IOException {
+        final var feed = feedService.getEventCalendar();
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(feed.gzipContent()))) {
+            assertArrayEquals(feed.content(), gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    void foldLongCalendarLines() {
+        final var calendar = new StringBuilder();
+        FeedService.appendCalendarLine(calendar, "DESCRIPTION:" + "ä".repeat(100));
+        for (final var line : calendar.toString().split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75);
+        }
+        assertTrue(calendar.toString().contains("\r\n "));
+    }
+
+    private static Event createEvent(final long id, final String title, final String location) {
+        final var event = new Event();
+        event.setId(id);
+        event.setType(EventType.Talk);
+        event.setTitle(title);
+        event.setSubtitle("");
+        event.setLocation(location);
+        event.setRoom("");
+        event.setDate(LocalDateTime.now().plusDays(id));
+        event.setDuration(LocalTime.of(2, 0));
+        event.setEventUrl("event-" + id);
+        return event;
+    }
+
+}
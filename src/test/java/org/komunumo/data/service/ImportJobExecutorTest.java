@@ -0,0 +1,115 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.komunumo.data.db.enums.ImportJobStatus;
+import org.komunumo.data.entity.ImportJobEntity;
+import org.komunumo.data.importer.ImportSource;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImportJobExecutorTest {
+
+    private DatabaseService databaseService;
+    private ImportJobExecutor importJobExecutor;
+
+    @BeforeEach
+    void setUp() {
+        databaseService = mock(DatabaseService.class);
+        importJobExecutor = new ImportJobExecutor(databaseService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importJobExecutor.shutdown();
+    }
+
+    private void createJob(final long id) {
+        final var job = new ImportJobEntity(id, ImportSource.CLUBDESK.name(), "Test", ImportJobStatus.QUEUED,
+                null, 0, 0, null, LocalDateTime.now(), null, null);
+        when(databaseService.createImportJob(eq(ImportSource.CLUBDESK.name()), anyString(), any()))
+                .thenReturn(Optional.of(job));
+    }
+
+    @Test
+    void successfulImport() {
+        createJob(1);
+        importJobExecutor.submit(ImportSource.CLUBDESK, "Test", progress -> {
+            progress.setTotal(2);
+            progress.processed();
+            progress.failed("Invalid email address");
+        });
+        verify(databaseService, timeout(5_000)).finishImportJob(eq(1L), eq(ImportJobStatus.SUCCEEDED), anyString());
+        verify(databaseService).startImportJob(1);
+        verify(databaseService).updateImportJobProgress(1, 2, 1, 1, "Invalid email address");
+    }
+
+    @Test
+    void failedImport() {
+        createJob(2);
+        importJobExecutor.submit(ImportSource.CLUBDESK, "Test", progress -> {
+            throw new IllegalArgumentException("Broken file");
+        });
+        verify(databaseService, timeout(5_000)).finishImportJob(2, ImportJobStatus.FAILED, "Broken file");
+    }
+
+    @Test
+    void cancelledImport() throws InterruptedException {
+        createJob(3);
+        final var started = new CountDownLatch(1);
+        importJobExecutor.submit(ImportSource.CLUBDESK, "Test", progress -> {
+            started.countDown();
+            while (true) {
+                progress.checkCancelled();
+                Thread.sleep(10);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        importJobExecutor.cancel(3);
+        verify(databaseService).requestImportJobCancellation(3);
+        verify(databaseService, timeout(5_000)).finishImportJob(eq(3L), eq(ImportJobStatus.CANCELLED), anyString());
+    }
+
+    @Test
+    void onlyOneImportPerSource() {
+        when(databaseService.createImportJob(anyString(), anyString(), any())).thenReturn(Optional.empty());
+        assertThrows(IllegalStateException.class,
+                () -> importJobExecutor.submit(ImportSource.CLUBDESK, "Test", progress -> { }));
+        verify(databaseService, never()).startImportJob(anyLong());
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.komunumo.ui.KaribuTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.komunumo.data.db.tables.Member.MEMBER;
+
+class MemberServiceTest extends KaribuTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2022, 4, 1, 12, 0);
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Test
+    void storeMembersUpdatesOnlyChangedColumns() {
+        final var tag = UUID.randomUUID().toString();
+        final var email = tag + "@komunumo.org";
+        final var memberId = dsl.insertInto(MEMBER)
+                .set(MEMBER.FIRST_NAME, "Jane")
+                .set(MEMBER.LAST_NAME, "Doe")
+                .set(MEMBER.EMAIL, email)
+                .set(MEMBER.CITY, "Bern")
+                .set(MEMBER.COMPANY, "Komunumo")
+                .set(MEMBER.REGISTRATION_DATE, DATE)
+                .set(MEMBER.MEMBERSHIP_BEGIN, LocalDate.of(2022, 1, 1))
+                .set(MEMBER.MEMBERSHIP_ID, 0L)
+                .returning(MEMBER.ID)
+                .fetchOne(MEMBER.ID);
+
+        final var member = databaseService.getAllMembersByEmail().get(email);
+        assertEquals(memberId, member.getId());
+        member.setCity("Zürich");
+
+        // changed by somebody else after the members were loaded
+        dsl.update(MEMBER).set(MEMBER.COMPANY, "Other").where(MEMBER.ID.eq(memberId)).execute();
+
+        final var newMember = databaseService.newMember();
+        newMember.setFirstName("John");
+        newMember.setLastName("Doe");
+        newMember.setEmail("new-" + email);
+        databaseService.storeMembers(List.of(newMember), List.of(member));
+
+        final var stored = dsl.fetchSingle(MEMBER, MEMBER.ID.eq(memberId));
+        assertEquals("Zürich", stored.getCity());
+        assertEquals("Other", stored.getCompany());
+        assertEquals("Jane", stored.getFirstName());
+        assertEquals(1, dsl.fetchCount(MEMBER, MEMBER.EMAIL.eq("new-" + email)));
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.junit.jupiter.api.Test;
+import org.komunumo.data.db.enums.PageParent;
+import org.komunumo.data.entity.PageEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PageRegistryTest {
+
+    private static final PageEntity ABOUT = new PageEntity(1L, PageParent.Members, "about", "members/about",
+            "About", "<div>About us</div>");
+    private static final PageEntity PARTNERS = new PageEntity(2L, PageParent.Sponsors, "partners", "sponsors/partners",
+            "Partners", "<div>Our partners</div>");
+    private static final PageEntity STATUTES = new PageEntity(3L, PageParent.Members, "statutes", "members/statutes",
+            "Statutes", "<div>Statutes</div>");
+
+    @Test
+    void pagesAreLoadedOnce() {
+        final var databaseService = mock(DatabaseService.class);
+        when(databaseService.getAllPages()).thenAnswer(invocation -> Stream.of(ABOUT, PARTNERS, STATUTES));
+        final var pageRegistry = new PageRegistry(databaseService, mock(CacheInvalidationBus.class));
+
+        assertEquals(List.of(ABOUT, STATUTES), pageRegistry.getPages(PageParent.Members));
+        assertEquals(List.of(PARTNERS), pageRegistry.getPages(PageParent.Sponsors));
+        assertSame(PARTNERS, pageRegistry.getPage("sponsors/partners").orElseThrow());
+        assertTrue(pageRegistry.getPage("sponsors/unknown").isEmpty());
+        verify(databaseService, times(1)).getAllPages();
+    }
+
+    @Test
+    void reloadNotifiesListeners() {
+        final var databaseService = mock(DatabaseService.class);
+        when(databaseService.getAllPages()).thenAnswer(invocation -> Stream.of(ABOUT));
+        final var cacheInvalidationBus = new CacheInvalidationBus(databaseService);
+        final var pageRegistry = new PageRegistry(databaseService, cacheInvalidationBus);
+        final var notifications = new ArrayList<List<PageEntity>>();
+        pageRegistry.addChangeListener(notifications::add);
+        assertEquals(List.of(List.of(ABOUT)), notifications);
+
+        when(databaseService.getAllPages()).thenAnswer(invocation -> Stream.of(ABOUT, PARTNERS));
+        pageRegistry.reload();
+        assertEquals(List.of(List.of(ABOUT), List.of(ABOUT, PARTNERS)), notifications);
+        assertTrue(pageRegistry.getPages(PageParent.Members).contains(ABOUT));
+        assertSame(PARTNERS, pageRegistry.getPage("sponsors/partners").orElseThrow());
+        verify(databaseService).incrementCacheVersion("PAGES");
+        cacheInvalidationBus.shutdown();
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.komunumo.data.db.enums.EventType;
+import org.komunumo.data.entity.ImportedRegistration;
+import org.komunumo.data.entity.RegistrationImportResult;
+import org.komunumo.ui.KaribuTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.komunumo.data.db.tables.Event.EVENT;
+import static org.komunumo.data.db.tables.Member.MEMBER;
+import static org.komunumo.data.db.tables.Registration.REGISTRATION;
+
+class RegistrationServiceTest extends KaribuTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2021, 9, 15, 18, 0);
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Test
+    void storeImportedRegistrations() {
+        final var tag = UUID.randomUUID().toString();
+        final var event1 = createEvent(tag + " 1");
+        final var event2 = createEvent(tag + " 2");
+        final var attendee = createMember(tag + "-attendee@komunumo.org");
+        final var noShow = createMember(tag + "-no-show@komunumo.org");
+        register(event1, attendee, false);
+        register(event1, noShow, true);
+
+        final var newMember = databaseService.newMember();
+        newMember.setFirstName("Jane");
+        newMember.setLastName("Doe");
+        newMember.setEmail(tag + "-new@komunumo.org");
+        final var existingAttendee = databaseService.getMember(attendee).orElseThrow();
+        final var existingNoShow = databaseService.getMember(noShow).orElseThrow();
+
+        final var result = databaseService.storeImportedRegistrations(List.of(
+                new ImportedRegistration(event1, existingAttendee, DATE, "BigMarker", true),
+                new ImportedRegistration(event1, existingNoShow, DATE, "BigMarker", true),
+                new ImportedRegistration(event1, newMember, DATE, "BigMarker", false),
+                new ImportedRegistration(event2, newMember, DATE, "BigMarker", false),
+                new ImportedRegistration(event2, existingAttendee, DATE, "BigMarker", false)));
+
+        assertEquals(new RegistrationImportResult(1, 3, 1), result);
+        assertNotNull(newMember.getId());
+        assertEquals(1, dsl.fetchCount(MEMBER, MEMBER.EMAIL.eq(tag + "-new@komunumo.org")));
+        assertTrue(isNoShow(event1, attendee));
+        assertTrue(isNoShow(event1, noShow));
+        assertFalse(isNoShow(event1, newMember.getId()));
+        assertFalse(isNoShow(event2, newMember.getId()));
+        assertFalse(isNoShow(event2, attendee));
+        assertEquals(3, dsl.fetchCount(REGISTRATION, REGISTRATION.EVENT_ID.eq(event1)));
+        assertEquals(2, dsl.fetchCount(REGISTRATION, REGISTRATION.EVENT_ID.eq(event2)));
+        assertEquals("BigMarker", dsl.fetchSingle(REGISTRATION,
+                REGISTRATION.EVENT_ID.eq(event2).and(REGISTRATION.MEMBER_ID.eq(attendee))).getSource());
+    }
+
+    private boolean isNoShow(final long eventId, final long memberId) {
+        return dsl.fetchSingle(REGISTRATION, REGISTRATION.EVENT_ID.eq(eventId).and(REGISTRATION.MEMBER_ID.eq(memberId))).getNoShow();
+    }
+
+    private long createEvent(final String title) {
+        return dsl.insertInto(EVENT)
+                .set(EVENT.TYPE, EventType.Talk)
+                .set(EVENT.TITLE, title)
+                .set(EVENT.DATE, DATE)
+                .set(EVENT.LOCATION, "Bern")
+                .returning(EVENT.ID)
+                .fetchOne(EVENT.ID);
+    }
+
+    private long createMember(final String email) {
+        return dsl.insertInto(MEMBER)
+                .set(MEMBER.FIRST_NAME, "Jane")
+                .set(MEMBER.LAST_NAME, "Doe")
+                .set(MEMBER.EMAIL, email)
+                .set(MEMBER.REGISTRATION_DATE, DATE)
+                .set(MEMBER.MEMBERSHIP_BEGIN, LocalDate.of(2021, 1, 1))
+                .set(MEMBER.MEMBERSHIP_ID, 0L)
+                .returning(MEMBER.ID)
+                .fetchOne(MEMBER.ID);
+    }
+
+    private void register(final long eventId, final long memberId, final boolean noShow) {
+        dsl.insertInto(REGISTRATION)
+                .set(REGISTRATION.EVENT_ID, eventId)
+                .set(REGISTRATION.MEMBER_ID, memberId)
+                .set(REGISTRATION.DATE, DATE)
+                .set(REGISTRATION.NO_SHOW, noShow)
+                .execute();
+    }
+
+}
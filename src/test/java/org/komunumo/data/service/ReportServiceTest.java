@@ -0,0 +1,98 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.komunumo.data.db.enums.EventType;
+import org.komunumo.data.entity.MonthlyVisitors;
+import org.komunumo.data.entity.reports.EventReportEntry;
+import org.komunumo.data.entity.reports.NoShowReportEntry;
+import org.komunumo.data.entity.reports.RegistrationReportEntry;
+import org.komunumo.data.entity.reports.RegistrationSourceReportEntry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReportServiceTest {
+
+    private static final Year YEAR = Year.of(2022);
+    private static final LocalDateTime EVENT_DATE = LocalDateTime.of(2022, 3, 15, 18, 0);
+
+    @Test
+    void writeStatisticsReport() throws IOException {
+        final var databaseService = mock(DatabaseService.class);
+        when(databaseService.calculateMonthlyVisitorsByYear(YEAR.minusYears(1))).thenReturn(List.of());
+        when(databaseService.calculateMonthlyVisitorsByYear(YEAR)).thenReturn(List.of(
+                new MonthlyVisitors("Bern", 0, 0, 40, 0, 0, 0, 0, 0, 0, 0, 25, 0)));
+        when(databaseService.getEventReport(YEAR.minusYears(1), YEAR)).thenReturn(Stream.of(
+                new EventReportEntry(EVENT_DATE, EventType.Talk, "Komunumo", "Bern", 40, 10)));
+        when(databaseService.getNoShowReport(YEAR.minusYears(1), YEAR)).thenReturn(Stream.of(
+                new NoShowReportEntry(YEAR, "Bern", 40, 10)));
+        when(databaseService.getRegistrationSourceReport(YEAR.minusYears(1), YEAR)).thenReturn(Stream.of(
+                new RegistrationSourceReportEntry(YEAR, "BigMarker", 40)));
+        when(databaseService.getRegistrationReport(YEAR.minusYears(1), YEAR)).thenReturn(Stream.of(
+                new RegistrationReportEntry(EVENT_DATE, "Komunumo", "Bern", 42L, EVENT_DATE.minusDays(7), "BigMarker", true)));
+
+        final var outputStream = new ByteArrayOutputStream();
+        new ReportService(databaseService).writeStatisticsReport(YEAR.minusYears(1), YEAR, outputStream);
+
+        try (var workbook = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            assertEquals(5, workbook.getNumberOfSheets());
+
+            final var monthlyVisitors = workbook.getSheet("Monthly visitors");
+            assertEquals("Total", monthlyVisitors.getRow(0).getCell(14).getStringCellValue());
+            assertEquals(1, monthlyVisitors.getLastRowNum());
+            assertEquals(2022, monthlyVisitors.getRow(1).getCell(0).getNumericCellValue());
+            assertEquals("Bern", monthlyVisitors.getRow(1).getCell(1).getStringCellValue());
+            assertEquals(40, monthlyVisitors.getRow(1).getCell(4).getNumericCellValue());
+            assertEquals(65, monthlyVisitors.getRow(1).getCell(14).getNumericCellValue());
+
+            final var events = workbook.getSheet("Events");
+            assertEquals(EVENT_DATE, events.getRow(1).getCell(0).getLocalDateTimeCellValue());
+            assertEquals("Talk", events.getRow(1).getCell(1).getStringCellValue());
+            assertEquals("Komunumo", events.getRow(1).getCell(2).getStringCellValue());
+            assertEquals(0.25, events.getRow(1).getCell(6).getNumericCellValue());
+
+            final var noShowRates = workbook.getSheet("No-show rates");
+            assertEquals(10, noShowRates.getRow(1).getCell(3).getNumericCellValue());
+            assertEquals(0.25, noShowRates.getRow(1).getCell(4).getNumericCellValue());
+
+            final var sources = workbook.getSheet("Registration sources");
+            assertEquals("BigMarker", sources.getRow(1).getCell(1).getStringCellValue());
+            assertEquals(40, sources.getRow(1).getCell(2).getNumericCellValue());
+
+            final var registrations = workbook.getSheet("Registrations");
+            assertEquals(42, registrations.getRow(1).getCell(3).getNumericCellValue());
+            assertEquals(EVENT_DATE.minusDays(7), registrations.getRow(1).getCell(4).getLocalDateTimeCellValue());
+            assertTrue(registrations.getRow(1).getCell(6).getBooleanCellValue());
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.Query;
+import org.jooq.conf.ParamType;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.komunumo.data.db.enums.EventType;
+import org.komunumo.data.entity.NoShows;
+import org.komunumo.ui.KaribuTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.komunumo.data.db.tables.Event.EVENT;
+import static org.komunumo.data.db.tables.Member.MEMBER;
+import static org.komunumo.data.db.tables.Registration.REGISTRATION;
+
+/**
+ * Makes sure the statistics queries on registrations use the covering index
+ * instead of scanning the whole table.
+ */
+class StatisticQueryPlanTest extends KaribuTest {
+
+    private static final String STATISTICS_INDEX = "registration_statistics";
+    private static final int FIRST_YEAR = 2019;
+    private static final int YEARS = 4;
+    private static final int EVENTS_PER_YEAR = 10;
+    private static final int MEMBERS = 100;
+
+    private static final List<Query> QUERIES = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class QueryCaptureConfiguration {
+
+        @Bean
+        DefaultExecuteListenerProvider queryCaptureListenerProvider() {
+            return new DefaultExecuteListenerProvider(new ExecuteListener() {
+                @Override
+                public void executeStart(@NotNull final ExecuteContext ctx) {
+                    if (ctx.query() != null) {
+                        QUERIES.add(ctx.query());
+                    }
+                }
+            });
+        }
+
+    }
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    @Autowired
+    private DSLContext dsl;
+
+    @BeforeEach
+    void createRegistrations() {
+        if (dsl.fetchCount(REGISTRATION) > 0) {
+            return;
+        }
+        final var memberIds = new long[MEMBERS];
+        for (int member = 0; member < MEMBERS; member++) {
+            memberIds[member] = dsl.insertInto(MEMBER)
+                    .set(MEMBER.FIRST_NAME, "First " + member)
+                    .set(MEMBER.LAST_NAME, "Last " + member)
+                    .set(MEMBER.EMAIL, "member%d@komunumo.org".formatted(member))
+                    .set(MEMBER.REGISTRATION_DATE, LocalDateTime.of(FIRST_YEAR, 1, 1, 0, 0))
+                    .returning(MEMBER.ID)
+                    .fetchOne(MEMBER.ID);
+        }
+        for (int year = FIRST_YEAR; year < FIRST_YEAR + YEARS; year++) {
+            for (int event = 0; event < EVENTS_PER_YEAR; event++) {
+                final var date = LocalDateTime.of(year, event + 1, 15, 18, 0);
+                final var eventId = dsl.insertInto(EVENT)
+                        .set(EVENT.TYPE, EventType.Talk)
+                        .set(EVENT.TITLE, "Event " + date)
+                        .set(EVENT.DATE, date)
+                        .set(EVENT.LOCATION, event % 2 == 0 ? "Bern" : "Zürich")
+                        .set(EVENT.PUBLISHED, true)
+                        .returning(EVENT.ID)
+                        .fetchOne(EVENT.ID);
+                final var insert = dsl.insertInto(REGISTRATION,
+                        REGISTRATION.EVENT_ID, REGISTRATION.MEMBER_ID, REGISTRATION.DATE, REGISTRATION.NO_SHOW);
+                for (int member = 0; member < MEMBERS; member++) {
+                    insert.values(eventId, memberIds[member], date.minusDays(member % 14), member % 7 == 0);
+                }
+                insert.execute();
+            }
+        }
+        dsl.execute("ANALYZE TABLE `registration`");
+    }
+
+    @Test
+    void countAttendeesByYearUsesIndex() {
+        final var year = Year.of(FIRST_YEAR + 1);
+        assertUsesStatisticsIndex(() -> assertEquals(EVENTS_PER_YEAR * MEMBERS,
+                databaseService.countAttendeesByYear(year, NoShows.INCLUDE)));
+        assertUsesStatisticsIndex(() -> databaseService.countAttendeesByYear(year, NoShows.ONLY));
+        assertUsesStatisticsIndex(() -> databaseService.countAttendeesByYear(year, NoShows.EXCLUDE));
+    }
+
+    @Test
+    void countUniqueAttendeesByYearUsesIndex() {
+        final var year = Year.of(FIRST_YEAR + 1);
+        assertUsesStatisticsIndex(() -> assertEquals(MEMBERS,
+                databaseService.countUniqueAttendeesByYear(year, NoShows.INCLUDE)));
+        assertUsesStatisticsIndex(() -> databaseService.countUniqueAttendeesByYear(year, NoShows.EXCLUDE));
+    }
+
+    private void assertUsesStatisticsIndex(@NotNull final Runnable statistics) {
+        QUERIES.clear();
+        statistics.run();
+        final var registrationQueries = QUERIES.stream()
+                .map(query -> query.getSQL(ParamType.INLINED))
+                .filter(sql -> sql.contains("`registration`"))
+                .toList();
+        assertFalse(registrationQueries.isEmpty(), "no query on the registration table captured");
+
+        for (final var sql : registrationQueries) {
+            final var plan = dsl.fetch("EXPLAIN " + sql);
+            for (final var row : plan) {
+                if ("registration".equals(row.get("table", String.class))) {
+                    assertEquals(STATISTICS_INDEX, row.get("key", String.class), () -> "unexpected plan for " + sql + "\n" + plan);
+                }
+            }
+        }
+    }
+
+}
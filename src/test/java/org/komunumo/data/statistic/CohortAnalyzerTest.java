@@ -0,0 +1,124 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.data.statistic;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Year;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CohortAnalyzerTest {
+
+    private static final Year Y2020 = Year.of(2020);
+    private static final Year Y2021 = Year.of(2021);
+    private static final Year Y2022 = Year.of(2022);
+
+    @Test
+    void emptyAnalysis() {
+        final var matrix = new CohortAnalyzer(Y2020, Y2022, 1, 1).getCohortMatrix();
+        assertEquals(Y2020, matrix.getFirstYear());
+        assertEquals(3, matrix.getYearCount());
+        assertEquals(0, matrix.getCohortSize(Y2020));
+        assertEquals(0.0, matrix.getRetentionRate(Y2020, 1));
+    }
+
+    @Test
+    void cohortsAndReturningMembers() {
+        final var analyzer = new CohortAnalyzer(Y2020, Y2022, 1, 1);
+        // member 1: 2020, twice in 2021
+        analyzer.add(1, 2020, 0, 0);
+        analyzer.add(1, 2021, 0, 0);
+        analyzer.add(1, 2021, 0, 0);
+        // member 2: 2020, 2022
+        analyzer.add(2, 2020, 0, 0);
+        analyzer.add(2, 2022, 0, 0);
+        // member 3: 2021, 2022
+        analyzer.add(3, 2021, 0, 0);
+        analyzer.add(3, 2022, 0, 0);
+        // member 4: only 2022
+        analyzer.add(4, 2022, 0, 0);
+
+        final var matrix = analyzer.getCohortMatrix();
+        assertEquals(2, matrix.getCohortSize(Y2020));
+        assertEquals(1, matrix.getReturning(Y2020, 1));
+        assertEquals(1, matrix.getReturning(Y2020, 2));
+        assertEquals(50.0, matrix.getRetentionRate(Y2020, 1));
+        assertEquals(1, matrix.getCohortSize(Y2021));
+        assertEquals(1, matrix.getReturning(Y2021, 1));
+        assertEquals(0, matrix.getReturning(Y2021, 2));
+        assertEquals(1, matrix.getCohortSize(Y2022));
+    }
+
+    @Test
+    void cohortsPerLocationAndEventType() {
+        final var analyzer = new CohortAnalyzer(Y2020, Y2022, 2, 2);
+        analyzer.add(1, 2020, 0, 0);
+        analyzer.add(1, 2021, 1, 1);
+        analyzer.add(1, 2022, 0, 1);
+
+        final var overall = analyzer.getCohortMatrix();
+        assertEquals(1, overall.getCohortSize(Y2020));
+        assertEquals(1, overall.getReturning(Y2020, 1));
+        assertEquals(1, overall.getReturning(Y2020, 2));
+
+        final var firstLocation = analyzer.getLocationCohortMatrix(0);
+        assertEquals(1, firstLocation.getCohortSize(Y2020));
+        assertEquals(0, firstLocation.getReturning(Y2020, 1));
+        assertEquals(1, firstLocation.getReturning(Y2020, 2));
+
+        final var secondLocation = analyzer.getLocationCohortMatrix(1);
+        assertEquals(0, secondLocation.getCohortSize(Y2020));
+        assertEquals(1, secondLocation.getCohortSize(Y2021));
+
+        final var secondEventType = analyzer.getEventTypeCohortMatrix(1);
+        assertEquals(1, secondEventType.getCohortSize(Y2021));
+        assertEquals(1, secondEventType.getReturning(Y2021, 1));
+    }
+
+    @Test
+    void yearsOutOfRangeAreIgnored() {
+        final var analyzer = new CohortAnalyzer(Y2021, Y2022, 1, 1);
+        analyzer.add(1, 2019, 0, 0);
+        analyzer.add(1, 2022, 0, 0);
+        analyzer.add(1, 2023, 0, 0);
+
+        final var matrix = analyzer.getCohortMatrix();
+        assertEquals(0, matrix.getCohortSize(Y2021));
+        assertEquals(1, matrix.getCohortSize(Y2022));
+        assertEquals(0, matrix.getReturning(Y2022, 1));
+    }
+
+    @Test
+    void unorderedMembersAreRejected() {
+        final var analyzer = new CohortAnalyzer(Y2020, Y2022, 1, 1);
+        analyzer.add(2, 2020, 0, 0);
+        assertThrows(IllegalStateException.class, () -> analyzer.add(1, 2020, 0, 0));
+    }
+
+    @Test
+    void tooManyYearsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CohortAnalyzer(Year.of(1900), Year.of(2000), 1, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CohortAnalyzer(Y2022, Y2020, 1, 1));
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.komunumo.data.statistic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    private static void assertEstimate(final long expected, final HyperLogLog sketch) {
+        final var estimate = sketch.estimate();
+        final var error = Math.abs(estimate - expected) / (double) expected;
+        assertTrue(error < 0.05, "estimate %d too far from %d".formatted(estimate, expected));
+    }
+
+    @Test
+    void emptySketch() {
+        final var sketch = new HyperLogLog();
+        assertTrue(sketch.isEmpty());
+        assertEquals(0, sketch.estimate());
+    }
+
+    @Test
+    void duplicatesAreCountedOnce() {
+        final var sketch = new HyperLogLog();
+        for (int i = 0; i < 10; i++) {
+            sketch.add(42L);
+        }
+        assertFalse(sketch.isEmpty());
+        assertEquals(1, sketch.estimate());
+    }
+
+    @Test
+    void smallCardinality() {
+        final var sketch = new HyperLogLog();
+        for (long id = 1; id <= 500; id++) {
+            sketch.add(id);
+        }
+        assertEstimate(500, sketch);
+    }
+
+    @Test
+    void largeCardinality() {
+        final var sketch = new HyperLogLog();
+        for (long id = 1; id <= 200_000; id++) {
+            sketch.add(id);
+        }
+        assertEstimate(200_000, sketch);
+    }
+
+    @Test
+    void mergeOverlappingSketches() {
+        final var first = new HyperLogLog();
+        final var second = new HyperLogLog();
+        for (long id = 1; id <= 30_000; id++) {
+            first.add(id);
+        }
+        for (long id = 20_001; id <= 50_000; id++) {
+            second.add(id);
+        }
+        assertEstimate(50_000, first.merge(second));
+    }
+
+    @Test
+    void serialization() {
+        final var sketch = new HyperLogLog();
+        for (long id = 1; id <= 1_000; id++) {
+            sketch.add(id);
+        }
+        final var bytes = sketch.toBytes();
+        assertEquals(HyperLogLog.REGISTER_COUNT, bytes.length);
+
+        final var restored = HyperLogLog.fromBytes(bytes);
+        assertEquals(sketch.estimate(), restored.estimate());
+        assertArrayEquals(bytes, restored.toBytes());
+    }
+
+    @Test
+    void invalidSerialization() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[10]));
+    }
+
+}
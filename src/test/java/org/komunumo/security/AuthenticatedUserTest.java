@@ -0,0 +1,102 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.security;
+
+import com.github.mvysny.kaributesting.v10.MockVaadin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.komunumo.data.entity.Member;
+import org.komunumo.data.service.CacheInvalidationBus;
+import org.komunumo.data.service.DatabaseService;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthenticatedUserTest {
+
+    private static final String EMAIL = "admin@example.org";
+
+    private DatabaseService databaseService;
+    private CacheInvalidationBus cacheInvalidationBus;
+    private AuthenticatedUser authenticatedUser;
+
+    @BeforeEach
+    void setUp() {
+        databaseService = mock(DatabaseService.class);
+        cacheInvalidationBus = new CacheInvalidationBus(databaseService);
+        authenticatedUser = new AuthenticatedUser(databaseService, cacheInvalidationBus);
+        MockVaadin.setup();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(EMAIL, "", List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        MockVaadin.tearDown();
+        cacheInvalidationBus.shutdown();
+    }
+
+    @Test
+    void memberIsCachedInSession() {
+        final var member = new Member();
+        member.setEmail(EMAIL);
+        when(databaseService.getMemberByEmail(EMAIL)).thenReturn(Optional.of(member));
+
+        assertSame(member, authenticatedUser.get().orElseThrow());
+        assertSame(member, authenticatedUser.get().orElseThrow());
+        assertSame(member, authenticatedUser.get().orElseThrow());
+        verify(databaseService, times(1)).getMemberByEmail(EMAIL);
+    }
+
+    @Test
+    void staleMemberIsReloaded() {
+        final var member = new Member();
+        member.setEmail(EMAIL);
+        when(databaseService.getMemberByEmail(EMAIL)).thenReturn(Optional.of(member));
+        authenticatedUser.get();
+
+        final var modifiedMember = new Member();
+        modifiedMember.setEmail(EMAIL);
+        when(databaseService.getMemberByEmail(EMAIL)).thenReturn(Optional.of(modifiedMember));
+        authenticatedUser.invalidate();
+
+        assertSame(modifiedMember, authenticatedUser.get().orElseThrow());
+        assertSame(modifiedMember, authenticatedUser.get().orElseThrow());
+        verify(databaseService, times(2)).getMemberByEmail(EMAIL);
+    }
+
+    @Test
+    void anonymousUserHasNoMember() {
+        SecurityContextHolder.clearContext();
+        assertTrue(authenticatedUser.get().isEmpty());
+        assertTrue(authenticatedUser.isAnonymous());
+    }
+
+}
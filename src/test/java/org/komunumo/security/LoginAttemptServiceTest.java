@@ -0,0 +1,141 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.komunumo.data.entity.LoginFailureCount;
+import org.komunumo.data.service.DatabaseService;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoginAttemptServiceTest {
+
+    private static final String IP = "192.0.2.1";
+    private static final String EMAIL = "user@example.org";
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 10, 15);
+
+    private DatabaseService databaseService;
+    private LoginAttemptService loginAttemptService;
+
+    @BeforeEach
+    void setUp() {
+        databaseService = mock(DatabaseService.class);
+        final var clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        loginAttemptService = new LoginAttemptService(databaseService, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loginAttemptService.shutdown();
+    }
+
+    @Test
+    void blockAccountBeforeFlush() {
+        for (int i = 0; i < LoginAttemptService.MAX_FAILURES_PER_ACCOUNT; i++) {
+            assertFalse(loginAttemptService.isBlocked(IP, EMAIL));
+            loginAttemptService.loginFailed(IP, EMAIL);
+        }
+        assertTrue(loginAttemptService.isBlocked(IP, EMAIL));
+        assertTrue(loginAttemptService.isBlocked(IP, EMAIL.toUpperCase()));
+        assertFalse(loginAttemptService.isBlocked(IP));
+        assertFalse(loginAttemptService.isBlocked(IP, "other@example.org"));
+    }
+
+    @Test
+    void accountIsIndependentOfDefaultLocale() {
+        final var defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            for (int i = 0; i < LoginAttemptService.MAX_FAILURES_PER_ACCOUNT; i++) {
+                loginAttemptService.loginFailed(IP, "ADMIN@EXAMPLE.ORG");
+            }
+            assertTrue(loginAttemptService.isBlocked(IP, "admin@example.org"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void flushFailuresInCurrentWindow() {
+        final var flushed = new Collection<?>[1];
+        doAnswer(invocation -> flushed[0] = invocation.getArgument(0))
+                .when(databaseService).addLoginFailures(anyCollection());
+
+        loginAttemptService.loginFailed(IP, EMAIL);
+        loginAttemptService.loginFailed(IP, EMAIL);
+        loginAttemptService.flush();
+
+        assertEquals(2, flushed[0].size());
+        final var windowStart = LocalDateTime.of(2024, 5, 1, 10, 0);
+        verify(databaseService).getBlockedLoginSubjects(eq("ip"), eq(LoginAttemptService.MAX_FAILURES_PER_IP),
+                eq(windowStart), eq(windowStart.minusHours(1)), eq(0.75), anyInt());
+        verify(databaseService).deleteLoginFailuresBefore(windowStart.minusHours(1));
+    }
+
+    @Test
+    void blockedByOtherNode() {
+        final var hash = new String[1];
+        doAnswer(invocation -> {
+            hash[0] = ((Collection<?>) invocation.getArgument(0)).stream()
+                    .map(LoginFailureCount.class::cast)
+                    .filter(failureCount -> failureCount.kind().equals("ip"))
+                    .findFirst().orElseThrow().subject();
+            return null;
+        }).when(databaseService).addLoginFailures(anyCollection());
+        loginAttemptService.loginFailed(IP, EMAIL);
+        loginAttemptService.flush();
+        assertFalse(loginAttemptService.isBlocked(IP));
+
+        when(databaseService.getBlockedLoginSubjects(eq("ip"), anyInt(), eq(NOW.withMinute(0)), eq(NOW.withMinute(0).minusHours(1)),
+                anyDouble(), anyInt())).thenReturn(Set.of(hash[0]));
+        loginAttemptService.flush();
+        assertTrue(loginAttemptService.isBlocked(IP));
+        assertTrue(loginAttemptService.isBlocked(IP, "other@example.org"));
+    }
+
+    @Test
+    void successResetsAccountOnly() {
+        for (int i = 0; i < LoginAttemptService.MAX_FAILURES_PER_IP; i++) {
+            loginAttemptService.loginFailed(IP, EMAIL);
+        }
+        loginAttemptService.loginSucceeded(IP, EMAIL);
+        assertTrue(loginAttemptService.isBlocked(IP));
+        assertFalse(loginAttemptService.isBlocked("192.0.2.2", EMAIL));
+    }
+
+}
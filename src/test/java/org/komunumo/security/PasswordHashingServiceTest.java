@@ -0,0 +1,93 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.komunumo.configuration.Configuration;
+import org.komunumo.data.service.DatabaseService;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHashingServiceTest {
+
+    private DatabaseService databaseService;
+    private PasswordHashingService passwordHashingService;
+
+    @BeforeEach
+    void setUp() {
+        databaseService = mock(DatabaseService.class);
+        configureCost("4");
+        passwordHashingService = new PasswordHashingService(databaseService, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    private void configureCost(final String cost) {
+        when(databaseService.configuration()).thenReturn(new Configuration(Map.of("security.password.cost", cost)));
+    }
+
+    @Test
+    void encodeAndMatch() {
+        final var hash = passwordHashingService.encode("secret");
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(passwordHashingService.matches("secret", hash));
+        assertFalse(passwordHashingService.matches("wrong", hash));
+        assertFalse(passwordHashingService.matches("secret", null));
+
+        final var statistics = passwordHashingService.getStatistics();
+        assertEquals(4, statistics.cost());
+        assertEquals(1, statistics.threads());
+        assertEquals(4, statistics.completed());
+        assertEquals(0, statistics.rejected());
+    }
+
+    @Test
+    void upgradeEncodingWhenCostChanges() {
+        final var hash = passwordHashingService.encode("secret");
+        assertFalse(passwordHashingService.upgradeEncoding(hash));
+        assertFalse(passwordHashingService.upgradeEncoding(null));
+
+        configureCost("5");
+        assertTrue(passwordHashingService.upgradeEncoding(hash));
+        assertTrue(passwordHashingService.matches("secret", hash));
+        assertTrue(passwordHashingService.encode("secret").startsWith("$2a$05$"));
+    }
+
+    @Test
+    void invalidCostIsLimited() {
+        configureCost("99");
+        assertEquals(14, passwordHashingService.getCost());
+        configureCost("1");
+        assertEquals(PasswordHashingService.MIN_COST, passwordHashingService.getCost());
+        configureCost("none");
+        assertEquals(PasswordHashingService.DEFAULT_COST, passwordHashingService.getCost());
+    }
+
+}
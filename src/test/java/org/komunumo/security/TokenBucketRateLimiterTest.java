@@ -0,0 +1,92 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTest {
+
+    private static final Duration PERIOD = Duration.ofHours(1);
+
+    private final AtomicLong now = new AtomicLong(42);
+    private final TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(2, now::get);
+
+    @Test
+    void burstUpToCapacity() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquire("a", 3, PERIOD));
+        }
+        assertFalse(rateLimiter.tryAcquire("a", 3, PERIOD));
+        assertTrue(rateLimiter.tryAcquire("b", 3, PERIOD));
+    }
+
+    @Test
+    void refillOverTime() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(rateLimiter.tryAcquire("a", 4, PERIOD));
+        }
+        assertFalse(rateLimiter.tryAcquire("a", 4, PERIOD));
+
+        now.addAndGet(PERIOD.dividedBy(4).toNanos());
+        assertTrue(rateLimiter.tryAcquire("a", 4, PERIOD));
+        assertFalse(rateLimiter.tryAcquire("a", 4, PERIOD));
+
+        now.addAndGet(PERIOD.toNanos());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(rateLimiter.tryAcquire("a", 4, PERIOD));
+        }
+        assertFalse(rateLimiter.tryAcquire("a", 4, PERIOD));
+    }
+
+    @Test
+    void disabledLimit() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(rateLimiter.tryAcquire("a", 0, PERIOD));
+        }
+        assertEquals(0, rateLimiter.size());
+    }
+
+    @Test
+    void evictFullBuckets() {
+        assertTrue(rateLimiter.tryAcquire("a", 1, PERIOD));
+        assertTrue(rateLimiter.tryAcquire("b", 1, PERIOD));
+        now.addAndGet(PERIOD.toNanos());
+        assertTrue(rateLimiter.tryAcquire("c", 1, PERIOD));
+        assertEquals(1, rateLimiter.size());
+        assertFalse(rateLimiter.tryAcquire("c", 1, PERIOD));
+    }
+
+    @Test
+    void keysAreLimitedWithoutFullBuckets() {
+        for (int i = 0; i < 100; i++) {
+            now.incrementAndGet();
+            assertTrue(rateLimiter.tryAcquire("key" + i, 1, PERIOD));
+            assertTrue(rateLimiter.size() <= 2);
+        }
+        assertFalse(rateLimiter.tryAcquire("key99", 1, PERIOD));
+    }
+
+}
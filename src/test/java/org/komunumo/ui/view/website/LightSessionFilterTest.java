@@ -0,0 +1,98 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.ui.view.website;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.komunumo.configuration.Configuration;
+import org.komunumo.data.service.DatabaseService;
+import org.komunumo.security.AuthenticatedUser;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LightSessionFilterTest {
+
+    private DatabaseService databaseService;
+    private FilterChain chain;
+    private LightSessionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        databaseService = mock(DatabaseService.class);
+        chain = mock(FilterChain.class);
+        filter = new LightSessionFilter(databaseService, mock(AuthenticatedUser.class));
+    }
+
+    private void setLightSessions(final boolean enabled) {
+        when(databaseService.configuration()).thenReturn(new Configuration(Map.of(
+                "website.session.light", Boolean.toString(enabled))));
+    }
+
+    private static MockHttpServletRequest heartbeat() {
+        final var request = new MockHttpServletRequest("POST", "/");
+        request.setParameter("v-r", "heartbeat");
+        request.setRequestedSessionId("dropped");
+        request.setRequestedSessionIdValid(false);
+        return request;
+    }
+
+    @Test
+    void heartbeatOfDroppedSessionIsAnsweredWithoutSession() throws IOException, ServletException {
+        setLightSessions(true);
+        final var request = heartbeat();
+        final var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        assertEquals(200, response.getStatus());
+        verify(chain, never()).doFilter(any(), any());
+        assertNull(request.getSession(false));
+    }
+
+    @Test
+    void heartbeatIsPassedOnWithoutLightSessions() throws IOException, ServletException {
+        setLightSessions(false);
+        final var request = heartbeat();
+        final var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    void heartbeatOfValidSessionIsPassedOn() throws IOException, ServletException {
+        setLightSessions(true);
+        final var request = heartbeat();
+        request.setRequestedSessionIdValid(true);
+        final var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        verify(chain).doFilter(request, response);
+    }
+
+}
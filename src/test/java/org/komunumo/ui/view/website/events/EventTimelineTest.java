@@ -0,0 +1,94 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.ui.view.website.events;
+
+import org.junit.jupiter.api.Test;
+import org.komunumo.data.entity.Event;
+import org.komunumo.data.service.DatabaseService;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventTimelineTest {
+
+    @Test
+    void renderOnlyTheFirstPage() {
+        final var firstPage = createEvents(0, 10);
+        final var databaseServiceMock = mock(DatabaseService.class);
+        when(databaseServiceMock.pastEventSummaries(eq(Year.of(2020)), isNull(), anyInt())).thenReturn(firstPage);
+
+        final var timeline = new EventTimeline(databaseServiceMock, Year.of(2020));
+
+        assertEquals(11, timeline.getChildren().count()); // ten previews and the "more events" button
+        verify(databaseServiceMock, times(1)).pastEventSummaries(any(), any(), anyInt());
+    }
+
+    @Test
+    void completeWithShortPage() {
+        final var databaseServiceMock = mock(DatabaseService.class);
+        when(databaseServiceMock.pastEventSummaries(isNull(), isNull(), anyInt())).thenReturn(createEvents(0, 3));
+
+        final var timeline = new EventTimeline(databaseServiceMock, null);
+
+        assertEquals(3, timeline.getChildren().count());
+    }
+
+    @Test
+    void emptyTimeline() {
+        final var databaseServiceMock = mock(DatabaseService.class);
+        when(databaseServiceMock.pastEventSummaries(isNull(), isNull(), anyInt())).thenReturn(List.of());
+
+        final var timeline = new EventTimeline(databaseServiceMock, null);
+
+        assertEquals(0, timeline.getChildren().count());
+    }
+
+    private static List<Event> createEvents(final int from, final int count) {
+        return IntStream.range(from, from + count)
+                .mapToObj(EventTimelineTest::createEvent)
+                .toList();
+    }
+
+    private static Event createEvent(final int number) {
+        final var event = new Event();
+        event.setId((long) number);
+        event.setTitle("Event " + number);
+        event.setSubtitle("");
+        event.setLocation("Online");
+        event.setDate(LocalDateTime.of(2020, 12, 1, 18, 0).minusDays(number));
+        event.setEventUrl("event-" + number);
+        event.setDescription("<p>Description of event %d.</p>".formatted(number));
+        event.setSpeakers(List.of());
+        event.setKeywords(List.of());
+        return event;
+    }
+
+}
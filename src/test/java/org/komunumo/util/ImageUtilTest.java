@@ -0,0 +1,151 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageUtilTest {
+
+    @Test
+    void readImage() throws IOException {
+        final var content = toPng(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB));
+        final var image = ImageUtil.readImage(content, 1_200).orElseThrow();
+        assertEquals(40, image.getWidth());
+        assertEquals(30, image.getHeight());
+    }
+
+    @Test
+    void readImageTooBig() throws IOException {
+        final var content = toPng(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB));
+        assertTrue(ImageUtil.readImage(content, 1_199).isEmpty());
+    }
+
+    @Test
+    void readImageSubsampled() throws IOException {
+        final var content = toPng(new BufferedImage(6_000, 4_000, BufferedImage.TYPE_BYTE_BINARY));
+        final var image = ImageUtil.readImage(content, Long.MAX_VALUE, 200, 200).orElseThrow();
+        // every 15th pixel is decoded, the image still has twice the size needed for 200 x 200
+        assertEquals(400, image.getWidth());
+        assertEquals(267, image.getHeight());
+        final var scaled = ImageUtil.scaleToFit(image, 200, 200);
+        assertEquals(200, scaled.getWidth());
+        assertEquals(134, scaled.getHeight());
+    }
+
+    @Test
+    void readImageNotSubsampled() throws IOException {
+        final var content = toPng(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB));
+        final var image = ImageUtil.readImage(content, Long.MAX_VALUE, 30, 30).orElseThrow();
+        assertEquals(40, image.getWidth());
+        assertEquals(30, image.getHeight());
+    }
+
+    @Test
+    void readImageUnsupported() throws IOException {
+        final var content = "<svg xmlns=\"http://www.w3.org/2000/svg\"/>".getBytes(StandardCharsets.UTF_8);
+        assertTrue(ImageUtil.readImage(content, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void safeContentType() {
+        assertEquals("image/png", ImageUtil.safeContentType("image/png"));
+        assertEquals("image/jpeg", ImageUtil.safeContentType(" Image/JPG; charset=binary"));
+        assertEquals(ImageUtil.BINARY_CONTENT_TYPE, ImageUtil.safeContentType("image/svg+xml"));
+        assertEquals(ImageUtil.BINARY_CONTENT_TYPE, ImageUtil.safeContentType("text/html"));
+        assertEquals(ImageUtil.BINARY_CONTENT_TYPE, ImageUtil.safeContentType("no/valid type;;"));
+        assertEquals(ImageUtil.BINARY_CONTENT_TYPE, ImageUtil.safeContentType(null));
+    }
+
+    @Test
+    void scaleToFitLandscape() {
+        final var image = ImageUtil.scaleToFit(new BufferedImage(1_600, 800, BufferedImage.TYPE_INT_RGB), 200, 200);
+        assertEquals(200, image.getWidth());
+        assertEquals(100, image.getHeight());
+    }
+
+    @Test
+    void scaleToFitPortrait() {
+        final var image = ImageUtil.scaleToFit(new BufferedImage(300, 900, BufferedImage.TYPE_INT_RGB), 352, 480);
+        assertEquals(160, image.getWidth());
+        assertEquals(480, image.getHeight());
+    }
+
+    @Test
+    void scaleToFitAlreadySmall() {
+        final var original = new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB);
+        assertSame(original, ImageUtil.scaleToFit(original, 200, 200));
+    }
+
+    @Test
+    void scaleToFitKeepsTransparency() {
+        final var image = ImageUtil.scaleToFit(new BufferedImage(800, 800, BufferedImage.TYPE_INT_ARGB), 200, 200);
+        assertTrue(image.getColorModel().hasAlpha());
+    }
+
+    @Test
+    void encodeImageOpaque() throws IOException {
+        final var encoded = ImageUtil.encodeImage(new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB));
+        assertEquals("image/jpeg", encoded.contentType());
+        assertNotNull(ImageIO.read(new ByteArrayInputStream(encoded.content())));
+    }
+
+    @Test
+    void encodeImageTransparent() throws IOException {
+        final var encoded = ImageUtil.encodeImage(new BufferedImage(100, 50, BufferedImage.TYPE_INT_ARGB));
+        assertEquals("image/png", encoded.contentType());
+        assertNotNull(ImageIO.read(new ByteArrayInputStream(encoded.content())));
+    }
+
+    @Test
+    @SuppressWarnings("PMD.AvoidAccessibilityAlteration") // this is exactly what we want to test
+    void privateConstructorWithException() {
+        final var cause = assertThrows(InvocationTargetException.class, () -> {
+            Constructor<ImageUtil> constructor = ImageUtil.class.getDeclaredConstructor();
+            if (Modifier.isPrivate(constructor.getModifiers())) {
+                constructor.setAccessible(true);
+                constructor.newInstance();
+            }
+        }).getCause();
+        assertTrue(cause instanceof IllegalStateException);
+        assertEquals("Utility class", cause.getMessage());
+    }
+
+    private static byte[] toPng(final BufferedImage image) throws IOException {
+        final var output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+
+}
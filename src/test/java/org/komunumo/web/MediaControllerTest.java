@@ -0,0 +1,94 @@
+/*
+ * Komunumo - Open Source Community Manager
+ * Copyright (C) Marcus Fihlon and the individual contributors to Komunumo.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.komunumo.web;
+
+import org.junit.jupiter.api.Test;
+import org.komunumo.data.entity.ImageVariant;
+import org.komunumo.data.entity.Media;
+import org.komunumo.data.service.DatabaseService;
+import org.komunumo.data.service.ImageService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MediaControllerTest {
+
+    private static final String INVALID_HASH = "not a hash";
+    private static final String HASH = "0123456789abcdef".repeat(4);
+    private static final byte[] CONTENT = {1, 2, 3};
+
+    private final DatabaseService databaseService = mock(DatabaseService.class);
+    private final ImageService imageService = mock(ImageService.class);
+    private final MediaController mediaController = new MediaController(databaseService, imageService);
+
+    @Test
+    void invalidHashIsNotFound() {
+        final var response = mediaController.getMedia(INVALID_HASH, "\"" + INVALID_HASH + "\"");
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(databaseService, never()).getMedia(anyString());
+    }
+
+    @Test
+    void invalidHashOfImageVariantIsNotFound() {
+        final var response = mediaController.getImageVariant(INVALID_HASH, "thumbnail", null);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(imageService, never()).getImageVariant(anyString(), any());
+    }
+
+    @Test
+    void imageIsServedInline() {
+        when(databaseService.getMedia(HASH)).thenReturn(Optional.of(new Media(HASH, "image/png", CONTENT)));
+        final var response = mediaController.getMedia(HASH, null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.IMAGE_PNG, response.getHeaders().getContentType());
+        assertEquals("nosniff", response.getHeaders().getFirst("X-Content-Type-Options"));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+    }
+
+    @Test
+    void scriptableMediaIsServedAsDownload() {
+        when(databaseService.getMedia(HASH)).thenReturn(Optional.of(new Media(HASH, "image/svg+xml", CONTENT)));
+        final var response = mediaController.getMedia(HASH, null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_OCTET_STREAM, response.getHeaders().getContentType());
+        assertEquals("nosniff", response.getHeaders().getFirst("X-Content-Type-Options"));
+        assertEquals("attachment", response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+    }
+
+    @Test
+    void invalidContentTypeIsServedAsDownload() {
+        when(imageService.getImageVariant(HASH, ImageVariant.THUMBNAIL)).thenReturn(Optional.of(new Media(HASH, "no/valid type;;", CONTENT)));
+        final var response = mediaController.getImageVariant(HASH, ImageVariant.THUMBNAIL.getName(), null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_OCTET_STREAM, response.getHeaders().getContentType());
+        assertEquals("attachment", response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+    }
+
+}